@@ -0,0 +1,123 @@
+package com.project.G1_T3.common.geo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the haversine formula on raw coordinates with the unit vector
+ * kernel of {@link GeoPoint} and {@link GeoRadius}, both for the distance
+ * itself and for the "within N km" check matchmaking makes for every
+ * candidate.
+ *
+ * <p>
+ * Pairs are spread around Singapore with {@code spreadKm} between them, so
+ * with the default 2 km radius a small spread puts most pairs inside the
+ * radius and a large one puts most outside. Before measuring, the setup
+ * checks the kernel against the haversine formula on every pair and prints
+ * the largest distance error and the number of pairs the two radius checks
+ * disagree on, and fails the run if they disagree at all.
+ *
+ * <p>
+ * Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="DistanceKernelBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(DistanceKernelBenchmark.PAIRS)
+public class DistanceKernelBenchmark {
+
+    static final int PAIRS = 4096;
+
+    private static final double RADIUS_KM = 2.0;
+
+    @Param({ "1", "4", "100" })
+    private double spreadKm;
+
+    private final double[] fromLatitudes = new double[PAIRS];
+    private final double[] fromLongitudes = new double[PAIRS];
+    private final double[] toLatitudes = new double[PAIRS];
+    private final double[] toLongitudes = new double[PAIRS];
+    private final GeoPoint[] from = new GeoPoint[PAIRS];
+    private final GeoPoint[] to = new GeoPoint[PAIRS];
+    private final GeoRadius radius = new GeoRadius(RADIUS_KM);
+
+    @Setup(Level.Trial)
+    public void createPairs() {
+        Random random = new Random(42);
+        double spreadDegrees = GeoDistance.latitudeSpanDegrees(spreadKm);
+        for (int i = 0; i < PAIRS; i++) {
+            fromLatitudes[i] = 1.25 + random.nextDouble() * 0.2;
+            fromLongitudes[i] = 103.7 + random.nextDouble() * 0.3;
+            toLatitudes[i] = fromLatitudes[i] + random.nextGaussian() * spreadDegrees;
+            toLongitudes[i] = fromLongitudes[i] + random.nextGaussian() * spreadDegrees;
+            from[i] = new GeoPoint(fromLatitudes[i], fromLongitudes[i]);
+            to[i] = new GeoPoint(toLatitudes[i], toLongitudes[i]);
+        }
+        checkAccuracy();
+    }
+
+    private void checkAccuracy() {
+        double maxErrorKm = 0;
+        int disagreements = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            double haversine = GeoDistance.haversineKm(fromLatitudes[i], fromLongitudes[i], toLatitudes[i],
+                    toLongitudes[i]);
+            maxErrorKm = Math.max(maxErrorKm, Math.abs(haversine - from[i].distanceKm(to[i])));
+            if ((haversine <= RADIUS_KM) != radius.contains(from[i], to[i])) {
+                disagreements++;
+            }
+        }
+        System.out.printf("spreadKm=%s: max distance error %.3e km, %d radius disagreements%n", spreadKm,
+                maxErrorKm, disagreements);
+        if (disagreements > 0) {
+            throw new IllegalStateException(disagreements + " pairs were classified differently");
+        }
+    }
+
+    @Benchmark
+    public double haversineDistance() {
+        double sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += GeoDistance.haversineKm(fromLatitudes[i], fromLongitudes[i], toLatitudes[i], toLongitudes[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double chordDistance() {
+        double sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += from[i].distanceKm(to[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int haversineWithinRadius() {
+        int within = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            if (GeoDistance.haversineKm(fromLatitudes[i], fromLongitudes[i], toLatitudes[i],
+                    toLongitudes[i]) <= RADIUS_KM) {
+                within++;
+            }
+        }
+        return within;
+    }
+
+    @Benchmark
+    public int chordWithinRadius() {
+        int within = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            if (radius.contains(from[i], to[i])) {
+                within++;
+            }
+        }
+        return within;
+    }
+}
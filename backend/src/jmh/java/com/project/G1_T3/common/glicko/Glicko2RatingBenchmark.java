@@ -0,0 +1,73 @@
+package com.project.G1_T3.common.glicko;
+
+import com.project.G1_T3.common.benchmark.SyntheticPlayers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Glicko2Rating#updateRating(List)}, which runs for both
+ * players of every completed match.
+ *
+ * <p>
+ * Players and opponents come from {@link SyntheticPlayers}, and the scores
+ * follow the expected outcome of each pairing with a few upsets and draws, so
+ * the volatility iteration sees the mix of easy and slow-converging updates
+ * real results give it. {@code games} is the number of results in one rating
+ * period: a single match is the common case, a tournament day the heavy one.
+ *
+ * <p>
+ * Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="Glicko2RatingBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class Glicko2RatingBenchmark {
+
+    private static final int PERIODS = 1024;
+
+    @Param({ "1", "10" })
+    private int games;
+
+    private final double[] ratings = new double[PERIODS];
+    private final double[] deviations = new double[PERIODS];
+    private final List<List<Glicko2Result>> results = new ArrayList<>(PERIODS);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticPlayers generator = new SyntheticPlayers(42);
+        Random random = generator.random();
+        for (int i = 0; i < PERIODS; i++) {
+            ratings[i] = generator.nextRating();
+            deviations[i] = generator.nextDeviation();
+
+            List<Glicko2Result> period = new ArrayList<>(games);
+            for (int j = 0; j < games; j++) {
+                double opponentRating = generator.nextRating();
+                double expected = 1 / (1 + Math.pow(10, (opponentRating - ratings[i]) / 400));
+                double roll = random.nextDouble();
+                double score = roll < 0.05 ? 0.5 : roll < 0.05 + 0.95 * expected ? 1.0 : 0.0;
+                period.add(new Glicko2Result(opponentRating, generator.nextDeviation(), score));
+            }
+            results.add(period);
+        }
+    }
+
+    @Benchmark
+    public Glicko2Rating updateRating() {
+        int i = next;
+        next = (next + 1) % PERIODS;
+
+        Glicko2Rating rating = new Glicko2Rating(ratings[i], deviations[i], 0.06);
+        rating.updateRating(results.get(i));
+        return rating;
+    }
+}
@@ -0,0 +1,68 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.benchmark.SyntheticPlayers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link LocationServiceImpl#calculateDistance(double, double, double, double)},
+ * the checked haversine distance the algorithms and meeting point code call
+ * with raw coordinates.
+ *
+ * <p>
+ * Pairs come from {@link SyntheticPlayers}. With {@code sameCity} both ends
+ * are in the same city, the pairs matchmaking actually compares. With
+ * {@code anyCity} each end picks its own city, so most pairs are thousands of
+ * kilometres apart. {@code DistanceKernelBenchmark} compares the formula with
+ * the unit vector kernel; this one tracks the service method itself.
+ *
+ * <p>
+ * Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="LocationServiceBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(LocationServiceBenchmark.PAIRS)
+public class LocationServiceBenchmark {
+
+    static final int PAIRS = 4096;
+
+    @Param({ "sameCity", "anyCity" })
+    private String pairing;
+
+    private final LocationServiceImpl locationService = new LocationServiceImpl();
+    private final double[] fromLatitudes = new double[PAIRS];
+    private final double[] fromLongitudes = new double[PAIRS];
+    private final double[] toLatitudes = new double[PAIRS];
+    private final double[] toLongitudes = new double[PAIRS];
+
+    @Setup(Level.Trial)
+    public void createPairs() {
+        SyntheticPlayers generator = new SyntheticPlayers(42);
+        boolean sameCity = "sameCity".equals(pairing);
+        for (int i = 0; i < PAIRS; i++) {
+            SyntheticPlayers.City city = generator.nextCity();
+            double[] from = generator.nextLocation(city);
+            double[] to = sameCity ? generator.nextLocation(city) : generator.nextLocation();
+            fromLatitudes[i] = from[0];
+            fromLongitudes[i] = from[1];
+            toLatitudes[i] = to[0];
+            toLongitudes[i] = to[1];
+        }
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        double sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += locationService.calculateDistance(fromLatitudes[i], fromLongitudes[i], toLatitudes[i],
+                    toLongitudes[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,127 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.benchmark.SyntheticPlayers;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchBand;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link MatchmakingKDTree} operations the queue makes, on
+ * players from {@link SyntheticPlayers}: clustered around cities, so the tree
+ * is lopsided the way a real queue is rather than evenly filled.
+ *
+ * <ul>
+ * <li>{@code findKNearest}: one candidate search with the default Glicko
+ * thresholds</li>
+ * <li>{@code churn}: one player leaves and another joins, at a constant queue
+ * size, including the scapegoat and tombstone rebuilds that amortise over
+ * many of them</li>
+ * <li>{@code insertAll} and {@code removeAll}: building the whole tree one
+ * player at a time and emptying it again, single shot</li>
+ * </ul>
+ *
+ * <p>
+ * Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="MatchmakingKDTreeBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchmakingKDTreeBenchmark {
+
+    private static final int K_NEIGHBORS = 5;
+
+    @Param({ "1000", "10000", "100000" })
+    private int players;
+
+    private QueuedPlayer[] queued;
+    private QueuedPlayer[] spare;
+    private MatchmakingKDTree tree;
+    private SearchBand band;
+    private NearestCandidates candidates;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticPlayers generator = new SyntheticPlayers(42);
+        queued = generator.nextQueuedPlayers(players);
+        spare = generator.nextQueuedPlayers(players);
+
+        tree = new MatchmakingKDTree();
+        for (QueuedPlayer player : queued) {
+            tree.insert(player);
+        }
+
+        GlickoMatchmaking glicko = new GlickoMatchmaking(new LocationServiceImpl());
+        band = new SearchBand(glicko.getIndexCriteria(glicko.getSearchCriteria()));
+        candidates = new NearestCandidates(K_NEIGHBORS + 1);
+    }
+
+    @Benchmark
+    public void findKNearest(Blackhole blackhole) {
+        candidates.reset(K_NEIGHBORS + 1);
+        tree.findKNearest(queued[next], band, candidates);
+        next = (next + 1) % queued.length;
+        blackhole.consume(candidates.size());
+    }
+
+    @Benchmark
+    public void churn() {
+        // Swap a queued player for a spare one, so the queue keeps its size
+        QueuedPlayer leaving = queued[next];
+        tree.remove(leaving);
+        tree.insert(spare[next]);
+        queued[next] = spare[next];
+        spare[next] = leaving;
+        next = (next + 1) % queued.length;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public int insertAll() {
+        MatchmakingKDTree empty = new MatchmakingKDTree();
+        for (QueuedPlayer player : queued) {
+            empty.insert(player);
+        }
+        return empty.size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public int removeAll(FullTree full) {
+        for (QueuedPlayer player : full.players) {
+            full.tree.remove(player);
+        }
+        return full.tree.size();
+    }
+
+    /**
+     * A freshly built tree for every {@code removeAll} invocation.
+     */
+    @State(Scope.Thread)
+    public static class FullTree {
+        QueuedPlayer[] players;
+        MatchmakingKDTree tree;
+
+        @Setup(Level.Invocation)
+        public void fill(MatchmakingKDTreeBenchmark benchmark) {
+            players = benchmark.queued;
+            tree = new MatchmakingKDTree();
+            for (QueuedPlayer player : players) {
+                tree.insert(player);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchBand;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single candidate search on a populated index into the reusable
+ * {@link NearestCandidates} buffer the queue searches with.
+ *
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}, which adds the GC
+ * profiler. {@code gc.alloc.rate.norm} (bytes per search) should stay the
+ * same across {@code players}: a search allocates a few objects of its own,
+ * and nothing for the candidates it looks at.
+ *
+ * <p>
+ * All players share the same city, so {@code players} sets how crowded each
+ * cell is. Comparing {@code reusableBuffer} for both index types across that
+ * parameter shows the crossover: the geocell scan wins while cells are small,
+ * the KD-tree's pruning pays off once a cell's rating window holds enough
+ * players.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchmakingSearchBenchmark {
+
+    private static final int K_NEIGHBORS = 5;
+
+    @Param({ "geocell", "kdtree" })
+    private String indexType;
+
+    @Param({ "1000", "10000", "100000" })
+    private int players;
+
+    private MatchmakingIndex index;
+    private QueuedPlayer[] targets;
+    private SearchBand band;
+    private NearestCandidates candidates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = "kdtree".equals(indexType) ? new MatchmakingKDTree() : new GeoCellIndex(2.0);
+        targets = new QueuedPlayer[players];
+
+        // Players around Singapore, dense enough that every search fills its k slots
+        Random random = new Random(42);
+        for (int i = 0; i < players; i++) {
+            targets[i] = createPlayer(1200 + random.nextDouble() * 600, 50 + random.nextDouble() * 100,
+                    1.25 + random.nextDouble() * 0.2, 103.7 + random.nextDouble() * 0.3);
+            index.insert(targets[i]);
+        }
+
+        band = new SearchBand(new SearchCriteria(300, 100, 10.0));
+        candidates = new NearestCandidates(K_NEIGHBORS);
+    }
+
+    @Benchmark
+    public void reusableBuffer(Blackhole blackhole) {
+        candidates.reset(K_NEIGHBORS);
+        index.findKNearest(nextTarget(), band, candidates);
+        candidates.sortByCost();
+        blackhole.consume(candidates.getPlayer(0));
+    }
+
+    private QueuedPlayer nextTarget() {
+        QueuedPlayer target = targets[next];
+        next = (next + 1) % targets.length;
+        return target;
+    }
+
+    private static QueuedPlayer createPlayer(double rating, double rd, double lat, double lon) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlayerProfile profile = new PlayerProfile();
+        profile.setUser(user);
+        profile.setGlickoRating(rating);
+        profile.setRatingDeviation((float) rd);
+        return new QueuedPlayer(profile, lat, lon);
+    }
+}
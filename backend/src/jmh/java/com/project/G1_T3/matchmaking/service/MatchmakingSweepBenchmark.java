@@ -0,0 +1,88 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one matchmaking tick, a full fallback pass over a freshly filled
+ * queue, through the loop {@code MatchmakingServiceImpl.findMatches} used to
+ * run and through {@link PlayerQueue#sweep} which it calls now.
+ *
+ * <p>
+ * The old loop copies every player out of the queue, sorts the copy, and
+ * looks each player up twice more before searching for them. The sweep walks
+ * the queue's own slots in join order and skips players already matched in
+ * the pass by their state.
+ *
+ * <p>
+ * Every invocation starts from the same queue, so the tick includes the
+ * matches it makes. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="MatchmakingSweepBenchmark"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchmakingSweepBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    private int players;
+
+    private final MatchmakingStrategyRegistry strategies = new MatchmakingStrategyRegistry(
+            List.of(new GlickoMatchmaking(new LocationServiceImpl())), "glicko");
+
+    private List<QueuedPlayer> waiting;
+    private PlayerQueueImpl queue;
+
+    @Setup(Level.Trial)
+    public void createPlayers() {
+        // Players around Singapore who joined over the last ten minutes
+        Random random = new Random(42);
+        Instant now = Instant.now();
+        waiting = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            waiting.add(new QueuedPlayer(UUID.randomUUID(), UUID.randomUUID(), 1200 + random.nextDouble() * 600,
+                    50 + random.nextDouble() * 100, 0.06, 0, 1.25 + random.nextDouble() * 0.2,
+                    103.7 + random.nextDouble() * 0.3, now.minusMillis(random.nextInt(600_000))));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillQueue() {
+        queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        queue.addPlayers(waiting);
+    }
+
+    @Benchmark
+    public int copyAndSort() {
+        int matches = 0;
+        List<QueuedPlayer> snapshot = queue.getAllPlayers();
+        snapshot.sort(Comparator.comparing(QueuedPlayer::getJoinTime));
+        for (QueuedPlayer player : snapshot) {
+            if (!queue.containsPlayer(player.getUserId())) {
+                continue;
+            }
+            if (queue.findFallbackMatch(player) != null) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int sweep() {
+        int[] matches = new int[1];
+        queue.sweep((player, match) -> matches[0]++);
+        return matches[0];
+    }
+}
@@ -0,0 +1,101 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.benchmark.SyntheticPlayers;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PlayerQueueImpl#findMatch(QueuedPlayer)}, the instant match
+ * attempt every join makes, on a queue of players from
+ * {@link SyntheticPlayers}.
+ *
+ * <ul>
+ * <li>{@code findMatch}: a queued player looks for an opponent. Most
+ * attempts succeed, and both players are queued again straight away so the
+ * queue keeps its size, so this includes two joins</li>
+ * <li>{@code findMatchNoOpponent}: a player rated far above everyone else in
+ * the busiest city looks and finds nobody, which leaves the queue as it
+ * was</li>
+ * </ul>
+ *
+ * <p>
+ * Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="PlayerQueueBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerQueueBenchmark {
+
+    @Param({ "geocell", "kdtree" })
+    private String indexType;
+
+    @Param({ "1000", "10000", "100000" })
+    private int players;
+
+    private final MatchmakingStrategyRegistry strategies = new MatchmakingStrategyRegistry(
+            List.of(new GlickoMatchmaking(new LocationServiceImpl())), "glicko");
+
+    private PlayerProfile[] profiles;
+    private double[][] locations;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private PlayerQueueImpl queue;
+    private QueuedPlayer outlier;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticPlayers generator = new SyntheticPlayers(42);
+        MatchmakingIndex index = "kdtree".equals(indexType) ? new MatchmakingKDTree() : new GeoCellIndex(2.0);
+        queue = new PlayerQueueImpl(index, strategies);
+
+        profiles = new PlayerProfile[players];
+        locations = new double[players][];
+        for (int i = 0; i < players; i++) {
+            profiles[i] = generator.nextProfile();
+            locations[i] = generator.nextLocation();
+            slots.put(profiles[i].getUser().getUserId(), i);
+            queue.addPlayer(profiles[i], locations[i][0], locations[i][1]);
+        }
+
+        PlayerProfile outlierProfile = generator.nextProfile();
+        outlierProfile.setGlickoRating(4000);
+        double[] centre = generator.nextLocation(SyntheticPlayers.CITIES.get(0));
+        queue.addPlayer(outlierProfile, centre[0], centre[1]);
+        outlier = queue.getPlayer(outlierProfile.getUser().getUserId());
+    }
+
+    @Benchmark
+    public QueuedPlayer findMatch() {
+        PlayerProfile profile = profiles[next];
+        next = (next + 1) % profiles.length;
+
+        QueuedPlayer player = queue.getPlayer(profile.getUser().getUserId());
+        QueuedPlayer opponent = queue.findMatch(player);
+        if (opponent != null) {
+            rejoin(player);
+            rejoin(opponent);
+        }
+        return opponent;
+    }
+
+    @Benchmark
+    public QueuedPlayer findMatchNoOpponent() {
+        return queue.findMatch(outlier);
+    }
+
+    private void rejoin(QueuedPlayer player) {
+        int slot = slots.get(player.getUserId());
+        queue.addPlayer(profiles[slot], locations[slot][0], locations[slot][1]);
+    }
+}
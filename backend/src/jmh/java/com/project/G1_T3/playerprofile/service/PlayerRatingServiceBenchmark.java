@@ -0,0 +1,147 @@
+package com.project.G1_T3.playerprofile.service;
+
+import com.project.G1_T3.common.benchmark.SyntheticPlayers;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.playerprofile.model.ProfileRating;
+import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rating buckets behind the leaderboard: moving a player after a
+ * rating change, and the rank and top ten queries profile pages and the
+ * leaderboard make.
+ *
+ * <p>
+ * The service is loaded the way it is on startup, from a repository that
+ * returns {@code players} profiles from {@link SyntheticPlayers}. Rating
+ * changes are small steps from the player's current rating, like the ones
+ * matches produce. {@code reconcile} reads every rating again, as the
+ * periodic reconciliation does.
+ *
+ * <p>
+ * The {@code mixed} group runs one thread applying rating changes against
+ * three threads asking for ranks, which shows how much the write lock holds
+ * the readers up. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="PlayerRatingServiceBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class PlayerRatingServiceBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int players;
+
+    private PlayerRatingService service;
+    private UUID[] playerIds;
+    private int[] ratings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticPlayers generator = new SyntheticPlayers(42);
+        List<PlayerProfile> profiles = new ArrayList<>(players);
+        playerIds = new UUID[players];
+        ratings = new int[players];
+        for (int i = 0; i < players; i++) {
+            PlayerProfile profile = generator.nextProfile();
+            profiles.add(profile);
+            playerIds[i] = profile.getProfileId();
+            ratings[i] = Math.round(profile.getGlickoRating());
+        }
+
+        service = new PlayerRatingService();
+        ReflectionTestUtils.setField(service, "playerProfileRepository", repositoryOf(profiles));
+        service.reconcile();
+    }
+
+    /**
+     * Where each thread is in the players, so threads of a group do not share
+     * a cursor.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        final Random random = new Random(Thread.currentThread().getId());
+        int next;
+
+        int next(int bound) {
+            int current = next;
+            next = (next + 1) % bound;
+            return current;
+        }
+    }
+
+    @Benchmark
+    public void updateRating(Cursor cursor) {
+        applyRatingChange(cursor);
+    }
+
+    @Benchmark
+    public int rank(Cursor cursor) {
+        return service.getNumberOfPlayersAhead(ratings[cursor.next(players)]);
+    }
+
+    @Benchmark
+    public List<UUID> top10() {
+        return service.getTop10Players();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public int reconcile() {
+        service.reconcile();
+        return service.getTotalPlayers();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedUpdate(Cursor cursor) {
+        applyRatingChange(cursor);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public int mixedRank(Cursor cursor) {
+        return service.getNumberOfPlayersAhead(ratings[cursor.next(players)]);
+    }
+
+    // Only ever called from one thread at a time, so the ratings stay in step with the buckets
+    private void applyRatingChange(Cursor cursor) {
+        int i = cursor.next(players);
+        int oldRating = ratings[i];
+        int newRating = Math.max(100, Math.min(2900, oldRating + (int) Math.round(cursor.random.nextGaussian() * 15)));
+        service.updateRating(playerIds[i], oldRating, newRating);
+        ratings[i] = newRating;
+    }
+
+    private static PlayerProfileRepository repositoryOf(List<PlayerProfile> profiles) {
+        return (PlayerProfileRepository) Proxy.newProxyInstance(PlayerProfileRepository.class.getClassLoader(),
+                new Class<?>[] { PlayerProfileRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("streamAllRatings")) {
+                        return profiles.stream()
+                                .map(profile -> new ProfileRating(profile.getProfileId(), profile.getGlickoRating()));
+                    }
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.getName().equals("toString") ? "PlayerProfileRepository"
+                                : method.getName().equals("hashCode") ? System.identityHashCode(proxy)
+                                        : proxy == args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,72 @@
+package com.project.G1_T3.authentication.filter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import com.project.G1_T3.authentication.service.JwtService;
+import com.project.G1_T3.user.model.CustomUserDetails;
+import com.project.G1_T3.user.service.CustomUserDetailsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authenticates STOMP sessions with the same bearer token as HTTP requests.
+ * A valid {@code Authorization} header on the CONNECT frame makes the user the
+ * session's principal, named by their user id, so messages sent to
+ * {@code /user/{userId}/...} reach them. Matchmaking only knows waiting players
+ * by id, so it can address them without looking up their username. Sessions
+ * without a valid token stay anonymous.
+ */
+@Slf4j
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return message;
+        }
+
+        try {
+            final String token = authHeader.substring(7);
+            final String username = jwtService.extractUsername(token);
+
+            if (username != null) {
+                CustomUserDetails userDetails = applicationContext.getBean(CustomUserDetailsService.class)
+                        .loadUserByUsername(username);
+
+                if (jwtService.isTokenValid(token, userDetails)) {
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(
+                            userDetails.getUser().getUserId().toString(),
+                            null,
+                            userDetails.getAuthorities()));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error processing JWT token on STOMP connect", e);
+        }
+
+        return message;
+    }
+}
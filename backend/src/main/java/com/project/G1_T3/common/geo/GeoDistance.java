@@ -0,0 +1,108 @@
+package com.project.G1_T3.common.geo;
+
+/**
+ * Great-circle distance helpers shared by the matchmaking code.
+ *
+ * <p>
+ * Besides the haversine distance itself, this class converts a radius in
+ * kilometres into the latitude and longitude spans that any point within that
+ * radius must fall into. Spatial indexes use these spans to prune their
+ * latitude and longitude axes without mixing degrees and kilometres.
+ *
+ * <p>
+ * It also converts between great-circle distances and squared chord lengths,
+ * the straight-line distance through the Earth between two {@link GeoPoint}
+ * unit vectors. See {@link GeoPoint} and {@link GeoRadius}.
+ */
+public final class GeoDistance {
+    public static final double EARTH_RADIUS_KM = 6371.0; // Mean radius of the Earth in kilometres
+
+    private GeoDistance() {
+    }
+
+    /**
+     * Calculates the great-circle distance between two points using the
+     * haversine formula.
+     *
+     * @param lat1 Latitude of the first point in degrees
+     * @param lon1 Longitude of the first point in degrees
+     * @param lat2 Latitude of the second point in degrees
+     * @param lon2 Longitude of the second point in degrees
+     * @return The distance between the two points in kilometres
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Converts a squared chord length between two unit vectors into the
+     * great-circle distance between them. This is the haversine formula with
+     * the chord in place of the sines, so it is exact.
+     *
+     * @param chordSquared the squared chord length, between 0 and 4
+     * @return the distance in kilometres
+     */
+    public static double chordSquaredToKm(double chordSquared) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(chordSquared) / 2));
+    }
+
+    /**
+     * Converts a great-circle distance into the squared chord length between
+     * two unit vectors that far apart. Distances beyond half the circumference
+     * give the diameter.
+     *
+     * @param distanceKm the distance in kilometres
+     * @return the squared chord length, between 0 and 4
+     */
+    public static double kmToChordSquared(double distanceKm) {
+        double halfAngle = Math.min(Math.max(distanceKm, 0) / EARTH_RADIUS_KM, Math.PI) / 2;
+        double chord = 2 * Math.sin(halfAngle);
+        return chord * chord;
+    }
+
+    /**
+     * Returns the largest latitude difference, in degrees, between a point and
+     * any other point within {@code radiusKm} of it.
+     *
+     * @param radiusKm the search radius in kilometres
+     * @return the latitude span in degrees
+     */
+    public static double latitudeSpanDegrees(double radiusKm) {
+        return Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+    }
+
+    /**
+     * Returns the largest longitude difference, in degrees, between a point at
+     * {@code latitude} and any other point within {@code radiusKm} of it.
+     *
+     * <p>
+     * If the circle reaches a pole, or crosses the antimeridian so that raw
+     * longitude differences are no longer meaningful, there is no usable bound
+     * and {@link Double#POSITIVE_INFINITY} is returned.
+     *
+     * @param latitude  the latitude of the centre in degrees
+     * @param longitude the longitude of the centre in degrees
+     * @param radiusKm  the search radius in kilometres
+     * @return the longitude span in degrees, or positive infinity
+     */
+    public static double longitudeSpanDegrees(double latitude, double longitude, double radiusKm) {
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        double latitudeRadians = Math.toRadians(latitude);
+        if (Math.abs(latitudeRadians) + angularRadius >= Math.PI / 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double span = Math.toDegrees(Math.asin(Math.sin(angularRadius) / Math.cos(latitudeRadians)));
+        if (longitude - span < -180 || longitude + span > 180) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return span;
+    }
+}
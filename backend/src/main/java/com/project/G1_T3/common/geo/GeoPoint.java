@@ -0,0 +1,96 @@
+package com.project.G1_T3.common.geo;
+
+/**
+ * A position on the Earth together with its unit vector, worked out once when
+ * the position is created.
+ *
+ * <p>
+ * The matchmaking code compares one player's position with many others. With
+ * the unit vectors at hand, the squared chord between two positions takes
+ * three subtractions and three multiplications, and the great-circle distance
+ * follows from it with a single {@code asin} instead of the five trigonometric
+ * calls of {@link GeoDistance#haversineKm(double, double, double, double)}.
+ * A {@link GeoRadius} answers whether two positions are within a radius from
+ * the chord alone.
+ */
+public final class GeoPoint {
+    private final double latitude;
+    private final double longitude;
+    private final double x;
+    private final double y;
+    private final double z;
+
+    /**
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     */
+    public GeoPoint(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+
+        double latitudeRadians = Math.toRadians(latitude);
+        double longitudeRadians = Math.toRadians(longitude);
+        double cosLatitude = Math.cos(latitudeRadians);
+        this.x = cosLatitude * Math.cos(longitudeRadians);
+        this.y = cosLatitude * Math.sin(longitudeRadians);
+        this.z = Math.sin(latitudeRadians);
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * Returns the squared straight-line distance between the unit vectors of
+     * two positions. It grows with the great-circle distance, so it can be
+     * compared against {@link GeoRadius#getChordSquared()} directly.
+     *
+     * @param other the other position
+     * @return the squared chord length, between 0 and 4
+     */
+    public double chordSquared(GeoPoint other) {
+        return chordSquared(other.x, other.y, other.z);
+    }
+
+    /**
+     * Same as {@link #chordSquared(GeoPoint)}, for a unit vector stored
+     * elsewhere, such as the arrays of a spatial index.
+     */
+    public double chordSquared(double otherX, double otherY, double otherZ) {
+        double dx = x - otherX;
+        double dy = y - otherY;
+        double dz = z - otherZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Calculates the great-circle distance to another position.
+     *
+     * @param other the other position
+     * @return the distance in kilometres
+     */
+    public double distanceKm(GeoPoint other) {
+        return GeoDistance.chordSquaredToKm(chordSquared(other));
+    }
+
+    @Override
+    public String toString() {
+        return "GeoPoint{latitude=" + latitude + ", longitude=" + longitude + "}";
+    }
+}
@@ -0,0 +1,86 @@
+package com.project.G1_T3.common.geo;
+
+/**
+ * A great-circle radius with its squared chord length worked out once, for
+ * checking whether two {@link GeoPoint}s are within it.
+ *
+ * <p>
+ * Most pairs are decided by comparing their squared chord with the radius's.
+ * Rounding in the unit vectors and in the chord of the radius could flip that
+ * comparison for a pair right on the edge, so pairs within a thin band around
+ * the edge are decided by their exact great-circle distance instead. Any
+ * caller that measures the distance with {@link GeoDistance#chordSquaredToKm}
+ * therefore agrees with the check.
+ */
+public final class GeoRadius {
+    // Far wider than the rounding error of a squared chord, far narrower than a metre
+    private static final double RELATIVE_EDGE = 1e-12;
+    private static final double ABSOLUTE_EDGE = 1e-24;
+
+    private final double km;
+    private final double chordSquared;
+    private final double surelyInside;
+    private final double surelyOutside;
+
+    /**
+     * @param km the radius in kilometres, may be positive infinity
+     */
+    public GeoRadius(double km) {
+        this.km = km;
+        this.chordSquared = GeoDistance.kmToChordSquared(km);
+        double edge = chordSquared * RELATIVE_EDGE + ABSOLUTE_EDGE;
+        this.surelyInside = chordSquared - edge;
+        this.surelyOutside = chordSquared + edge;
+    }
+
+    public double getKm() {
+        return km;
+    }
+
+    public double getChordSquared() {
+        return chordSquared;
+    }
+
+    /**
+     * Returns a squared chord beyond which a pair is outside the radius for
+     * certain, a safe bound for pruning a search.
+     *
+     * @return the squared chord just past the edge band
+     */
+    public double getOuterChordSquared() {
+        return surelyOutside;
+    }
+
+    /**
+     * Checks whether two positions are at most this radius apart.
+     *
+     * @param from the first position
+     * @param to   the second position
+     * @return true if the positions are within the radius
+     */
+    public boolean contains(GeoPoint from, GeoPoint to) {
+        return containsChord(from.chordSquared(to));
+    }
+
+    /**
+     * Same as {@link #contains(GeoPoint, GeoPoint)}, for a squared chord the
+     * caller already has.
+     *
+     * @param chordSquared the squared chord between the two positions
+     * @return true if the positions are within the radius
+     */
+    public boolean containsChord(double chordSquared) {
+        if (chordSquared < surelyInside) {
+            return true;
+        }
+        if (chordSquared > surelyOutside) {
+            return false;
+        }
+        return GeoDistance.chordSquaredToKm(chordSquared) <= km;
+    }
+
+    @Override
+    public String toString() {
+        return "GeoRadius{km=" + km + "}";
+    }
+}
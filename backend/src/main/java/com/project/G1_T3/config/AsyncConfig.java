@@ -1,10 +1,65 @@
 package com.project.G1_T3.config;
 
+import java.util.concurrent.Executor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+@Slf4j
 @Configuration
 @EnableAsync
-public class AsyncConfig {
-    
-}
\ No newline at end of file
+public class AsyncConfig implements AsyncConfigurer {
+
+    /**
+     * Executor for plain {@code @Async} methods such as sending emails. Declared
+     * here so they do not end up on the matchmaking executor below.
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("async-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for matching newly queued players. A single thread keeps the
+     * attempts in the order players joined and off the WebSocket threads.
+     * When the queue is full the attempt is dropped rather than failing the
+     * join, since the player is already queued and the sweep picks them up.
+     */
+    @Bean(name = "matchmakingExecutor")
+    public ThreadPoolTaskExecutor matchmakingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("matchmaking-");
+        executor.setRejectedExecutionHandler((task, pool) -> log.warn(
+                "Matchmaking executor is full, leaving the newly queued player for the sweep"));
+        return executor;
+    }
+
+    /**
+     * Executor for meeting point lookups. Bounded, so a slow venue lookup
+     * leaves matches at their midpoint instead of piling up work behind the
+     * matchmaking threads.
+     */
+    @Bean(name = "meetingPointExecutor")
+    public ThreadPoolTaskExecutor meetingPointExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("meeting-point-");
+        return executor;
+    }
+}
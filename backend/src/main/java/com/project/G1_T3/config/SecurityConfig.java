@@ -65,11 +65,14 @@ public class SecurityConfig {
                 new RequestMapping("/ws/**"),
                 new RequestMapping("/matches/**"),
                 new RequestMapping("/health"),
-                new RequestMapping("/health/**"));
+                new RequestMapping("/health/**"),
+                // Checked against the shared cluster token by ClusterQueueController
+                new RequestMapping("/internal/matchmaking/**"));
 
         // Paths that require specific roles
         private static final List<RequestMapping> ADMIN_PATHS = Arrays.asList(
                 new RequestMapping("/admin/**"),
+                new RequestMapping("/actuator/**"),
                 new RequestMapping("/tournament/create"),
                 new RequestMapping("/tournament/{id}", "PUT"),
                 new RequestMapping("/tournament/{tournamentId}/start"),
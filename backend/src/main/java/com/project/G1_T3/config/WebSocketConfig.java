@@ -1,8 +1,10 @@
 package com.project.G1_T3.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,6 +12,8 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.G1_T3.authentication.filter.StompAuthenticationInterceptor;
+import com.project.G1_T3.matchmaking.service.MatchmakingPartitioner;
 
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.converter.MessageConverter;
@@ -23,9 +27,48 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
+    // With several matchmaking nodes a match can be made on a node the player
+    // is not connected to, so messages go through a shared broker instead
+    @Value("${app.websocket.relay.host:}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Autowired
+    private StompAuthenticationInterceptor stompAuthenticationInterceptor;
+
+    @Autowired
+    private MatchmakingPartitioner matchmakingPartitioner;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (relayHost.isEmpty() && matchmakingPartitioner.isClustered()) {
+            // Match notifications from other nodes would never reach players connected here
+            throw new IllegalStateException(
+                    "matchmaking.cluster.nodes is set, so app.websocket.relay.host has to be set as well");
+        }
+        if (relayHost.isEmpty()) {
+            config.enableSimpleBroker("/topic", "/queue");
+        } else {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Share who is connected where, so /user/ messages reach
+                    // players connected to another node
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -40,6 +83,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthenticationInterceptor);
+    }
+
     @Override
     public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
         messageConverters.add(messageConverter());
@@ -18,6 +18,10 @@ public interface MatchService {
 
     public Match createMatch(MatchDTO matchDTO);
 
+    public List<Match> createMatches(List<MatchDTO> matchDTOs);
+
+    public boolean updateMeetingPoint(UUID matchId, double latitude, double longitude);
+
     public void startMatch(@PathVariable UUID matchId, @RequestBody MatchDTO matchDTO);
 
     public void completeMatch(@PathVariable UUID matchId, @RequestBody MatchDTO matchDTO);
@@ -11,6 +11,7 @@ import com.project.G1_T3.playerprofile.service.PlayerProfileService;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
@@ -90,6 +91,55 @@ public class MatchServiceImpl implements MatchService {
 
     @Transactional
     public Match createMatch(MatchDTO matchDTO) {
+        Match match = buildMatch(matchDTO);
+        match = matchRepository.save(match);
+
+        return match;
+    }
+
+    /**
+     * Creates several matches in one transaction. Every match is validated
+     * before any of them is saved, so either all of them are created or none
+     * are.
+     *
+     * @param matchDTOs the matches to create
+     * @return the saved matches, in the same order
+     */
+    @Transactional
+    public List<Match> createMatches(List<MatchDTO> matchDTOs) {
+        List<Match> matches = new ArrayList<>(matchDTOs.size());
+        for (MatchDTO matchDTO : matchDTOs) {
+            matches.add(buildMatch(matchDTO));
+        }
+
+        return matchRepository.saveAll(matches);
+    }
+
+    /**
+     * Moves a match that has not finished to a new meeting point. Runs in its
+     * own transaction, as it is called after the one creating the match has
+     * committed.
+     *
+     * @param matchId   the match to move
+     * @param latitude  the latitude of the new meeting point
+     * @param longitude the longitude of the new meeting point
+     * @return true if the match was moved, false if it is gone or finished
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean updateMeetingPoint(UUID matchId, double latitude, double longitude) {
+        Match match = matchRepository.findById(matchId).orElse(null);
+        if (match == null || match.getStatus() == Status.COMPLETED || match.getStatus() == Status.CANCELLED) {
+            return false;
+        }
+
+        match.setMeetingLatitude(latitude);
+        match.setMeetingLongitude(longitude);
+        match.setUpdatedAt(LocalDateTime.now());
+        matchRepository.save(match);
+        return true;
+    }
+
+    private Match buildMatch(MatchDTO matchDTO) {
 
         if (matchDTO.getPlayer1Id() == null) {
             throw new IllegalArgumentException("Player 1 ID must not be null");
@@ -123,8 +173,6 @@ public class MatchServiceImpl implements MatchService {
             match.setStatus(Status.COMPLETED);
         }
 
-        match = matchRepository.save(match);
-
         return match;
     }
 
@@ -0,0 +1,140 @@
+package com.project.G1_T3.matchmaking.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+import com.project.G1_T3.matchmaking.model.QueueRequest;
+import com.project.G1_T3.matchmaking.service.HttpMatchmakingTransport;
+import com.project.G1_T3.matchmaking.service.MatchmakingService;
+import com.project.G1_T3.matchmaking.service.MatchmakingStrategyRegistry;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
+
+/**
+ * Receives solo queue requests forwarded by other nodes, see
+ * {@link com.project.G1_T3.matchmaking.service.SoloQueueRouter}, and strategy
+ * changes, see
+ * {@link com.project.G1_T3.matchmaking.service.MatchmakingStrategyPublisher}.
+ * Requests are always handled on this node and never forwarded again.
+ */
+@RestController
+@RequestMapping("/internal/matchmaking")
+public class ClusterQueueController {
+
+    @Autowired
+    private MatchmakingService matchmakingService;
+
+    @Autowired
+    private PlayerProfileRepository playerProfileRepository;
+
+    @Autowired
+    private MatchmakingStrategyRegistry strategyRegistry;
+
+    @Value("${matchmaking.cluster.token:}")
+    private String token;
+
+    @PostMapping("/queue")
+    public ResponseEntity<Void> queue(@RequestHeader(value = HttpMatchmakingTransport.TOKEN_HEADER, required = false) String requestToken,
+            @RequestBody QueueRequest queueRequest) {
+        if (!isTrusted(requestToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        UUID playerId = parsePlayerId(queueRequest);
+        if (playerId == null || queueRequest.getLocation() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        PlayerProfile profile = playerProfileRepository.findByUserId(playerId);
+        if (profile == null) {
+            return ResponseEntity.notFound().build();
+        }
+        matchmakingService.addPlayerToQueue(profile, queueRequest.getLocation().getLatitude(),
+                queueRequest.getLocation().getLongitude());
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/dequeue")
+    public ResponseEntity<Void> dequeue(@RequestHeader(value = HttpMatchmakingTransport.TOKEN_HEADER, required = false) String requestToken,
+            @RequestBody QueueRequest queueRequest) {
+        if (!isTrusted(requestToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UUID playerId = parsePlayerId(queueRequest);
+        if (playerId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (matchmakingService.isPlayerInQueue(playerId)) {
+            matchmakingService.removePlayerFromQueue(playerId);
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/regions/{name}")
+    public ResponseEntity<Void> putRegion(@RequestHeader(value = HttpMatchmakingTransport.TOKEN_HEADER, required = false) String requestToken,
+            @PathVariable String name, @RequestBody MatchmakingRegion region) {
+        if (!isTrusted(requestToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        region.setName(name);
+        strategyRegistry.putRegion(region);
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/regions/{name}")
+    public ResponseEntity<Void> removeRegion(@RequestHeader(value = HttpMatchmakingTransport.TOKEN_HEADER, required = false) String requestToken,
+            @PathVariable String name) {
+        if (!isTrusted(requestToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        strategyRegistry.removeRegion(name);
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/default-algorithm")
+    public ResponseEntity<Void> setDefaultAlgorithm(@RequestHeader(value = HttpMatchmakingTransport.TOKEN_HEADER, required = false) String requestToken,
+            @RequestParam String algorithm) {
+        if (!isTrusted(requestToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        strategyRegistry.setDefaultAlgorithm(algorithm);
+        return ResponseEntity.ok().build();
+    }
+
+    // Null when the peer sent no player ID or one that is not a UUID
+    private UUID parsePlayerId(QueueRequest queueRequest) {
+        if (queueRequest.getPlayerId() == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(queueRequest.getPlayerId());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Without a configured token the endpoints are closed
+    private boolean isTrusted(String requestToken) {
+        if (token.isEmpty() || requestToken == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                requestToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.project.G1_T3.matchmaking.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+import com.project.G1_T3.matchmaking.service.MatchmakingStrategyPublisher;
+import com.project.G1_T3.matchmaking.service.MatchmakingStrategyRegistry;
+
+/**
+ * Lets admins choose the matchmaking algorithm and thresholds per region
+ * while the server is running. Changes are passed on to every cluster node,
+ * see {@link MatchmakingStrategyPublisher}, while reads show this node's
+ * strategies.
+ */
+@RestController
+@RequestMapping("/admin/matchmaking")
+@PreAuthorize("hasRole('ADMIN')")
+public class MatchmakingStrategyController {
+
+    @Autowired
+    private MatchmakingStrategyRegistry strategyRegistry;
+
+    @Autowired
+    private MatchmakingStrategyPublisher strategyPublisher;
+
+    @GetMapping("/algorithms")
+    public ResponseEntity<List<String>> getAlgorithms() {
+        return ResponseEntity.ok(strategyRegistry.getAlgorithmNames());
+    }
+
+    @GetMapping("/default-algorithm")
+    public ResponseEntity<String> getDefaultAlgorithm() {
+        return ResponseEntity.ok(strategyRegistry.getDefaultAlgorithm());
+    }
+
+    @PutMapping("/default-algorithm")
+    public ResponseEntity<String> setDefaultAlgorithm(@RequestParam String algorithm) {
+        strategyPublisher.setDefaultAlgorithm(algorithm);
+        return ResponseEntity.ok(algorithm);
+    }
+
+    @GetMapping("/regions")
+    public ResponseEntity<List<MatchmakingRegion>> getRegions() {
+        return ResponseEntity.ok(strategyRegistry.getRegions());
+    }
+
+    /**
+     * Adds or replaces a region. The name in the path wins over any name in
+     * the body.
+     *
+     * @param name   the name of the region
+     * @param region the bounds, algorithm and thresholds of the region
+     * @return the stored region
+     */
+    @PutMapping("/regions/{name}")
+    public ResponseEntity<MatchmakingRegion> putRegion(@PathVariable String name,
+            @RequestBody MatchmakingRegion region) {
+        region.setName(name);
+        return ResponseEntity.ok(strategyPublisher.putRegion(region));
+    }
+
+    @DeleteMapping("/regions/{name}")
+    public ResponseEntity<Void> removeRegion(@PathVariable String name) {
+        if (!strategyPublisher.removeRegion(name)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
-import com.project.G1_T3.matchmaking.service.MatchmakingService;
+import com.project.G1_T3.matchmaking.service.SoloQueueRouter;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
 import com.project.G1_T3.matchmaking.model.QueueRequest;
@@ -14,19 +14,19 @@ import java.util.UUID;
 
 @Controller
 public class SoloQueueController {
-    private final MatchmakingService matchmakingService;
+    private final SoloQueueRouter soloQueueRouter;
     private final PlayerProfileRepository playerProfileRepository;
 
     /**
      * Controller for handling solo queue matchmaking operations.
-     * This controller interacts with the matchmaking service and player profile repository
+     * This controller interacts with the solo queue router and player profile repository
      * to manage solo queue matchmaking functionalities.
      *
-     * @param matchmakingService the service responsible for matchmaking operations
+     * @param soloQueueRouter the router that queues players on the node owning their location
      * @param playerProfileRepository the repository for accessing player profiles
      */
-    public SoloQueueController(MatchmakingService matchmakingService, PlayerProfileRepository playerProfileRepository) {
-        this.matchmakingService = matchmakingService;
+    public SoloQueueController(SoloQueueRouter soloQueueRouter, PlayerProfileRepository playerProfileRepository) {
+        this.soloQueueRouter = soloQueueRouter;
         this.playerProfileRepository = playerProfileRepository;
     }
 
@@ -54,9 +54,7 @@ public class SoloQueueController {
             PlayerProfile profile = playerProfileRepository.findByUserId(playerUUID);
             if (profile != null) {
                 if (queueRequest.getLocation() != null) {
-                    matchmakingService.addPlayerToQueue(profile,
-                            queueRequest.getLocation().getLatitude(),
-                            queueRequest.getLocation().getLongitude());
+                    soloQueueRouter.join(profile, queueRequest);
                 } else {
                     System.out.println("Location is null for player ID: " + queueRequest.getPlayerId());
                     ResponseEntity.badRequest().body("Location is required");
@@ -103,7 +101,7 @@ public class SoloQueueController {
     public void removeFromQueue(@Payload QueueRequest queueRequest) {
         try {
             UUID playerUUID = UUID.fromString(queueRequest.getPlayerId());
-            matchmakingService.removePlayerFromQueue(playerUUID);
+            soloQueueRouter.leave(playerUUID, queueRequest);
         } catch (IllegalArgumentException e) {
             System.out.println("Invalid UUID for dequeue: " + queueRequest.getPlayerId());
             // Handle invalid UUID (e.g., send an error message back to the client)
@@ -0,0 +1,51 @@
+package com.project.G1_T3.matchmaking.model;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.project.G1_T3.match.model.Match;
+
+/**
+ * A match made by matchmaking, with the queued players it was made from and
+ * the point at which the players can be told about it.
+ *
+ * <p>
+ * {@link #getReady()} completes with the match once the transaction that
+ * created it has committed and its meeting point is final, whether the venue
+ * was found or the match stays at the midpoint. It completes with null if the
+ * match was finished or cancelled before then.
+ */
+public class FoundMatch {
+    private final Match match;
+    private final QueuedPlayer player1;
+    private final QueuedPlayer player2;
+    private final CompletableFuture<Match> ready;
+
+    /**
+     * @param match   the match
+     * @param player1 the queued player who is the match's first player
+     * @param player2 the queued player who is the match's second player
+     * @param ready   completes with the match once it can be announced
+     */
+    public FoundMatch(Match match, QueuedPlayer player1, QueuedPlayer player2, CompletableFuture<Match> ready) {
+        this.match = match;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.ready = ready;
+    }
+
+    public Match getMatch() {
+        return match;
+    }
+
+    public QueuedPlayer getPlayer1() {
+        return player1;
+    }
+
+    public QueuedPlayer getPlayer2() {
+        return player2;
+    }
+
+    public CompletableFuture<Match> getReady() {
+        return ready;
+    }
+}
@@ -0,0 +1,137 @@
+package com.project.G1_T3.matchmaking.model;
+
+/**
+ * A geographic area with its own matchmaking algorithm and thresholds.
+ *
+ * <p>
+ * The area is a latitude and longitude box. If {@code minLongitude} is
+ * greater than {@code maxLongitude} the box crosses the antimeridian. Any
+ * threshold left null falls back to the default of the chosen algorithm.
+ */
+public class MatchmakingRegion {
+    private String name;
+    private double minLatitude;
+    private double maxLatitude;
+    private double minLongitude;
+    private double maxLongitude;
+    private String algorithm;
+    private Double maxRatingDiff;
+    private Double maxDeviationDiff;
+    private Double maxDistanceKm;
+
+    public MatchmakingRegion() {
+    }
+
+    public MatchmakingRegion(String name, double minLatitude, double maxLatitude, double minLongitude,
+            double maxLongitude, String algorithm) {
+        this.name = name;
+        this.minLatitude = minLatitude;
+        this.maxLatitude = maxLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLongitude = maxLongitude;
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Checks whether a location is inside the region.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return true if the location is inside the box
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude) {
+            return false;
+        }
+        if (minLongitude <= maxLongitude) {
+            return longitude >= minLongitude && longitude <= maxLongitude;
+        }
+        return longitude >= minLongitude || longitude <= maxLongitude;
+    }
+
+    /**
+     * Returns the size of the box in square degrees, used to prefer the most
+     * specific region when several overlap.
+     *
+     * @return the area of the box
+     */
+    public double area() {
+        double width = maxLongitude - minLongitude;
+        if (width < 0) {
+            width += 360;
+        }
+        return (maxLatitude - minLatitude) * width;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getMinLatitude() {
+        return minLatitude;
+    }
+
+    public void setMinLatitude(double minLatitude) {
+        this.minLatitude = minLatitude;
+    }
+
+    public double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public void setMaxLatitude(double maxLatitude) {
+        this.maxLatitude = maxLatitude;
+    }
+
+    public double getMinLongitude() {
+        return minLongitude;
+    }
+
+    public void setMinLongitude(double minLongitude) {
+        this.minLongitude = minLongitude;
+    }
+
+    public double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    public void setMaxLongitude(double maxLongitude) {
+        this.maxLongitude = maxLongitude;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Double getMaxRatingDiff() {
+        return maxRatingDiff;
+    }
+
+    public void setMaxRatingDiff(Double maxRatingDiff) {
+        this.maxRatingDiff = maxRatingDiff;
+    }
+
+    public Double getMaxDeviationDiff() {
+        return maxDeviationDiff;
+    }
+
+    public void setMaxDeviationDiff(Double maxDeviationDiff) {
+        this.maxDeviationDiff = maxDeviationDiff;
+    }
+
+    public Double getMaxDistanceKm() {
+        return maxDistanceKm;
+    }
+
+    public void setMaxDistanceKm(Double maxDistanceKm) {
+        this.maxDistanceKm = maxDistanceKm;
+    }
+}
@@ -0,0 +1,19 @@
+package com.project.G1_T3.matchmaking.model;
+
+import java.util.UUID;
+
+/**
+ * Published after a player has been added to the matchmaking queue, so an
+ * opponent can be looked for straight away instead of on the next sweep.
+ */
+public class PlayerQueuedEvent {
+    private final UUID userId;
+
+    public PlayerQueuedEvent(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,74 @@
+package com.project.G1_T3.matchmaking.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A waiting player's place in the solo queue of their region, pushed to them
+ * periodically until they are matched.
+ */
+public class QueueStatusDTO {
+    @JsonProperty("position")
+    private int position;
+
+    // Players waiting in the same region, not on the whole node
+    @JsonProperty("queueSize")
+    private int queueSize;
+
+    @JsonProperty("waitSeconds")
+    private long waitSeconds;
+
+    @JsonProperty("maxRatingDiff")
+    private double maxRatingDiff;
+
+    @JsonProperty("maxDeviationDiff")
+    private double maxDeviationDiff;
+
+    @JsonProperty("maxDistanceKm")
+    private double maxDistanceKm;
+
+    // Null until enough matches have been made to estimate from
+    @JsonProperty("estimatedWaitSeconds")
+    private Long estimatedWaitSeconds;
+
+    public QueueStatusDTO() {
+    }
+
+    public QueueStatusDTO(int position, int queueSize, long waitSeconds, SearchCriteria windows,
+            Long estimatedWaitSeconds) {
+        this.position = position;
+        this.queueSize = queueSize;
+        this.waitSeconds = waitSeconds;
+        this.maxRatingDiff = windows.getMaxRatingDiff();
+        this.maxDeviationDiff = windows.getMaxDeviationDiff();
+        this.maxDistanceKm = windows.getMaxDistanceKm();
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public long getWaitSeconds() {
+        return waitSeconds;
+    }
+
+    public double getMaxRatingDiff() {
+        return maxRatingDiff;
+    }
+
+    public double getMaxDeviationDiff() {
+        return maxDeviationDiff;
+    }
+
+    public double getMaxDistanceKm() {
+        return maxDistanceKm;
+    }
+
+    public Long getEstimatedWaitSeconds() {
+        return estimatedWaitSeconds;
+    }
+}
@@ -1,38 +1,120 @@
 package com.project.G1_T3.matchmaking.model;
 
 import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
 
+import com.project.G1_T3.common.geo.GeoPoint;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.playerprofile.model.PlayerProfileDTO;
+import com.project.G1_T3.user.model.User;
 
+/**
+ * A player waiting in the matchmaking queue.
+ *
+ * <p>
+ * The ids and ratings of the player's profile are copied when they join, so
+ * the queue never holds on to the profile entity or its lazy associations and
+ * a rating update while queued does not move the player in the index. What
+ * the match notification shows of the profile is copied too, so players are
+ * told about a match without loading any profiles; players recovered from the
+ * queue journal after a restart have no such copy. The position is kept as a
+ * {@link GeoPoint}, so its unit vector is worked out
+ * once per join rather than once per distance check. Two queued players are
+ * equal when they belong to the same user.
+ */
 public class QueuedPlayer {
-    private final PlayerProfile player;
-    private final double latitude;
-    private final double longitude;
+    private final UUID userId;
+    private final UUID profileId;
+    private final double glickoRating;
+    private final double ratingDeviation;
+    private final double volatility;
+    private final double currentRating;
+    private final GeoPoint location;
     private final Instant joinTime;
+    private final PlayerProfileDTO profile;
 
     public QueuedPlayer(PlayerProfile player, double latitude, double longitude) {
-        this.player = player;
-        this.latitude = latitude;
-        this.longitude = longitude;
-        this.joinTime = Instant.now();
+        this(userIdOf(player), player.getProfileId(), player.getGlickoRating(), player.getCurrentRD(),
+                player.getVolatility(), currentRatingOf(player), latitude, longitude, Instant.now(),
+                profileOf(player));
     }
 
-    public PlayerProfile getPlayer() {
-        return player;
+    public QueuedPlayer(UUID userId, UUID profileId, double glickoRating, double ratingDeviation, double volatility,
+            double currentRating, double latitude, double longitude, Instant joinTime) {
+        this(userId, profileId, glickoRating, ratingDeviation, volatility, currentRating, latitude, longitude,
+                joinTime, null);
+    }
+
+    private QueuedPlayer(UUID userId, UUID profileId, double glickoRating, double ratingDeviation,
+            double volatility, double currentRating, double latitude, double longitude, Instant joinTime,
+            PlayerProfileDTO profile) {
+        this.userId = userId;
+        this.profileId = profileId;
+        this.glickoRating = glickoRating;
+        this.ratingDeviation = ratingDeviation;
+        this.volatility = volatility;
+        this.currentRating = currentRating;
+        this.location = new GeoPoint(latitude, longitude);
+        this.joinTime = joinTime;
+        this.profile = profile;
+    }
+
+    /**
+     * Returns a copy of this player with a copy of their profile, for players
+     * who were queued without one.
+     *
+     * @param profile the player's profile
+     * @return the copy
+     */
+    public QueuedPlayer withProfile(PlayerProfileDTO profile) {
+        return new QueuedPlayer(userId, profileId, glickoRating, ratingDeviation, volatility, currentRating,
+                location.getLatitude(), location.getLongitude(), joinTime, profile);
+    }
+
+    private static UUID userIdOf(PlayerProfile player) {
+        User user = player.getUser();
+        return user != null ? user.getUserId() : null;
+    }
+
+    private static PlayerProfileDTO profileOf(PlayerProfile player) {
+        return player.getUser() != null ? new PlayerProfileDTO(player) : null;
+    }
+
+    private static double currentRatingOf(PlayerProfile player) {
+        Float currentRating = player.getCurrentRating();
+        return currentRating != null ? currentRating : 0;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getProfileId() {
+        return profileId;
     }
 
     public double getLatitude() {
-        return latitude;
+        return location.getLatitude();
     }
 
     public double getLongitude() {
-        return longitude;
+        return location.getLongitude();
+    }
+
+    public GeoPoint getLocation() {
+        return location;
     }
 
     public Instant getJoinTime() {
         return joinTime;
     }
 
+    // Null for players recovered from the queue journal
+    public PlayerProfileDTO getProfile() {
+        return profile;
+    }
+
     public long getQueueTimeSeconds() {
         return Instant.now().getEpochSecond() - joinTime.getEpochSecond();
     }
@@ -40,16 +122,46 @@ public class QueuedPlayer {
     public double getPriority() {
         // Combining both priority calculations
         long waitTimeSeconds = getQueueTimeSeconds();
-        return (waitTimeSeconds * 0.1) + player.getGlickoRating();
+        return (waitTimeSeconds * 0.1) + glickoRating;
     }
 
     // getglickorating
     public double getGlickoRating() {
-        return player.getGlickoRating();
+        return glickoRating;
     }
 
     // getglickord
     public double getGlickoRD() {
-        return player.getCurrentRD();
+        return ratingDeviation;
+    }
+
+    public double getVolatility() {
+        return volatility;
+    }
+
+    public double getCurrentRating() {
+        return currentRating;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof QueuedPlayer)) {
+            return false;
+        }
+        return Objects.equals(userId, ((QueuedPlayer) obj).userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(userId);
+    }
+
+    @Override
+    public String toString() {
+        return "QueuedPlayer{userId=" + userId + ", rating=" + glickoRating + ", rd=" + ratingDeviation
+                + ", latitude=" + location.getLatitude() + ", longitude=" + location.getLongitude() + "}";
     }
 }
@@ -0,0 +1,66 @@
+package com.project.G1_T3.matchmaking.model;
+
+/**
+ * A search of the queue that skips the candidates an earlier search already
+ * covered.
+ *
+ * <p>
+ * When a player's windows widen, the players inside the old windows were
+ * already looked at. A band only admits candidates that are inside the current
+ * criteria and either outside the previous criteria or added to the index
+ * after the previous search started. Candidates are compared by the admission
+ * number the index gave them, see {@code MatchmakingIndex#watermark()}, so a
+ * player who leaves and rejoins counts as new.
+ *
+ * <p>
+ * A band without previous criteria admits everything inside the current
+ * criteria.
+ */
+public class SearchBand {
+    private final SearchCriteria criteria;
+    private final SearchCriteria searched;
+    private final long searchedWatermark;
+
+    public SearchBand(SearchCriteria criteria) {
+        this(criteria, null, 0);
+    }
+
+    /**
+     * @param criteria          the windows to search now
+     * @param searched          the windows of the previous search, or null
+     * @param searchedWatermark the index watermark read before the previous
+     *                          search
+     */
+    public SearchBand(SearchCriteria criteria, SearchCriteria searched, long searchedWatermark) {
+        this.criteria = criteria;
+        this.searched = searched;
+        this.searchedWatermark = searchedWatermark;
+    }
+
+    public SearchCriteria getCriteria() {
+        return criteria;
+    }
+
+    public boolean isIncremental() {
+        return searched != null;
+    }
+
+    /**
+     * Checks whether the previous search already covered a candidate.
+     *
+     * @param admitted      the admission number of the candidate
+     * @param ratingDiff    the absolute rating difference
+     * @param deviationDiff the absolute rating deviation difference
+     * @param distanceKm    the distance in kilometres
+     * @return true if the candidate can be skipped
+     */
+    public boolean wasSearched(long admitted, double ratingDiff, double deviationDiff, double distanceKm) {
+        return searched != null && admitted < searchedWatermark
+                && searched.accepts(ratingDiff, deviationDiff, distanceKm);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchBand{criteria=" + criteria + ", searched=" + searched + ", watermark=" + searchedWatermark + "}";
+    }
+}
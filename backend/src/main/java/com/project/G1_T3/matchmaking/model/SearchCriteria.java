@@ -0,0 +1,157 @@
+package com.project.G1_T3.matchmaking.model;
+
+import com.project.G1_T3.common.geo.GeoRadius;
+
+/**
+ * The limits and ranking weights used when searching the queue for opponents.
+ *
+ * <p>
+ * Every dimension has its own bound: a rating window, a rating deviation
+ * window and a great-circle radius in kilometres. A candidate is only
+ * acceptable if it is inside all three. Acceptable candidates are ranked by
+ * {@link #cost(double, double, double)}, a weighted sum of squares where each
+ * difference is first divided by its window, so the weights compare like with
+ * like.
+ */
+public class SearchCriteria {
+    public static final double DEFAULT_RATING_WEIGHT = 1.0;
+    public static final double DEFAULT_DEVIATION_WEIGHT = 0.5;
+    public static final double DEFAULT_DISTANCE_WEIGHT = 1.0;
+
+    private final double maxRatingDiff;
+    private final double maxDeviationDiff;
+    private final double maxDistanceKm;
+    private final GeoRadius distanceRadius;
+    private final double ratingWeight;
+    private final double deviationWeight;
+    private final double distanceWeight;
+
+    public SearchCriteria(double maxRatingDiff, double maxDeviationDiff, double maxDistanceKm) {
+        this(maxRatingDiff, maxDeviationDiff, maxDistanceKm,
+                DEFAULT_RATING_WEIGHT, DEFAULT_DEVIATION_WEIGHT, DEFAULT_DISTANCE_WEIGHT);
+    }
+
+    public SearchCriteria(double maxRatingDiff, double maxDeviationDiff, double maxDistanceKm,
+            double ratingWeight, double deviationWeight, double distanceWeight) {
+        this.maxRatingDiff = maxRatingDiff;
+        this.maxDeviationDiff = maxDeviationDiff;
+        this.maxDistanceKm = maxDistanceKm;
+        this.distanceRadius = new GeoRadius(maxDistanceKm);
+        this.ratingWeight = ratingWeight;
+        this.deviationWeight = deviationWeight;
+        this.distanceWeight = distanceWeight;
+    }
+
+    public double getMaxRatingDiff() {
+        return maxRatingDiff;
+    }
+
+    public double getMaxDeviationDiff() {
+        return maxDeviationDiff;
+    }
+
+    public double getMaxDistanceKm() {
+        return maxDistanceKm;
+    }
+
+    /**
+     * Returns the distance window as a radius that two queued players'
+     * locations can be checked against without working out their distance.
+     *
+     * @return the radius of the distance window
+     */
+    public GeoRadius getDistanceRadius() {
+        return distanceRadius;
+    }
+
+    public double getRatingWeight() {
+        return ratingWeight;
+    }
+
+    public double getDeviationWeight() {
+        return deviationWeight;
+    }
+
+    public double getDistanceWeight() {
+        return distanceWeight;
+    }
+
+    /**
+     * Returns a copy with every window multiplied by the given factor and the
+     * same weights.
+     *
+     * @param factor the factor to widen the windows by
+     * @return the widened criteria, or this if the factor is 1
+     */
+    public SearchCriteria scaled(double factor) {
+        if (factor == 1) {
+            return this;
+        }
+        return new SearchCriteria(maxRatingDiff * factor, maxDeviationDiff * factor, maxDistanceKm * factor,
+                ratingWeight, deviationWeight, distanceWeight);
+    }
+
+    /**
+     * Checks whether the given differences are inside every window.
+     *
+     * @param ratingDiff    the absolute rating difference
+     * @param deviationDiff the absolute rating deviation difference
+     * @param distanceKm    the distance in kilometres
+     * @return true if the candidate is acceptable
+     */
+    public boolean accepts(double ratingDiff, double deviationDiff, double distanceKm) {
+        return ratingDiff <= maxRatingDiff && deviationDiff <= maxDeviationDiff && distanceKm <= maxDistanceKm;
+    }
+
+    /**
+     * Calculates the ranking cost of a candidate. Lower is better.
+     *
+     * @param ratingDiff    the absolute rating difference
+     * @param deviationDiff the absolute rating deviation difference
+     * @param distanceKm    the distance in kilometres
+     * @return the weighted cost
+     */
+    public double cost(double ratingDiff, double deviationDiff, double distanceKm) {
+        return ratingCost(ratingDiff) + deviationCost(deviationDiff) + distanceCost(distanceKm);
+    }
+
+    public double ratingCost(double ratingDiff) {
+        return weighted(ratingWeight, ratingDiff, maxRatingDiff);
+    }
+
+    public double deviationCost(double deviationDiff) {
+        return weighted(deviationWeight, deviationDiff, maxDeviationDiff);
+    }
+
+    public double distanceCost(double distanceKm) {
+        return weighted(distanceWeight, distanceKm, maxDistanceKm);
+    }
+
+    /**
+     * Returns the distance at which the distance cost alone reaches
+     * {@code cost}. Any candidate further away costs at least that much.
+     *
+     * @param cost the cost to reach
+     * @return the distance in kilometres, or positive infinity if distance
+     *         costs nothing
+     */
+    public double distanceAtCost(double cost) {
+        if (maxDistanceKm <= 0 || distanceWeight <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return maxDistanceKm * Math.sqrt(cost / distanceWeight);
+    }
+
+    private static double weighted(double weight, double diff, double window) {
+        if (window <= 0) {
+            return 0;
+        }
+        double normalized = diff / window;
+        return weight * normalized * normalized;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCriteria{rating=" + maxRatingDiff + ", rd=" + maxDeviationDiff + ", km=" + maxDistanceKm + "}";
+    }
+}
@@ -2,6 +2,7 @@ package com.project.G1_T3.matchmaking.service;
 
 import org.springframework.stereotype.Component;
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 
 /**
  * EloMatchmakingAlgorithm is a matchmaking algorithm that matches players based on their Elo rating,
@@ -22,40 +23,45 @@ public class EloMatchmakingAlgorithm implements MatchmakingAlgorithm {
      */
     @Override
     public boolean isGoodMatch(QueuedPlayer player1, QueuedPlayer player2) {
-        int ratingDifference = (int) Math.abs(player1.getPlayer().getCurrentRating() - player2.getPlayer().getCurrentRating());
-        double distance = calculateDistance(player1, player2);
-        long maxQueueTime = Math.max(player1.getQueueTimeSeconds(), player2.getQueueTimeSeconds());
-
-        // Players are a good match if their rating difference and distance are within limits,
-        // or if either player has been in the queue for a long time.
-        return (ratingDifference <= MAX_RATING_DIFFERENCE && distance <= MAX_DISTANCE_KM) ||
-                maxQueueTime >= MAX_QUEUE_TIME_SECONDS;
+        return isGoodMatch(player1, player2, getSearchCriteria());
     }
 
     /**
-     * Calculates the geographical distance between two players using the Haversine formula.
-     *
-     * @param player1 The first queued player.
-     * @param player2 The second queued player.
-     * @return The distance between the two players in kilometers.
+     * Same as {@link #isGoodMatch(QueuedPlayer, QueuedPlayer)}, with the rating
+     * and distance limits taken from the given thresholds. The rating
+     * deviation window is not used.
      */
-    private double calculateDistance(QueuedPlayer player1, QueuedPlayer player2) {
-        final int R = 6371; // Earth's radius in kilometers
+    @Override
+    public boolean isGoodMatch(QueuedPlayer player1, QueuedPlayer player2, SearchCriteria thresholds) {
+        int ratingDifference = (int) Math.abs(player1.getCurrentRating() - player2.getCurrentRating());
+        long maxQueueTime = Math.max(player1.getQueueTimeSeconds(), player2.getQueueTimeSeconds());
 
-        double lat1 = Math.toRadians(player1.getLatitude());
-        double lon1 = Math.toRadians(player1.getLongitude());
-        double lat2 = Math.toRadians(player2.getLatitude());
-        double lon2 = Math.toRadians(player2.getLongitude());
+        // Players are a good match if their rating difference and distance are within limits,
+        // or if either player has been in the queue for a long time.
+        return (ratingDifference <= thresholds.getMaxRatingDiff()
+                && thresholds.getDistanceRadius().contains(player1.getLocation(), player2.getLocation()))
+                || maxQueueTime >= MAX_QUEUE_TIME_SECONDS;
+    }
 
-        double dLat = lat2 - lat1;
-        double dLon = lon2 - lon1;
+    @Override
+    public String getName() {
+        return "elo";
+    }
 
-        // Haversine formula to calculate the distance between two points on the Earth's surface
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(lat1) * Math.cos(lat2) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    @Override
+    public SearchCriteria getSearchCriteria() {
+        return new SearchCriteria(MAX_RATING_DIFFERENCE, Double.POSITIVE_INFINITY, MAX_DISTANCE_KM);
+    }
 
-        return R * c;
+    /**
+     * The index orders players by Glicko rating, not by the Elo rating this
+     * algorithm compares, so only the distance limit can narrow the query.
+     * Candidates are ranked by distance and the Elo rating is checked
+     * afterwards.
+     */
+    @Override
+    public SearchCriteria getIndexCriteria(SearchCriteria thresholds) {
+        return new SearchCriteria(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, thresholds.getMaxDistanceKm(),
+                thresholds.getRatingWeight(), thresholds.getDeviationWeight(), thresholds.getDistanceWeight());
     }
 }
\ No newline at end of file
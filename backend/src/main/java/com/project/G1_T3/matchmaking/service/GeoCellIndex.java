@@ -0,0 +1,544 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.geo.GeoDistance;
+import com.project.G1_T3.common.geo.GeoPoint;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchBand;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The GeoCellIndex class splits the matchmaking queue into geographic cells.
+ *
+ * <p>
+ * The globe is cut into latitude bands that are {@code cellSizeKm} tall. Each
+ * band is cut into equal longitude columns that are at least
+ * {@code cellSizeKm} wide everywhere in the band, so bands closer to the poles
+ * have fewer columns.
+ *
+ * <p>
+ * Every cell keeps its players ordered by rating, as a struct of arrays: the
+ * rating, rating deviation, the three components of the location's unit
+ * vector and the admission number of each player sit in their own primitive
+ * array. A search reads those arrays
+ * front to back without touching the players or their profiles, and only
+ * dereferences a player once it is accepted as a candidate.
+ *
+ * <p>
+ * A search first turns the kilometre radius of the criteria into a latitude
+ * and longitude span around the target, then only visits the cells that
+ * overlap it, starting with the target's own cell. Once k candidates are
+ * kept, the area shrinks to the distance at which a player would cost more
+ * than the worst of them, so the remaining bands and columns outside it are
+ * skipped. Inside a cell the target's rating is found by
+ * binary search and the players are scanned outward from it in both
+ * directions, in a flat loop against the rating deviation window and the
+ * radius, which is checked on squared chords so a player outside it costs no
+ * trigonometry at all. Ratings only get further away as a scan goes on, so it
+ * stops at the edge of the rating window or as soon as the rating difference
+ * alone costs more than the worst candidate kept. In a crowded city a search
+ * therefore reads the few players closest in rating in the cells around the
+ * target rather than everyone in the radius, and a busy city never slows
+ * down searches anywhere else.
+ *
+ * <p>
+ * The index is safe to use from several threads. Cells are guarded by a fixed
+ * set of striped read-write locks, so players joining, leaving and being
+ * searched for in different cities rarely wait on each other. A search holds
+ * one cell's read lock at a time, so it never blocks more than one stripe.
+ * Admission numbers are handed out while the cell's write lock is held, after
+ * the player is in the cell, so a search that read an older watermark always
+ * sees every player numbered below it.
+ *
+ * <p>
+ * Columns wrap around the antimeridian. Near the poles a band may consist of a
+ * single cell. If the search area covers more cells than are occupied, the
+ * occupied cells are scanned directly instead.
+ *
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * {@code
+ * GeoCellIndex index = new GeoCellIndex(2.0);
+ * index.insert(new QueuedPlayer(...));
+ * NearestCandidates nearest = new NearestCandidates(k);
+ * index.findKNearest(targetPlayer, new SearchBand(searchCriteria), nearest);
+ * nearest.sortByCost();
+ * QueuedPlayer best = nearest.getPlayer(0);
+ * }
+ * </pre>
+ *
+ * <p>
+ * This is the default {@link MatchmakingIndex}; set
+ * {@code matchmaking.index=kdtree} to use {@link MatchmakingKDTree} instead.
+ */
+@Component
+@ConditionalOnProperty(name = "matchmaking.index", havingValue = "geocell", matchIfMissing = true)
+class GeoCellIndex implements MatchmakingIndex {
+    private static final int LOCK_STRIPES = 64; // Power of two, cells are spread over the stripes by hash
+
+    private final double rowHeight; // Height of a latitude band in degrees
+    private final int rowCount;
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> playerIndex = new ConcurrentHashMap<>();
+    private final ReadWriteLock[] locks = new ReadWriteLock[LOCK_STRIPES];
+    private final AtomicLong admissions = new AtomicLong();
+
+    /**
+     * Represents a queued player inside a cell. The rating is copied when the
+     * player is inserted so the ordering of the cell cannot change underneath
+     * it.
+     */
+    private static class Entry {
+        final QueuedPlayer player;
+        final UUID playerId;
+        final double rating;
+        final long cell;
+
+        Entry(QueuedPlayer player, UUID playerId, long cell) {
+            this.player = player;
+            this.playerId = playerId;
+            this.rating = player.getGlickoRating();
+            this.cell = cell;
+        }
+    }
+
+    /**
+     * The players of one cell as parallel arrays ordered by rating. Index
+     * {@code i} of every array describes the same player. Guarded by the
+     * cell's lock stripe.
+     */
+    private static final class Cell {
+        private static final int INITIAL_CAPACITY = 4;
+
+        Entry[] entries = new Entry[INITIAL_CAPACITY];
+        double[] ratings = new double[INITIAL_CAPACITY];
+        double[] deviations = new double[INITIAL_CAPACITY];
+        double[] xs = new double[INITIAL_CAPACITY];
+        double[] ys = new double[INITIAL_CAPACITY];
+        double[] zs = new double[INITIAL_CAPACITY];
+        long[] admitted = new long[INITIAL_CAPACITY];
+        int size;
+
+        void add(Entry entry, long admission) {
+            if (size == entries.length) {
+                grow();
+            }
+            // After any equal ratings, so players with the same rating stay in admission order
+            int i = upperBound(entry.rating);
+            int moved = size - i;
+            System.arraycopy(entries, i, entries, i + 1, moved);
+            System.arraycopy(ratings, i, ratings, i + 1, moved);
+            System.arraycopy(deviations, i, deviations, i + 1, moved);
+            System.arraycopy(xs, i, xs, i + 1, moved);
+            System.arraycopy(ys, i, ys, i + 1, moved);
+            System.arraycopy(zs, i, zs, i + 1, moved);
+            System.arraycopy(admitted, i, admitted, i + 1, moved);
+
+            QueuedPlayer player = entry.player;
+            entries[i] = entry;
+            ratings[i] = entry.rating;
+            deviations[i] = player.getGlickoRD();
+            GeoPoint location = player.getLocation();
+            xs[i] = location.getX();
+            ys[i] = location.getY();
+            zs[i] = location.getZ();
+            admitted[i] = admission;
+            size++;
+        }
+
+        boolean remove(Entry entry) {
+            for (int i = lowerBound(entry.rating); i < size && ratings[i] == entry.rating; i++) {
+                if (entries[i] == entry) {
+                    int moved = size - i - 1;
+                    System.arraycopy(entries, i + 1, entries, i, moved);
+                    System.arraycopy(ratings, i + 1, ratings, i, moved);
+                    System.arraycopy(deviations, i + 1, deviations, i, moved);
+                    System.arraycopy(xs, i + 1, xs, i, moved);
+                    System.arraycopy(ys, i + 1, ys, i, moved);
+                    System.arraycopy(zs, i + 1, zs, i, moved);
+                    System.arraycopy(admitted, i + 1, admitted, i, moved);
+                    entries[--size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the index of the first player rated at least {@code rating}.
+         */
+        int lowerBound(double rating) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ratings[mid] < rating) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the index of the first player rated above {@code rating}.
+         */
+        int upperBound(double rating) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ratings[mid] <= rating) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void grow() {
+            int capacity = entries.length * 2;
+            entries = Arrays.copyOf(entries, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+            deviations = Arrays.copyOf(deviations, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            zs = Arrays.copyOf(zs, capacity);
+            admitted = Arrays.copyOf(admitted, capacity);
+        }
+    }
+
+    GeoCellIndex(@Value("${matchmaking.cell-size-km:2.0}") double cellSizeKm) {
+        if (cellSizeKm <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSizeKm);
+        }
+        this.rowHeight = GeoDistance.latitudeSpanDegrees(cellSizeKm);
+        this.rowCount = (int) Math.ceil(180 / rowHeight);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public void insert(QueuedPlayer player) {
+        UUID playerId = getPlayerId(player);
+        Entry entry = new Entry(player, playerId, cellOf(player.getLatitude(), player.getLongitude()));
+
+        Entry previous;
+        Lock lock = lockFor(entry.cell).writeLock();
+        lock.lock();
+        try {
+            previous = playerIndex.put(playerId, entry);
+            cells.computeIfAbsent(entry.cell, cell -> new Cell()).add(entry, admissions.getAndIncrement());
+        } finally {
+            lock.unlock();
+        }
+
+        if (previous != null) {
+            removeFromCell(previous);
+        }
+    }
+
+    @Override
+    public void bulkLoad(List<QueuedPlayer> players) {
+        for (QueuedPlayer player : players) {
+            insert(player);
+        }
+    }
+
+    @Override
+    public void remove(QueuedPlayer player) {
+        Entry entry = playerIndex.get(getPlayerId(player));
+        // Same instance only, a stale copy of a player who rejoined must not remove the new entry
+        if (entry == null || entry.player != player) {
+            return;
+        }
+
+        Lock lock = lockFor(entry.cell).writeLock();
+        lock.lock();
+        try {
+            if (playerIndex.remove(entry.playerId, entry)) {
+                removeFromCellLocked(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeFromCell(Entry entry) {
+        Lock lock = lockFor(entry.cell).writeLock();
+        lock.lock();
+        try {
+            removeFromCellLocked(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeFromCellLocked(Entry entry) {
+        Cell cell = cells.get(entry.cell);
+        if (cell != null && cell.remove(entry) && cell.size == 0) {
+            cells.remove(entry.cell);
+        }
+    }
+
+    private ReadWriteLock lockFor(long cellKey) {
+        return locks[Long.hashCode(cellKey * 0x9E3779B97F4A7C15L) & (LOCK_STRIPES - 1)];
+    }
+
+    @Override
+    public QueuedPlayer getPlayer(UUID playerId) {
+        Entry entry = playerIndex.get(playerId);
+        return entry != null ? entry.player : null;
+    }
+
+    @Override
+    public boolean containsPlayer(UUID playerId) {
+        return playerIndex.containsKey(playerId);
+    }
+
+    @Override
+    public long watermark() {
+        return admissions.get();
+    }
+
+    @Override
+    public void findKNearest(QueuedPlayer target, SearchBand band, NearestCandidates result) {
+        if (result.limit() <= 0 || cells.isEmpty()) {
+            return;
+        }
+
+        SearchCriteria criteria = band.getCriteria();
+        double latitude = target.getLatitude();
+        double radiusKm = criteria.getMaxDistanceKm();
+        double latitudeSpan = GeoDistance.latitudeSpanDegrees(radiusKm);
+        // Longitude 0 keeps the span finite across the antimeridian, the columns wrap instead
+        double longitudeSpan = GeoDistance.longitudeSpanDegrees(latitude, 0, radiusKm);
+        int firstRow = rowOf(latitude - latitudeSpan);
+        int lastRow = rowOf(latitude + latitudeSpan);
+
+        // The closest candidates are most likely in the target's own cell, finding them first prunes the rest
+        long ownCell = cellOf(latitude, target.getLongitude());
+        searchCell(ownCell, target, band, result);
+
+        // If the search area covers more cells than are occupied, scan the occupied cells directly
+        long areaCells = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            areaCells += columnsToSearch(row, target.getLongitude(), longitudeSpan);
+        }
+        if (areaCells > cells.size()) {
+            for (Long cellKey : cells.keySet()) {
+                if (cellKey != ownCell && rowGapKm((int) (cellKey >>> 32), latitude) <= reachKm(criteria, result)) {
+                    searchCell(cellKey, target, band, result);
+                }
+            }
+            return;
+        }
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            // The reach shrinks as better candidates are kept, rows and columns beyond it cannot improve the result
+            double reachKm = reachKm(criteria, result);
+            if (rowGapKm(row, latitude) > reachKm) {
+                continue;
+            }
+            double span = reachKm < radiusKm ? GeoDistance.longitudeSpanDegrees(latitude, 0, reachKm) : longitudeSpan;
+            int columns = columnCount(row);
+            long count = columnsToSearch(row, target.getLongitude(), span);
+            long first = count == columns ? 0 : firstColumn(row, target.getLongitude(), span);
+            for (long i = 0; i < count; i++) {
+                long cellKey = cellKey(row, (int) Math.floorMod(first + i, (long) columns));
+                if (cellKey != ownCell) {
+                    searchCell(cellKey, target, band, result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how far away a player can be and still beat the worst candidate
+     * kept, at most the search radius.
+     */
+    private static double reachKm(SearchCriteria criteria, NearestCandidates result) {
+        double radiusKm = criteria.getMaxDistanceKm();
+        return result.isFull() ? Math.min(radiusKm, criteria.distanceAtCost(result.worstCost())) : radiusKm;
+    }
+
+    /**
+     * Returns the distance from a latitude to the nearest edge of a band, 0
+     * inside it. Every player in the band is at least that far away.
+     */
+    private double rowGapKm(int row, double latitude) {
+        double south = row * rowHeight - 90;
+        double north = south + rowHeight;
+        double gap = latitude < south ? south - latitude : latitude > north ? latitude - north : 0;
+        return Math.toRadians(gap) * GeoDistance.EARTH_RADIUS_KM;
+    }
+
+    /**
+     * Scans the players of a cell outward from the target's rating. The loops
+     * only read the cell's primitive arrays, the player is looked up once it
+     * passes every window.
+     */
+    private void searchCell(long cellKey, QueuedPlayer target, SearchBand band, NearestCandidates result) {
+        SearchCriteria criteria = band.getCriteria();
+        double rating = target.getGlickoRating();
+        double maxRatingDiff = criteria.getMaxRatingDiff();
+
+        Lock lock = lockFor(cellKey).readLock();
+        lock.lock();
+        try {
+            Cell cell = cells.get(cellKey);
+            if (cell == null) {
+                return;
+            }
+            double[] ratings = cell.ratings;
+            int start = cell.lowerBound(rating);
+            for (int i = start; i < cell.size; i++) {
+                double ratingDiff = ratings[i] - rating;
+                if (ratingDiff > maxRatingDiff || isRatingPruned(criteria, ratingDiff, result)) {
+                    break;
+                }
+                consider(cell, i, ratingDiff, target, band, result);
+            }
+            for (int i = start - 1; i >= 0; i--) {
+                double ratingDiff = rating - ratings[i];
+                if (ratingDiff > maxRatingDiff || isRatingPruned(criteria, ratingDiff, result)) {
+                    break;
+                }
+                consider(cell, i, ratingDiff, target, band, result);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether every player further away in rating would cost more than
+     * the worst candidate kept, so none of them could make it into the result.
+     */
+    private static boolean isRatingPruned(SearchCriteria criteria, double ratingDiff, NearestCandidates result) {
+        return result.isFull() && criteria.ratingCost(ratingDiff) >= result.worstCost();
+    }
+
+    private static void consider(Cell cell, int i, double ratingDiff, QueuedPlayer target, SearchBand band,
+            NearestCandidates result) {
+        SearchCriteria criteria = band.getCriteria();
+        double rdDiff = Math.abs(target.getGlickoRD() - cell.deviations[i]);
+        if (rdDiff > criteria.getMaxDeviationDiff()) {
+            return;
+        }
+        // Distance only adds to the cost, so skip the distance if the rest already costs too much
+        if (result.isFull() && criteria.ratingCost(ratingDiff) + criteria.deviationCost(rdDiff) >= result.worstCost()) {
+            return;
+        }
+
+        double chordSquared = target.getLocation().chordSquared(cell.xs[i], cell.ys[i], cell.zs[i]);
+        if (!criteria.getDistanceRadius().containsChord(chordSquared)) {
+            return;
+        }
+        double distanceKm = GeoDistance.chordSquaredToKm(chordSquared);
+        if (band.wasSearched(cell.admitted[i], ratingDiff, rdDiff, distanceKm)) {
+            return;
+        }
+        result.offer(cell.entries[i].player, criteria.cost(ratingDiff, rdDiff, distanceKm));
+    }
+
+    /**
+     * Returns how many columns of a band overlap the longitude span around the
+     * target, at most the whole band.
+     */
+    private long columnsToSearch(int row, double longitude, double longitudeSpan) {
+        int columns = columnCount(row);
+        if (Double.isInfinite(longitudeSpan)) {
+            return columns;
+        }
+        double columnWidth = 360.0 / columns;
+        long last = (long) Math.floor((longitude + longitudeSpan + 180) / columnWidth);
+        return Math.min(columns, last - firstColumn(row, longitude, longitudeSpan) + 1);
+    }
+
+    private long firstColumn(int row, double longitude, double longitudeSpan) {
+        return (long) Math.floor((longitude - longitudeSpan + 180) / (360.0 / columnCount(row)));
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        int row = rowOf(latitude);
+        int columns = columnCount(row);
+        int column = (int) Math.floor((longitude + 180) / (360.0 / columns));
+        return cellKey(row, Math.floorMod(column, columns));
+    }
+
+    private int rowOf(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / rowHeight);
+        return Math.max(0, Math.min(rowCount - 1, row));
+    }
+
+    /**
+     * Returns the number of longitude columns in a band. Columns are as narrow
+     * as possible while still being at least a cell wide at the band's edge
+     * closest to a pole.
+     *
+     * @param row the latitude band
+     * @return the number of columns in the band
+     */
+    private int columnCount(int row) {
+        double south = row * rowHeight - 90;
+        double north = Math.min(90, south + rowHeight);
+        double poleward = Math.max(Math.abs(south), Math.abs(north));
+        double minimumWidth = rowHeight / Math.cos(Math.toRadians(poleward));
+        if (Double.isNaN(minimumWidth) || minimumWidth >= 360) {
+            return 1;
+        }
+        return Math.max(1, (int) Math.floor(360 / minimumWidth));
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    /**
+     * Returns the number of occupied cells.
+     *
+     * @return the number of cells holding at least one player
+     */
+    int cellCount() {
+        return cells.size();
+    }
+
+    @Override
+    public int size() {
+        return playerIndex.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return playerIndex.isEmpty();
+    }
+
+    @Override
+    public List<QueuedPlayer> getAllPlayers() {
+        List<QueuedPlayer> players = new ArrayList<>(playerIndex.size());
+        for (Entry entry : playerIndex.values()) {
+            players.add(entry.player);
+        }
+        return players;
+    }
+
+    private UUID getPlayerId(QueuedPlayer player) {
+        return player.getUserId();
+    }
+}
@@ -2,9 +2,11 @@
 package com.project.G1_T3.matchmaking.service;
 
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Slf4j
@@ -14,6 +16,16 @@ public class GlickoMatchmaking implements MatchmakingAlgorithm {
     private static final double MAX_DEVIATION_DIFF = 100.0; // Maximum acceptable RD difference
     private static final double MAX_DISTANCE_KM = 2.0; // Maximum distance in kilometers
 
+    // Weights used to rank candidates that are inside every window
+    @Value("${matchmaking.cost.rating-weight:1.0}")
+    private double ratingWeight = SearchCriteria.DEFAULT_RATING_WEIGHT;
+
+    @Value("${matchmaking.cost.deviation-weight:0.5}")
+    private double deviationWeight = SearchCriteria.DEFAULT_DEVIATION_WEIGHT;
+
+    @Value("${matchmaking.cost.distance-weight:1.0}")
+    private double distanceWeight = SearchCriteria.DEFAULT_DISTANCE_WEIGHT;
+
     private final LocationService locationService;
 
     @Autowired
@@ -23,29 +35,57 @@ public class GlickoMatchmaking implements MatchmakingAlgorithm {
 
     @Override
     public boolean isGoodMatch(QueuedPlayer player1, QueuedPlayer player2) {
+        return isGoodMatch(player1, player2, getSearchCriteria());
+    }
+
+    @Override
+    public String getName() {
+        return "glicko";
+    }
+
+    /**
+     * Checks whether two players are inside every window of the given criteria.
+     * The rating windows are checked first, so the locations are only compared
+     * for players who pass them.
+     *
+     * @param player1  the first player
+     * @param player2  the second player
+     * @param criteria the windows to check against
+     * @return true if the players can be matched
+     */
+    @Override
+    public boolean isGoodMatch(QueuedPlayer player1, QueuedPlayer player2, SearchCriteria criteria) {
         // Check rating difference
-        double ratingDiff = Math.abs(player1.getPlayer().getGlickoRating() -
-                player2.getPlayer().getGlickoRating());
+        double ratingDiff = Math.abs(player1.getGlickoRating() -
+                player2.getGlickoRating());
 
         // Check rating deviation difference
-        double deviationDiff = Math.abs(player1.getPlayer().getRatingDeviation() -
-                player2.getPlayer().getRatingDeviation());
-
-        // Calculate geographical distance
-        double distance = locationService.calculateDistance(
-                player1.getLatitude(), player1.getLongitude(),
-                player2.getLatitude(), player2.getLongitude());
+        double deviationDiff = Math.abs(player1.getGlickoRD() -
+                player2.getGlickoRD());
 
-        boolean isMatch = ratingDiff <= MAX_RATING_DIFFERENCE &&
-                deviationDiff <= MAX_DEVIATION_DIFF &&
-                distance <= MAX_DISTANCE_KM;
+        // Check geographical distance
+        boolean isMatch = ratingDiff <= criteria.getMaxRatingDiff()
+                && deviationDiff <= criteria.getMaxDeviationDiff()
+                && locationService.isWithinDistance(player1.getLocation(), player2.getLocation(),
+                        criteria.getDistanceRadius());
 
-        log.debug("Match check: Rating diff={}, RD diff={}, Distance={}, isMatch={}",
-                ratingDiff, deviationDiff, distance, isMatch);
+        log.debug("Match check: Rating diff={}, RD diff={}, isMatch={}", ratingDiff, deviationDiff, isMatch);
 
         return isMatch;
     }
 
+    /**
+     * Returns the windows this algorithm accepts, so the queue index only
+     * visits players that can pass {@link #isGoodMatch(QueuedPlayer, QueuedPlayer)}.
+     *
+     * @return the search criteria for the queue index
+     */
+    @Override
+    public SearchCriteria getSearchCriteria() {
+        return new SearchCriteria(MAX_RATING_DIFFERENCE, MAX_DEVIATION_DIFF, MAX_DISTANCE_KM,
+                ratingWeight, deviationWeight, distanceWeight);
+    }
+
     public double getMaxRatingDiff() {
         return MAX_RATING_DIFFERENCE;
     }
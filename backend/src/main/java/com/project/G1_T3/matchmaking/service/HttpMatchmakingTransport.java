@@ -0,0 +1,82 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+import com.project.G1_T3.matchmaking.model.QueueRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Forwards solo queue requests and strategy changes to other nodes over HTTP. Each node accepts
+ * them on {@code /internal/matchmaking}, authenticated with the shared
+ * {@code matchmaking.cluster.token}.
+ */
+@Component
+public class HttpMatchmakingTransport implements MatchmakingTransport {
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    private final MatchmakingPartitioner partitioner;
+    private final RestTemplate restTemplate;
+    private final String token;
+
+    @Autowired
+    public HttpMatchmakingTransport(MatchmakingPartitioner partitioner, RestTemplateBuilder restTemplateBuilder,
+            @Value("${matchmaking.cluster.token:}") String token) {
+        this.partitioner = partitioner;
+        // A queue request should never wait long on a node that is down
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(1))
+                .setReadTimeout(Duration.ofSeconds(2))
+                .build();
+        this.token = token;
+    }
+
+    @Override
+    public void forwardJoin(String nodeId, QueueRequest request) {
+        post(nodeId, "/internal/matchmaking/queue", request);
+    }
+
+    @Override
+    public void forwardLeave(String nodeId, QueueRequest request) {
+        post(nodeId, "/internal/matchmaking/dequeue", request);
+    }
+
+    @Override
+    public void forwardRegion(String nodeId, MatchmakingRegion region) {
+        send(nodeId, HttpMethod.PUT, "/internal/matchmaking/regions/{name}", region, region.getName());
+    }
+
+    @Override
+    public void forwardRegionRemoval(String nodeId, String name) {
+        send(nodeId, HttpMethod.DELETE, "/internal/matchmaking/regions/{name}", null, name);
+    }
+
+    @Override
+    public void forwardDefaultAlgorithm(String nodeId, String algorithm) {
+        send(nodeId, HttpMethod.PUT, "/internal/matchmaking/default-algorithm?algorithm={algorithm}", null,
+                algorithm);
+    }
+
+    private void post(String nodeId, String path, QueueRequest request) {
+        send(nodeId, HttpMethod.POST, path, request);
+    }
+
+    // Names are passed as URI variables so the template encodes them
+    private void send(String nodeId, HttpMethod method, String path, Object body, Object... uriVariables) {
+        String baseUrl = partitioner.getBaseUrl(nodeId);
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("Unknown cluster node: " + nodeId);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(TOKEN_HEADER, token);
+        restTemplate.exchange(baseUrl + path, method, new HttpEntity<>(body, headers), Void.class, uriVariables);
+    }
+}
@@ -0,0 +1,299 @@
+package com.project.G1_T3.matchmaking.service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * The queued players ordered by join time, as an indexed binary min-heap.
+ *
+ * <p>
+ * Every {@link Node} remembers its position in the heap array, which serves
+ * as its handle: a node can be removed in O(log n) without searching for it,
+ * and the player who joined first is always at the root. The key is the join
+ * time, which never changes while a player waits, so the heap order cannot go
+ * stale the way an order on time spent waiting would.
+ *
+ * <p>
+ * A {@link Cursor} walks the heap from the earliest join time onward without
+ * copying it. It keeps a small frontier of nodes whose parents it has already
+ * visited and always visits the earliest of them next, so a walk that stops
+ * after k nodes costs O(k log k). Players can join and leave during a walk:
+ * when a node in the frontier is removed the node that takes its place joins
+ * the frontier instead, and any node an insert or removal moves is added to
+ * the frontier unless the walk already visited it. A walk therefore visits
+ * every player who stays queued throughout it, and players who join during
+ * the walk as well.
+ *
+ * <p>
+ * All methods synchronise on the queue. Only one cursor can be open at a
+ * time.
+ */
+final class IndexedWaitQueue<T extends IndexedWaitQueue.Node> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Node[] heap = new Node[INITIAL_CAPACITY];
+    private int size;
+    private long walks;
+    private Cursor cursor;
+
+    /**
+     * An entry of the queue. The position is only touched by the queue.
+     */
+    static class Node {
+        private final long key;
+        private int index = -1;
+        private long visitedIn;
+        private long frontierIn;
+
+        Node(Instant joinTime) {
+            this.key = joinTime.getEpochSecond() * 1_000_000_000L + joinTime.getNano();
+        }
+
+        boolean isQueued() {
+            return index >= 0;
+        }
+    }
+
+    /**
+     * Adds a node, unless it is already queued.
+     *
+     * @param entry the node to add
+     */
+    synchronized void add(T entry) {
+        Node node = entry;
+        if (node.index >= 0) {
+            return;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        siftUp(size++, node);
+        if (cursor != null) {
+            cursor.cover(node.index);
+        }
+    }
+
+    /**
+     * Removes a node in O(log n).
+     *
+     * @param entry the node to remove
+     * @return true if the node was queued
+     */
+    synchronized boolean remove(T entry) {
+        Node node = entry;
+        int i = node.index;
+        if (i < 0) {
+            return false;
+        }
+
+        Node last = heap[--size];
+        heap[size] = null;
+        node.index = -1;
+        if (i < size) {
+            if (i > 0 && last.key < heap[(i - 1) >>> 1].key) {
+                siftUp(i, last);
+            } else {
+                siftDown(i, last);
+            }
+            if (cursor != null) {
+                // The subtree the walk expected under the removed node now hangs off its replacement
+                if (node.frontierIn == cursor.walk && node.visitedIn != cursor.walk) {
+                    cursor.cover(i);
+                }
+                cursor.cover(last.index);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the earliest joiner the predicate accepts, visiting nodes in join
+     * order and stopping at the first match. The predicate runs while the
+     * queue is locked and must not add or remove nodes.
+     *
+     * @param predicate the test, may claim the node it accepts
+     * @return the node, or null if the predicate accepted none
+     */
+    @SuppressWarnings("unchecked")
+    synchronized T first(Predicate<T> predicate) {
+        if (size == 0) {
+            return null;
+        }
+        Node[] frontier = new Node[INITIAL_CAPACITY];
+        int frontierSize = 0;
+        frontier[frontierSize++] = heap[0];
+        while (frontierSize > 0) {
+            Node node = frontier[0];
+            frontierSize = popFrontier(frontier, frontierSize);
+            if (predicate.test((T) node)) {
+                return (T) node;
+            }
+            for (int child = 2 * node.index + 1; child <= 2 * node.index + 2 && child < size; child++) {
+                if (frontierSize == frontier.length) {
+                    frontier = Arrays.copyOf(frontier, frontierSize * 2);
+                }
+                pushFrontier(frontier, frontierSize++, heap[child]);
+            }
+        }
+        return null;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Opens a walk over the queue in join order. Close it when done, so the
+     * next walk can start.
+     *
+     * @return the cursor
+     * @throws IllegalStateException if another cursor is still open
+     */
+    synchronized Cursor cursor() {
+        if (cursor != null) {
+            throw new IllegalStateException("Another walk over the wait queue is still open");
+        }
+        cursor = new Cursor(++walks);
+        cursor.cover(0);
+        return cursor;
+    }
+
+    private void siftUp(int i, Node node) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            Node above = heap[parent];
+            if (above.key <= node.key) {
+                break;
+            }
+            place(i, above);
+            i = parent;
+        }
+        place(i, node);
+    }
+
+    private void siftDown(int i, Node node) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right].key < heap[child].key) {
+                child = right;
+            }
+            if (node.key <= heap[child].key) {
+                break;
+            }
+            place(i, heap[child]);
+            i = child;
+        }
+        place(i, node);
+    }
+
+    private void place(int i, Node node) {
+        heap[i] = node;
+        node.index = i;
+    }
+
+    private static int popFrontier(Node[] frontier, int frontierSize) {
+        Node last = frontier[--frontierSize];
+        frontier[frontierSize] = null;
+        int i = 0;
+        int half = frontierSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < frontierSize && frontier[child + 1].key < frontier[child].key) {
+                child++;
+            }
+            if (last.key <= frontier[child].key) {
+                break;
+            }
+            frontier[i] = frontier[child];
+            i = child;
+        }
+        if (frontierSize > 0) {
+            frontier[i] = last;
+        }
+        return frontierSize;
+    }
+
+    private static void pushFrontier(Node[] frontier, int i, Node node) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (frontier[parent].key <= node.key) {
+                break;
+            }
+            frontier[i] = frontier[parent];
+            i = parent;
+        }
+        frontier[i] = node;
+    }
+
+    /**
+     * A walk over the queue in join order, see the class comment.
+     */
+    final class Cursor implements AutoCloseable {
+        private final long walk;
+        private Node[] frontier = new Node[INITIAL_CAPACITY];
+        private int frontierSize;
+
+        private Cursor(long walk) {
+            this.walk = walk;
+        }
+
+        /**
+         * Returns the next node in join order. Each node is returned at most
+         * once per walk.
+         *
+         * @return the node, or null once the walk is done
+         */
+        @SuppressWarnings("unchecked")
+        T next() {
+            synchronized (IndexedWaitQueue.this) {
+                while (frontierSize > 0) {
+                    Node node = frontier[0];
+                    frontierSize = popFrontier(frontier, frontierSize);
+                    if (node.index < 0 || node.visitedIn == walk) {
+                        continue;
+                    }
+                    node.visitedIn = walk;
+                    cover(2 * node.index + 1);
+                    cover(2 * node.index + 2);
+                    return (T) node;
+                }
+                return null;
+            }
+        }
+
+        /**
+         * Makes sure the walk reaches the subtree at a heap position: the node
+         * there joins the frontier, or its children do if it was visited.
+         */
+        private void cover(int i) {
+            if (i >= size) {
+                return;
+            }
+            Node node = heap[i];
+            if (node.visitedIn == walk) {
+                cover(2 * i + 1);
+                cover(2 * i + 2);
+            } else if (node.frontierIn != walk) {
+                node.frontierIn = walk;
+                if (frontierSize == frontier.length) {
+                    frontier = Arrays.copyOf(frontier, frontierSize * 2);
+                }
+                pushFrontier(frontier, frontierSize++, node);
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (IndexedWaitQueue.this) {
+                Arrays.fill(frontier, 0, frontierSize, null);
+                frontierSize = 0;
+                if (cursor == this) {
+                    cursor = null;
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.project.G1_T3.matchmaking.service;
 
+import com.project.G1_T3.common.geo.GeoPoint;
+import com.project.G1_T3.common.geo.GeoRadius;
+
 public interface LocationService {
     double calculateDistance(double lat1, double lon1, double lat2, double lon2);
-}
\ No newline at end of file
+
+    double calculateDistance(GeoPoint from, GeoPoint to);
+
+    boolean isWithinDistance(GeoPoint from, GeoPoint to, GeoRadius radius);
+}
@@ -1,14 +1,21 @@
 package com.project.G1_T3.matchmaking.service;
 
 import com.project.G1_T3.common.exception.LocationServiceException;
+import com.project.G1_T3.common.geo.GeoDistance;
+import com.project.G1_T3.common.geo.GeoPoint;
+import com.project.G1_T3.common.geo.GeoRadius;
 import org.springframework.stereotype.Service;
 
 /**
  * Service implementation for location-based operations.
+ *
+ * <p>
+ * The {@link GeoPoint} overloads are the ones used while matchmaking. They
+ * work on the unit vectors each queued player carries, so they need at most
+ * one trigonometric call per pair.
  */
 @Service
 public class LocationServiceImpl implements LocationService {
-    private static final int EARTH_RADIUS_KM = 6371; // Radius of the Earth in kilometers
 
     /**
      * Calculates the distance between two points specified by their latitude and longitude
@@ -19,28 +26,39 @@ public class LocationServiceImpl implements LocationService {
      * @param lat2 Latitude of the second point
      * @param lon2 Longitude of the second point
      * @return The distance between the two points in kilometers
-     * @throws LocationServiceException if an error occurs during the calculation
+     * @throws LocationServiceException if a coordinate is not a finite number
      */
     @Override
     public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        try {
-            // Convert latitude and longitude from degrees to radians
-            double dLat = Math.toRadians(lat2 - lat1);
-            double dLon = Math.toRadians(lon2 - lon1);
-            lat1 = Math.toRadians(lat1);
-            lat2 = Math.toRadians(lat2);
+        if (!Double.isFinite(lat1) || !Double.isFinite(lon1) || !Double.isFinite(lat2) || !Double.isFinite(lon2)) {
+            throw new LocationServiceException("Error calculating distance: coordinates must be finite numbers");
+        }
+        return GeoDistance.haversineKm(lat1, lon1, lat2, lon2);
+    }
 
-            // Haversine formula to calculate the great-circle distance between two points
-            double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                    Math.cos(lat1) * Math.cos(lat2) *
-                            Math.sin(dLon / 2) * Math.sin(dLon / 2);
-            double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    /**
+     * Calculates the great-circle distance between two locations.
+     *
+     * @param from the first location
+     * @param to   the second location
+     * @return The distance between the two locations in kilometers
+     */
+    @Override
+    public double calculateDistance(GeoPoint from, GeoPoint to) {
+        return from.distanceKm(to);
+    }
 
-            // Return the distance in kilometers
-            return EARTH_RADIUS_KM * c;
-        } catch (Exception e) {
-            // Throw a custom exception if an error occurs
-            throw new LocationServiceException("Error calculating distance: " + e.getMessage(), e);
-        }
+    /**
+     * Checks whether two locations are at most a radius apart, without
+     * calculating their distance unless they are right on its edge.
+     *
+     * @param from   the first location
+     * @param to     the second location
+     * @param radius the radius to check against
+     * @return true if the locations are within the radius
+     */
+    @Override
+    public boolean isWithinDistance(GeoPoint from, GeoPoint to, GeoRadius radius) {
+        return radius.contains(from, to);
     }
-}
\ No newline at end of file
+}
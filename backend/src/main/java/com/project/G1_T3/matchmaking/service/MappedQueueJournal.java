@@ -0,0 +1,364 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Journals the solo queue to a memory-mapped append-only log on local disk.
+ *
+ * <p>
+ * The journal directory holds two files:
+ *
+ * <ul>
+ * <li>{@code queue.log}: a fixed-size file mapped into memory. Events are
+ * appended as fixed-size binary records, so recording an event is a few
+ * writes into the mapping and never a system call. A record's type byte is
+ * written after its body, and the unused tail of the file is kept zero, so a
+ * record torn by a crash reads as the end of the log. On startup everything
+ * after the last complete record is zeroed, so the body of a torn record
+ * cannot be read as records once shorter ones are written over it.
+ * <li>{@code queue.snapshot}: the players that were queued when the log was
+ * last compacted, one join record each.
+ * </ul>
+ *
+ * <p>
+ * Compaction folds the log into the snapshot and empties the log. It runs on
+ * startup, periodically, and whenever the log is full, so recovery never has
+ * to read more than one snapshot and one log. The new snapshot is written to
+ * a temporary file and moved into place, so a crash leaves either the old or
+ * the new one. Replaying a log on top of a snapshot that already contains it
+ * gives the same queue, so a crash between the move and emptying the log is
+ * harmless too.
+ *
+ * <p>
+ * Records survive the process dying because the mapping lives in the page
+ * cache. They are only forced to disk on compaction and shutdown, so a power
+ * loss can drop the most recent events.
+ *
+ * <p>
+ * Set {@code matchmaking.journal.enabled=true} to use it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "matchmaking.journal.enabled", havingValue = "true")
+public class MappedQueueJournal implements QueueJournal {
+    private static final byte END = 0;
+    private static final byte JOIN = 1;
+    private static final byte LEAVE = 2;
+    private static final byte MATCH = 3;
+
+    private static final int UUID_BYTES = 16;
+    // Type, user and profile IDs, rating, deviation, volatility, current rating, latitude, longitude, join time
+    private static final int JOIN_BYTES = 1 + 2 * UUID_BYTES + 6 * Double.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int LEAVE_BYTES = 1 + UUID_BYTES;
+    private static final int MATCH_BYTES = 1 + 2 * UUID_BYTES;
+
+    private static final int SNAPSHOT_MAGIC = 0x51534e50; // "QSNP"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path snapshotFile;
+    private final FileChannel logChannel;
+    private final MappedByteBuffer events;
+
+    /**
+     * @param directory     the directory holding the log and snapshot
+     * @param logCapacityMb the size of the mapped log
+     */
+    @Autowired
+    public MappedQueueJournal(@Value("${matchmaking.journal.directory:data/matchmaking}") String directory,
+            @Value("${matchmaking.journal.log-capacity-mb:64}") int logCapacityMb) {
+        this(Paths.get(directory), logCapacityMb * 1024 * 1024);
+    }
+
+    MappedQueueJournal(Path directory, int logCapacityBytes) {
+        if (logCapacityBytes < JOIN_BYTES) {
+            throw new IllegalArgumentException("Journal log must hold at least one record: " + logCapacityBytes);
+        }
+        Path logFile = directory.resolve("queue.log");
+        this.snapshotFile = directory.resolve("queue.snapshot");
+        try {
+            Files.createDirectories(directory);
+            this.logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.events = logChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(logCapacityBytes, logChannel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the matchmaking journal in " + directory, e);
+        }
+        // Continue after the last complete record, a torn one is overwritten
+        events.position(0);
+        skipRecords(events);
+        zeroFrom(events.position());
+    }
+
+    @Override
+    public synchronized void recordJoin(QueuedPlayer player) {
+        if (!ensureCapacity(JOIN_BYTES)) {
+            return;
+        }
+        int start = events.position();
+        events.position(start + 1);
+        writeJoin(events, player);
+        events.put(start, JOIN);
+    }
+
+    @Override
+    public synchronized void recordLeave(UUID userId) {
+        if (!ensureCapacity(LEAVE_BYTES)) {
+            return;
+        }
+        int start = events.position();
+        events.position(start + 1);
+        writeUuid(events, userId);
+        events.put(start, LEAVE);
+    }
+
+    @Override
+    public synchronized void recordMatch(UUID userId, UUID opponentId) {
+        if (!ensureCapacity(MATCH_BYTES)) {
+            return;
+        }
+        int start = events.position();
+        events.position(start + 1);
+        writeUuid(events, userId);
+        writeUuid(events, opponentId);
+        events.put(start, MATCH);
+    }
+
+    /**
+     * Replays the snapshot and the log, then compacts them so the next
+     * recovery starts from the queue as it is now.
+     */
+    @Override
+    public synchronized List<QueuedPlayer> recover() {
+        long start = System.nanoTime();
+        Map<UUID, QueuedPlayer> queued = replay();
+        compact(queued);
+
+        List<QueuedPlayer> players = new ArrayList<>(queued.values());
+        players.sort(Comparator.comparing(QueuedPlayer::getJoinTime));
+        log.info("Recovered {} queued players from the journal in {} ms", players.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return players;
+    }
+
+    /**
+     * Folds the log into a new snapshot. Does nothing if the log is empty.
+     */
+    @Scheduled(fixedDelayString = "${matchmaking.journal.snapshot-interval-ms:300000}")
+    public synchronized void compact() {
+        if (events.position() > 0) {
+            compact(replay());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        events.force();
+        try {
+            logChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the matchmaking journal: {}", e.getMessage());
+        }
+    }
+
+    private boolean ensureCapacity(int recordBytes) {
+        if (events.remaining() >= recordBytes) {
+            return true;
+        }
+        compact();
+        if (events.remaining() >= recordBytes) {
+            return true;
+        }
+        log.error("Matchmaking journal is full, queue events are not being persisted");
+        return false;
+    }
+
+    private Map<UUID, QueuedPlayer> replay() {
+        Map<UUID, QueuedPlayer> queued = new LinkedHashMap<>();
+        if (Files.exists(snapshotFile)) {
+            try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+                ByteBuffer snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (snapshot.remaining() < SNAPSHOT_HEADER_BYTES || snapshot.getInt() != SNAPSHOT_MAGIC
+                        || snapshot.getInt() != SNAPSHOT_VERSION) {
+                    throw new IllegalStateException("Unrecognised matchmaking snapshot " + snapshotFile);
+                }
+                applyRecords(snapshot, queued);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read the matchmaking snapshot", e);
+            }
+        }
+
+        ByteBuffer logged = events.duplicate();
+        logged.position(0);
+        applyRecords(logged, queued);
+        return queued;
+    }
+
+    private void compact(Map<UUID, QueuedPlayer> queued) {
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer snapshot = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    SNAPSHOT_HEADER_BYTES + (long) queued.size() * JOIN_BYTES);
+            snapshot.putInt(SNAPSHOT_MAGIC);
+            snapshot.putInt(SNAPSHOT_VERSION);
+            for (QueuedPlayer player : queued.values()) {
+                snapshot.put(JOIN);
+                writeJoin(snapshot, player);
+            }
+            snapshot.force();
+        } catch (IOException e) {
+            log.error("Failed to write the matchmaking snapshot, keeping the log", e);
+            return;
+        }
+
+        try {
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to replace the matchmaking snapshot, keeping the log", e);
+            return;
+        }
+
+        // Zero the whole log, the first zero type byte marks its end
+        zeroFrom(0);
+        events.position(0);
+        events.force();
+    }
+
+    /**
+     * Zeroes the log from an offset to the end of the mapping, leaving its
+     * position where it was.
+     */
+    private void zeroFrom(int offset) {
+        int end = events.capacity();
+        int i = offset;
+        // Only write where something is left, so pages that are already zero are not dirtied
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            if (events.getLong(i) != 0) {
+                events.putLong(i, 0);
+            }
+        }
+        for (; i < end; i++) {
+            if (events.get(i) != END) {
+                events.put(i, END);
+            }
+        }
+    }
+
+    private static void applyRecords(ByteBuffer buffer, Map<UUID, QueuedPlayer> queued) {
+        while (buffer.hasRemaining()) {
+            int recordBytes = recordBytes(buffer.get(buffer.position()));
+            if (recordBytes == 0 || buffer.remaining() < recordBytes) {
+                return;
+            }
+            byte type = buffer.get();
+            switch (type) {
+                case JOIN -> {
+                    QueuedPlayer player = readJoin(buffer);
+                    // The queue ignores a join for a player who is already queued
+                    queued.putIfAbsent(player.getUserId(), player);
+                }
+                case LEAVE -> queued.remove(readUuid(buffer));
+                case MATCH -> {
+                    queued.remove(readUuid(buffer));
+                    queued.remove(readUuid(buffer));
+                }
+                default -> throw new IllegalStateException("Unknown record type " + type);
+            }
+        }
+    }
+
+    private static void skipRecords(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            int recordBytes = recordBytes(buffer.get(buffer.position()));
+            if (recordBytes == 0 || buffer.remaining() < recordBytes) {
+                return;
+            }
+            buffer.position(buffer.position() + recordBytes);
+        }
+    }
+
+    /**
+     * Returns the size of a record, or 0 for the end of the log. An unknown
+     * type can only be left by a corrupted file, everything after it is
+     * dropped.
+     */
+    private static int recordBytes(byte type) {
+        switch (type) {
+            case JOIN:
+                return JOIN_BYTES;
+            case LEAVE:
+                return LEAVE_BYTES;
+            case MATCH:
+                return MATCH_BYTES;
+            case END:
+                return 0;
+            default:
+                log.warn("Unknown matchmaking journal record type {}, ignoring the rest of the file", type);
+                return 0;
+        }
+    }
+
+    private static void writeJoin(ByteBuffer buffer, QueuedPlayer player) {
+        writeUuid(buffer, player.getUserId());
+        writeUuid(buffer, player.getProfileId());
+        buffer.putDouble(player.getGlickoRating());
+        buffer.putDouble(player.getGlickoRD());
+        buffer.putDouble(player.getVolatility());
+        buffer.putDouble(player.getCurrentRating());
+        buffer.putDouble(player.getLatitude());
+        buffer.putDouble(player.getLongitude());
+        buffer.putLong(player.getJoinTime().getEpochSecond());
+        buffer.putInt(player.getJoinTime().getNano());
+    }
+
+    private static QueuedPlayer readJoin(ByteBuffer buffer) {
+        UUID userId = readUuid(buffer);
+        UUID profileId = readUuid(buffer);
+        double glickoRating = buffer.getDouble();
+        double ratingDeviation = buffer.getDouble();
+        double volatility = buffer.getDouble();
+        double currentRating = buffer.getDouble();
+        double latitude = buffer.getDouble();
+        double longitude = buffer.getDouble();
+        Instant joinTime = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        return new QueuedPlayer(userId, profileId, glickoRating, ratingDeviation, volatility, currentRating,
+                latitude, longitude, joinTime);
+    }
+
+    private static void writeUuid(ByteBuffer buffer, UUID id) {
+        // The nil UUID stands in for a missing ID
+        buffer.putLong(id != null ? id.getMostSignificantBits() : 0);
+        buffer.putLong(id != null ? id.getLeastSignificantBits() : 0);
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        return most == 0 && least == 0 ? null : new UUID(most, least);
+    }
+}
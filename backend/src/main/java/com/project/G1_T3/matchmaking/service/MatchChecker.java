@@ -1,29 +1,35 @@
 package com.project.G1_T3.matchmaking.service;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.project.G1_T3.common.model.Status;
 import com.project.G1_T3.match.model.Match;
-import com.project.G1_T3.matchmaking.model.MatchNotificationDTO;
+import com.project.G1_T3.matchmaking.model.FoundMatch;
+import com.project.G1_T3.matchmaking.model.PlayerQueuedEvent;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 import com.project.G1_T3.playerprofile.model.PlayerProfileDTO;
 import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
 import com.project.G1_T3.match.repository.MatchRepository;
-import com.project.G1_T3.user.model.User;
-import com.project.G1_T3.user.repository.UserRepository;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * The MatchChecker class is responsible for periodically checking for matches
  * and processing them. It uses the MatchmakingService to find matches and
- * sends notifications to the matched players.
+ * the MatchNotifier to tell the matched players, once per match.
  *
  * <p>
  * This class is annotated with @Slf4j for logging, @Component to indicate
@@ -36,9 +42,10 @@ import lombok.extern.slf4j.Slf4j;
  * </p>
  * <ul>
  * <li>MatchmakingService - Service for matchmaking operations</li>
- * <li>SimpMessagingTemplate - Template for sending WebSocket messages</li>
- * <li>PlayerProfileRepository - Repository for player profiles</li>
- * <li>UserRepository - Repository for user data</li>
+ * <li>MatchNotifier - Sends match notifications to the players</li>
+ * <li>MatchmakingMetrics - Records the sweep ticks and queue depths</li>
+ * <li>PlayerProfileRepository - Repository for the profiles of players
+ * recovered from the queue journal</li>
  * <li>MatchRepository - Repository for match data</li>
  * </ul>
  *
@@ -46,25 +53,26 @@ import lombok.extern.slf4j.Slf4j;
  * Methods:
  * </p>
  * <ul>
- * <li>{@link #checkForMatches()} - Scheduled method that checks for matches
- * every 5 seconds</li>
- * <li>{@link #processMatch(Match)} - Processes a found match, updates match
- * status, and sends notifications</li>
- * <li>{@link #getPlayerProfile(UUID)} - Retrieves a player profile by player
- * ID</li>
- * <li>{@link #updateMatchStatus(Match)} - Updates the status of a match to
- * IN_PROGRESS</li>
- * <li>{@link #sendNotifications(Match, PlayerProfile, PlayerProfile, User, User)}
- * - Sends match notifications to the players</li>
- * <li>{@link #logQueueStatus()} - Scheduled method that logs the queue status
- * every 10 seconds</li>
+ * <li>{@link #checkForMatches()} - Scheduled fallback that pairs as many
+ * queued players as possible every 5 seconds, with wider windows</li>
+ * <li>{@link #onPlayerQueued(PlayerQueuedEvent)} - Tries to match a player
+ * as soon as they join the queue, on the matchmaking executor</li>
+ * <li>{@link #processMatches(List)} - Processes the matches found in one pass,
+ * updates their status together, and notifies the players of each match
+ * once it has been saved and its meeting point is final</li>
+ * <li>{@link #notifyPlayers(Match, QueuedPlayer, QueuedPlayer)} - Notifies both
+ * players of a match from the copies of their profiles taken when they
+ * joined the queue</li>
+ * <li>{@link #recordQueueDepths()} - Scheduled method that records the queue
+ * depth of every region every 10 seconds</li>
  * </ul>
  *
  * <p>
  * Exceptions:
  * </p>
  * <ul>
- * <li>RuntimeException - Thrown if a player profile is not found</li>
+ * <li>RuntimeException - Thrown if a match or player profile is not
+ * found</li>
  * </ul>
  *
  * <p>
@@ -81,19 +89,19 @@ import lombok.extern.slf4j.Slf4j;
 public class MatchChecker {
 
     private final MatchmakingService matchmakingService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final MatchNotifier matchNotifier;
+    private final MatchmakingMetrics metrics;
     private final PlayerProfileRepository playerProfileRepository;
-    private final UserRepository userRepository;
     private final MatchRepository matchRepository;
 
     @Autowired
-    public MatchChecker(MatchmakingService matchmakingService, SimpMessagingTemplate messagingTemplate,
-            PlayerProfileRepository playerProfileRepository, UserRepository userRepository,
+    public MatchChecker(MatchmakingService matchmakingService, MatchNotifier matchNotifier,
+            MatchmakingMetrics metrics, PlayerProfileRepository playerProfileRepository,
             MatchRepository matchRepository) {
         this.matchmakingService = matchmakingService;
-        this.messagingTemplate = messagingTemplate;
+        this.matchNotifier = matchNotifier;
+        this.metrics = metrics;
         this.playerProfileRepository = playerProfileRepository;
-        this.userRepository = userRepository;
         this.matchRepository = matchRepository;
     }
 
@@ -101,61 +109,84 @@ public class MatchChecker {
     @Transactional
     public void checkForMatches() {
         log.debug("Checking for matches...");
-        matchmakingService.printQueueStatus();
+        long start = System.nanoTime();
 
-        Match match = matchmakingService.findMatch();
-        if (match != null) {
-            processMatch(match);
+        List<FoundMatch> matches = matchmakingService.findMatches();
+        if (!matches.isEmpty()) {
+            processMatches(matches);
         }
+        metrics.recordTick(System.nanoTime() - start, matches.size());
     }
 
-    private void processMatch(Match match) {
-        try {
-            PlayerProfile player1 = getPlayerProfile(match.getPlayer1Id());
-            PlayerProfile player2 = getPlayerProfile(match.getPlayer2Id());
-
-            User user1 = player1.getUser();
-            User user2 = player2.getUser();
+    @Async("matchmakingExecutor")
+    @EventListener
+    @Transactional
+    public void onPlayerQueued(PlayerQueuedEvent event) {
+        FoundMatch found = matchmakingService.findMatchFor(event.getUserId());
+        if (found != null) {
+            processMatches(List.of(found));
+        }
+    }
 
-            updateMatchStatus(match);
+    private void processMatches(List<FoundMatch> matches) {
+        // Save every status change in one go before anyone is notified
+        List<Match> saved = matches.stream().map(FoundMatch::getMatch).toList();
+        saved.forEach(match -> match.setStatus(Status.IN_PROGRESS));
+        matchRepository.saveAll(saved);
+
+        Map<UUID, PlayerProfileDTO> recovered = loadMissingProfiles(matches);
+        for (FoundMatch found : matches) {
+            QueuedPlayer player1 = withProfile(found.getPlayer1(), recovered);
+            QueuedPlayer player2 = withProfile(found.getPlayer2(), recovered);
+            // Once, after commit, at the venue or at the midpoint if there is none
+            found.getReady().thenAccept(match -> notifyPlayers(match, player1, player2));
+        }
+    }
 
-            sendNotifications(match, player1, player2, user1, user2);
+    private void notifyPlayers(Match match, QueuedPlayer player1, QueuedPlayer player2) {
+        if (match == null) {
+            return;
+        }
+        try {
+            matchNotifier.notifyPlayers(match, player1, player2);
 
-            log.info("Match found and notifications sent for players {} and {}",
-                    user1.getUsername(), user2.getUsername());
+            log.info("Notifications for match {} sent to players {} and {}", match.getMatchId(),
+                    player1.getUserId(), player2.getUserId());
         } catch (Exception e) {
             log.error("Error processing match: ", e);
         }
     }
 
-    private PlayerProfile getPlayerProfile(UUID playerId) {
-        return playerProfileRepository.findById(playerId)
-                .orElseThrow(() -> new RuntimeException("Player not found"));
-    }
-
-    private void updateMatchStatus(Match match) {
-        match.setStatus(Status.IN_PROGRESS);
-        matchRepository.save(match);
+    /**
+     * Loads the profiles of matched players who were queued without a copy of
+     * theirs, which only happens to players recovered from the queue journal.
+     */
+    private Map<UUID, PlayerProfileDTO> loadMissingProfiles(List<FoundMatch> matches) {
+        Set<UUID> profileIds = new HashSet<>();
+        for (FoundMatch found : matches) {
+            for (QueuedPlayer player : List.of(found.getPlayer1(), found.getPlayer2())) {
+                if (player.getProfile() == null) {
+                    profileIds.add(player.getProfileId());
+                }
+            }
+        }
+        if (profileIds.isEmpty()) {
+            return Map.of();
+        }
+        return playerProfileRepository.findAllWithUserByProfileIdIn(profileIds).stream()
+                .collect(Collectors.toMap(PlayerProfile::getProfileId, PlayerProfileDTO::new));
     }
 
-    private void sendNotifications(Match match, PlayerProfile player1, PlayerProfile player2, User user1, User user2) {
-        PlayerProfileDTO player1DTO = new PlayerProfileDTO(player1);
-        PlayerProfileDTO player2DTO = new PlayerProfileDTO(player2);
-
-        MatchNotificationDTO notificationForPlayer1 = new MatchNotificationDTO(
-                match.getMatchId(), match.getMeetingLatitude(), match.getMeetingLongitude(),
-                user2.getUsername(), player2DTO);
-
-        MatchNotificationDTO notificationForPlayer2 = new MatchNotificationDTO(
-                match.getMatchId(), match.getMeetingLatitude(), match.getMeetingLongitude(),
-                user1.getUsername(), player1DTO);
-
-        messagingTemplate.convertAndSend("/topic/solo/match/" + user1.getId(), notificationForPlayer1);
-        messagingTemplate.convertAndSend("/topic/solo/match/" + user2.getId(), notificationForPlayer2);
+    private static QueuedPlayer withProfile(QueuedPlayer player, Map<UUID, PlayerProfileDTO> recovered) {
+        if (player.getProfile() != null) {
+            return player;
+        }
+        PlayerProfileDTO profile = recovered.get(player.getProfileId());
+        return profile != null ? player.withProfile(profile) : player;
     }
 
     @Scheduled(fixedRate = 10000)
-    public void logQueueStatus() {
-        matchmakingService.printQueueStatus();
+    public void recordQueueDepths() {
+        metrics.recordQueueDepths(matchmakingService.getQueueDepthByRegion());
     }
 }
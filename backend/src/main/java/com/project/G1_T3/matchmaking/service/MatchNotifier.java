@@ -0,0 +1,101 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.G1_T3.match.model.Match;
+import com.project.G1_T3.matchmaking.model.MatchNotificationDTO;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.playerprofile.model.PlayerProfileDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells both players of a solo match where and against whom they are playing.
+ *
+ * <p>
+ * Each notification is built from the copies of the profiles the players
+ * joined the queue with, turned into JSON once and sent to the player's user
+ * destination, {@code /user/queue/solo/match}, addressed by their user id.
+ * The broker delivers it to every session the player has open, on whichever
+ * node they are connected to, so nothing is looked up or serialised again
+ * per session.
+ *
+ * <p>
+ * Every send is timed as {@code matchmaking.notification.send}, tagged with
+ * its outcome.
+ */
+@Slf4j
+@Component
+public class MatchNotifier {
+    public static final String DESTINATION = "/queue/solo/match";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer sent;
+    private final Timer failed;
+
+    @Autowired
+    public MatchNotifier(SimpMessagingTemplate messagingTemplate, MappingJackson2MessageConverter messageConverter,
+            MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = messageConverter.getObjectMapper();
+        this.sent = sendTimer(meterRegistry, "sent");
+        this.failed = sendTimer(meterRegistry, "failed");
+    }
+
+    /**
+     * Sends each player of a match their notification.
+     *
+     * @param match   the match
+     * @param player1 the match's first player, with a copy of their profile
+     * @param player2 the match's second player, with a copy of their profile
+     */
+    public void notifyPlayers(Match match, QueuedPlayer player1, QueuedPlayer player2) {
+        send(match, player1, player2);
+        send(match, player2, player1);
+    }
+
+    private void send(Match match, QueuedPlayer player, QueuedPlayer opponent) {
+        String userId = player.getUserId().toString();
+        long start = System.nanoTime();
+        try {
+            PlayerProfileDTO opponentProfile = opponent.getProfile();
+            MatchNotificationDTO notification = new MatchNotificationDTO(match.getMatchId(),
+                    match.getMeetingLatitude(), match.getMeetingLongitude(),
+                    opponentProfile.getUsername(), opponentProfile);
+            messagingTemplate.send("/user/" + userId + DESTINATION, toMessage(notification));
+            sent.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (JsonProcessingException | RuntimeException e) {
+            failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.error("Failed to notify {} about match {}", userId, match.getMatchId(), e);
+        }
+    }
+
+    private Message<byte[]> toMessage(MatchNotificationDTO notification) throws JsonProcessingException {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        return MessageBuilder.createMessage(objectMapper.writeValueAsBytes(notification),
+                headers.getMessageHeaders());
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("matchmaking.notification.send")
+                .description("Time to build and send one match notification")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
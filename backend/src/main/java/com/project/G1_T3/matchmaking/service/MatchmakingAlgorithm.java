@@ -1,7 +1,44 @@
 package com.project.G1_T3.matchmaking.service;
 
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 
 public interface MatchmakingAlgorithm {
     boolean isGoodMatch(QueuedPlayer player1, QueuedPlayer player2);
-}
\ No newline at end of file
+
+    /**
+     * Checks whether two players can be matched under the given thresholds.
+     *
+     * @param player1    the first player
+     * @param player2    the second player
+     * @param thresholds the thresholds to check against
+     * @return true if the players can be matched
+     */
+    boolean isGoodMatch(QueuedPlayer player1, QueuedPlayer player2, SearchCriteria thresholds);
+
+    /**
+     * Returns the name operators use to select this algorithm.
+     *
+     * @return the algorithm name
+     */
+    String getName();
+
+    /**
+     * Returns the thresholds used when no region overrides them.
+     *
+     * @return the default thresholds
+     */
+    SearchCriteria getSearchCriteria();
+
+    /**
+     * Returns the windows to query the queue index with. Every pair accepted
+     * by {@link #isGoodMatch(QueuedPlayer, QueuedPlayer, SearchCriteria)} must
+     * be inside them. By default the thresholds are used as they are.
+     *
+     * @param thresholds the thresholds of the strategy
+     * @return the windows for the index query
+     */
+    default SearchCriteria getIndexCriteria(SearchCriteria thresholds) {
+        return thresholds;
+    }
+}
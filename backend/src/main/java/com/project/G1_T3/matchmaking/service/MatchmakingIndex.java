@@ -0,0 +1,104 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchBand;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * The spatial index the player queue searches for opponents.
+ *
+ * <p>
+ * Players are keyed by user ID. {@link #findKNearest(QueuedPlayer, SearchBand, NearestCandidates)}
+ * fills a caller-supplied buffer with the lowest-cost players that are inside
+ * every window of the criteria, without allocating anything per candidate.
+ * It is the only search the queue uses. The other {@code findKNearest}
+ * methods wrap it and return the result as a max-heap ordered by cost, so the
+ * worst candidate is at the head; they allocate per candidate and are only
+ * kept for tests.
+ *
+ * <p>
+ * Every inserted player is given an admission number, counting up from zero.
+ * {@link #findKNearest(QueuedPlayer, SearchBand, NearestCandidates)} uses them to skip the
+ * players an earlier search with narrower windows already returned, so a
+ * player whose windows widen only pays for the newly admitted band.
+ *
+ * <p>
+ * The implementation is picked with the {@code matchmaking.index} property:
+ * {@code geocell} (the default) for {@link GeoCellIndex} or {@code kdtree} for
+ * {@link MatchmakingKDTree}.
+ */
+interface MatchmakingIndex {
+
+    void insert(QueuedPlayer player);
+
+    void bulkLoad(List<QueuedPlayer> players);
+
+    void remove(QueuedPlayer player);
+
+    QueuedPlayer getPlayer(UUID playerId);
+
+    boolean containsPlayer(UUID playerId);
+
+    /**
+     * Finds the lowest-cost players in the band around the target. The result
+     * may include the target itself.
+     *
+     * @param target the player to search around
+     * @param band   the windows to search
+     * @param result the buffer to fill, it keeps at most
+     *               {@link NearestCandidates#limit()} players
+     */
+    void findKNearest(QueuedPlayer target, SearchBand band, NearestCandidates result);
+
+    /**
+     * Same as {@link #findKNearest(QueuedPlayer, SearchBand, int)} over the
+     * whole of the criteria. For tests only.
+     */
+    default PriorityQueue<Map.Entry<QueuedPlayer, Double>> findKNearest(QueuedPlayer target, SearchCriteria criteria,
+            int k) {
+        return findKNearest(target, new SearchBand(criteria), k);
+    }
+
+    /**
+     * Finds the lowest-cost players in the band around the target and returns
+     * them in a new max-heap. Allocates an entry and a boxed cost for every
+     * player returned, so it is for tests only; the queue searches with
+     * {@link #findKNearest(QueuedPlayer, SearchBand, NearestCandidates)}.
+     *
+     * @param target the player to search around
+     * @param band   the windows to search
+     * @param k      the number of players to return at most
+     * @return the players found, the highest cost at the head
+     */
+    default PriorityQueue<Map.Entry<QueuedPlayer, Double>> findKNearest(QueuedPlayer target, SearchBand band, int k) {
+        NearestCandidates result = new NearestCandidates(Math.max(k, 0));
+        findKNearest(target, band, result);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearestNeighbors = new PriorityQueue<>(Math.max(1, k),
+                Comparator.<Map.Entry<QueuedPlayer, Double>>comparingDouble(Map.Entry::getValue).reversed());
+        for (int i = 0; i < result.size(); i++) {
+            nearestNeighbors.offer(Map.entry(result.getPlayer(i), result.getCost(i)));
+        }
+        return nearestNeighbors;
+    }
+
+    /**
+     * Returns the admission number the next inserted player will get. A
+     * search started after reading it sees every player admitted before it.
+     *
+     * @return the current watermark
+     */
+    long watermark();
+
+    int size();
+
+    boolean isEmpty();
+
+    List<QueuedPlayer> getAllPlayers();
+}
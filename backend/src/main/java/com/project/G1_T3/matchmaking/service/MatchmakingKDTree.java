@@ -1,9 +1,13 @@
 package com.project.G1_T3.matchmaking.service;
 
+import com.project.G1_T3.common.geo.GeoDistance;
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchBand;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 
 import java.util.*;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 /**
@@ -20,17 +24,51 @@ import org.springframework.stereotype.Component;
  * players, and retrieve all players.
  *
  * <p>
+ * The tree keeps itself balanced in the manner of a scapegoat tree. Whenever an
+ * insert lands deeper than {@code log(n) / log(1 / ALPHA)}, the nearest
+ * ancestor whose subtree is too deep for its size (the scapegoat) is rebuilt
+ * with median splits. Removals only mark a node as removed; once more than half of
+ * the nodes are removed the whole tree is rebuilt. This keeps the depth, and
+ * therefore the cost of {@link #findKNearest}, logarithmic even when players
+ * join in sorted bursts.
+ *
+ * <p>
+ * Searches take a {@link SearchCriteria} with a separate bound for every
+ * dimension: a rating window, a rating deviation window and a radius in
+ * kilometres measured along the great circle. The radius is converted into
+ * latitude and longitude spans, so each axis is pruned with a bound in its own
+ * unit, and a subtree is only visited if it can still hold a player inside
+ * every window. Longitude gaps wrap around the antimeridian, so players on
+ * either side of it are still found. Accepted players are ranked by the
+ * weighted cost of the criteria.
+ *
+ * <p>
+ * Alongside the tree, a {@code UUID -> Node} index keyed by user ID is kept in
+ * sync with every insert and removal. Membership checks and removal by ID are
+ * answered from the index in O(1) instead of walking the whole tree. Rebuilds
+ * reuse the existing nodes, so the index never needs to be refreshed.
+ *
+ * <p>
  * Usage example:
  *
  * <pre>
  * {@code
  * MatchmakingKDTree kdTree = new MatchmakingKDTree();
  * kdTree.insert(new QueuedPlayer(...));
- * PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearestNeighbors = kdTree.findKNearest(targetPlayer, maxRatingDiff, maxDeviationDiff, maxDistanceKm, k);
+ * kdTree.bulkLoad(burstOfPlayers);
+ * NearestCandidates nearest = new NearestCandidates(k);
+ * kdTree.findKNearest(targetPlayer, new SearchBand(searchCriteria), nearest);
+ * nearest.sortByCost();
+ * QueuedPlayer best = nearest.getPlayer(0);
  * }
  * </pre>
  *
  * <p>
+ * The tree is used as the queue's {@link MatchmakingIndex} when
+ * {@code matchmaking.index=kdtree}. Rebuilds can move any node, so every
+ * public method synchronizes on the tree.
+ *
+ * <p>
  * Note: This implementation assumes that the QueuedPlayer class provides
  * methods to retrieve glickoRating, glickoRD, latitude, and longitude.
  *
@@ -38,8 +76,12 @@ import org.springframework.stereotype.Component;
  * Attributes:
  * <ul>
  * <li>root: The root node of the KD-Tree.
+ * <li>playerIndex: The index from user ID to the node holding that player.
  * <li>K: The number of dimensions (4 in this case).
- * <li>size: The number of nodes in the KD-Tree.
+ * <li>ALPHA: The scapegoat balance factor.
+ * <li>size: The number of players in the KD-Tree.
+ * <li>nodeCount: The number of nodes in the KD-Tree, including removed nodes
+ * that have not been rebuilt away yet.
  * </ul>
  *
  * <p>
@@ -47,17 +89,28 @@ import org.springframework.stereotype.Component;
  * <ul>
  * <li>{@link #MatchmakingKDTree()}: Constructor to initialize an empty KD-Tree.
  * <li>{@link #insert(QueuedPlayer)}: Inserts a player into the KD-Tree.
- * <li>{@link #findKNearest(QueuedPlayer, double, double, double, int)}: Finds
- * the k-nearest neighbors to a target player within specified constraints.
+ * <li>{@link #bulkLoad(List)}: Adds a batch of players and rebuilds the whole
+ * KD-Tree with median splits.
+ * <li>{@link #findKNearest(QueuedPlayer, SearchBand, NearestCandidates)}: Finds
+ * the k lowest-cost players that satisfy every window of the search criteria,
+ * skipping the players an earlier search already covered, into a reusable
+ * buffer.
+ * <li>{@link #findKNearest(QueuedPlayer, double, double, double, int)}: Same as
+ * above, using the default ranking weights and returning a heap. Only used by
+ * tests.
+ * <li>{@link #watermark()}: Returns the admission number of the next inserted
+ * player.
  * <li>{@link #remove(QueuedPlayer)}: Removes a player from the KD-Tree.
  * <li>{@link #isEmpty()}: Checks if the KD-Tree is empty.
- * <li>{@link #size()}: Returns the number of nodes in the KD-Tree.
+ * <li>{@link #size()}: Returns the number of players in the KD-Tree.
+ * <li>{@link #height()}: Returns the number of levels in the KD-Tree.
  * <li>{@link #pollRootPlayer()}: Removes and returns the root player of the
  * KD-Tree.
  * <li>{@link #containsPlayer(UUID)}: Checks if a player with the specified ID
  * exists in the KD-Tree.
  * <li>{@link #removeByPlayerId(UUID)}: Removes a player with the specified ID
  * from the KD-Tree.
+ * <li>{@link #getPlayer(UUID)}: Retrieves the player with the specified ID.
  * <li>{@link #getAllPlayers()}: Retrieves a list of all players in the KD-Tree.
  * </ul>
  *
@@ -65,46 +118,62 @@ import org.springframework.stereotype.Component;
  * Inner Classes:
  * <ul>
  * <li>{@link Node}: Represents a node in the KD-Tree, containing a player, left
- * and right children, and depth information.
+ * and right children, depth, subtree size and removal information.
  * </ul>
  *
  * <p>
  * Private Methods:
  * <ul>
- * <li>{@link #insert(Node, QueuedPlayer, int)}: Helper method to recursively
- * insert a player into the KD-Tree.
+ * <li>{@link #rebuildScapegoat(List, Node)}: Finds the scapegoat on the insert
+ * path and rebuilds its subtree.
+ * <li>{@link #rebuild(Node)}: Rebuilds a subtree from its remaining players.
+ * <li>{@link #build(Node[], int, int, int)}: Builds a balanced subtree by
+ * splitting on the median of the current axis.
  * <li>{@link #getAxisValue(QueuedPlayer, int)}: Retrieves the value of the
  * specified axis for a player.
- * <li>{@link #findKNearest(Node, QueuedPlayer, double, double, double, int, PriorityQueue)}:
+ * <li>{@link #findKNearest(Node, QueuedPlayer, SearchBand, NearestCandidates)}:
  * Helper method to recursively find the k-nearest neighbors.
- * <li>{@link #calculateDistance(QueuedPlayer, QueuedPlayer)}: Calculates the
- * Euclidean distance between two players.
- * <li>{@link #remove(Node, QueuedPlayer, int)}: Helper method to recursively
- * remove a player from the KD-Tree.
- * <li>{@link #findMin(Node, int, int)}: Finds the node with the minimum value
- * along the specified axis.
- * <li>{@link #containsPlayer(Node, UUID)}: Helper method to recursively check
- * if a player with the specified ID exists.
- * <li>{@link #removeByPlayerId(Node, UUID, int)}: Helper method to recursively
- * remove a player with the specified ID.
- * <li>{@link #getAllPlayers(Node, List)}: Helper method to recursively retrieve
- * all players in the KD-Tree.
+ * <li>{@link #calculateCost(QueuedPlayer, Node, SearchBand)}: Calculates the
+ * cost of a candidate, or infinity if it is outside a window or was already
+ * searched.
+ * <li>{@link #axisCost(int, double, SearchCriteria)}: Calculates the lowest
+ * cost any player beyond a splitting plane can have.
+ * <li>{@link #getPlayerId(QueuedPlayer)}: Retrieves the user ID a player is
+ * indexed under.
+ * <li>{@link #markRemoved(Node)}: Marks a node as removed and rebuilds the tree
+ * once too many nodes are removed.
+ * <li>{@link #findFirstPlayer(Node)}: Helper method to find the topmost node
+ * that has not been removed.
+ * <li>{@link #collectPlayers(Node, List)}: Helper method to recursively collect
+ * the nodes that are still in the KD-Tree.
  * </ul>
  */
 @Component
-class MatchmakingKDTree {
+@ConditionalOnProperty(name = "matchmaking.index", havingValue = "kdtree")
+class MatchmakingKDTree implements MatchmakingIndex {
     private Node root;
+    private final Map<UUID, Node> playerIndex = new HashMap<>();
     private static final int K = 4; // 4D KD-Tree (glickoRating, glickoRD, latitude, longitude)
+    private static final double ALPHA = 0.7; // Scapegoat balance factor, depth stays below log(n) / log(1 / ALPHA)
+    private static final double LOG_INVERSE_ALPHA = Math.log(1 / ALPHA);
     private int size;
+    private int nodeCount;
+    private long admissions;
+    private final double[] axisWindows = new double[K]; // Scratch space for searches, guarded by the tree's monitor
 
     private class Node {
         QueuedPlayer player;
         Node left, right;
         int depth;
+        int subtreeSize;
+        boolean removed;
+        final long admitted;
 
         Node(QueuedPlayer player, int depth) {
             this.player = player;
             this.depth = depth;
+            this.admitted = admissions++;
+            this.subtreeSize = 1;
             this.left = null;
             this.right = null;
         }
@@ -113,28 +182,131 @@ class MatchmakingKDTree {
     public MatchmakingKDTree() {
         this.root = null;
         this.size = 0;
+        this.nodeCount = 0;
     }
 
-    public void insert(QueuedPlayer player) {
-        root = insert(root, player, 0);
+    @Override
+    public synchronized void insert(QueuedPlayer player) {
+        Node node = new Node(player, 0);
+        Node previous = playerIndex.put(getPlayerId(player), node);
+        if (previous != null) {
+            // A player can only be queued once, the newer entry replaces the old one
+            markRemoved(previous);
+        }
         size++;
+        nodeCount++;
+
+        if (root == null) {
+            root = node;
+            return;
+        }
+
+        List<Node> path = new ArrayList<>();
+        Node current = root;
+        while (true) {
+            path.add(current);
+            current.subtreeSize++;
+
+            int axis = current.depth % K;
+            if (getAxisValue(player, axis) < getAxisValue(current.player, axis)) {
+                if (current.left == null) {
+                    current.left = node;
+                    break;
+                }
+                current = current.left;
+            } else {
+                if (current.right == null) {
+                    current.right = node;
+                    break;
+                }
+                current = current.right;
+            }
+        }
+        node.depth = current.depth + 1;
+
+        if (node.depth > Math.log(nodeCount) / LOG_INVERSE_ALPHA) {
+            rebuildScapegoat(path, node);
+        }
     }
 
-    private Node insert(Node node, QueuedPlayer player, int depth) {
-        if (node == null) {
-            return new Node(player, depth);
+    /**
+     * Adds a batch of players and rebuilds the whole tree with median splits.
+     * This is cheaper than inserting a burst of players one at a time, and the
+     * resulting tree is perfectly balanced.
+     *
+     * @param players the players to add
+     */
+    @Override
+    public synchronized void bulkLoad(List<QueuedPlayer> players) {
+        List<Node> nodes = new ArrayList<>(size + players.size());
+        collectPlayers(root, nodes);
+        for (QueuedPlayer player : players) {
+            Node node = new Node(player, 0);
+            Node previous = playerIndex.put(getPlayerId(player), node);
+            if (previous != null) {
+                previous.removed = true;
+                nodes.remove(previous);
+            }
+            nodes.add(node);
         }
 
-        int axis = depth % K;
-        double value = getAxisValue(player, axis);
-        double nodeValue = getAxisValue(node.player, axis);
+        Node[] array = nodes.toArray(new Node[0]);
+        root = build(array, 0, array.length, 0);
+        size = array.length;
+        nodeCount = array.length;
+    }
 
-        if (value < nodeValue) {
-            node.left = insert(node.left, player, depth + 1);
-        } else {
-            node.right = insert(node.right, player, depth + 1);
+    private void rebuildScapegoat(List<Node> path, Node inserted) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node candidate = path.get(i);
+            int relativeDepth = inserted.depth - candidate.depth;
+            if (relativeDepth > Math.log(candidate.subtreeSize) / LOG_INVERSE_ALPHA) {
+                int previousSize = candidate.subtreeSize;
+                Node rebuilt = rebuild(candidate);
+                int dropped = previousSize - (rebuilt == null ? 0 : rebuilt.subtreeSize);
+
+                if (i == 0) {
+                    root = rebuilt;
+                } else {
+                    Node parent = path.get(i - 1);
+                    if (parent.left == candidate) {
+                        parent.left = rebuilt;
+                    } else {
+                        parent.right = rebuilt;
+                    }
+                    // Removed nodes inside the rebuilt subtree are gone now
+                    for (int j = i - 1; j >= 0; j--) {
+                        path.get(j).subtreeSize -= dropped;
+                    }
+                }
+                nodeCount -= dropped;
+                return;
+            }
         }
+    }
+
+    private Node rebuild(Node node) {
+        int depth = node.depth;
+        List<Node> nodes = new ArrayList<>(node.subtreeSize);
+        collectPlayers(node, nodes);
+        Node[] array = nodes.toArray(new Node[0]);
+        return build(array, 0, array.length, depth);
+    }
 
+    private Node build(Node[] nodes, int from, int to, int depth) {
+        if (from >= to) {
+            return null;
+        }
+
+        int axis = depth % K;
+        Arrays.sort(nodes, from, to, Comparator.comparingDouble(node -> getAxisValue(node.player, axis)));
+
+        int median = (from + to) >>> 1;
+        Node node = nodes[median];
+        node.depth = depth;
+        node.subtreeSize = to - from;
+        node.left = build(nodes, from, median, depth + 1);
+        node.right = build(nodes, median + 1, to, depth + 1);
         return node;
     }
 
@@ -153,169 +325,208 @@ class MatchmakingKDTree {
         }
     }
 
-    public PriorityQueue<Map.Entry<QueuedPlayer, Double>> findKNearest(QueuedPlayer target, double maxRatingDiff,
-            double maxDeviationDiff, double maxDistanceKm, int k) {
-        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearestNeighbors = new PriorityQueue<>(
-                Comparator.<Map.Entry<QueuedPlayer, Double>>comparingDouble(Map.Entry::getValue).reversed());
-        findKNearest(root, target, maxRatingDiff, maxDeviationDiff, maxDistanceKm, k, nearestNeighbors);
-        return nearestNeighbors;
+    // Allocates a heap per search, for tests only
+    public synchronized PriorityQueue<Map.Entry<QueuedPlayer, Double>> findKNearest(QueuedPlayer target,
+            double maxRatingDiff, double maxDeviationDiff, double maxDistanceKm, int k) {
+        return findKNearest(target, new SearchCriteria(maxRatingDiff, maxDeviationDiff, maxDistanceKm), k);
     }
 
-    private void findKNearest(Node node, QueuedPlayer target, double maxRatingDiff, double maxDeviationDiff,
-            double maxDistanceKm, int k, PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearestNeighbors) {
+    @Override
+    public synchronized void findKNearest(QueuedPlayer target, SearchBand band, NearestCandidates result) {
+        if (result.limit() <= 0) {
+            return;
+        }
+
+        // The largest difference an acceptable player can have on each axis
+        SearchCriteria criteria = band.getCriteria();
+        axisWindows[0] = criteria.getMaxRatingDiff();
+        axisWindows[1] = criteria.getMaxDeviationDiff();
+        axisWindows[2] = GeoDistance.latitudeSpanDegrees(criteria.getMaxDistanceKm());
+        // Longitude 0 keeps the span finite near the antimeridian, the longitude gap wraps around it instead
+        axisWindows[3] = GeoDistance.longitudeSpanDegrees(target.getLatitude(), 0, criteria.getMaxDistanceKm());
+
+        findKNearest(root, target, band, result);
+    }
+
+    @Override
+    public synchronized long watermark() {
+        return admissions;
+    }
+
+    private void findKNearest(Node node, QueuedPlayer target, SearchBand band, NearestCandidates result) {
         if (node == null)
             return;
 
-        double distance = calculateDistance(target, node.player);
-        if (distance <= maxDistanceKm &&
-                Math.abs(target.getGlickoRating() - node.player.getGlickoRating()) <= maxRatingDiff &&
-                Math.abs(target.getGlickoRD() - node.player.getGlickoRD()) <= maxDeviationDiff) {
-            nearestNeighbors.offer(Map.entry(node.player, distance));
-            if (nearestNeighbors.size() > k) {
-                nearestNeighbors.poll();
+        SearchCriteria criteria = band.getCriteria();
+        if (!node.removed) {
+            double cost = calculateCost(target, node, band);
+            if (cost != Double.POSITIVE_INFINITY) {
+                result.offer(node.player, cost);
             }
         }
 
         int axis = node.depth % K;
-        double targetValue = getAxisValue(target, axis);
-        double nodeValue = getAxisValue(node.player, axis);
+        double delta = getAxisValue(target, axis) - getAxisValue(node.player, axis);
+
+        Node next = (delta < 0) ? node.left : node.right;
+        Node other = (delta < 0) ? node.right : node.left;
 
-        Node next = (targetValue < nodeValue) ? node.left : node.right;
-        Node other = (next == node.left) ? node.right : node.left;
+        findKNearest(next, target, band, result);
 
-        findKNearest(next, target, maxRatingDiff, maxDeviationDiff, maxDistanceKm, k, nearestNeighbors);
-        if (nearestNeighbors.size() < k || Math.abs(targetValue - nodeValue) < maxDistanceKm) {
-            findKNearest(other, target, maxRatingDiff, maxDeviationDiff, maxDistanceKm, k, nearestNeighbors);
+        // Every player on the other side differs from the target by at least |delta| on this axis
+        double gap = Math.abs(delta);
+        if (axis == 3) {
+            // Unless they are closer the other way round, across the antimeridian at the far end of that side
+            double longitude = target.getLongitude();
+            gap = Math.min(gap, delta < 0 ? 180 + longitude : 180 - longitude);
+        }
+        if (gap <= axisWindows[axis] && (!result.isFull()
+                || axisCost(axis, gap, criteria) < result.worstCost())) {
+            findKNearest(other, target, band, result);
         }
     }
 
-    private double calculateDistance(QueuedPlayer a, QueuedPlayer b) {
-        double ratingDiff = a.getGlickoRating() - b.getGlickoRating();
-        double rdDiff = a.getGlickoRD() - b.getGlickoRD();
-        double latDiff = a.getLatitude() - b.getLatitude();
-        double lonDiff = a.getLongitude() - b.getLongitude();
-        return Math.sqrt(ratingDiff * ratingDiff + rdDiff * rdDiff + latDiff * latDiff + lonDiff * lonDiff);
-    }
+    private double calculateCost(QueuedPlayer target, Node node, SearchBand band) {
+        SearchCriteria criteria = band.getCriteria();
+        QueuedPlayer candidate = node.player;
+        double ratingDiff = Math.abs(target.getGlickoRating() - candidate.getGlickoRating());
+        double rdDiff = Math.abs(target.getGlickoRD() - candidate.getGlickoRD());
+        if (ratingDiff > criteria.getMaxRatingDiff() || rdDiff > criteria.getMaxDeviationDiff()) {
+            return Double.POSITIVE_INFINITY;
+        }
 
-    public void remove(QueuedPlayer player) {
-        root = remove(root, player, 0);
-        size--;
+        double chordSquared = target.getLocation().chordSquared(candidate.getLocation());
+        if (!criteria.getDistanceRadius().containsChord(chordSquared)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double distanceKm = GeoDistance.chordSquaredToKm(chordSquared);
+        if (band.wasSearched(node.admitted, ratingDiff, rdDiff, distanceKm)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return criteria.cost(ratingDiff, rdDiff, distanceKm);
     }
 
-    private Node remove(Node node, QueuedPlayer player, int depth) {
-        if (node == null)
-            return null;
-
-        int axis = depth % K;
-        double value = getAxisValue(player, axis);
-        double nodeValue = getAxisValue(node.player, axis);
-
-        if (player.equals(node.player)) {
-            // Node deletion logic (find a replacement node if needed)
-            if (node.right != null) {
-                Node min = findMin(node.right, axis, depth + 1);
-                node.player = min.player;
-                node.right = remove(node.right, min.player, depth + 1);
-            } else if (node.left != null) {
-                Node min = findMin(node.left, axis, depth + 1);
-                node.player = min.player;
-                node.right = remove(node.left, min.player, depth + 1);
-                node.left = null;
-            } else {
-                return null;
-            }
-        } else if (value < nodeValue) {
-            node.left = remove(node.left, player, depth + 1);
-        } else {
-            node.right = remove(node.right, player, depth + 1);
+    private double axisCost(int axis, double gap, SearchCriteria criteria) {
+        switch (axis) {
+            case 0:
+                return criteria.ratingCost(gap);
+            case 1:
+                return criteria.deviationCost(gap);
+            case 2:
+                // Two points are at least as far apart as their latitude difference
+                return criteria.distanceCost(Math.toRadians(gap) * GeoDistance.EARTH_RADIUS_KM);
+            default:
+                // A longitude difference alone gives no useful distance bound
+                return 0;
         }
-        return node;
     }
 
-    private Node findMin(Node node, int axis, int depth) {
-        if (node == null)
-            return null;
-
-        int currentAxis = depth % K;
-        if (currentAxis == axis) {
-            if (node.left == null) {
-                return node;
-            }
-            return findMin(node.left, axis, depth + 1);
+    @Override
+    public synchronized void remove(QueuedPlayer player) {
+        Node node = playerIndex.get(getPlayerId(player));
+        // Same instance only, a stale copy of a player who rejoined must not remove the new node
+        if (node != null && node.player == player) {
+            markRemoved(node);
         }
+    }
 
-        Node leftMin = findMin(node.left, axis, depth + 1);
-        Node rightMin = findMin(node.right, axis, depth + 1);
+    private void markRemoved(Node node) {
+        node.removed = true;
+        playerIndex.remove(getPlayerId(node.player), node);
+        size--;
 
-        Node min = node;
-        if (leftMin != null && getAxisValue(leftMin.player, axis) < getAxisValue(min.player, axis)) {
-            min = leftMin;
-        }
-        if (rightMin != null && getAxisValue(rightMin.player, axis) < getAxisValue(min.player, axis)) {
-            min = rightMin;
+        if (2 * size < nodeCount) {
+            root = rebuild(root);
+            nodeCount = size;
         }
-        return min;
     }
 
-    public boolean isEmpty() {
+    @Override
+    public synchronized boolean isEmpty() {
         return size == 0;
     }
 
-    public int size() {
+    @Override
+    public synchronized int size() {
         return size;
     }
 
-    public QueuedPlayer pollRootPlayer() {
-        if (root == null) {
-            return null;
-        }
-        QueuedPlayer player = root.player;
-        remove(player);
-        return player;
+    /**
+     * Returns the number of levels in the tree, i.e. the length of the longest
+     * root-to-leaf path.
+     *
+     * @return the height of the tree, or 0 if it is empty
+     */
+    synchronized int height() {
+        return height(root);
     }
 
-    public boolean containsPlayer(UUID playerId) {
-        return containsPlayer(root, playerId);
+    private int height(Node node) {
+        if (node == null) {
+            return 0;
+        }
+        return 1 + Math.max(height(node.left), height(node.right));
     }
 
-    private boolean containsPlayer(Node node, UUID playerId) {
+    public synchronized QueuedPlayer pollRootPlayer() {
+        Node node = findFirstPlayer(root);
         if (node == null) {
-            return false;
+            return null;
         }
-        if (node.player.getPlayer().getUser().getUserId().equals(playerId)) {
-            return true;
+        QueuedPlayer player = node.player;
+        markRemoved(node);
+        return player;
+    }
+
+    private Node findFirstPlayer(Node node) {
+        if (node == null || !node.removed) {
+            return node;
         }
-        return containsPlayer(node.left, playerId) || containsPlayer(node.right, playerId);
+        Node found = findFirstPlayer(node.left);
+        return found != null ? found : findFirstPlayer(node.right);
     }
 
-    public void removeByPlayerId(UUID playerId) {
-        removeByPlayerId(root, playerId, 0);
+    @Override
+    public synchronized boolean containsPlayer(UUID playerId) {
+        return playerIndex.containsKey(playerId);
     }
 
-    private void removeByPlayerId(Node node, UUID playerId, int depth) {
-        if (node == null) {
-            return;
-        }
-        if (node.player.getPlayer().getUser().getUserId().equals(playerId)) {
-            remove(node.player);
-        } else {
-            removeByPlayerId(node.left, playerId, depth + 1);
-            removeByPlayerId(node.right, playerId, depth + 1);
+    public synchronized void removeByPlayerId(UUID playerId) {
+        Node node = playerIndex.get(playerId);
+        if (node != null) {
+            markRemoved(node);
         }
     }
 
-    public List<QueuedPlayer> getAllPlayers() {
-        List<QueuedPlayer> players = new ArrayList<>();
-        getAllPlayers(root, players);
+    @Override
+    public synchronized QueuedPlayer getPlayer(UUID playerId) {
+        Node node = playerIndex.get(playerId);
+        return node != null ? node.player : null;
+    }
+
+    private UUID getPlayerId(QueuedPlayer player) {
+        return player.getUserId();
+    }
+
+    @Override
+    public synchronized List<QueuedPlayer> getAllPlayers() {
+        List<Node> nodes = new ArrayList<>();
+        collectPlayers(root, nodes);
+        List<QueuedPlayer> players = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            players.add(node.player);
+        }
         return players;
     }
 
-    private void getAllPlayers(Node node, List<QueuedPlayer> players) {
+    private void collectPlayers(Node node, List<Node> nodes) {
         if (node == null) {
             return;
         }
-        players.add(node.player);
-        getAllPlayers(node.left, players);
-        getAllPlayers(node.right, players);
+        if (!node.removed) {
+            nodes.add(node);
+        }
+        collectPlayers(node.left, nodes);
+        collectPlayers(node.right, nodes);
     }
 }
@@ -0,0 +1,72 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+
+import java.util.Map;
+
+/**
+ * Receives measurements from the matchmaking hot path.
+ *
+ * <p>
+ * The queue reports each index search, the algorithm's verdicts on the
+ * candidates it returned, and each match. The match checker reports its
+ * sweep ticks and the queue depth of every region. Each call is cheap and
+ * made from the thread that did the work, so an implementation must be
+ * thread-safe and must not block.
+ *
+ * <p>
+ * The default methods record nothing, which is what {@link #DISABLED} and
+ * the queue use when no metrics are configured.
+ */
+public interface MatchmakingMetrics {
+
+    MatchmakingMetrics DISABLED = new MatchmakingMetrics() {
+    };
+
+    /**
+     * Records one index search.
+     *
+     * @param candidates how many players inside the windows the index offered,
+     *                   not counting the searching player
+     */
+    default void recordSearch(int candidates) {
+    }
+
+    /**
+     * Records the verdicts an algorithm gave on the candidates of one match
+     * attempt.
+     *
+     * @param algorithm the name of the algorithm
+     * @param accepted  how many candidates it accepted
+     * @param rejected  how many candidates it rejected
+     */
+    default void recordChecks(String algorithm, int accepted, int rejected) {
+    }
+
+    /**
+     * Records that two players were matched and left the queue.
+     *
+     * @param player   the player who searched
+     * @param opponent the opponent they were matched with
+     */
+    default void recordMatch(QueuedPlayer player, QueuedPlayer opponent) {
+    }
+
+    /**
+     * Records one run of the periodic sweep.
+     *
+     * @param nanos   how long the tick took
+     * @param matches how many matches it created
+     */
+    default void recordTick(long nanos, int matches) {
+    }
+
+    /**
+     * Replaces the queue depth of every region.
+     *
+     * @param depths the number of waiting players by region name, players
+     *               outside every region under {@link PlayerQueue#DEFAULT_REGION}
+     */
+    default void recordQueueDepths(Map<String, Integer> depths) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.geo.GeoDistance;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Decides which backend node owns the queue for a location.
+ *
+ * <p>
+ * The globe is cut into square partitions of {@code partitionSizeKm} along a
+ * meridian. Each partition is owned by exactly one node, chosen by rendezvous
+ * hashing: every node scores the partition and the highest score wins. When a
+ * node joins or leaves, only the partitions it wins or won change owner.
+ * Partitions are much larger than the matchmaking radius, so nearly every
+ * pair of players who can be matched queue on the same node. Players on
+ * either side of a partition border are queued on different nodes and are
+ * not matched with each other.
+ *
+ * <p>
+ * Nodes are configured as {@code matchmaking.cluster.nodes}, a comma separated
+ * list of {@code id=baseUrl} pairs, and this node is
+ * {@code matchmaking.cluster.node-id}. Without any nodes configured the
+ * backend runs on its own and owns every partition.
+ */
+@Component
+public class MatchmakingPartitioner {
+    private final String localNodeId;
+    private final Map<String, String> nodes;
+    private final long[] nodeSeeds;
+    private final String[] nodeIds;
+    private final double partitionDegrees;
+
+    @Autowired
+    public MatchmakingPartitioner(@Value("${matchmaking.cluster.node-id:local}") String localNodeId,
+            @Value("${matchmaking.cluster.nodes:}") String nodes,
+            @Value("${matchmaking.cluster.partition-size-km:200}") double partitionSizeKm) {
+        this(localNodeId, parseNodes(nodes), partitionSizeKm);
+    }
+
+    MatchmakingPartitioner(String localNodeId, Map<String, String> nodes, double partitionSizeKm) {
+        if (partitionSizeKm <= 0) {
+            throw new IllegalArgumentException("Partition size must be positive: " + partitionSizeKm);
+        }
+        if (!nodes.isEmpty() && !nodes.containsKey(localNodeId)) {
+            throw new IllegalArgumentException("Node " + localNodeId + " is not in the cluster " + nodes.keySet());
+        }
+        this.localNodeId = localNodeId;
+        this.nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+        this.nodeIds = nodes.keySet().toArray(new String[0]);
+        this.nodeSeeds = new long[nodeIds.length];
+        for (int i = 0; i < nodeIds.length; i++) {
+            nodeSeeds[i] = mix(nodeIds[i].hashCode());
+        }
+        this.partitionDegrees = GeoDistance.latitudeSpanDegrees(partitionSizeKm);
+    }
+
+    private static Map<String, String> parseNodes(String nodes) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String node : nodes.split(",")) {
+            if (node.isBlank()) {
+                continue;
+            }
+            String[] parts = node.split("=", 2);
+            if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                throw new IllegalArgumentException("Cluster nodes must be id=baseUrl pairs: " + node);
+            }
+            result.put(parts[0].trim(), parts[1].trim());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the node that owns the queue for a location.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the ID of the owning node
+     */
+    public String ownerOf(double latitude, double longitude) {
+        if (nodeIds.length == 0) {
+            return localNodeId;
+        }
+
+        long partition = partitionOf(latitude, longitude);
+        int best = 0;
+        long bestScore = Long.MIN_VALUE;
+        for (int i = 0; i < nodeIds.length; i++) {
+            long score = mix(nodeSeeds[i] ^ partition);
+            if (score > bestScore) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return nodeIds[best];
+    }
+
+    /**
+     * Checks whether this node owns the queue for a location.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return true if players at the location are queued on this node
+     */
+    public boolean isLocal(double latitude, double longitude) {
+        return localNodeId.equals(ownerOf(latitude, longitude));
+    }
+
+    public boolean isClustered() {
+        return nodeIds.length > 1;
+    }
+
+    public String getLocalNodeId() {
+        return localNodeId;
+    }
+
+    /**
+     * @return the IDs of every node other than this one
+     */
+    public List<String> getRemoteNodeIds() {
+        List<String> remote = new ArrayList<>(nodes.keySet());
+        remote.remove(localNodeId);
+        return remote;
+    }
+
+    /**
+     * @param nodeId the ID of a node
+     * @return the base URL of the node, or null if it is not in the cluster
+     */
+    public String getBaseUrl(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    private long partitionOf(double latitude, double longitude) {
+        long row = (long) Math.floor((latitude + 90) / partitionDegrees);
+        long column = (long) Math.floor((longitude + 180) / partitionDegrees);
+        return (row << 32) | (column & 0xffffffffL);
+    }
+
+    // SplitMix64 finaliser, spreads neighbouring partitions over unrelated scores
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
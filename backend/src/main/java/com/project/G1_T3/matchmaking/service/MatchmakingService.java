@@ -1,9 +1,10 @@
 package com.project.G1_T3.matchmaking.service;
 
-import com.project.G1_T3.match.model.Match;
-import com.project.G1_T3.matchmaking.model.MatchNotification;
+import com.project.G1_T3.matchmaking.model.FoundMatch;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface MatchmakingService {
@@ -11,13 +12,13 @@ public interface MatchmakingService {
 
     void removePlayerFromQueue(UUID playerId);
 
-    Match findMatch();
+    List<FoundMatch> findMatches();
 
-    void printQueueStatus();
+    FoundMatch findMatchFor(UUID playerId);
+
+    Map<String, Integer> getQueueDepthByRegion();
 
     boolean isPlayerInQueue(UUID playerId);
 
     void triggerMatchmaking();
-
-    MatchNotification createMatchNotification(Match match, UUID uuid);
 }
\ No newline at end of file
@@ -3,163 +3,226 @@ package com.project.G1_T3.matchmaking.service;
 import com.project.G1_T3.match.model.Match;
 import com.project.G1_T3.match.model.MatchDTO;
 import com.project.G1_T3.match.service.MatchService;
-import com.project.G1_T3.matchmaking.model.MatchNotification;
+import com.project.G1_T3.matchmaking.model.FoundMatch;
+import com.project.G1_T3.matchmaking.model.PlayerQueuedEvent;
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
-import com.project.G1_T3.playerprofile.service.PlayerProfileService;
 import com.project.G1_T3.common.exception.*;
 import com.project.G1_T3.common.exception.InsufficientPlayersException;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
 import java.util.UUID;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.time.LocalDateTime;
 
 /**
  * Service implementation for matchmaking functionality.
+ *
+ * <p>
+ * Matches are created as soon as a pair is found. Meeting points are looked
+ * up by the {@link MeetingPointResolver}, which is given a few milliseconds
+ * once the pairs are found: a match whose venue is not known by then is
+ * created at the players' midpoint and moved to the venue once the lookup is
+ * done, so a slow lookup never holds up the sweep or its transaction.
+ * Each match is handed back with the players it was made from, and players
+ * are told about their matches by the {@link MatchChecker} once the meeting
+ * point is final.
+ *
+ * <p>
+ * The queue lets go of matched players and journals their match before the
+ * match is saved. If saving fails, or the transaction it is saved in rolls
+ * back, the players are put back in the queue with their original join time
+ * rather than being lost.
  */
 @Slf4j
 @Service
 public class MatchmakingServiceImpl implements MatchmakingService {
-    private final MeetingPointService meetingPointService;
+    private final MeetingPointResolver meetingPointResolver;
     private final MatchService matchService;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final PlayerProfileService playerProfileService;
 
     private final PlayerQueue playerQueue;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MatchmakingServiceImpl(
-            MeetingPointService meetingPointService,
+            MeetingPointResolver meetingPointResolver,
             MatchService matchService,
-            SimpMessagingTemplate messagingTemplate,
-            PlayerProfileService playerProfileService,
-            PlayerQueue playerQueue) {
-        this.meetingPointService = meetingPointService;
+            PlayerQueue playerQueue,
+            ApplicationEventPublisher eventPublisher) {
+        this.meetingPointResolver = meetingPointResolver;
         this.matchService = matchService;
-        this.messagingTemplate = messagingTemplate;
-        this.playerProfileService = playerProfileService;
         this.playerQueue = playerQueue;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public void addPlayerToQueue(PlayerProfile player, double latitude, double longitude) {
-        if (playerQueue.containsPlayer(player.getUser().getId())) {
+        log.info("Adding player to queue: {} (ID: {})", player.getUser().getId(), player.getProfileId());
+        if (!playerQueue.addPlayer(player, latitude, longitude)) {
             throw new PlayerAlreadyInQueueException(
                     "Player with ID " + player.getUser().getId() + " is already in queue");
         }
-
-        log.info("Adding player to queue: {} (ID: {})", player.getUser().getId(), player.getProfileId());
-        playerQueue.addPlayer(player, latitude, longitude);
         log.info("Player added. Current queue size: {}", playerQueue.size());
+
+        // Look for an opponent right away instead of waiting for the next sweep
+        eventPublisher.publishEvent(new PlayerQueuedEvent(player.getUser().getId()));
     }
 
     @Override
     public void removePlayerFromQueue(UUID playerId) {
         log.info("Removing player from queue: {}", playerId);
-        if (!playerQueue.containsPlayer(playerId)) {
+        if (!playerQueue.removePlayer(playerId)) {
             throw new PlayerNotFoundException("Player with ID " + playerId + " not found in queue");
         }
-        playerQueue.removePlayer(playerId);
         log.info("Player removed. Current queue size: {}", playerQueue.size());
     }
 
     /**
-     * Attempts to find a match from the players in the queue.
+     * Attempts to match a single player, normally right after they joined the
+     * queue. Only the normal matchmaking windows are used.
+     *
+     * @param playerId the user ID of the player
+     * @return the match created, or null if the player is no longer queued or
+     *         no opponent was found
+     */
+    @Override
+    public FoundMatch findMatchFor(UUID playerId) {
+        QueuedPlayer player = playerQueue.getPlayer(playerId);
+        if (player == null) {
+            return null;
+        }
+
+        QueuedPlayer matchCandidate = playerQueue.findMatch(player);
+        if (matchCandidate == null) {
+            log.debug("No instant match for player {}, leaving them for the sweep", playerId);
+            return null;
+        }
+
+        double[] midpoint = MeetingPointResolver.midpoint(player, matchCandidate);
+        CompletableFuture<double[]> venue = meetingPointResolver.resolve(midpoint[0], midpoint[1]);
+        meetingPointResolver.awaitAll(List.of(venue));
+        MatchDTO matchDTO = getMatchDTO(player, matchCandidate, MeetingPointResolver.resolvedOr(venue, midpoint));
+        Match match = saveOrRequeue(List.<QueuedPlayer[]>of(new QueuedPlayer[] { player, matchCandidate }),
+                () -> matchService.createMatch(matchDTO));
+        log.info("Instant match found: {} vs {}", playerId, matchCandidate.getUserId());
+        return new FoundMatch(match, player, matchCandidate, meetingPointResolver.enrichWhenResolved(match, venue));
+    }
+
+    /**
+     * Pairs as many players in the queue as possible in a single pass. This
+     * is the fallback for players the instant match could not place, so the
+     * wider sweep windows are used.
+     *
+     * <p>
+     * Players are visited in the order they joined, so whoever has waited
+     * longest gets the first pick of opponents. Every pair found in the pass
+     * is saved in one transaction, and notifications are only sent once all
+     * matches have been saved. If that transaction fails, every player paired
+     * in the pass goes back to the queue for the next one. Meeting points are
+     * waited for after the pass, so the sweep never waits on a lookup, and
+     * those still being looked up then are filled in after the transaction
+     * commits.
      *
-     * @return the match found, or null if no match is found
+     * @return the matches created in this pass, empty if none were found
      */
     @Override
-    public Match findMatch() {
+    public List<FoundMatch> findMatches() {
         log.info("Attempting to find matches. Current queue size: {}", playerQueue.size());
         if (playerQueue.size() < 2) {
-            return null;
+            return List.of();
         }
 
-        List<QueuedPlayer> allPlayers = playerQueue.getAllPlayers();
-
-        for (QueuedPlayer player : allPlayers) {
-            // Attempt to find a match for the player
-            QueuedPlayer matchCandidate = playerQueue.findMatch(player);
-
-            if (matchCandidate != null) {
-                // Remove both players from the queue
-                playerQueue.removePlayer(player.getPlayer().getUser().getId());
-                playerQueue.removePlayer(matchCandidate.getPlayer().getUser().getId());
-
-                double[] meetingPoint;
-                try {
-                    meetingPoint = meetingPointService.findMeetingPoint(player, matchCandidate);
-                } catch (MeetingPointNotFoundException e) {
-                    log.error("Failed to find meeting point for players {} and {}",
-                            player.getPlayer().getUser().getId(),
-                            matchCandidate.getPlayer().getUser().getId());
-                    continue; // Skip this match and try the next
-                }
+        List<QueuedPlayer[]> pairs = new ArrayList<>();
+        List<CompletableFuture<double[]>> venues = new ArrayList<>();
+        playerQueue.sweep((player, matchCandidate) -> {
+            double[] midpoint = MeetingPointResolver.midpoint(player, matchCandidate);
+            pairs.add(new QueuedPlayer[] { player, matchCandidate });
+            venues.add(meetingPointResolver.resolve(midpoint[0], midpoint[1]));
+        });
 
-                MatchDTO matchDTO = getMatchDTO(player, matchCandidate, meetingPoint);
+        if (pairs.isEmpty()) {
+            log.info("No suitable matches found in this pass");
+            return List.of();
+        }
 
-                Match match = matchService.createMatch(matchDTO);
-                log.info("Match found: {} vs {}", player.getPlayer().getUser().getId(),
-                        matchCandidate.getPlayer().getUser().getId());
-                notifyPlayersAboutMatch(match);
-                return match;
-            }
+        meetingPointResolver.awaitAll(venues);
+        List<MatchDTO> matchDTOs = new ArrayList<>(pairs.size());
+        for (int i = 0; i < pairs.size(); i++) {
+            QueuedPlayer[] pair = pairs.get(i);
+            double[] midpoint = MeetingPointResolver.midpoint(pair[0], pair[1]);
+            matchDTOs.add(getMatchDTO(pair[0], pair[1], MeetingPointResolver.resolvedOr(venues.get(i), midpoint)));
         }
 
-        log.warn("No suitable matches found in this iteration");
-        throw new MatchmakingException("No suitable matches found in this iteration");
+        List<Match> matches = saveOrRequeue(pairs, () -> matchService.createMatches(matchDTOs));
+        List<FoundMatch> found = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            Match match = matches.get(i);
+            QueuedPlayer[] pair = pairs.get(i);
+            found.add(new FoundMatch(match, pair[0], pair[1],
+                    meetingPointResolver.enrichWhenResolved(match, venues.get(i))));
+        }
+        log.info("Created {} matches in this pass. Players left in queue: {}", matches.size(), playerQueue.size());
+        return found;
+    }
+
+    /**
+     * Saves matches the queue has already let go of, putting their players
+     * back in the queue if the save fails or its transaction does not commit.
+     *
+     * @param pairs the players of the matches being saved
+     * @param save  saves the matches
+     * @return what the save returned
+     */
+    private <T> T saveOrRequeue(List<QueuedPlayer[]> pairs, Supplier<T> save) {
+        T saved;
+        try {
+            saved = save.get();
+        } catch (RuntimeException e) {
+            requeue(pairs);
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        requeue(pairs);
+                    }
+                }
+            });
+        }
+        return saved;
+    }
+
+    private void requeue(List<QueuedPlayer[]> pairs) {
+        List<QueuedPlayer> players = new ArrayList<>(pairs.size() * 2);
+        for (QueuedPlayer[] pair : pairs) {
+            players.add(pair[0]);
+            players.add(pair[1]);
+        }
+        log.warn("Failed to save {} matches, putting their players back in the queue", pairs.size());
+        playerQueue.addPlayers(players);
     }
 
     private MatchDTO getMatchDTO(QueuedPlayer player, QueuedPlayer matchCandidate, double[] meetingPoint) {
         MatchDTO matchDTO = new MatchDTO();
-        matchDTO.setPlayer1Id(player.getPlayer().getProfileId());
-        matchDTO.setPlayer2Id(matchCandidate.getPlayer().getProfileId());
+        matchDTO.setPlayer1Id(player.getProfileId());
+        matchDTO.setPlayer2Id(matchCandidate.getProfileId());
         matchDTO.setMeetingLatitude(meetingPoint[0]);
         matchDTO.setMeetingLongitude(meetingPoint[1]);
         matchDTO.setScheduledTime(LocalDateTime.now().plusMinutes(5));
         return matchDTO;
     }
 
-    /**
-     * Notifies players about the match.
-     *
-     * @param match the match to notify about
-     */
-    public void notifyPlayersAboutMatch(Match match) {
-        log.info("Notifying players about the match: {}", match.getId());
-
-        // Notify player 1
-        String destination1 = "/topic/solo/match/" + match.getPlayer1Id();
-        messagingTemplate.convertAndSend(destination1, createMatchNotification(match, match.getPlayer1Id()));
-        log.info("Notification sent to player 1: {} at destination: {}", match.getPlayer1Id(), destination1);
-
-        // Notify player 2
-        String destination2 = "/topic/solo/match/" + match.getPlayer2Id();
-        messagingTemplate.convertAndSend(destination2, createMatchNotification(match, match.getPlayer2Id()));
-        log.info("Notification sent to player 2: {} at destination: {}", match.getPlayer2Id(), destination2);
-    }
-
-    /**
-     * Creates a match notification for a player.
-     *
-     * @param match the match
-     * @param uuid  the UUID of the player to notify
-     * @return the match notification
-     */
-    @Override
-    public MatchNotification createMatchNotification(Match match, UUID uuid) {
-        UUID opponentId = match.getPlayer1Id().equals(uuid) ? match.getPlayer2Id()
-                : match.getPlayer1Id();
-        PlayerProfile opponentProfile = playerProfileService.findByProfileId(opponentId);
-
-        return new MatchNotification(
-                match,
-                opponentProfile.getName(),
-                opponentProfile);
-    }
-
     /**
      * Triggers the matchmaking process.
      */
@@ -167,11 +230,9 @@ public class MatchmakingServiceImpl implements MatchmakingService {
     public void triggerMatchmaking() {
         log.info("Triggering matchmaking process");
         try {
-            findMatch();
+            findMatches();
         } catch (InsufficientPlayersException e) {
             log.info("Not enough players to start matchmaking: {}", e.getMessage());
-        } catch (MatchmakingException e) {
-            log.info("Matchmaking process completed without finding a match: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Error during matchmaking process", e);
         }
@@ -189,16 +250,12 @@ public class MatchmakingServiceImpl implements MatchmakingService {
     }
 
     /**
-     * Prints the current status of the queue.
+     * Counts the queued players by region, for the queue depth metric.
+     *
+     * @return the number of players by region name
      */
     @Override
-    public void printQueueStatus() {
-        log.debug("Current players in queue: {}", playerQueue.size());
-        playerQueue.getAllPlayers().forEach(player -> log.debug("Player: {} (ID: {}), Priority: {}, Current Rating: {}",
-                player.getPlayer().getUser().getId(),
-                player.getPlayer().getProfileId(),
-                player.getPriority(),
-                player.getPlayer().getGlickoRating()));
-        log.debug("--------------------");
+    public Map<String, Integer> getQueueDepthByRegion() {
+        return playerQueue.getDepthByRegion();
     }
 }
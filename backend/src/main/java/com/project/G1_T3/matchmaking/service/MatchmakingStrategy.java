@@ -0,0 +1,41 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+
+/**
+ * The algorithm and thresholds that apply to a player, as resolved by
+ * {@link MatchmakingStrategyRegistry}.
+ */
+public class MatchmakingStrategy {
+    private final String region;
+    private final MatchmakingAlgorithm algorithm;
+    private final SearchCriteria thresholds;
+
+    public MatchmakingStrategy(String region, MatchmakingAlgorithm algorithm, SearchCriteria thresholds) {
+        this.region = region;
+        this.algorithm = algorithm;
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * @return the name of the region this strategy comes from, or null for the
+     *         default strategy
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    public MatchmakingAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public SearchCriteria getThresholds() {
+        return thresholds;
+    }
+
+    @Override
+    public String toString() {
+        return "MatchmakingStrategy{region=" + region + ", algorithm=" + algorithm.getName()
+                + ", thresholds=" + thresholds + "}";
+    }
+}
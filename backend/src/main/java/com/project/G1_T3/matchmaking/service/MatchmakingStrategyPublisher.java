@@ -0,0 +1,93 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies admin changes to the matchmaking strategies on every node.
+ *
+ * <p>
+ * Each node keeps its own {@link MatchmakingStrategyRegistry} in memory, and
+ * a player is matched by whichever node {@link MatchmakingPartitioner} picks
+ * for their location. A change is therefore applied on this node first, which
+ * also validates it, and then passed to every other node.
+ *
+ * <p>
+ * Changes are not persisted. A node that cannot be reached keeps its old
+ * strategies until the change is made again, and a node that restarts starts
+ * from its configured defaults.
+ */
+@Slf4j
+@Service
+public class MatchmakingStrategyPublisher {
+    private final MatchmakingPartitioner partitioner;
+    private final MatchmakingTransport transport;
+    private final MatchmakingStrategyRegistry strategyRegistry;
+
+    public MatchmakingStrategyPublisher(MatchmakingPartitioner partitioner, MatchmakingTransport transport,
+            MatchmakingStrategyRegistry strategyRegistry) {
+        this.partitioner = partitioner;
+        this.transport = transport;
+        this.strategyRegistry = strategyRegistry;
+    }
+
+    /**
+     * Adds or replaces a region on every node.
+     *
+     * @param region the region to store
+     * @return the stored region
+     * @throws IllegalArgumentException if the region is invalid or its
+     *                                  algorithm is unknown, in which case no
+     *                                  node is changed
+     */
+    public MatchmakingRegion putRegion(MatchmakingRegion region) {
+        MatchmakingRegion stored = strategyRegistry.putRegion(region);
+        for (String nodeId : partitioner.getRemoteNodeIds()) {
+            try {
+                transport.forwardRegion(nodeId, stored);
+            } catch (RuntimeException e) {
+                log.warn("Could not pass region {} to node {}: {}", stored.getName(), nodeId, e.getMessage());
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Removes a region from every node.
+     *
+     * @param name the name of the region
+     * @return true if the region existed on this node
+     */
+    public boolean removeRegion(String name) {
+        boolean removed = strategyRegistry.removeRegion(name);
+        // Passed on even if this node did not have the region, another node may have missed its removal
+        for (String nodeId : partitioner.getRemoteNodeIds()) {
+            try {
+                transport.forwardRegionRemoval(nodeId, name);
+            } catch (RuntimeException e) {
+                log.warn("Could not pass removal of region {} to node {}: {}", name, nodeId, e.getMessage());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Changes the algorithm used outside every region on every node.
+     *
+     * @param algorithm the name of the algorithm
+     * @throws IllegalArgumentException if the algorithm is unknown, in which
+     *                                  case no node is changed
+     */
+    public void setDefaultAlgorithm(String algorithm) {
+        strategyRegistry.setDefaultAlgorithm(algorithm);
+        for (String nodeId : partitioner.getRemoteNodeIds()) {
+            try {
+                transport.forwardDefaultAlgorithm(nodeId, algorithm);
+            } catch (RuntimeException e) {
+                log.warn("Could not pass default algorithm {} to node {}: {}", algorithm, nodeId, e.getMessage());
+            }
+        }
+    }
+}
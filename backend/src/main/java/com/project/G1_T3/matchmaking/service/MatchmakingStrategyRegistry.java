@@ -0,0 +1,227 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which matchmaking algorithm and thresholds apply to a player.
+ *
+ * <p>
+ * Operators can define regions at runtime, each with its own algorithm and
+ * thresholds, so a strict strategy can serve dense cities while a broader one
+ * serves sparse areas. A player is handled by the smallest region that
+ * contains their location, or by the default algorithm with its own
+ * thresholds if no region does. The thresholds of the chosen strategy are
+ * what the queue index is queried with.
+ *
+ * <p>
+ * The registry also owns how far the periodic sweep widens those thresholds:
+ * by a fixed factor, or with expanding windows by a step for every interval a
+ * player has waited.
+ */
+@Slf4j
+@Component
+public class MatchmakingStrategyRegistry {
+    private final List<MatchmakingAlgorithm> algorithms;
+    private final Map<String, MatchmakingRegion> regions = new ConcurrentHashMap<>();
+    private volatile String defaultAlgorithm;
+
+    // The periodic sweep is a fallback for players the instant match missed, so it accepts wider gaps
+    @Value("${matchmaking.sweep.widening:1.5}")
+    private double sweepWidening = 1.5;
+
+    // In expanding mode the sweep widens every window by a fixed step for each interval a player has waited
+    @Value("${matchmaking.expansion.enabled:false}")
+    private boolean expansionEnabled = false;
+
+    @Value("${matchmaking.expansion.interval-seconds:15}")
+    private long expansionIntervalSeconds = 15;
+
+    @Value("${matchmaking.expansion.step:0.25}")
+    private double expansionStep = 0.25;
+
+    @Value("${matchmaking.expansion.max-steps:8}")
+    private int expansionMaxSteps = 8;
+
+    @Autowired
+    public MatchmakingStrategyRegistry(List<MatchmakingAlgorithm> algorithms,
+            @Value("${matchmaking.strategy.default-algorithm:glicko}") String defaultAlgorithm) {
+        this.algorithms = List.copyOf(algorithms);
+        this.defaultAlgorithm = defaultAlgorithm;
+    }
+
+    /**
+     * Resolves the strategy for a queued player from their location.
+     *
+     * @param player the player
+     * @return the strategy that applies to the player
+     */
+    public MatchmakingStrategy resolve(QueuedPlayer player) {
+        return resolve(player.getLatitude(), player.getLongitude());
+    }
+
+    /**
+     * Resolves the strategy for a location.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the strategy of the smallest region containing the location, or
+     *         the default strategy
+     */
+    public MatchmakingStrategy resolve(double latitude, double longitude) {
+        MatchmakingRegion best = null;
+        for (MatchmakingRegion region : regions.values()) {
+            if (region.contains(latitude, longitude) && (best == null || region.area() < best.area())) {
+                best = region;
+            }
+        }
+
+        if (best == null) {
+            MatchmakingAlgorithm algorithm = getAlgorithm(defaultAlgorithm);
+            return new MatchmakingStrategy(null, algorithm, algorithm.getSearchCriteria());
+        }
+
+        MatchmakingAlgorithm algorithm = getAlgorithm(best.getAlgorithm());
+        return new MatchmakingStrategy(best.getName(), algorithm, getThresholds(best, algorithm));
+    }
+
+    private SearchCriteria getThresholds(MatchmakingRegion region, MatchmakingAlgorithm algorithm) {
+        SearchCriteria defaults = algorithm.getSearchCriteria();
+        return new SearchCriteria(
+                region.getMaxRatingDiff() != null ? region.getMaxRatingDiff() : defaults.getMaxRatingDiff(),
+                region.getMaxDeviationDiff() != null ? region.getMaxDeviationDiff() : defaults.getMaxDeviationDiff(),
+                region.getMaxDistanceKm() != null ? region.getMaxDistanceKm() : defaults.getMaxDistanceKm(),
+                defaults.getRatingWeight(), defaults.getDeviationWeight(), defaults.getDistanceWeight());
+    }
+
+    /**
+     * Adds a region or replaces the region with the same name. Players already
+     * in the queue pick up the change on their next match attempt.
+     *
+     * @param region the region to store
+     * @return the stored region
+     * @throws IllegalArgumentException if the region is invalid or its
+     *                                  algorithm is unknown
+     */
+    public MatchmakingRegion putRegion(MatchmakingRegion region) {
+        validate(region);
+        regions.put(region.getName(), region);
+        log.info("Matchmaking region {} now uses {}", region.getName(), region.getAlgorithm());
+        return region;
+    }
+
+    /**
+     * Removes a region, its players fall back to another region or the
+     * default strategy.
+     *
+     * @param name the name of the region
+     * @return true if the region existed
+     */
+    public boolean removeRegion(String name) {
+        boolean removed = regions.remove(name) != null;
+        if (removed) {
+            log.info("Matchmaking region {} removed", name);
+        }
+        return removed;
+    }
+
+    public List<MatchmakingRegion> getRegions() {
+        List<MatchmakingRegion> result = new ArrayList<>(regions.values());
+        result.sort(Comparator.comparing(MatchmakingRegion::getName));
+        return result;
+    }
+
+    public String getDefaultAlgorithm() {
+        return defaultAlgorithm;
+    }
+
+    /**
+     * Changes the algorithm used outside every region.
+     *
+     * @param name the name of the algorithm
+     * @throws IllegalArgumentException if the algorithm is unknown
+     */
+    public void setDefaultAlgorithm(String name) {
+        getAlgorithm(name);
+        defaultAlgorithm = name;
+        log.info("Default matchmaking algorithm is now {}", name);
+    }
+
+    public List<String> getAlgorithmNames() {
+        List<String> names = new ArrayList<>();
+        for (MatchmakingAlgorithm algorithm : algorithms) {
+            names.add(algorithm.getName());
+        }
+        return names;
+    }
+
+    private MatchmakingAlgorithm getAlgorithm(String name) {
+        for (MatchmakingAlgorithm algorithm : algorithms) {
+            if (algorithm.getName().equals(name)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown matchmaking algorithm: " + name);
+    }
+
+    private void validate(MatchmakingRegion region) {
+        if (region.getName() == null || region.getName().isBlank()) {
+            throw new IllegalArgumentException("Region name is required");
+        }
+        if (region.getMinLatitude() < -90 || region.getMaxLatitude() > 90
+                || region.getMinLatitude() > region.getMaxLatitude()) {
+            throw new IllegalArgumentException("Invalid latitude range for region " + region.getName());
+        }
+        if (Math.abs(region.getMinLongitude()) > 180 || Math.abs(region.getMaxLongitude()) > 180) {
+            throw new IllegalArgumentException("Invalid longitude range for region " + region.getName());
+        }
+        getAlgorithm(region.getAlgorithm());
+        for (Double threshold : Arrays.asList(region.getMaxRatingDiff(), region.getMaxDeviationDiff(),
+                region.getMaxDistanceKm())) {
+            if (threshold != null && !(threshold > 0)) {
+                throw new IllegalArgumentException("Thresholds must be positive for region " + region.getName());
+            }
+        }
+    }
+
+    /**
+     * Returns the factor the periodic sweep widens a strategy's thresholds by.
+     *
+     * @return the sweep widening factor
+     */
+    public double getSweepWidening() {
+        return sweepWidening;
+    }
+
+    /**
+     * Checks whether the sweep widens each player's windows with their wait
+     * time instead of using the fixed sweep widening.
+     *
+     * @return true if expanding windows are enabled
+     */
+    public boolean isExpansionEnabled() {
+        return expansionEnabled;
+    }
+
+    /**
+     * Returns the widening factor for a player who has waited the given time.
+     * Every full interval adds one step, up to the maximum number of steps, so
+     * the windows only change at interval boundaries.
+     *
+     * @param waitSeconds how long the player has been queued
+     * @return the factor to widen the thresholds by
+     */
+    public double getExpansionFactor(long waitSeconds) {
+        long steps = Math.min(expansionMaxSteps, Math.max(0, waitSeconds) / Math.max(1, expansionIntervalSeconds));
+        return 1 + expansionStep * steps;
+    }
+}
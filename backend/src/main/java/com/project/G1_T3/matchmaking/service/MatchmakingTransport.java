@@ -0,0 +1,61 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+import com.project.G1_T3.matchmaking.model.QueueRequest;
+
+/**
+ * Hands solo queue requests to the node that owns them, see
+ * {@link MatchmakingPartitioner}, and passes admin changes to the matchmaking
+ * strategies on to every other node, see {@link MatchmakingStrategyPublisher}.
+ */
+public interface MatchmakingTransport {
+
+    /**
+     * Asks a node to queue a player.
+     *
+     * @param nodeId  the ID of the owning node
+     * @param request the original queue request
+     * @throws RuntimeException if the node could not be reached
+     */
+    void forwardJoin(String nodeId, QueueRequest request);
+
+    /**
+     * Asks a node to remove a player from its queue. Nodes that do not have
+     * the player ignore it.
+     *
+     * @param nodeId  the ID of the node
+     * @param request the original dequeue request
+     * @throws RuntimeException if the node could not be reached
+     */
+    void forwardLeave(String nodeId, QueueRequest request);
+
+    /**
+     * Asks a node to add or replace a matchmaking region.
+     *
+     * @param nodeId the ID of the node
+     * @param region the region, already validated on this node
+     * @throws RuntimeException if the node could not be reached or rejected
+     *                          the region
+     */
+    void forwardRegion(String nodeId, MatchmakingRegion region);
+
+    /**
+     * Asks a node to remove a matchmaking region. Nodes that do not have the
+     * region ignore it.
+     *
+     * @param nodeId the ID of the node
+     * @param name   the name of the region
+     * @throws RuntimeException if the node could not be reached
+     */
+    void forwardRegionRemoval(String nodeId, String name);
+
+    /**
+     * Asks a node to change the algorithm used outside every region.
+     *
+     * @param nodeId    the ID of the node
+     * @param algorithm the name of the algorithm
+     * @throws RuntimeException if the node could not be reached or does not
+     *                          know the algorithm
+     */
+    void forwardDefaultAlgorithm(String nodeId, String algorithm);
+}
@@ -0,0 +1,223 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.match.model.Match;
+import com.project.G1_T3.match.service.MatchService;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resolves meeting points off the matchmaking path.
+ *
+ * <p>
+ * A match is created as soon as two players are paired.
+ * {@link #resolve(double, double)} looks the venue for their midpoint up on
+ * the {@code meetingPointExecutor}, and {@link #awaitAll(List)} gives the
+ * lookups a few milliseconds, {@code matchmaking.meeting-point.wait-ms}, which
+ * is plenty for the in-memory venue index. A match whose venue is still not
+ * known after that is created at the midpoint. Once the transaction that
+ * created the match has committed and the lookup is done, the venue is saved
+ * onto the match if it is not there already, and the future from
+ * {@link #enrichWhenResolved(Match, CompletableFuture)} completes so the
+ * players are told once, where they are actually meeting. A lookup that
+ * fails, times out or finds the executor full leaves the match at its
+ * midpoint.
+ *
+ * <p>
+ * Lookups are cached by their midpoint rounded to a thousandth of a degree,
+ * about 110 m, in a bounded least-recently-used map. Pairs meeting around the
+ * same place share one lookup, including one still in flight.
+ */
+@Slf4j
+@Component
+public class MeetingPointResolver {
+    private static final double CACHE_CELLS_PER_DEGREE = 1000;
+
+    private final MeetingPointService meetingPointService;
+    private final Executor executor;
+    private final MatchService matchService;
+    private final long timeoutMs;
+    private final long waitMs;
+    private final Map<Long, CompletableFuture<double[]>> cache;
+
+    /**
+     * @param timeoutMs how long a lookup may take before the midpoint is kept
+     * @param waitMs    how long matchmaking waits for lookups before creating
+     *                  matches at their midpoints
+     * @param cacheSize how many midpoints to remember
+     */
+    @Autowired
+    public MeetingPointResolver(MeetingPointService meetingPointService,
+            @Qualifier("meetingPointExecutor") Executor executor, MatchService matchService,
+            @Value("${matchmaking.meeting-point.timeout-ms:2000}") long timeoutMs,
+            @Value("${matchmaking.meeting-point.wait-ms:5}") long waitMs,
+            @Value("${matchmaking.meeting-point.cache-size:10000}") int cacheSize) {
+        this.meetingPointService = meetingPointService;
+        this.executor = executor;
+        this.matchService = matchService;
+        this.timeoutMs = timeoutMs;
+        this.waitMs = waitMs;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<double[]>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Returns the point halfway between two players, where they meet until a
+     * venue is found.
+     *
+     * @param player1 the first player
+     * @param player2 the second player
+     * @return the latitude and longitude of the midpoint
+     */
+    public static double[] midpoint(QueuedPlayer player1, QueuedPlayer player2) {
+        return new double[] { (player1.getLatitude() + player2.getLatitude()) / 2,
+                (player1.getLongitude() + player2.getLongitude()) / 2 };
+    }
+
+    /**
+     * Returns the value of a lookup if it has already succeeded.
+     *
+     * @param venue    the lookup
+     * @param fallback the point to use otherwise
+     * @return the venue, or the fallback
+     */
+    public static double[] resolvedOr(CompletableFuture<double[]> venue, double[] fallback) {
+        if (venue.isDone() && !venue.isCompletedExceptionally()) {
+            return venue.join();
+        }
+        return fallback;
+    }
+
+    /**
+     * Waits up to {@code matchmaking.meeting-point.wait-ms} in total for
+     * lookups to finish. Lookups still running afterwards carry on.
+     *
+     * @param venues the lookups
+     */
+    public void awaitAll(List<CompletableFuture<double[]>> venues) {
+        if (waitMs <= 0 || venues.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(venues.toArray(new CompletableFuture<?>[0])).get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Failed lookups keep the midpoint, slow ones are filled in later
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Looks up the meeting point for a midpoint, from the cache or on the
+     * meeting point executor.
+     *
+     * @param latitude  the latitude of the midpoint
+     * @param longitude the longitude of the midpoint
+     * @return the lookup, failed if the executor is full
+     */
+    public CompletableFuture<double[]> resolve(double latitude, double longitude) {
+        long key = cacheKey(latitude, longitude);
+        CompletableFuture<double[]> cached = cache.get(key);
+        if (cached != null && !cached.isCompletedExceptionally()) {
+            return cached;
+        }
+
+        CompletableFuture<double[]> lookup;
+        try {
+            lookup = CompletableFuture
+                    .supplyAsync(() -> meetingPointService.findMeetingPoint(latitude, longitude), executor)
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Meeting point executor is full, meeting at ({}, {})", latitude, longitude);
+            return CompletableFuture.failedFuture(e);
+        }
+        cache.put(key, lookup);
+        // Failures are not cached, the next pair around here tries again
+        lookup.whenComplete((point, error) -> {
+            if (error != null) {
+                cache.remove(key, lookup);
+            }
+        });
+        return lookup;
+    }
+
+    /**
+     * Moves a match to its venue once the lookup is done and the transaction
+     * creating the match, if any, has committed. Nothing is saved if the match
+     * is already there.
+     *
+     * @param match the match, at its venue or at the provisional meeting point
+     * @param venue the lookup for its meeting point
+     * @return completes with the match at its final meeting point, or with
+     *         null if the match was finished or cancelled meanwhile
+     */
+    public CompletableFuture<Match> enrichWhenResolved(Match match, CompletableFuture<double[]> venue) {
+        CompletableFuture<Match> ready = new CompletableFuture<>();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    venue.whenComplete((point, error) -> ready.complete(enrich(match, point, error)));
+                }
+            });
+        } else {
+            venue.whenComplete((point, error) -> ready.complete(enrich(match, point, error)));
+        }
+        return ready;
+    }
+
+    private Match enrich(Match match, double[] point, Throwable error) {
+        if (error != null) {
+            log.warn("No venue for match {}, keeping the midpoint: {}", match.getMatchId(), error.toString());
+            return match;
+        }
+        if (isAt(match, point)) {
+            return match;
+        }
+        try {
+            if (!matchService.updateMeetingPoint(match.getMatchId(), point[0], point[1])) {
+                log.debug("Match {} ended before its venue was found", match.getMatchId());
+                return null;
+            }
+            match.setMeetingLatitude(point[0]);
+            match.setMeetingLongitude(point[1]);
+            log.debug("Match {} moved to ({}, {})", match.getMatchId(), point[0], point[1]);
+        } catch (RuntimeException e) {
+            log.error("Failed to move match {} to its venue", match.getMatchId(), e);
+        }
+        return match;
+    }
+
+    private static boolean isAt(Match match, double[] point) {
+        return match.getMeetingLatitude() != null && match.getMeetingLatitude() == point[0]
+                && match.getMeetingLongitude() != null && match.getMeetingLongitude() == point[1];
+    }
+
+    private static long cacheKey(double latitude, double longitude) {
+        // Rounded longitudes stay within +-180000, so they never reach the next row
+        long row = Math.round(latitude * CACHE_CELLS_PER_DEGREE);
+        long column = Math.round(longitude * CACHE_CELLS_PER_DEGREE);
+        return row * 1_000_000L + column;
+    }
+}
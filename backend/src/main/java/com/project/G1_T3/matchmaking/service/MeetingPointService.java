@@ -4,4 +4,6 @@ import com.project.G1_T3.matchmaking.model.QueuedPlayer;
 
 public interface MeetingPointService {
     double[] findMeetingPoint(QueuedPlayer player1, QueuedPlayer player2);
+
+    double[] findMeetingPoint(double latitude, double longitude);
 }
\ No newline at end of file
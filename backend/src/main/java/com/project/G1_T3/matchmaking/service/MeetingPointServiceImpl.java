@@ -1,53 +1,65 @@
 package com.project.G1_T3.matchmaking.service;
 
+import com.project.G1_T3.common.geo.GeoPoint;
+import com.project.G1_T3.common.geo.GeoRadius;
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
-import com.project.G1_T3.common.exception.MeetingPointNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+/**
+ * Picks where two matched players meet: the venue from the {@link VenueIndex}
+ * closest to the midpoint between them, or the midpoint itself if no venue is
+ * close enough or no venue file is configured. The lookup is in memory, so
+ * it adds no network round-trip to making a match.
+ */
+@Slf4j
 @Service
 public class MeetingPointServiceImpl implements MeetingPointService {
 
-    private final RestTemplate restTemplate;
+    private final VenueIndex venueIndex;
+    private final GeoRadius venueRadius;
 
-    public MeetingPointServiceImpl(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    /**
+     * @param venueIndex         the venues to choose from
+     * @param maxVenueDistanceKm how far from the midpoint a venue may be
+     */
+    @Autowired
+    public MeetingPointServiceImpl(VenueIndex venueIndex,
+            @Value("${matchmaking.venues.max-distance-km:2.0}") double maxVenueDistanceKm) {
+        this.venueIndex = venueIndex;
+        this.venueRadius = new GeoRadius(maxVenueDistanceKm);
     }
 
     @Override
     public double[] findMeetingPoint(QueuedPlayer player1, QueuedPlayer player2) {
-        // For now, we'll just return the midpoint between the two players
         double midLat = (player1.getLatitude() + player2.getLatitude()) / 2;
         double midLon = (player1.getLongitude() + player2.getLongitude()) / 2;
+        return findMeetingPoint(midLat, midLon);
+    }
 
-        // Simulating an API call to find a nearby public place
-        // String url = "https://api.example.com/places?lat=" + midLat + "&lon=" +
-        // midLon;
-        // try {
-        // PlaceResponse response = restTemplate.getForObject(url, PlaceResponse.class);
-        // if (response != null) {
-        // return new double[] { response.getLatitude(), response.getLongitude() };
-        // } else {
-        // throw new MeetingPointNotFoundException("No suitable meeting point found");
-        // }
-        // } catch (Exception e) {
-        // throw new MeetingPointNotFoundException("Error finding meeting point: " +
-        // e.getMessage());
-        // }
-
-        // For now, just return the midpoint
-        if (isValidMeetingPoint(midLat, midLon)) {
-            return new double[] { midLat, midLon };
-        } else {
-            throw new MeetingPointNotFoundException("No suitable meeting point found");
+    /**
+     * Finds the venue closest to a midpoint.
+     *
+     * @param latitude  the latitude of the midpoint
+     * @param longitude the longitude of the midpoint
+     * @return the venue's latitude and longitude, or the midpoint if no venue
+     *         is close enough
+     */
+    @Override
+    public double[] findMeetingPoint(double latitude, double longitude) {
+        if (venueIndex.isEmpty()) {
+            return new double[] { latitude, longitude };
         }
-    }
 
-    private boolean isValidMeetingPoint(double latitude, double longitude) {
-        // Implement logic to check if the point is valid
-        // This could involve checking against a database of valid locations,
-        // or making an API call to a mapping service
-        // For now, we'll just return true
-        return true;
+        int venue = venueIndex.findNearest(new GeoPoint(latitude, longitude), venueRadius);
+        if (venue < 0) {
+            log.debug("No venue within {} of ({}, {}), meeting at the midpoint", venueRadius, latitude, longitude);
+            return new double[] { latitude, longitude };
+        }
+        log.debug("Meeting at {} near ({}, {})", venueIndex.getName(venue), latitude, longitude);
+        return new double[] { venueIndex.getLatitude(venue), venueIndex.getLongitude(venue) };
     }
-}
\ No newline at end of file
+}
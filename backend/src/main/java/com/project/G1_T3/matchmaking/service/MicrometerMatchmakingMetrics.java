@@ -0,0 +1,144 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes matchmaking measurements to Micrometer, so they can be read from
+ * {@code /actuator/metrics} while tuning thresholds under load.
+ *
+ * <ul>
+ * <li>{@code matchmaking.queue.depth}: waiting players, tagged by region</li>
+ * <li>{@code matchmaking.queue.size}: players in the queue index</li>
+ * <li>{@code matchmaking.match.wait}: histogram of the time from joining the
+ * queue to being matched, one sample per player</li>
+ * <li>{@code matchmaking.search.candidates}: histogram of the players inside
+ * the windows of each index search</li>
+ * <li>{@code matchmaking.candidates.checked}: candidates the algorithm
+ * accepted or rejected, tagged by algorithm and outcome, so the acceptance
+ * rate is accepted over the total</li>
+ * <li>{@code matchmaking.sweep} and {@code matchmaking.sweep.matches}: the
+ * duration of each periodic sweep and the matches it created</li>
+ * <li>{@code matchmaking.kdtree.depth}: the height of the KD-tree, only with
+ * the {@code kdtree} index. It is measured when the metric is read, which
+ * walks the tree under its lock</li>
+ * </ul>
+ */
+@Component
+class MicrometerMatchmakingMetrics implements MatchmakingMetrics {
+    private static final String ACCEPTED = "accepted";
+    private static final String REJECTED = "rejected";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer matchWait;
+    private final DistributionSummary searchCandidates;
+    private final Timer sweep;
+    private final DistributionSummary sweepMatches;
+    private final MultiGauge queueDepth;
+
+    // Counters by algorithm name, looked up on every match attempt
+    private final Map<String, Counter[]> checks = new ConcurrentHashMap<>();
+
+    @Autowired
+    MicrometerMatchmakingMetrics(MeterRegistry meterRegistry, MatchmakingIndex index) {
+        this.meterRegistry = meterRegistry;
+        this.matchWait = Timer.builder("matchmaking.match.wait")
+                .description("Time from joining the queue to being matched")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(100))
+                .maximumExpectedValue(Duration.ofMinutes(30))
+                .register(meterRegistry);
+        this.searchCandidates = DistributionSummary.builder("matchmaking.search.candidates")
+                .description("Players inside the windows of one index search")
+                .baseUnit("players")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sweep = Timer.builder("matchmaking.sweep")
+                .description("Time to run one periodic sweep")
+                .register(meterRegistry);
+        this.sweepMatches = DistributionSummary.builder("matchmaking.sweep.matches")
+                .description("Matches created by one periodic sweep")
+                .baseUnit("matches")
+                .register(meterRegistry);
+        this.queueDepth = MultiGauge.builder("matchmaking.queue.depth")
+                .description("Players waiting in the queue, by region")
+                .baseUnit("players")
+                .register(meterRegistry);
+
+        Gauge.builder("matchmaking.queue.size", index, MatchmakingIndex::size)
+                .description("Players in the queue index")
+                .baseUnit("players")
+                .register(meterRegistry);
+        if (index instanceof MatchmakingKDTree) {
+            Gauge.builder("matchmaking.kdtree.depth", (MatchmakingKDTree) index, MatchmakingKDTree::height)
+                    .description("Height of the queue's KD-tree")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void recordSearch(int candidates) {
+        searchCandidates.record(candidates);
+    }
+
+    @Override
+    public void recordChecks(String algorithm, int accepted, int rejected) {
+        Counter[] counters = checks.computeIfAbsent(algorithm, this::checkCounters);
+        if (accepted > 0) {
+            counters[0].increment(accepted);
+        }
+        if (rejected > 0) {
+            counters[1].increment(rejected);
+        }
+    }
+
+    @Override
+    public void recordMatch(QueuedPlayer player, QueuedPlayer opponent) {
+        Instant now = Instant.now();
+        matchWait.record(Duration.between(player.getJoinTime(), now));
+        matchWait.record(Duration.between(opponent.getJoinTime(), now));
+    }
+
+    @Override
+    public void recordTick(long nanos, int matches) {
+        sweep.record(nanos, TimeUnit.NANOSECONDS);
+        sweepMatches.record(matches);
+    }
+
+    @Override
+    public void recordQueueDepths(Map<String, Integer> depths) {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(depths.size());
+        depths.forEach((region, depth) -> rows.add(MultiGauge.Row.of(Tags.of("region", region), depth)));
+        // Regions that were removed drop out of the metric
+        queueDepth.register(rows, true);
+    }
+
+    private Counter[] checkCounters(String algorithm) {
+        return new Counter[] { checkCounter(algorithm, ACCEPTED), checkCounter(algorithm, REJECTED) };
+    }
+
+    private Counter checkCounter(String algorithm, String outcome) {
+        return Counter.builder("matchmaking.candidates.checked")
+                .description("Candidates the matchmaking algorithm accepted or rejected")
+                .tag("algorithm", algorithm)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
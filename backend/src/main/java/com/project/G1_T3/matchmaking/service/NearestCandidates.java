@@ -0,0 +1,196 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer for the k lowest-cost candidates of an index search.
+ *
+ * <p>
+ * Costs and players are kept in two parallel arrays that form a max-heap on
+ * cost, so the worst candidate kept so far is always at index 0 and can be
+ * compared against without boxing. Once the search is done,
+ * {@link #sortByCost()} turns the heap into a list ordered from the best
+ * candidate to the worst, in place.
+ *
+ * <p>
+ * The arrays only grow when a larger k is requested, so a buffer that is
+ * reset and reused for every search produces no garbage. A buffer is not
+ * thread-safe; the player queue keeps one per thread.
+ */
+final class NearestCandidates {
+    private double[] costs;
+    private QueuedPlayer[] players;
+    private int size;
+    private int limit;
+    private int offered;
+
+    NearestCandidates(int capacity) {
+        this.costs = new double[capacity];
+        this.players = new QueuedPlayer[capacity];
+        this.limit = capacity;
+    }
+
+    /**
+     * Empties the buffer and sets how many candidates it keeps.
+     *
+     * @param k the number of candidates to keep
+     */
+    void reset(int k) {
+        clear();
+        offered = 0;
+        if (k > costs.length) {
+            costs = new double[k];
+            players = new QueuedPlayer[k];
+        }
+        limit = k;
+    }
+
+    /**
+     * Empties the buffer and drops its references to players.
+     */
+    void clear() {
+        Arrays.fill(players, 0, size, null);
+        size = 0;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean isFull() {
+        return size >= limit;
+    }
+
+    /**
+     * Returns how many candidates were offered since the last reset, kept or
+     * not.
+     *
+     * @return the number of offers
+     */
+    int offered() {
+        return offered;
+    }
+
+    /**
+     * Returns the cost of the worst candidate kept. Only valid while the
+     * buffer is a heap and not empty.
+     *
+     * @return the highest cost in the buffer
+     */
+    double worstCost() {
+        return costs[0];
+    }
+
+    /**
+     * Offers a candidate. It is kept if the buffer is not full yet or if it is
+     * cheaper than the worst candidate kept, which it then replaces.
+     *
+     * @param player the candidate
+     * @param cost   the cost of the candidate
+     */
+    void offer(QueuedPlayer player, double cost) {
+        offered++;
+        if (size < limit) {
+            siftUp(size++, player, cost);
+        } else if (limit > 0 && cost < costs[0]) {
+            siftDown(0, size, player, cost);
+        }
+    }
+
+    /**
+     * Orders the candidates from the lowest cost to the highest. The buffer is
+     * no longer a heap afterwards, so nothing may be offered until the next
+     * reset.
+     */
+    void sortByCost() {
+        for (int end = size - 1; end > 0; end--) {
+            QueuedPlayer player = players[end];
+            double cost = costs[end];
+            players[end] = players[0];
+            costs[end] = costs[0];
+            siftDown(0, end, player, cost);
+        }
+    }
+
+    /**
+     * Removes a player from a sorted buffer, keeping the order of the rest.
+     *
+     * @param player the player to remove
+     * @return true if the player was in the buffer
+     */
+    boolean remove(QueuedPlayer player) {
+        for (int i = 0; i < size; i++) {
+            if (players[i].equals(player)) {
+                System.arraycopy(costs, i + 1, costs, i, size - i - 1);
+                System.arraycopy(players, i + 1, players, i, size - i - 1);
+                players[--size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the most expensive candidates of a sorted buffer beyond the given
+     * count.
+     *
+     * @param k the number of candidates to keep
+     */
+    void truncate(int k) {
+        if (k < size) {
+            Arrays.fill(players, k, size, null);
+            size = k;
+        }
+    }
+
+    QueuedPlayer getPlayer(int i) {
+        return players[i];
+    }
+
+    double getCost(int i) {
+        return costs[i];
+    }
+
+    private void siftUp(int i, QueuedPlayer player, double cost) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (costs[parent] >= cost) {
+                break;
+            }
+            costs[i] = costs[parent];
+            players[i] = players[parent];
+            i = parent;
+        }
+        costs[i] = cost;
+        players[i] = player;
+    }
+
+    private void siftDown(int i, int heapSize, QueuedPlayer player, double cost) {
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < heapSize && costs[right] > costs[child]) {
+                child = right;
+            }
+            if (cost >= costs[child]) {
+                break;
+            }
+            costs[i] = costs[child];
+            players[i] = players[child];
+            i = child;
+        }
+        costs[i] = cost;
+        players[i] = player;
+    }
+}
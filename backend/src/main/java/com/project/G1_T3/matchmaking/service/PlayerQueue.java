@@ -1,13 +1,24 @@
 package com.project.G1_T3.matchmaking.service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 
 public interface PlayerQueue {
-    void addPlayer(PlayerProfile player, double latitude, double longitude);
+    /**
+     * The region name {@link #getDepthByRegion()} counts players outside
+     * every region under.
+     */
+    String DEFAULT_REGION = "default";
+
+    boolean addPlayer(PlayerProfile player, double latitude, double longitude);
+
+    void addPlayers(List<QueuedPlayer> players);
 
     QueuedPlayer pollPlayer();
 
@@ -15,10 +26,65 @@ public interface PlayerQueue {
 
     boolean containsPlayer(UUID userId);
 
-    void removePlayer(UUID playerId);
+    boolean removePlayer(UUID playerId);
+
+    QueuedPlayer getPlayer(UUID playerId);
 
     QueuedPlayer findMatch(QueuedPlayer player);
 
+    QueuedPlayer findFallbackMatch(QueuedPlayer player);
+
+    /**
+     * Offers every waiting player a fallback match once, longest waiting
+     * first. Matched players are out of the queue before the callback runs.
+     *
+     * @param onMatch called with each player and their opponent
+     */
+    void sweep(BiConsumer<QueuedPlayer, QueuedPlayer> onMatch);
+
     List<QueuedPlayer> getAllPlayers();
 
+    /**
+     * Visits every waiting player in join order, longest waiting first, with
+     * their region, their position among the players of that region and the
+     * windows the next sweep searches for them. Does nothing while a sweep is
+     * running, since it is about to change the positions anyway.
+     *
+     * @param visitor called with each player
+     * @return false if a sweep was running and nobody was visited
+     */
+    boolean forEachWaiting(WaitingVisitor visitor);
+
+    /**
+     * Returns how many players have been matched out of this queue since it
+     * started.
+     *
+     * @return the number of matched players, two per match
+     */
+    long getMatchedCount();
+
+    /**
+     * Counts the queued players by the region whose strategy applies to them.
+     * Every configured region is included, even when nobody waits in it.
+     *
+     * @return the number of players by region name, players outside every
+     *         region under {@link #DEFAULT_REGION}
+     */
+    Map<String, Integer> getDepthByRegion();
+
+    /**
+     * Receives the players of {@link PlayerQueue#forEachWaiting(WaitingVisitor)}.
+     */
+    @FunctionalInterface
+    interface WaitingVisitor {
+        /**
+         * @param player   the waiting player
+         * @param region   the region whose strategy applies to the player, or
+         *                 {@link PlayerQueue#DEFAULT_REGION}
+         * @param position the player's place in the queue of their region,
+         *                 starting at 1
+         * @param windows  the windows the next sweep searches for the player
+         */
+        void visit(QueuedPlayer player, String region, int position, SearchCriteria windows);
+    }
 }
\ No newline at end of file
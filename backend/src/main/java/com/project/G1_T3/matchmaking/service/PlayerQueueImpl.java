@@ -1,106 +1,498 @@
 package com.project.G1_T3.matchmaking.service;
 
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchBand;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+
 import java.util.*;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
+/**
+ * The queue of players waiting for a solo match.
+ *
+ * <p>
+ * Players join and leave from WebSocket threads while matching runs on the
+ * matchmaking executor and the scheduler, so the queue does not use a single
+ * lock. Every queued player has a {@link Slot} in a concurrent map, and the
+ * state of a slot is only ever changed with compare-and-set:
+ *
+ * <ul>
+ * <li>JOINING: just added, the join is being recorded in the journal.
+ * <li>WAITING: in the queue and free to be matched or removed.
+ * <li>MATCHING: a thread is looking for an opponent for this player.
+ * <li>CANCELLED: the player asked to leave while being matched. The matching
+ * thread removes the player when it is done.
+ * <li>DONE: matched or removed. The slot is about to leave the map.
+ * </ul>
+ *
+ * <p>
+ * A match only happens if the opponent can be moved from WAITING to DONE and
+ * the player from MATCHING to DONE, so two threads can never hand out the
+ * same player twice. The index is thread-safe on its own and may briefly
+ * return players that have just been claimed; those fail the compare-and-set
+ * and are skipped.
+ *
+ * <p>
+ * With expanding windows enabled, each slot also remembers the windows and
+ * index watermark of the player's last search that came back empty. The next
+ * sweep only asks the index for players outside those windows or admitted
+ * since, so widening a long-waiting player's windows does not rescan everyone
+ * they were already compared with.
+ *
+ * <p>
+ * Slots are also kept in an {@link IndexedWaitQueue} ordered by join time, so
+ * the sweep and {@link #pollPlayer()} reach the longest waiting players first
+ * without sorting the queue, and a slot leaves it in O(log n) when its player
+ * is matched or removed. The same walk numbers the waiting players for
+ * {@link #forEachWaiting(WaitingVisitor)}.
+ *
+ * <p>
+ * If a {@link QueueJournal} is configured, every join, leave and match is
+ * recorded in it and the queue is rebuilt from it on startup. A slot only
+ * moves from JOINING to WAITING once its join is recorded, and a leave or
+ * match is recorded while the slots are DONE and still hold the players'
+ * places in the map, so nobody can leave before their join is recorded or
+ * join again before their leave is, and the journal sees each player's
+ * events in order.
+ *
+ * <p>
+ * If {@link MatchmakingMetrics} are configured, every search, every verdict
+ * of the algorithm and every match is reported to them as it happens.
+ */
 @Component
 public class PlayerQueueImpl implements PlayerQueue {
+    private static final int WAITING = 0;
+    private static final int MATCHING = 1;
+    private static final int CANCELLED = 2;
+    private static final int DONE = 3;
+    private static final int JOINING = 4;
 
     @Autowired
-    private final MatchmakingKDTree kdTree;
+    private final MatchmakingIndex index;
 
-    private final PriorityBlockingQueue<QueuedPlayer> priorityQueue;
+    private final Map<UUID, Slot> members = new ConcurrentHashMap<>();
+    private final IndexedWaitQueue<Slot> waitQueue = new IndexedWaitQueue<>();
+    private final Lock sweepLock = new ReentrantLock();
+    private final AtomicLong matchedCount = new AtomicLong();
     private static final int K_NEIGHBORS = 5; // Number of nearest neighbors to consider
 
+    // Every search on a thread reuses the same buffer, so a match attempt allocates nothing per candidate
+    private static final ThreadLocal<NearestCandidates> CANDIDATES = ThreadLocal
+            .withInitial(() -> new NearestCandidates(K_NEIGHBORS + 1));
+
     @Autowired
-    GlickoMatchmaking glickoMatchmaking;
+    MatchmakingStrategyRegistry strategies;
+
+    @Autowired(required = false)
+    private QueueJournal journal = QueueJournal.DISABLED;
+
+    @Autowired(required = false)
+    private MatchmakingMetrics metrics = MatchmakingMetrics.DISABLED;
+
+    /**
+     * Holds a queued player and their matchmaking state.
+     */
+    private static class Slot extends IndexedWaitQueue.Node {
+        final QueuedPlayer player;
+        final AtomicInteger state;
+
+        // Only touched by the thread holding the MATCHING claim, the claim publishes them to the next holder
+        SearchCriteria searched;
+        long searchedWatermark;
 
-    public PlayerQueueImpl(MatchmakingKDTree kdTree, GlickoMatchmaking glickoMatchmaking) {
-        this.kdTree = kdTree;
-        this.priorityQueue = new PriorityBlockingQueue<>(11,
-                Comparator.comparingLong(QueuedPlayer::getQueueTimeSeconds));
-        this.glickoMatchmaking = glickoMatchmaking;
+        Slot(QueuedPlayer player, int state) {
+            super(player.getJoinTime());
+            this.player = player;
+            this.state = new AtomicInteger(state);
+        }
+    }
+
+    public PlayerQueueImpl(MatchmakingIndex index, MatchmakingStrategyRegistry strategies) {
+        this.index = index;
+        this.strategies = strategies;
     }
 
+    /**
+     * Puts back the players the journal holds from before a restart. They keep
+     * their original join time and are matched by the next sweep.
+     */
+    @PostConstruct
+    void recover() {
+        List<QueuedPlayer> players = journal.recover();
+        if (!players.isEmpty()) {
+            // Already in the journal, so they are not recorded again
+            addPlayers(players, false);
+        }
+    }
+
+    /**
+     * Adds a player to the queue.
+     *
+     * @return true if the player was added, false if they were already queued
+     */
     @Override
-    public void addPlayer(PlayerProfile player, double latitude, double longitude) {
+    public boolean addPlayer(PlayerProfile player, double latitude, double longitude) {
         QueuedPlayer queuedPlayer = new QueuedPlayer(player, latitude, longitude);
-        kdTree.insert(queuedPlayer);
-        priorityQueue.offer(queuedPlayer);
+        Slot slot = new Slot(queuedPlayer, JOINING);
+        if (members.putIfAbsent(getPlayerId(queuedPlayer), slot) != null) {
+            return false;
+        }
+
+        // Only joins that were accepted are journalled, before the player can be matched or removed
+        recordJoin(slot);
+        waitQueue.add(slot);
+        index.insert(queuedPlayer);
+        dropIfGone(slot);
+        return true;
+    }
+
+    /**
+     * Adds a burst of players at once. With the KD-tree index the tree is
+     * rebuilt with median splits instead of inserting the players one at a
+     * time. Players that are already queued are skipped.
+     *
+     * @param players the players to add
+     */
+    @Override
+    public void addPlayers(List<QueuedPlayer> players) {
+        addPlayers(players, true);
+    }
+
+    private void addPlayers(List<QueuedPlayer> players, boolean record) {
+        List<Slot> added = new ArrayList<>(players.size());
+        List<QueuedPlayer> addedPlayers = new ArrayList<>(players.size());
+        for (QueuedPlayer player : players) {
+            Slot slot = new Slot(player, record ? JOINING : WAITING);
+            if (members.putIfAbsent(getPlayerId(player), slot) == null) {
+                if (record) {
+                    recordJoin(slot);
+                }
+                waitQueue.add(slot);
+                added.add(slot);
+                addedPlayers.add(player);
+            }
+        }
+
+        index.bulkLoad(addedPlayers);
+        added.forEach(this::dropIfGone);
+    }
+
+    private void recordJoin(Slot slot) {
+        try {
+            journal.recordJoin(slot.player);
+        } catch (RuntimeException e) {
+            members.remove(getPlayerId(slot.player), slot);
+            throw e;
+        }
+        slot.state.set(WAITING);
     }
 
+    /**
+     * Looks for an opponent within the thresholds of the player's strategy.
+     * Used for the instant match attempt when a player joins.
+     *
+     * @param player the player to match
+     * @return the opponent, who is removed from the queue along with the
+     *         player, or null if there is none
+     */
+    @Override
     public QueuedPlayer findMatch(QueuedPlayer player) {
-        // Remove the player from the queue to avoid matching with themselves
-        kdTree.remove(player);
-        priorityQueue.remove(player);
-
-        List<QueuedPlayer> potentialMatches = findPotentialMatches(player);
-
-        for (QueuedPlayer match : potentialMatches) {
-            if (glickoMatchmaking.isGoodMatch(player, match)) {
-                // Remove the matched player from the queue
-                kdTree.remove(match);
-                priorityQueue.remove(match);
-                return match;
+        return findMatch(player, 1, false);
+    }
+
+    /**
+     * Looks for an opponent within the wider windows of the periodic sweep,
+     * the player's strategy thresholds widened by the sweep factor.
+     * With expanding windows enabled the windows grow with the player's wait,
+     * and only the band admitted since their last empty search is searched.
+     *
+     * @param player the player to match
+     * @return the opponent, who is removed from the queue along with the
+     *         player, or null if there is none
+     */
+    @Override
+    public QueuedPlayer findFallbackMatch(QueuedPlayer player) {
+        Slot slot = members.get(getPlayerId(player));
+        return slot != null && slot.player == player ? findFallbackMatch(slot) : null;
+    }
+
+    /**
+     * Offers every waiting player a fallback match once, longest waiting
+     * first. Walks the wait queue in place: players matched earlier in the
+     * pass are skipped by their state, and a player without an opponent is
+     * left where they are. Sweeps run one at a time.
+     *
+     * @param onMatch called with each player and their opponent
+     */
+    @Override
+    public void sweep(BiConsumer<QueuedPlayer, QueuedPlayer> onMatch) {
+        sweepLock.lock();
+        try (IndexedWaitQueue<Slot>.Cursor cursor = waitQueue.cursor()) {
+            for (Slot slot = cursor.next(); slot != null; slot = cursor.next()) {
+                if (slot.state.get() != WAITING) {
+                    continue;
+                }
+                QueuedPlayer match = findFallbackMatch(slot);
+                if (match != null) {
+                    onMatch.accept(slot.player, match);
+                }
             }
+        } finally {
+            sweepLock.unlock();
         }
+    }
 
-        // If no suitable match is found, re-add the player to the queue
-        kdTree.insert(player);
-        priorityQueue.offer(player);
-        return null;
+    /**
+     * Visits the waiting players in join order, numbering them as it goes.
+     * Shares the wait queue's single walk with the sweep, so it gives way to a
+     * running sweep instead of waiting for it.
+     *
+     * @param visitor called with each player
+     * @return false if a sweep was running and nobody was visited
+     */
+    @Override
+    public boolean forEachWaiting(WaitingVisitor visitor) {
+        if (!sweepLock.tryLock()) {
+            return false;
+        }
+        try (IndexedWaitQueue<Slot>.Cursor cursor = waitQueue.cursor()) {
+            Map<String, Integer> positions = new HashMap<>();
+            for (Slot slot = cursor.next(); slot != null; slot = cursor.next()) {
+                int state = slot.state.get();
+                // A player being matched is still queued until the match is done
+                if (state == WAITING || state == MATCHING) {
+                    QueuedPlayer player = slot.player;
+                    MatchmakingStrategy strategy = strategies.resolve(player);
+                    String region = strategy.getRegion() != null ? strategy.getRegion() : DEFAULT_REGION;
+                    SearchCriteria windows = strategy.getThresholds().scaled(getSweepWidening(player));
+                    visitor.visit(player, region, positions.merge(region, 1, Integer::sum), windows);
+                }
+            }
+            return true;
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    @Override
+    public long getMatchedCount() {
+        return matchedCount.get();
+    }
+
+    @Override
+    public Map<String, Integer> getDepthByRegion() {
+        Map<String, Integer> depths = new HashMap<>();
+        // Empty regions are counted too, so their depth drops to zero instead of going stale
+        depths.put(DEFAULT_REGION, 0);
+        strategies.getRegions().forEach(region -> depths.put(region.getName(), 0));
+        for (Slot slot : members.values()) {
+            String region = strategies.resolve(slot.player).getRegion();
+            depths.merge(region != null ? region : DEFAULT_REGION, 1, Integer::sum);
+        }
+        return depths;
     }
 
-    private List<QueuedPlayer> findPotentialMatches(QueuedPlayer player) {
-        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearestNeighbors = kdTree.findKNearest(
-                player,
-                glickoMatchmaking.getMaxRatingDiff(),
-                glickoMatchmaking.getMaxDeviationDiff(),
-                glickoMatchmaking.getMaxDistanceKm(),
-                K_NEIGHBORS);
+    private QueuedPlayer findFallbackMatch(Slot slot) {
+        return findMatch(slot, getSweepWidening(slot.player), strategies.isExpansionEnabled());
+    }
 
-        List<QueuedPlayer> result = new ArrayList<>();
-        while (!nearestNeighbors.isEmpty()) {
-            QueuedPlayer potentialMatch = nearestNeighbors.poll().getKey();
-            if (!potentialMatch.equals(player)) {
-                result.add(potentialMatch);
+    private double getSweepWidening(QueuedPlayer player) {
+        if (strategies.isExpansionEnabled()) {
+            return strategies.getExpansionFactor(player.getQueueTimeSeconds());
+        }
+        return strategies.getSweepWidening();
+    }
+
+    private QueuedPlayer findMatch(QueuedPlayer player, double widening, boolean incremental) {
+        Slot slot = members.get(getPlayerId(player));
+        return slot != null && slot.player == player ? findMatch(slot, widening, incremental) : null;
+    }
+
+    private QueuedPlayer findMatch(Slot slot, double widening, boolean incremental) {
+        QueuedPlayer player = slot.player;
+        // The strategy is resolved on every attempt, so region changes apply to players already queued
+        MatchmakingStrategy strategy = strategies.resolve(player);
+        MatchmakingAlgorithm algorithm = strategy.getAlgorithm();
+        SearchCriteria thresholds = strategy.getThresholds().scaled(widening);
+        SearchCriteria criteria = algorithm.getIndexCriteria(thresholds);
+
+        // Another thread may have matched, removed or be matching the player
+        if (!slot.state.compareAndSet(WAITING, MATCHING)) {
+            return null;
+        }
+
+        // Read before searching, anyone admitted from here on is new to the next search
+        long watermark = index.watermark();
+        SearchBand band = incremental && slot.searched != null
+                ? new SearchBand(criteria, slot.searched, slot.searchedWatermark)
+                : new SearchBand(criteria);
+
+        NearestCandidates potentialMatches = findPotentialMatches(player, band);
+        int accepted = 0;
+        int rejected = 0;
+        try {
+            if (incremental && potentialMatches.isEmpty()) {
+                // Nobody in the band, so the whole of these windows has been searched
+                slot.searched = criteria;
+                slot.searchedWatermark = watermark;
+            }
+
+            for (int i = 0; i < potentialMatches.size(); i++) {
+                QueuedPlayer match = potentialMatches.getPlayer(i);
+                if (!algorithm.isGoodMatch(player, match, thresholds)) {
+                    rejected++;
+                    continue;
+                }
+                accepted++;
+
+                Slot other = members.get(getPlayerId(match));
+                if (other == null || other.player != match || !other.state.compareAndSet(WAITING, DONE)) {
+                    continue;
+                }
+
+                if (slot.state.compareAndSet(MATCHING, DONE)) {
+                    journal.recordMatch(getPlayerId(player), getPlayerId(match));
+                    discard(other);
+                    discard(slot);
+                    matchedCount.addAndGet(2);
+                    metrics.recordMatch(player, match);
+                    return match;
+                }
+
+                // The player left the queue during the search, give the opponent back
+                other.state.set(WAITING);
+                break;
             }
+        } finally {
+            // Do not keep players alive from a thread's buffer
+            potentialMatches.clear();
+            metrics.recordChecks(algorithm.getName(), accepted, rejected);
         }
 
-        return result;
+        // If no suitable match is found, the player stays in the queue unless they left meanwhile
+        if (!slot.state.compareAndSet(MATCHING, WAITING)) {
+            slot.state.set(DONE);
+            journal.recordLeave(getPlayerId(player));
+            discard(slot);
+        }
+        return null;
+    }
+
+    /**
+     * Searches the index into this thread's candidate buffer and orders the
+     * result from the best candidate to the worst. The player themselves is
+     * left out, so an empty buffer means nobody is in the band.
+     */
+    private NearestCandidates findPotentialMatches(QueuedPlayer player, SearchBand band) {
+        NearestCandidates candidates = CANDIDATES.get();
+        // One extra slot, the player is in the index too and costs nothing
+        candidates.reset(K_NEIGHBORS + 1);
+        index.findKNearest(player, band, candidates);
+        candidates.sortByCost();
+        boolean self = candidates.remove(player);
+        metrics.recordSearch(candidates.offered() - (self ? 1 : 0));
+        candidates.truncate(K_NEIGHBORS);
+        return candidates;
+    }
+
+    private void discard(Slot slot) {
+        // Leave the map first, so an insert still in flight sees the slot is gone
+        members.remove(getPlayerId(slot.player), slot);
+        index.remove(slot.player);
+        waitQueue.remove(slot);
+    }
+
+    private void dropIfGone(Slot slot) {
+        // The player may have been matched or removed before the index and wait queue had them
+        if (members.get(getPlayerId(slot.player)) != slot) {
+            index.remove(slot.player);
+            waitQueue.remove(slot);
+        }
     }
 
+    /**
+     * Removes and returns the player who has waited the longest.
+     *
+     * @return the player, or null if the queue is empty
+     */
     @Override
     public QueuedPlayer pollPlayer() {
-        QueuedPlayer player = priorityQueue.poll();
-        if (player != null) {
-            kdTree.remove(player);
-            return player;
+        Slot slot = waitQueue.first(waiting -> waiting.state.compareAndSet(WAITING, DONE));
+        if (slot == null) {
+            return null;
         }
-        return null;
+        journal.recordLeave(getPlayerId(slot.player));
+        discard(slot);
+        return slot.player;
     }
 
     @Override
     public int size() {
-        return priorityQueue.size();
+        return members.size();
     }
 
-    public void removePlayer(UUID playerId) {
-        kdTree.removeByPlayerId(playerId);
-        priorityQueue.removeIf(player -> player.getPlayer().getUser().getId().equals(playerId));
+    /**
+     * Removes a player from the queue. A player who is being matched at that
+     * moment is cancelled and removed by the matching thread instead.
+     *
+     * @param playerId the user ID of the player
+     * @return true if the player was queued
+     */
+    @Override
+    public boolean removePlayer(UUID playerId) {
+        while (true) {
+            Slot slot = members.get(playerId);
+            if (slot == null) {
+                return false;
+            }
+            if (slot.state.compareAndSet(WAITING, DONE)) {
+                journal.recordLeave(playerId);
+                discard(slot);
+                return true;
+            }
+            if (slot.state.compareAndSet(MATCHING, CANCELLED)) {
+                return true;
+            }
+            if (slot.state.get() == CANCELLED) {
+                return false;
+            }
+            // JOINING: the join is being recorded, DONE: the slot is leaving the map or a claim on it is being undone
+            Thread.onSpinWait();
+        }
     }
 
+    @Override
     public boolean containsPlayer(UUID playerId) {
-        return kdTree.containsPlayer(playerId);
+        return members.containsKey(playerId);
+    }
+
+    @Override
+    public QueuedPlayer getPlayer(UUID playerId) {
+        Slot slot = members.get(playerId);
+        return slot != null ? slot.player : null;
+    }
+
+    private UUID getPlayerId(QueuedPlayer player) {
+        return player.getUserId();
     }
 
+    @Override
     public List<QueuedPlayer> getAllPlayers() {
-        return new ArrayList<>(priorityQueue);
+        List<QueuedPlayer> players = new ArrayList<>(members.size());
+        for (Slot slot : members.values()) {
+            players.add(slot.player);
+        }
+        return players;
     }
-}
\ No newline at end of file
+}
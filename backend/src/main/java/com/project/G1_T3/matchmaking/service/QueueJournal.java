@@ -0,0 +1,60 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records changes to the solo queue so it can be rebuilt after a restart.
+ *
+ * <p>
+ * The queue records a join before the player can be matched or removed,
+ * and a leave or match before the player can join again, so for each player
+ * the journal always sees events in the order they happened. A join for a
+ * player the journal already holds is ignored, the same way the queue
+ * ignores it.
+ *
+ * <p>
+ * The default methods record nothing, which is what {@link #DISABLED} and
+ * the queue use when persistence is turned off.
+ */
+public interface QueueJournal {
+
+    QueueJournal DISABLED = new QueueJournal() {
+    };
+
+    /**
+     * Records that a player joined the queue.
+     *
+     * @param player the player, as they are queued
+     */
+    default void recordJoin(QueuedPlayer player) {
+    }
+
+    /**
+     * Records that a player left the queue without a match.
+     *
+     * @param userId the user ID of the player
+     */
+    default void recordLeave(UUID userId) {
+    }
+
+    /**
+     * Records that two players were matched and left the queue.
+     *
+     * @param userId     the user ID of the player
+     * @param opponentId the user ID of the opponent
+     */
+    default void recordMatch(UUID userId, UUID opponentId) {
+    }
+
+    /**
+     * Rebuilds the queue from the journal.
+     *
+     * @return the players that were queued, in the order they joined
+     */
+    default List<QueuedPlayer> recover() {
+        return List.of();
+    }
+}
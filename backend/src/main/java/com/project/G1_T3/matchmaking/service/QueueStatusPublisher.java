@@ -0,0 +1,153 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueueStatusDTO;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes every waiting player their place in the queue, so clients do not
+ * have to poll for it.
+ *
+ * <p>
+ * Every few seconds one walk over the {@link PlayerQueue} numbers the waiting
+ * players of each region in join order and reads the windows the next sweep
+ * searches for each. Each player is then sent a {@link QueueStatusDTO} with
+ * their position and the depth of their own region, on their user
+ * destination, {@code /user/queue/solo/status}. Nothing is read from the
+ * database. A tick that finds a sweep running is skipped.
+ *
+ * <p>
+ * The estimated wait is the player's position divided by how many players
+ * per second were matched out of the queue over the last few minutes, taking
+ * the region's share of the waiting players as its share of the matches. It
+ * treats the queue as first come, first served, so it is only a rough guide
+ * for players whose windows are hard to fill.
+ */
+@Slf4j
+@Component
+public class QueueStatusPublisher {
+    public static final String DESTINATION = "/queue/solo/status";
+
+    private final PlayerQueue playerQueue;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long rateWindowNanos;
+
+    // The matched count at each tick within the rate window, oldest first
+    private final Deque<long[]> samples = new ArrayDeque<>();
+
+    /**
+     * @param rateWindowMs how far back the match rate is measured
+     */
+    @Autowired
+    public QueueStatusPublisher(PlayerQueue playerQueue, SimpMessagingTemplate messagingTemplate,
+            @Value("${matchmaking.queue-status.rate-window-ms:300000}") long rateWindowMs) {
+        this.playerQueue = playerQueue;
+        this.messagingTemplate = messagingTemplate;
+        this.rateWindowNanos = TimeUnit.MILLISECONDS.toNanos(rateWindowMs);
+    }
+
+    @Scheduled(fixedDelayString = "${matchmaking.queue-status.interval-ms:3000}")
+    public void publish() {
+        publish(System.nanoTime());
+    }
+
+    /**
+     * Sends every waiting player their status.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return the number of players sent a status, or -1 if a sweep was
+     *         running
+     */
+    synchronized int publish(long now) {
+        double matchedPerSecond = sampleMatchRate(now);
+
+        List<Waiting> waiting = new ArrayList<>(playerQueue.size());
+        Map<String, Integer> depths = new HashMap<>();
+        boolean walked = playerQueue.forEachWaiting((player, region, position, windows) -> {
+            waiting.add(new Waiting(player, region, position, windows));
+            depths.merge(region, 1, Integer::sum);
+        });
+        if (!walked) {
+            log.debug("Sweep in progress, skipping queue status");
+            return -1;
+        }
+
+        int queueSize = waiting.size();
+        for (Waiting entry : waiting) {
+            int depth = depths.get(entry.region);
+            QueueStatusDTO status = new QueueStatusDTO(entry.position, depth,
+                    entry.player.getQueueTimeSeconds(), entry.windows,
+                    estimateWaitSeconds(entry.position, matchedPerSecond * depth / queueSize));
+            try {
+                messagingTemplate.convertAndSendToUser(entry.player.getUserId().toString(), DESTINATION, status);
+            } catch (RuntimeException e) {
+                log.warn("Failed to send queue status to {}: {}", entry.player.getUserId(), e.getMessage());
+            }
+        }
+        log.debug("Sent queue status to {} players, {} matched per second", queueSize, matchedPerSecond);
+        return queueSize;
+    }
+
+    /**
+     * Records the matched count and returns the match rate over the window.
+     */
+    private double sampleMatchRate(long now) {
+        samples.addLast(new long[] { now, playerQueue.getMatchedCount() });
+        while (samples.size() > 1 && now - samples.peekFirst()[0] > rateWindowNanos) {
+            samples.pollFirst();
+        }
+
+        long[] oldest = samples.peekFirst();
+        long[] newest = samples.peekLast();
+        long elapsed = newest[0] - oldest[0];
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return (newest[1] - oldest[1]) / (elapsed / 1e9);
+    }
+
+    /**
+     * Estimates how long a player has left to wait.
+     *
+     * @param position         the player's place in the queue of their region,
+     *                         starting at 1
+     * @param matchedPerSecond the recent rate players of the region were
+     *                         matched at
+     * @return the estimate in seconds, or null if nobody was matched recently
+     */
+    static Long estimateWaitSeconds(int position, double matchedPerSecond) {
+        if (!(matchedPerSecond > 0)) {
+            return null;
+        }
+        return Math.round(position / matchedPerSecond);
+    }
+
+    private static final class Waiting {
+        final QueuedPlayer player;
+        final String region;
+        final int position;
+        final SearchCriteria windows;
+
+        Waiting(QueuedPlayer player, String region, int position, SearchCriteria windows) {
+            this.player = player;
+            this.region = region;
+            this.position = position;
+            this.windows = windows;
+        }
+    }
+}
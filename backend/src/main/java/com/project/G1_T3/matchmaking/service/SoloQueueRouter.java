@@ -0,0 +1,82 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueueRequest;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Sends solo queue requests to the node that owns the player's location.
+ *
+ * <p>
+ * A player is queued on the node {@link MatchmakingPartitioner} picks for
+ * their location, so every node matches its own share of the world. If the
+ * owner cannot be reached the player is queued locally instead, the player
+ * then waits on the wrong node but is still matched with anyone queued there.
+ *
+ * <p>
+ * A dequeue request carries no location, so if the player is not queued on
+ * this node it is passed to every other node and whichever holds the player
+ * removes them.
+ */
+@Slf4j
+@Service
+public class SoloQueueRouter {
+    private final MatchmakingPartitioner partitioner;
+    private final MatchmakingTransport transport;
+    private final MatchmakingService matchmakingService;
+
+    public SoloQueueRouter(MatchmakingPartitioner partitioner, MatchmakingTransport transport,
+            MatchmakingService matchmakingService) {
+        this.partitioner = partitioner;
+        this.transport = transport;
+        this.matchmakingService = matchmakingService;
+    }
+
+    /**
+     * Queues a player on the node that owns their location.
+     *
+     * @param profile the profile of the player, already checked to exist
+     * @param request the queue request, with a location
+     */
+    public void join(PlayerProfile profile, QueueRequest request) {
+        double latitude = request.getLocation().getLatitude();
+        double longitude = request.getLocation().getLongitude();
+        String owner = partitioner.ownerOf(latitude, longitude);
+        if (!owner.equals(partitioner.getLocalNodeId())) {
+            try {
+                transport.forwardJoin(owner, request);
+                log.debug("Forwarded player {} to node {}", request.getPlayerId(), owner);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Node {} is unreachable, queueing player {} locally: {}", owner, request.getPlayerId(),
+                        e.getMessage());
+            }
+        }
+        matchmakingService.addPlayerToQueue(profile, latitude, longitude);
+    }
+
+    /**
+     * Removes a player from whichever node has them queued.
+     *
+     * @param playerId the user ID of the player
+     * @param request  the dequeue request, passed on to other nodes
+     */
+    public void leave(UUID playerId, QueueRequest request) {
+        if (!partitioner.isClustered() || matchmakingService.isPlayerInQueue(playerId)) {
+            matchmakingService.removePlayerFromQueue(playerId);
+            return;
+        }
+
+        for (String nodeId : partitioner.getRemoteNodeIds()) {
+            try {
+                transport.forwardLeave(nodeId, request);
+            } catch (RuntimeException e) {
+                log.warn("Could not pass dequeue of player {} to node {}: {}", playerId, nodeId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.geo.GeoPoint;
+import com.project.G1_T3.common.geo.GeoRadius;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The venues players can be sent to for a match, loaded once from a local
+ * file and searched in memory.
+ *
+ * <p>
+ * The file is a CSV with one venue per line: {@code name,latitude,longitude}.
+ * The name is everything before the last two commas, so it may contain commas
+ * itself, and surrounding double quotes are dropped. Blank lines, lines
+ * starting with {@code #} and lines whose coordinates do not parse, such as
+ * a header, are skipped. The file is read through a read-only memory mapping
+ * in windows of at most {@code 1 GB}, so a large dataset is paged in by the
+ * operating system rather than copied through the heap.
+ *
+ * <p>
+ * Venues are kept as parallel arrays laid out as an implicit KD-tree over the
+ * unit vectors of their locations: the venue in the middle of any range splits
+ * the rest of the range on one axis. Nearest by straight-line distance between
+ * unit vectors is nearest along the great circle, so a search needs no special
+ * case at the antimeridian or the poles, and it only visits the few subtrees
+ * its current best distance can reach. The index never changes after loading,
+ * so it can be searched from any number of threads.
+ *
+ * <p>
+ * Set {@code matchmaking.venues.file} to the path of the dataset. Without it
+ * the index is empty.
+ */
+@Slf4j
+@Component
+public class VenueIndex {
+    private static final int MAX_WINDOW_BYTES = 1 << 30;
+
+    private final String[] names;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final int size;
+
+    @Autowired
+    public VenueIndex(@Value("${matchmaking.venues.file:}") String file) {
+        this(file.isBlank() ? null : Paths.get(file), MAX_WINDOW_BYTES);
+    }
+
+    /**
+     * @param file        the venue file, or null for an empty index
+     * @param windowBytes the largest part of the file mapped at once
+     */
+    VenueIndex(Path file, int windowBytes) {
+        VenueList venues = new VenueList();
+        if (file != null) {
+            read(file, windowBytes, venues);
+            log.info("Loaded {} venues from {}, skipped {} lines", venues.size, file, venues.skipped);
+        }
+        this.size = venues.size;
+        this.names = new String[size];
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+        this.xs = new double[size];
+        this.ys = new double[size];
+        this.zs = new double[size];
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        double[][] axes = { venues.xs, venues.ys, venues.zs };
+        arrange(order, 0, size, 0, axes);
+        for (int i = 0; i < size; i++) {
+            int venue = order[i];
+            names[i] = venues.names[venue];
+            latitudes[i] = venues.latitudes[venue];
+            longitudes[i] = venues.longitudes[venue];
+            xs[i] = venues.xs[venue];
+            ys[i] = venues.ys[venue];
+            zs[i] = venues.zs[venue];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Finds the venue closest to a location.
+     *
+     * @param location the location to search around
+     * @param radius   how far away the venue may be
+     * @return the venue's position in the index, or -1 if no venue is within
+     *         the radius
+     */
+    public int findNearest(GeoPoint location, GeoRadius radius) {
+        Nearest nearest = new Nearest(radius.getOuterChordSquared());
+        search(0, size, 0, location, nearest);
+        if (nearest.venue < 0 || !radius.containsChord(nearest.chordSquared)) {
+            return -1;
+        }
+        return nearest.venue;
+    }
+
+    public String getName(int venue) {
+        return names[venue];
+    }
+
+    public double getLatitude(int venue) {
+        return latitudes[venue];
+    }
+
+    public double getLongitude(int venue) {
+        return longitudes[venue];
+    }
+
+    private void search(int from, int to, int axis, GeoPoint location, Nearest nearest) {
+        if (from >= to) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        double chordSquared = location.chordSquared(xs[middle], ys[middle], zs[middle]);
+        if (chordSquared < nearest.chordSquared) {
+            nearest.chordSquared = chordSquared;
+            nearest.venue = middle;
+        }
+
+        double gap = coordinate(location, axis) - coordinate(middle, axis);
+        int next = axis == 2 ? 0 : axis + 1;
+        if (gap < 0) {
+            search(from, middle, next, location, nearest);
+            if (gap * gap < nearest.chordSquared) {
+                search(middle + 1, to, next, location, nearest);
+            }
+        } else {
+            search(middle + 1, to, next, location, nearest);
+            if (gap * gap < nearest.chordSquared) {
+                search(from, middle, next, location, nearest);
+            }
+        }
+    }
+
+    private static double coordinate(GeoPoint location, int axis) {
+        return axis == 0 ? location.getX() : axis == 1 ? location.getY() : location.getZ();
+    }
+
+    private double coordinate(int venue, int axis) {
+        return axis == 0 ? xs[venue] : axis == 1 ? ys[venue] : zs[venue];
+    }
+
+    /**
+     * Orders a range so the venue at its middle splits it on the given axis,
+     * then does the same for both halves on the next axis.
+     */
+    private static void arrange(int[] order, int from, int to, int axis, double[][] axes) {
+        while (to - from > 1) {
+            int middle = (from + to) >>> 1;
+            select(order, from, to - 1, middle, axes[axis]);
+            int next = axis == 2 ? 0 : axis + 1;
+            arrange(order, from, middle, next, axes);
+            from = middle + 1;
+            axis = next;
+        }
+    }
+
+    /**
+     * Moves the venue with the k-th smallest key in {@code [low, high]} to
+     * position k, with smaller keys before it and larger ones after.
+     */
+    private static void select(int[] order, int low, int high, int k, double[] keys) {
+        while (low < high) {
+            double pivot = keys[order[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) {
+                    i++;
+                }
+                while (keys[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void read(Path file, int windowBytes, VenueList venues) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long start = 0;
+            byte[] line = new byte[256];
+            while (start < fileSize) {
+                long length = Math.min(windowBytes, fileSize - start);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                boolean last = start + length == fileSize;
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        line = parse(window, lineStart, i, line, venues);
+                        lineStart = i + 1;
+                    }
+                }
+                if (last) {
+                    if (lineStart < length) {
+                        parse(window, lineStart, (int) length, line, venues);
+                    }
+                    break;
+                }
+                if (lineStart == 0) {
+                    throw new IllegalStateException("Venue file has a line longer than " + windowBytes + " bytes");
+                }
+                // Map the next window from the start of the line this one cut off
+                start += lineStart;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read venues from " + file, e);
+        }
+    }
+
+    private static byte[] parse(MappedByteBuffer window, int from, int to, byte[] line, VenueList venues) {
+        int length = to - from;
+        if (length > line.length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        window.get(from, line, 0, length);
+        String text = new String(line, 0, length, StandardCharsets.UTF_8).strip();
+        if (text.isEmpty() || text.startsWith("#")) {
+            return line;
+        }
+
+        int lastComma = text.lastIndexOf(',');
+        int latitudeComma = lastComma > 0 ? text.lastIndexOf(',', lastComma - 1) : -1;
+        if (latitudeComma < 0) {
+            venues.skipped++;
+            return line;
+        }
+        try {
+            double latitude = Double.parseDouble(text.substring(latitudeComma + 1, lastComma).strip());
+            double longitude = Double.parseDouble(text.substring(lastComma + 1).strip());
+            if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                venues.skipped++;
+                return line;
+            }
+            venues.add(unquote(text.substring(0, latitudeComma).strip()), latitude, longitude);
+        } catch (NumberFormatException e) {
+            venues.skipped++;
+        }
+        return line;
+    }
+
+    private static String unquote(String name) {
+        if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+            return name.substring(1, name.length() - 1).replace("\"\"", "\"");
+        }
+        return name;
+    }
+
+    private static final class Nearest {
+        double chordSquared;
+        int venue = -1;
+
+        Nearest(double chordSquared) {
+            this.chordSquared = chordSquared;
+        }
+    }
+
+    /**
+     * The venues in file order while the file is read.
+     */
+    private static final class VenueList {
+        String[] names = new String[1024];
+        double[] latitudes = new double[1024];
+        double[] longitudes = new double[1024];
+        double[] xs = new double[1024];
+        double[] ys = new double[1024];
+        double[] zs = new double[1024];
+        int size;
+        int skipped;
+
+        void add(String name, double latitude, double longitude) {
+            if (size == names.length) {
+                int capacity = size * 2;
+                names = Arrays.copyOf(names, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                zs = Arrays.copyOf(zs, capacity);
+            }
+            GeoPoint location = new GeoPoint(latitude, longitude);
+            names[size] = name;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            xs[size] = location.getX();
+            ys[size] = location.getY();
+            zs[size] = location.getZ();
+            size++;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.project.G1_T3.playerprofile.model;
+
+import java.util.UUID;
+
+/**
+ * Published when a player's Glicko rating is saved, after a match or when
+ * the profile is created, so the rating buckets behind ranks and the
+ * leaderboard can move the player without reloading every profile.
+ */
+public class PlayerRatingChangedEvent {
+    private final UUID profileId;
+    private final float glickoRating;
+
+    public PlayerRatingChangedEvent(UUID profileId, float glickoRating) {
+        this.profileId = profileId;
+        this.glickoRating = glickoRating;
+    }
+
+    public UUID getProfileId() {
+        return profileId;
+    }
+
+    public float getGlickoRating() {
+        return glickoRating;
+    }
+}
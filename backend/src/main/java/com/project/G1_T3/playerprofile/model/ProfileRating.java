@@ -0,0 +1,25 @@
+package com.project.G1_T3.playerprofile.model;
+
+import java.util.UUID;
+
+/**
+ * A player's profile ID and Glicko rating, read without loading the rest of
+ * the profile or its associations.
+ */
+public class ProfileRating {
+    private final UUID profileId;
+    private final float glickoRating;
+
+    public ProfileRating(UUID profileId, float glickoRating) {
+        this.profileId = profileId;
+        this.glickoRating = glickoRating;
+    }
+
+    public UUID getProfileId() {
+        return profileId;
+    }
+
+    public float getGlickoRating() {
+        return glickoRating;
+    }
+}
@@ -2,14 +2,21 @@ package com.project.G1_T3.playerprofile.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.playerprofile.model.ProfileRating;
 import com.project.G1_T3.user.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 @Repository
 public interface PlayerProfileRepository extends JpaRepository<PlayerProfile, UUID> {
@@ -28,6 +35,15 @@ public interface PlayerProfileRepository extends JpaRepository<PlayerProfile, UU
 
     PlayerProfile findByProfileId(UUID profileId);
 
+    // Every player's rating without the profiles, read through a cursor. Needs a surrounding transaction
+    @Query("SELECT new com.project.G1_T3.playerprofile.model.ProfileRating(p.profileId, p.glickoRating) FROM PlayerProfile p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProfileRating> streamAllRatings();
+
+    // Fetch several profiles together with their users in one query
+    @Query("SELECT p FROM PlayerProfile p JOIN FETCH p.user WHERE p.profileId IN :profileIds")
+    List<PlayerProfile> findAllWithUserByProfileIdIn(@Param("profileIds") Collection<UUID> profileIds);
+
     @Query(value = "select t1.position\n" + //
             "from player_profiles pp1,\n" + //
             "(select \n" + //
@@ -17,6 +17,7 @@ import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -30,6 +31,7 @@ import com.project.G1_T3.filestorage.service.FileStorageService;
 import com.project.G1_T3.filestorage.service.ImageValidationService;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 import com.project.G1_T3.playerprofile.model.PlayerProfileDTO;
+import com.project.G1_T3.playerprofile.model.PlayerRatingChangedEvent;
 import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
 
 @Service
@@ -56,6 +58,9 @@ public class PlayerProfileService {
     @Autowired
     private PlayerRatingService playerRatingService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<PlayerProfile> findAll() {
         try {
             return playerProfileRepository.findAll();
@@ -94,7 +99,15 @@ public class PlayerProfileService {
     public PlayerProfile updatePlayerRating(PlayerProfile playerProfile) {
         // Update the player's rating (e.g., after a match)
         // Invalidate cache for player rankings
-        return playerProfileRepository.save(playerProfile);
+        PlayerProfile savedProfile = playerProfileRepository.save(playerProfile);
+        publishRatingChanged(playerProfile);
+        return savedProfile;
+    }
+
+    // Moves the player's rating bucket once the rating is committed
+    private void publishRatingChanged(PlayerProfile playerProfile) {
+        eventPublisher.publishEvent(
+                new PlayerRatingChangedEvent(playerProfile.getProfileId(), playerProfile.getGlickoRating()));
     }
 
     // For editing profile
@@ -137,7 +150,7 @@ public class PlayerProfileService {
 
         // Save the updated profile
         PlayerProfile savedProfile = playerProfileRepository.save(existingProfile);
-        playerRatingService.addPlayer(savedProfile.getProfileId(), Math.round(savedProfile.getGlickoRating()));
+        publishRatingChanged(savedProfile);
         return savedProfile;
     }
 
@@ -165,7 +178,9 @@ public class PlayerProfileService {
             newProfile.setProfilePicturePath(profileImagePath);
         }
 
-        return save(newProfile);
+        PlayerProfile savedProfile = save(newProfile);
+        publishRatingChanged(savedProfile);
+        return savedProfile;
     }
 
     private String uploadProfileImage(String userId, MultipartFile profileImage)
@@ -262,15 +277,11 @@ public class PlayerProfileService {
         Optional<PlayerProfile> playerOpt = playerProfileRepository.findById(playerId);
         if (playerOpt.isPresent()) {
             PlayerProfile playerProfile = playerOpt.get();
-            int oldRating = Math.round(playerProfile.getGlickoRating());
-
             playerProfile.updateRating(results);
-
-            int newRating = Math.round(playerProfile.getGlickoRating());
             playerProfileRepository.save(playerProfile);
 
             // Update the rating counts
-            playerRatingService.updateRating(playerProfile.getProfileId(), oldRating, newRating);
+            publishRatingChanged(playerProfile);
         } else {
             throw new NoSuchElementException("Player with ID " + playerId + " not found.");
         }
@@ -1,69 +1,101 @@
 package com.project.G1_T3.playerprofile.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.playerprofile.model.PlayerRatingChangedEvent;
+import com.project.G1_T3.playerprofile.model.ProfileRating;
 import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
-import jakarta.annotation.PostConstruct;
 
+/**
+ * Keeps players in buckets by rounded Glicko rating, with a count of players
+ * at or above each rating, for rank and leaderboard queries that would
+ * otherwise sort every profile.
+ *
+ * <p>
+ * Players are moved between buckets as {@link PlayerRatingChangedEvent}s
+ * come in. A reconciliation reads every rating again through a cursor, on
+ * startup and then every {@code player-rating.reconcile-interval-ms}, to pick
+ * up changes made around the service. It builds the new buckets without the
+ * lock, replays any changes that came in meanwhile, and only takes the write
+ * lock to swap them in.
+ */
 @Service
 public class PlayerRatingService {
 
     private static final int MAX_RATING = 3000;
 
-    private final int[] bucketCounts = new int[MAX_RATING + 1];
+    // Not in any bucket
+    private static final int UNRATED = -1;
+
     private final int[] prefixSums = new int[MAX_RATING + 1];
 
-    @SuppressWarnings("unchecked")
-    private final Set<UUID>[] ratingBuckets = new HashSet[MAX_RATING + 1];
+    private RatingBuckets buckets = new RatingBuckets();
+
+    // Changes made while a reconciliation reads the ratings, null when none is
+    private Map<UUID, Integer> changesWhileReconciling;
 
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     @Autowired
     private PlayerProfileRepository playerProfileRepository;
 
-    @PostConstruct
-    public void initializeBuckets() {
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${player-rating.reconcile-interval-ms:600000}",
+            initialDelayString = "${player-rating.reconcile-interval-ms:600000}")
+    public synchronized void reconcile() {
         lock.writeLock().lock();
         try {
-            // Initialize each Set in the array
-            for (int i = 0; i <= MAX_RATING; i++) {
-                ratingBuckets[i] = new HashSet<>();
-            }
-
-            List<PlayerProfile> players = playerProfileRepository.findAll();
-            for (PlayerProfile player : players) {
-                int rating = Math.round(player.getGlickoRating());
-                UUID playerId = player.getProfileId(); // Assuming PlayerProfile has getProfileId() method that returns
-                                                       // UUID
-
-                // Add player ID to the bucket for their rating
-                ratingBuckets[rating].add(playerId);
-                bucketCounts[rating]++;
-            }
-            computePrefixSums();
+            changesWhileReconciling = new HashMap<>();
         } finally {
             lock.writeLock().unlock();
         }
+
+        RatingBuckets read = new RatingBuckets();
+        boolean complete = false;
+        try (Stream<ProfileRating> ratings = playerProfileRepository.streamAllRatings()) {
+            ratings.forEach(rating -> read.move(rating.getProfileId(), bucketOf(rating.getGlickoRating())));
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    // Changes came in after the database was read, so they win
+                    changesWhileReconciling.forEach(read::move);
+                    buckets = read;
+                    computePrefixSums();
+                }
+                changesWhileReconciling = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
     }
 
-    @Scheduled(fixedRate = 60000) // Refresh every minute
-    public void refreshData() {
-        initializeBuckets();
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(PlayerRatingChangedEvent event) {
+        moveTo(event.getProfileId(), bucketOf(event.getGlickoRating()));
     }
 
     public int[] getBucketCounts() {
-        return bucketCounts;
+        return buckets.counts;
     }
 
     public int[] getPrefixSums() {
@@ -75,18 +107,14 @@ public class PlayerRatingService {
     }
 
     public Set<UUID>[] getRatingBuckets() {
-        return ratingBuckets;
+        return buckets.players;
     }
 
+    // Callers hold the write lock
     private void computePrefixSums() {
-        lock.writeLock().lock();
-        try {
-            prefixSums[MAX_RATING] = bucketCounts[MAX_RATING];
-            for (int i = MAX_RATING - 1; i >= 0; i--) {
-                prefixSums[i] = bucketCounts[i] + prefixSums[i + 1];
-            }
-        } finally {
-            lock.writeLock().unlock();
+        prefixSums[MAX_RATING] = buckets.counts[MAX_RATING];
+        for (int i = MAX_RATING - 1; i >= 0; i--) {
+            prefixSums[i] = buckets.counts[i] + prefixSums[i + 1];
         }
     }
 
@@ -107,7 +135,7 @@ public class PlayerRatingService {
         lock.readLock().lock();
         try {
             if (rating <= MAX_RATING) {
-                return bucketCounts[rating];
+                return buckets.counts[rating];
             } else {
                 return 0;
             }
@@ -117,64 +145,48 @@ public class PlayerRatingService {
     }
 
     public void addPlayer(UUID playerId, int rating) {
-        lock.writeLock().lock();
-        try {
-            ratingBuckets[rating].add(playerId);
-            bucketCounts[rating]++;
-            for (int i = rating; i >= 0; i--) {
-                prefixSums[i] = bucketCounts[i] + ((i + 1 <= MAX_RATING) ? prefixSums[i + 1] : 0);
-            }
-        } finally {
-            lock.writeLock().unlock();
-        }
+        moveTo(playerId, bucketOf(rating));
     }
 
+    // Removes the player from whichever bucket they are in
     public void deletePlayer(UUID playerId, int rating) {
-        lock.writeLock().lock();
-        try {
-            // Check if the player exists in the rating bucket
-            if (ratingBuckets[rating].remove(playerId)) {
-                // Decrease the bucket count
-                bucketCounts[rating]--;
-
-                // Update prefix sums
-                for (int i = rating; i >= 0; i--) {
-                    prefixSums[i] = bucketCounts[i] + ((i + 1 <= MAX_RATING) ? prefixSums[i + 1] : 0);
-                }
-            }
-        } finally {
-            lock.writeLock().unlock();
-        }
+        moveTo(playerId, UNRATED);
     }
 
+    // Moves the player from whichever bucket they are in, which is oldRating unless a change was missed
     public void updateRating(UUID playerId, int oldRating, int newRating) {
+        moveTo(playerId, bucketOf(newRating));
+    }
+
+    private void moveTo(UUID playerId, int rating) {
         lock.writeLock().lock();
         try {
-            // Remove player from old rating bucket
-            ratingBuckets[oldRating].remove(playerId);
-            bucketCounts[oldRating]--;
-
-            // Add player to new rating bucket
-            ratingBuckets[newRating].add(playerId);
-            bucketCounts[newRating]++;
+            int oldRating = buckets.move(playerId, rating);
+            if (changesWhileReconciling != null) {
+                changesWhileReconciling.put(playerId, rating);
+            }
 
-            // Update prefix sums from the minimum of old and new ratings
-            int startBucket = Math.max(oldRating, newRating);
+            // Update prefix sums from the higher of the old and new ratings
+            int startBucket = Math.max(oldRating, rating);
             for (int i = startBucket; i >= 0; i--) {
-                prefixSums[i] = bucketCounts[i] + ((i + 1 <= MAX_RATING) ? prefixSums[i + 1] : 0);
+                prefixSums[i] = buckets.counts[i] + ((i + 1 <= MAX_RATING) ? prefixSums[i + 1] : 0);
             }
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    private static int bucketOf(double rating) {
+        return (int) Math.max(0, Math.min(MAX_RATING, Math.round(rating)));
+    }
+
     public List<UUID> getTop10Players() {
         lock.readLock().lock();
         try {
             List<UUID> topPlayers = new ArrayList<>();
             for (int rating = MAX_RATING; rating >= 0 && topPlayers.size() < 10; rating--) {
-                Set<UUID> bucket = ratingBuckets[rating];
-                if (bucket != null && !bucket.isEmpty()) {
+                Set<UUID> bucket = buckets.players[rating];
+                if (!bucket.isEmpty()) {
                     topPlayers.addAll(bucket);
                 }
             }
@@ -185,6 +197,43 @@ public class PlayerRatingService {
     }
 
     public Set<UUID> getPlayersInBucket(int rating) {
-        return ratingBuckets[rating];
+        return buckets.players[rating];
+    }
+
+    /**
+     * The players in each rating bucket, how many there are, and which bucket
+     * each player is in, so a player is moved without the caller knowing
+     * where they were.
+     */
+    private static class RatingBuckets {
+        final int[] counts = new int[MAX_RATING + 1];
+        @SuppressWarnings("unchecked")
+        final Set<UUID>[] players = new HashSet[MAX_RATING + 1];
+        final Map<UUID, Integer> ratings = new HashMap<>();
+
+        RatingBuckets() {
+            for (int i = 0; i <= MAX_RATING; i++) {
+                players[i] = new HashSet<>();
+            }
+        }
+
+        /**
+         * Moves a player to a bucket, or out of the buckets for
+         * {@link #UNRATED}.
+         *
+         * @return the bucket the player was in, or {@link #UNRATED}
+         */
+        int move(UUID playerId, int rating) {
+            Integer previous = rating == UNRATED ? ratings.remove(playerId) : ratings.put(playerId, rating);
+            if (previous != null) {
+                players[previous].remove(playerId);
+                counts[previous]--;
+            }
+            if (rating != UNRATED) {
+                players[rating].add(playerId);
+                counts[rating]++;
+            }
+            return previous == null ? UNRATED : previous;
+        }
     }
 }
@@ -0,0 +1,196 @@
+package com.project.G1_T3.common.benchmark;
+
+import com.project.G1_T3.common.geo.GeoDistance;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates players for the benchmarks and the solo queue load test that look
+ * like the real player base: clustered around the cities people play in
+ * rather than spread evenly over a box, with ratings bunched around the
+ * starting rating.
+ *
+ * <p>
+ * A player picks a city by its weight and is placed at a normally
+ * distributed offset from its centre, so most players of a city share a few
+ * dense geocells and KD-tree branches while the cities themselves are far
+ * apart. Ratings are normal around 1500, deviations spread from settled to
+ * new players. The same seed always produces the same players.
+ */
+public final class SyntheticPlayers {
+
+    /**
+     * A city players are clustered around.
+     */
+    public static final class City {
+        final String name;
+        final double latitude;
+        final double longitude;
+        final double spreadKm;
+        final double weight;
+
+        City(String name, double latitude, double longitude, double spreadKm, double weight) {
+            this.name = name;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.spreadKm = spreadKm;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    // Most players are where the app started, the rest in other large cities
+    public static final List<City> CITIES = List.of(
+            new City("Singapore", 1.3521, 103.8198, 8, 0.40),
+            new City("Kuala Lumpur", 3.1390, 101.6869, 10, 0.10),
+            new City("Jakarta", -6.2088, 106.8456, 15, 0.10),
+            new City("Bangkok", 13.7563, 100.5018, 12, 0.08),
+            new City("Manila", 14.5995, 120.9842, 10, 0.07),
+            new City("Ho Chi Minh City", 10.8231, 106.6297, 10, 0.05),
+            new City("Hong Kong", 22.3193, 114.1694, 6, 0.05),
+            new City("Tokyo", 35.6762, 139.6503, 20, 0.05),
+            new City("Sydney", -33.8688, 151.2093, 20, 0.04),
+            new City("London", 51.5074, -0.1278, 15, 0.03),
+            new City("New York", 40.7128, -74.0060, 15, 0.03));
+
+    private static final double[] CUMULATIVE_WEIGHTS = new double[CITIES.size()];
+
+    static {
+        double total = 0;
+        for (int i = 0; i < CITIES.size(); i++) {
+            total += CITIES.get(i).weight;
+            CUMULATIVE_WEIGHTS[i] = total;
+        }
+        for (int i = 0; i < CUMULATIVE_WEIGHTS.length; i++) {
+            CUMULATIVE_WEIGHTS[i] /= total;
+        }
+    }
+
+    private final Random random;
+
+    public SyntheticPlayers(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Picks a city by its weight.
+     *
+     * @return the city
+     */
+    public City nextCity() {
+        double pick = random.nextDouble();
+        for (int i = 0; i < CUMULATIVE_WEIGHTS.length; i++) {
+            if (pick < CUMULATIVE_WEIGHTS[i]) {
+                return CITIES.get(i);
+            }
+        }
+        return CITIES.get(CITIES.size() - 1);
+    }
+
+    /**
+     * Picks a location in a city picked by weight.
+     *
+     * @return the latitude and longitude in degrees
+     */
+    public double[] nextLocation() {
+        return nextLocation(nextCity());
+    }
+
+    /**
+     * Picks a location around a city's centre.
+     *
+     * @param city the city
+     * @return the latitude and longitude in degrees
+     */
+    public double[] nextLocation(City city) {
+        double latitude = city.latitude
+                + random.nextGaussian() * GeoDistance.latitudeSpanDegrees(city.spreadKm);
+        double longitude = city.longitude
+                + random.nextGaussian() * GeoDistance.longitudeSpanDegrees(city.latitude, city.longitude,
+                        city.spreadKm);
+        return new double[] { latitude, longitude };
+    }
+
+    /**
+     * Picks a Glicko rating, normal around the starting rating.
+     *
+     * @return the rating, between 100 and 2900
+     */
+    public double nextRating() {
+        return Math.max(100, Math.min(2900, 1500 + random.nextGaussian() * 300));
+    }
+
+    /**
+     * Picks a rating deviation, from settled players to players who have
+     * barely played.
+     *
+     * @return the rating deviation, between 40 and 350
+     */
+    public double nextDeviation() {
+        return 40 + Math.pow(random.nextDouble(), 2) * 310;
+    }
+
+    /**
+     * Creates a queued player who joined within the given time before now.
+     *
+     * @param now            the time the queue is looked at
+     * @param maxWaitSeconds the longest any player has waited
+     * @return the player
+     */
+    public QueuedPlayer nextQueuedPlayer(Instant now, int maxWaitSeconds) {
+        double[] location = nextLocation();
+        double rating = nextRating();
+        return new QueuedPlayer(UUID.randomUUID(), UUID.randomUUID(), rating, nextDeviation(), 0.06, rating,
+                location[0], location[1], now.minusMillis(random.nextInt(maxWaitSeconds * 1000 + 1)));
+    }
+
+    /**
+     * Creates queued players who joined over the last ten minutes.
+     *
+     * @param count the number of players
+     * @return the players, in no particular order
+     */
+    public QueuedPlayer[] nextQueuedPlayers(int count) {
+        Instant now = Instant.now();
+        QueuedPlayer[] players = new QueuedPlayer[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = nextQueuedPlayer(now, 600);
+        }
+        return players;
+    }
+
+    /**
+     * Creates a player profile with a user, as the repository would load it.
+     *
+     * @return the profile
+     */
+    public PlayerProfile nextProfile() {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlayerProfile profile = new PlayerProfile();
+        profile.setProfileId(UUID.randomUUID());
+        profile.setUser(user);
+        profile.setGlickoRating(nextRating());
+        profile.setRatingDeviation((float) nextDeviation());
+        return profile;
+    }
+
+    /**
+     * Exposes the generator's random numbers, so a benchmark can derive more
+     * values from the same seed.
+     *
+     * @return the random number generator
+     */
+    public Random random() {
+        return random;
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.G1_T3.common.geo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class GeoDistanceTest {
+
+    @Test
+    void haversineKm_knownDistance_shouldReturnCorrectValue() {
+        // New York to Los Angeles, approximately 3936 km
+        assertEquals(3936, GeoDistance.haversineKm(40.7128, -74.0060, 34.0522, -118.2437), 1);
+    }
+
+    @Test
+    void haversineKm_samePoint_shouldReturnZero() {
+        assertEquals(0, GeoDistance.haversineKm(1.3521, 103.8198, 1.3521, 103.8198), 1e-9);
+    }
+
+    @Test
+    void latitudeSpanDegrees_shouldMatchOneDegreePerHundredElevenKm() {
+        assertEquals(1.0, GeoDistance.latitudeSpanDegrees(111.195), 0.001);
+    }
+
+    @Test
+    void longitudeSpanDegrees_atEquator_shouldEqualLatitudeSpan() {
+        assertEquals(GeoDistance.latitudeSpanDegrees(2.0), GeoDistance.longitudeSpanDegrees(0, 0, 2.0), 1e-6);
+    }
+
+    @Test
+    void longitudeSpanDegrees_shouldGrowWithLatitude() {
+        double atEquator = GeoDistance.longitudeSpanDegrees(0, 0, 2.0);
+        double atSixty = GeoDistance.longitudeSpanDegrees(60, 0, 2.0);
+        assertEquals(2 * atEquator, atSixty, 1e-4);
+    }
+
+    @Test
+    void longitudeSpanDegrees_pointOnCircleEdge_shouldBeInsideSpan() {
+        // A point exactly 2 km due east stays within the span
+        double latitude = 45;
+        double span = GeoDistance.longitudeSpanDegrees(latitude, 10, 2.0);
+        double eastOfCentre = 10 + span * 0.999;
+        assertTrue(GeoDistance.haversineKm(latitude, 10, latitude, eastOfCentre) <= 2.0);
+    }
+
+    @Test
+    void longitudeSpanDegrees_nearPoleOrAntimeridian_shouldBeUnbounded() {
+        assertEquals(Double.POSITIVE_INFINITY, GeoDistance.longitudeSpanDegrees(89.99, 0, 2.0));
+        assertEquals(Double.POSITIVE_INFINITY, GeoDistance.longitudeSpanDegrees(0, 179.99, 2.0));
+    }
+}
@@ -0,0 +1,56 @@
+package com.project.G1_T3.common.geo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class GeoPointTest {
+
+    @Test
+    void distanceKm_knownDistance_shouldReturnCorrectValue() {
+        // New York to Los Angeles, approximately 3936 km
+        GeoPoint newYork = new GeoPoint(40.7128, -74.0060);
+        GeoPoint losAngeles = new GeoPoint(34.0522, -118.2437);
+        assertEquals(3936, newYork.distanceKm(losAngeles), 1);
+    }
+
+    @Test
+    void distanceKm_samePoint_shouldReturnZero() {
+        GeoPoint point = new GeoPoint(1.3521, 103.8198);
+        assertEquals(0, point.distanceKm(new GeoPoint(1.3521, 103.8198)), 1e-9);
+    }
+
+    @Test
+    void distanceKm_antipodes_shouldReturnHalfEarthCircumference() {
+        assertEquals(Math.PI * GeoDistance.EARTH_RADIUS_KM, new GeoPoint(0, 0).distanceKm(new GeoPoint(0, 180)), 1e-6);
+    }
+
+    @Test
+    void distanceKm_shouldMatchHaversine() {
+        Random random = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            double lat1 = random.nextDouble() * 180 - 90;
+            double lon1 = random.nextDouble() * 360 - 180;
+            // Mostly short hops, the distances matchmaking cares about, and some long ones
+            double scale = i % 10 == 0 ? 90 : 0.05;
+            double lat2 = Math.max(-90, Math.min(90, lat1 + random.nextGaussian() * scale));
+            double lon2 = lon1 + random.nextGaussian() * scale;
+
+            double expected = GeoDistance.haversineKm(lat1, lon1, lat2, lon2);
+            double actual = new GeoPoint(lat1, lon1).distanceKm(new GeoPoint(lat2, lon2));
+            assertEquals(expected, actual, 1e-9 + expected * 1e-9);
+        }
+    }
+
+    @Test
+    void distanceKm_acrossAntimeridian_shouldBeShort() {
+        GeoPoint east = new GeoPoint(-17.0, 179.999);
+        GeoPoint west = new GeoPoint(-17.0, -179.999);
+        assertEquals(GeoDistance.haversineKm(-17.0, 179.999, -17.0, -179.999), east.distanceKm(west), 1e-9);
+        assertTrue(east.distanceKm(west) < 0.3);
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.G1_T3.common.geo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class GeoRadiusTest {
+
+    @Test
+    void contains_shouldAgreeWithHaversine() {
+        Random random = new Random(5);
+        GeoRadius radius = new GeoRadius(2.0);
+        for (int i = 0; i < 10000; i++) {
+            double lat1 = 1.3 + random.nextDouble() * 0.1;
+            double lon1 = 103.8 + random.nextDouble() * 0.1;
+            double lat2 = lat1 + random.nextGaussian() * 0.02;
+            double lon2 = lon1 + random.nextGaussian() * 0.02;
+
+            boolean expected = GeoDistance.haversineKm(lat1, lon1, lat2, lon2) <= 2.0;
+            assertEquals(expected, radius.contains(new GeoPoint(lat1, lon1), new GeoPoint(lat2, lon2)));
+        }
+    }
+
+    @Test
+    void contains_pointsOnTheEdge_shouldAgreeWithDistance() {
+        // Points placed as close to 2 km due north as doubles allow, on either side of it
+        GeoPoint centre = new GeoPoint(45, 10);
+        double edgeLatitude = 45 + GeoDistance.latitudeSpanDegrees(2.0);
+        GeoRadius radius = new GeoRadius(2.0);
+        for (double latitude = Math.nextDown(Math.nextDown(edgeLatitude)); latitude <= Math.nextUp(
+                Math.nextUp(edgeLatitude)); latitude = Math.nextUp(latitude)) {
+            GeoPoint point = new GeoPoint(latitude, 10);
+            assertEquals(centre.distanceKm(point) <= 2.0, radius.contains(centre, point));
+        }
+    }
+
+    @Test
+    void contains_samePointWithZeroRadius_shouldBeTrue() {
+        GeoPoint point = new GeoPoint(1.3521, 103.8198);
+        assertTrue(new GeoRadius(0).contains(point, new GeoPoint(1.3521, 103.8198)));
+        assertFalse(new GeoRadius(0).contains(point, new GeoPoint(1.3522, 103.8198)));
+    }
+
+    @Test
+    void contains_unboundedRadius_shouldContainAntipodes() {
+        GeoRadius radius = new GeoRadius(Double.POSITIVE_INFINITY);
+        assertTrue(radius.contains(new GeoPoint(0, 0), new GeoPoint(0, 180)));
+        assertTrue(radius.contains(new GeoPoint(90, 0), new GeoPoint(-90, 0)));
+    }
+
+    @Test
+    void getChordSquared_shouldConvertBackToRadius() {
+        assertEquals(2.0, GeoDistance.chordSquaredToKm(new GeoRadius(2.0).getChordSquared()), 1e-9);
+        assertEquals(4.0, new GeoRadius(Double.POSITIVE_INFINITY).getChordSquared(), 1e-12);
+    }
+}
@@ -17,15 +17,18 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
 
@@ -143,6 +146,41 @@ class MatchServiceTest {
 
 
 
+    @Test
+    void createMatches_validInput_savesAllMatchesTogether() {
+        // Arrange
+        MatchDTO otherMatchDTO = new MatchDTO();
+        otherMatchDTO.setPlayer1Id(UUID.randomUUID());
+        otherMatchDTO.setPlayer2Id(UUID.randomUUID());
+        otherMatchDTO.setScheduledTime(LocalDateTime.now().plusDays(1));
+
+        when(matchRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Match> createdMatches = matchServiceImpl.createMatches(List.of(matchDTO, otherMatchDTO));
+
+        // Assert
+        assertEquals(2, createdMatches.size());
+        assertEquals(matchDTO.getPlayer1Id(), createdMatches.get(0).getPlayer1Id());
+        assertEquals(otherMatchDTO.getPlayer1Id(), createdMatches.get(1).getPlayer1Id());
+        assertEquals(Status.SCHEDULED, createdMatches.get(1).getStatus());
+        verify(matchRepository, times(1)).saveAll(anyList());
+        verify(matchRepository, never()).save(any(Match.class));
+    }
+
+    @Test
+    void createMatches_oneInvalidMatch_savesNothing() {
+        // Arrange
+        MatchDTO invalidMatchDTO = new MatchDTO();
+        invalidMatchDTO.setPlayer1Id(null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            matchServiceImpl.createMatches(List.of(matchDTO, invalidMatchDTO));
+        });
+        verify(matchRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void startMatch_matchIdNull_throwsException() {
         // Act & Assert
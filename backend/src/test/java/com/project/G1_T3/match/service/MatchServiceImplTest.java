@@ -105,6 +105,39 @@ class MatchServiceImplTest {
         verify(playerProfileService, times(1)).updatePlayerRating(player2);
     }
 
+    @Test
+    void updateMeetingPoint_ShouldMoveMatch() {
+        UUID matchId = UUID.randomUUID();
+        when(matchRepository.findById(matchId)).thenReturn(Optional.of(match));
+
+        assertTrue(matchService.updateMeetingPoint(matchId, 1.2816, 103.8636));
+
+        assertEquals(1.2816, match.getMeetingLatitude());
+        assertEquals(103.8636, match.getMeetingLongitude());
+        verify(matchRepository, times(1)).save(match);
+    }
+
+    @Test
+    void updateMeetingPoint_ShouldSkipFinishedMatch() {
+        UUID matchId = UUID.randomUUID();
+        match.setStatus(Status.COMPLETED);
+        when(matchRepository.findById(matchId)).thenReturn(Optional.of(match));
+
+        assertFalse(matchService.updateMeetingPoint(matchId, 1.2816, 103.8636));
+
+        verify(matchRepository, never()).save(any());
+    }
+
+    @Test
+    void updateMeetingPoint_ShouldSkipMissingMatch() {
+        UUID matchId = UUID.randomUUID();
+        when(matchRepository.findById(matchId)).thenReturn(Optional.empty());
+
+        assertFalse(matchService.updateMeetingPoint(matchId, 1.2816, 103.8636));
+
+        verify(matchRepository, never()).save(any());
+    }
+
     @Test
     void completeMatch_ShouldThrowExceptionIfWinnerIdIsInvalid() {
         UUID matchId = UUID.randomUUID();
@@ -17,18 +17,22 @@ import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.web.socket.WebSocketHttpHeaders;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
 import org.springframework.web.socket.sockjs.client.WebSocketTransport;
 
+import com.project.G1_T3.authentication.service.JwtService;
 import com.project.G1_T3.matchmaking.controller.websocket.TestStompSessionHandler;
 import com.project.G1_T3.matchmaking.model.MatchLocation;
-import com.project.G1_T3.matchmaking.model.MatchNotification;
+import com.project.G1_T3.matchmaking.model.MatchNotificationDTO;
 import com.project.G1_T3.matchmaking.model.QueueRequest;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 import com.project.G1_T3.user.model.User;
 import com.project.G1_T3.user.repository.UserRepository;
 import com.project.G1_T3.user.model.UserRole;
+import com.project.G1_T3.matchmaking.service.MatchNotifier;
 import com.project.G1_T3.matchmaking.service.MatchmakingService;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
@@ -64,6 +68,9 @@ class MatchmakingIntegrationTests {
     @Autowired
     private MatchmakingService matchmakingService;
 
+    @Autowired
+    private JwtService jwtService;
+
     @MockBean
     private GlickoMatchmaking glickoMatchmaking;
 
@@ -94,6 +101,10 @@ class MatchmakingIntegrationTests {
         stompClient.setMessageConverter(converter);
 
         when(glickoMatchmaking.isGoodMatch(any(), any())).thenReturn(true);
+        when(glickoMatchmaking.isGoodMatch(any(), any(), any())).thenReturn(true);
+        when(glickoMatchmaking.getName()).thenReturn("glicko");
+        when(glickoMatchmaking.getSearchCriteria()).thenReturn(new SearchCriteria(300.0, 100.0, 2.0));
+        when(glickoMatchmaking.getIndexCriteria(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @AfterEach
@@ -104,35 +115,33 @@ class MatchmakingIntegrationTests {
 
     @Test
     void testMatchmakingFlow() throws Exception {
-        StompSession session = connectToWebSocket();
+        // Each player has their own signed-in session, notifications go to the user
+        StompSession session1 = connectToWebSocket(user1);
+        StompSession session2 = connectToWebSocket(user2);
 
-        CompletableFuture<MatchNotification> matchNotificationFuture1 = subscribeToMatchNotifications(session,
-                profile1);
-        CompletableFuture<MatchNotification> matchNotificationFuture2 = subscribeToMatchNotifications(session,
-                profile2);
+        CompletableFuture<MatchNotificationDTO> matchNotificationFuture1 = subscribeToMatchNotifications(session1);
+        CompletableFuture<MatchNotificationDTO> matchNotificationFuture2 = subscribeToMatchNotifications(session2);
 
-        sendQueueRequests(session, profile1, profile2);
+        // Wait for the subscriptions to be registered
+        Thread.sleep(500);
 
-        // Wait for players to be added to the queue
-        Thread.sleep(2000);
-
-        // Manually trigger matchmaking
-        logger.info("Triggering matchmaking manually");
-        matchmakingService.triggerMatchmaking();
+        // The second player to join is matched straight away
+        sendQueueRequests(session1, profile1, profile2);
 
         // Wait for match notifications
-        MatchNotification receivedNotification1 = matchNotificationFuture1.get(30, TimeUnit.SECONDS);
-        MatchNotification receivedNotification2 = matchNotificationFuture2.get(30, TimeUnit.SECONDS);
+        MatchNotificationDTO receivedNotification1 = matchNotificationFuture1.get(30, TimeUnit.SECONDS);
+        MatchNotificationDTO receivedNotification2 = matchNotificationFuture2.get(30, TimeUnit.SECONDS);
 
         logger.info("Received notification for player 1: {}", receivedNotification1);
         logger.info("Received notification for player 2: {}", receivedNotification2);
 
         assertNotNull(receivedNotification1);
         assertNotNull(receivedNotification2);
-        assertNotNull(receivedNotification1.getMatch(), "Match in notification 1 should not be null");
-        assertNotNull(receivedNotification2.getMatch(), "Match in notification 2 should not be null");
-        assertEquals(receivedNotification1.getMatch().getMatchId(), receivedNotification2.getMatch().getMatchId(),
-                "Match IDs should be equal"); // Add more assertions as needed
+        assertNotNull(receivedNotification1.getMatchId(), "Match in notification 1 should not be null");
+        assertEquals(receivedNotification1.getMatchId(), receivedNotification2.getMatchId(),
+                "Match IDs should be equal");
+        assertEquals(user2.getUsername(), receivedNotification1.getOpponentName());
+        assertEquals(user1.getUsername(), receivedNotification2.getOpponentName());
     }
 
     @Test
@@ -215,26 +224,21 @@ class MatchmakingIntegrationTests {
         assertFalse(matchmakingService.isPlayerInQueue(profile1.getUser().getId()));
     }
 
-    private CompletableFuture<MatchNotification> subscribeToMatchNotifications(StompSession session,
-            PlayerProfile profile) {
-        CompletableFuture<MatchNotification> matchNotificationFuture = new CompletableFuture<>();
-        String subscriptionDestination = "/topic/solo/match/" + profile.getProfileId().toString();
+    private CompletableFuture<MatchNotificationDTO> subscribeToMatchNotifications(StompSession session) {
+        CompletableFuture<MatchNotificationDTO> matchNotificationFuture = new CompletableFuture<>();
+        String subscriptionDestination = "/user" + MatchNotifier.DESTINATION;
         logger.info("Subscribing to: {}", subscriptionDestination);
         session.subscribe(subscriptionDestination, new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
-                return MatchNotification.class;
+                return MatchNotificationDTO.class;
             }
 
             @Override
             public void handleFrame(StompHeaders headers, Object payload) {
                 logger.info("Received match notification: {}", payload);
-                if (payload instanceof MatchNotification) {
-                    MatchNotification notification = (MatchNotification) payload;
-                    if (notification.getMatch() == null) {
-                        logger.error("Received MatchNotification with null Match");
-                    }
-                    matchNotificationFuture.complete(notification);
+                if (payload instanceof MatchNotificationDTO) {
+                    matchNotificationFuture.complete((MatchNotificationDTO) payload);
                 } else {
                     logger.error("Received unexpected payload type: {}", payload.getClass().getName());
                     matchNotificationFuture
@@ -257,10 +261,20 @@ class MatchmakingIntegrationTests {
     }
 
     private StompSession connectToWebSocket() throws Exception {
+        return connectToWebSocket(new StompHeaders());
+    }
+
+    private StompSession connectToWebSocket(User user) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateToken(user));
+        return connectToWebSocket(connectHeaders);
+    }
+
+    private StompSession connectToWebSocket(StompHeaders connectHeaders) throws Exception {
         CompletableFuture<StompSession> sessionFuture = new CompletableFuture<>();
         String wsUrl = "ws://localhost:" + port + "/ws";
         logger.info("Connecting to WebSocket at: {}", wsUrl);
-        stompClient.connectAsync(wsUrl, new TestStompSessionHandler())
+        stompClient.connectAsync(wsUrl, new WebSocketHttpHeaders(), connectHeaders, new TestStompSessionHandler())
                 .whenComplete((session, throwable) -> {
                     if (throwable != null) {
                         sessionFuture.completeExceptionally(throwable);
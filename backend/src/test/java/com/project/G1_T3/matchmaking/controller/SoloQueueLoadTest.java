@@ -0,0 +1,343 @@
+package com.project.G1_T3.matchmaking.controller;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.G1_T3.authentication.service.JwtService;
+import com.project.G1_T3.common.benchmark.SyntheticPlayers;
+import com.project.G1_T3.matchmaking.model.MatchLocation;
+import com.project.G1_T3.matchmaking.model.MatchNotificationDTO;
+import com.project.G1_T3.matchmaking.model.QueueRequest;
+import com.project.G1_T3.matchmaking.service.MatchNotifier;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
+import com.project.G1_T3.user.model.User;
+import com.project.G1_T3.user.model.UserRole;
+import com.project.G1_T3.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.project.G1_T3.matchmaking.controller.websocket.TestStompSessionHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reference workload for the solo queue. Thousands of simulated players
+ * connect to {@code /ws} over SockJS with their own token, join the queue at a
+ * steady arrival rate with locations and ratings from
+ * {@link SyntheticPlayers}, and wait for their match notification. The report
+ * gives join and match throughput, time to match from join to notification,
+ * and the memory the server allocated per match.
+ *
+ * <p>
+ * Excluded from the normal build. Run it in the {@code loadtest} profile,
+ * which uses the H2 database of {@code application-loadtest.yaml}:
+ * {@code mvn -Ploadtest test -Dloadtest.clients=5000 -Dloadtest.arrivals-per-second=250}.
+ * The other settings are {@code loadtest.drain-seconds}, how long to wait for
+ * matches after the last join, and {@code loadtest.seed}.
+ *
+ * <p>
+ * Clients and server share the JVM, so server allocation is counted from the
+ * threads the clients do not use, and threads that end during the run are
+ * missed. It is a figure to compare between runs of this workload rather than
+ * an absolute one.
+ */
+@Tag("LoadTest")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class SoloQueueLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoloQueueLoadTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 2000);
+    private static final int ARRIVALS_PER_SECOND = Integer.getInteger("loadtest.arrivals-per-second", 200);
+    private static final int DRAIN_SECONDS = Integer.getInteger("loadtest.drain-seconds", 60);
+    private static final long SEED = Long.getLong("loadtest.seed", 42L);
+
+    // Connections opened at once, so the SockJS handshakes do not time out
+    private static final int CONNECTS_IN_FLIGHT = 64;
+
+    // Threads of the simulated clients, everything else is the server
+    private static final List<String> CLIENT_THREAD_PREFIXES = List.of("main", "WebSocketClient-",
+            "SockJsClient-");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlayerProfileRepository playerProfileRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final List<SimulatedPlayer> players = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (SimulatedPlayer player : players) {
+            if (player.session != null && player.session.isConnected()) {
+                player.session.disconnect();
+            }
+        }
+    }
+
+    @Test
+    void soloQueueUnderLoad() throws Exception {
+        createPlayers();
+
+        CountDownLatch allMatched = new CountDownLatch(CLIENTS);
+        AtomicInteger duplicates = new AtomicInteger();
+        connectPlayers(allMatched, duplicates);
+
+        // Let the subscriptions register before anyone joins
+        Thread.sleep(1000);
+
+        Map<Long, Long> allocatedBefore = serverAllocatedBytes();
+        long[] gcBefore = gcCountAndMillis();
+
+        // Open loop: players join on schedule whether or not earlier ones were matched
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ARRIVALS_PER_SECOND;
+        long start = System.nanoTime();
+        for (int i = 0; i < players.size(); i++) {
+            long due = start + i * intervalNanos;
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+            }
+            SimulatedPlayer player = players.get(i);
+            player.joinedAt = System.nanoTime();
+            player.session.send("/app/solo/queue", player.queueRequest());
+        }
+        long lastJoin = System.nanoTime();
+
+        allMatched.await(DRAIN_SECONDS, TimeUnit.SECONDS);
+
+        Map<Long, Long> allocatedAfter = serverAllocatedBytes();
+        long[] gcAfter = gcCountAndMillis();
+
+        long[] timesToMatch = players.stream()
+                .filter(player -> player.matchedAt != 0)
+                .mapToLong(player -> player.matchedAt - player.joinedAt)
+                .sorted()
+                .toArray();
+        long lastMatch = players.stream().mapToLong(player -> player.matchedAt).max().orElse(start);
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : allocatedAfter.entrySet()) {
+            allocated += entry.getValue() - allocatedBefore.getOrDefault(entry.getKey(), 0L);
+        }
+
+        report(timesToMatch, start, lastJoin, lastMatch, allocated, gcAfter[0] - gcBefore[0],
+                gcAfter[1] - gcBefore[1]);
+
+        assertTrue(timesToMatch.length > 0, "No player was matched");
+        assertEquals(0, duplicates.get(), "Players were told about more than one match");
+    }
+
+    private void createPlayers() {
+        SyntheticPlayers generator = new SyntheticPlayers(SEED);
+        List<User> users = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            User user = new User();
+            user.setUsername("loadtest" + i);
+            user.setEmail("loadtest" + i + "@test.com");
+            user.setPasswordHash("loadtest");
+            user.setRole(UserRole.PLAYER);
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+
+        List<PlayerProfile> profiles = new ArrayList<>(CLIENTS);
+        for (User user : users) {
+            PlayerProfile profile = new PlayerProfile();
+            profile.setUser(user);
+            profile.setFirstName("Load");
+            profile.setLastName("Test");
+            profile.setGlickoRating(generator.nextRating());
+            profile.setRatingDeviation((float) generator.nextDeviation());
+            profiles.add(profile);
+
+            players.add(new SimulatedPlayer(user, generator.nextLocation()));
+        }
+        playerProfileRepository.saveAll(profiles);
+    }
+
+    private void connectPlayers(CountDownLatch allMatched, AtomicInteger duplicates) throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new SockJsClient(
+                Collections.singletonList(new WebSocketTransport(new StandardWebSocketClient()))));
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        stompClient.setMessageConverter(converter);
+
+        String url = "ws://localhost:" + port + "/ws";
+        Semaphore inFlight = new Semaphore(CONNECTS_IN_FLIGHT);
+        AtomicInteger failures = new AtomicInteger();
+        long started = System.nanoTime();
+        for (SimulatedPlayer player : players) {
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("Authorization", "Bearer " + jwtService.generateToken(player.user));
+
+            inFlight.acquire();
+            stompClient.connectAsync(url, new WebSocketHttpHeaders(), connectHeaders, new TestStompSessionHandler())
+                    .whenComplete((session, throwable) -> {
+                        try {
+                            if (throwable != null) {
+                                failures.incrementAndGet();
+                            } else {
+                                player.session = session;
+                                session.subscribe("/user" + MatchNotifier.DESTINATION,
+                                        player.notificationHandler(allMatched, duplicates));
+                            }
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+        }
+        inFlight.acquire(CONNECTS_IN_FLIGHT);
+
+        logger.info("Connected {} players in {} ms", CLIENTS - failures.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        assertEquals(0, failures.get(), "Players failed to connect");
+    }
+
+    private void report(long[] timesToMatch, long start, long lastJoin, long lastMatch, long allocated,
+            long gcCount, long gcMillis) {
+        int matched = timesToMatch.length;
+        double joinSeconds = (lastJoin - start) / 1e9;
+        double matchSeconds = Math.max(lastMatch - start, 1) / 1e9;
+        StringBuilder report = new StringBuilder()
+                .append(String.format("Solo queue load test: %d players, %d joins/s offered, seed %d%n", CLIENTS,
+                        ARRIVALS_PER_SECOND, SEED))
+                .append(String.format("  joins          %d in %.1f s (%.1f/s)%n", CLIENTS, joinSeconds,
+                        CLIENTS / Math.max(joinSeconds, 1e-9)))
+                .append(String.format("  matched        %d players (%.1f%%), %.1f matches/s%n", matched,
+                        100.0 * matched / CLIENTS, matched / 2.0 / matchSeconds));
+        if (matched > 0) {
+            report.append(String.format("  time to match  p50 %d ms, p90 %d ms, p99 %d ms, max %d ms%n",
+                    percentileMillis(timesToMatch, 50), percentileMillis(timesToMatch, 90),
+                    percentileMillis(timesToMatch, 99), percentileMillis(timesToMatch, 100)));
+        }
+        report.append(String.format("  server alloc   %d MB", allocated >> 20));
+        if (matched > 0) {
+            report.append(String.format(", %d KB per match", (allocated >> 10) * 2 / matched));
+        }
+        report.append(String.format("%n  gc             %d collections, %d ms", gcCount, gcMillis));
+        logger.info(report.toString());
+    }
+
+    // Nearest rank percentile of sorted nanosecond times
+    private static long percentileMillis(long[] sortedNanos, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length);
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos[Math.max(rank, 1) - 1]);
+    }
+
+    private static Map<Long, Long> serverAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        ThreadInfo[] infos = threads.getThreadInfo(ids);
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+
+        Map<Long, Long> serverThreads = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (infos[i] != null && allocated[i] >= 0 && !isClientThread(infos[i].getThreadName())) {
+                serverThreads.put(ids[i], allocated[i]);
+            }
+        }
+        return serverThreads;
+    }
+
+    private static boolean isClientThread(String name) {
+        return CLIENT_THREAD_PREFIXES.stream().anyMatch(name::startsWith);
+    }
+
+    private static long[] gcCountAndMillis() {
+        long[] total = new long[2];
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total[0] += Math.max(collector.getCollectionCount(), 0);
+            total[1] += Math.max(collector.getCollectionTime(), 0);
+        }
+        return total;
+    }
+
+    /**
+     * One simulated player: their account, where they queue from, their
+     * session and when they joined and heard about their match.
+     */
+    private static class SimulatedPlayer {
+        final User user;
+        final double[] location;
+        volatile StompSession session;
+        volatile long joinedAt;
+        volatile long matchedAt;
+
+        SimulatedPlayer(User user, double[] location) {
+            this.user = user;
+            this.location = location;
+        }
+
+        QueueRequest queueRequest() {
+            QueueRequest queueRequest = new QueueRequest();
+            queueRequest.setPlayerId(user.getId().toString());
+            queueRequest.setLocation(new MatchLocation(location[0], location[1]));
+            return queueRequest;
+        }
+
+        StompFrameHandler notificationHandler(CountDownLatch allMatched, AtomicInteger duplicates) {
+            return new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return MatchNotificationDTO.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    if (matchedAt != 0) {
+                        duplicates.incrementAndGet();
+                        return;
+                    }
+                    matchedAt = System.nanoTime();
+                    allMatched.countDown();
+                }
+            };
+        }
+    }
+}
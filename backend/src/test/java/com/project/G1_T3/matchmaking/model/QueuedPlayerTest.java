@@ -4,9 +4,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
 
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -14,23 +17,57 @@ import static org.mockito.Mockito.*;
 class QueuedPlayerTest {
 
     private PlayerProfile mockProfile;
+    private User user;
     private QueuedPlayer queuedPlayer;
 
     @BeforeEach
     void setUp() {
+        user = new User();
+        user.setUserId(UUID.randomUUID());
         mockProfile = mock(PlayerProfile.class);
+        when(mockProfile.getUser()).thenReturn(user);
+        when(mockProfile.getProfileId()).thenReturn(UUID.randomUUID());
+        when(mockProfile.getGlickoRating()).thenReturn((float) 1600.0);
+        when(mockProfile.getCurrentRD()).thenReturn(80.0);
         when(mockProfile.getCurrentRating()).thenReturn((float) 1000.0);
         queuedPlayer = new QueuedPlayer(mockProfile, 10, 20);
     }
 
     @Test
     void constructor_shouldSetAllFields() {
-        assertEquals(mockProfile, queuedPlayer.getPlayer());
+        assertEquals(user.getUserId(), queuedPlayer.getUserId());
+        assertEquals(mockProfile.getProfileId(), queuedPlayer.getProfileId());
+        assertEquals(1600, queuedPlayer.getGlickoRating(), 0.001);
+        assertEquals(80, queuedPlayer.getGlickoRD(), 0.001);
+        assertEquals(1000, queuedPlayer.getCurrentRating(), 0.001);
         assertEquals(10, queuedPlayer.getLatitude(), 0.001);
         assertEquals(20, queuedPlayer.getLongitude(), 0.001);
         assertNotNull(queuedPlayer.getJoinTime());
     }
 
+    @Test
+    void constructor_shouldNotKeepTheProfile() {
+        when(mockProfile.getGlickoRating()).thenReturn((float) 1800.0);
+
+        assertEquals(1600, queuedPlayer.getGlickoRating(), 0.001);
+    }
+
+    @Test
+    void equals_shouldCompareUserIds() {
+        PlayerProfile other = mock(PlayerProfile.class);
+        when(other.getUser()).thenReturn(user);
+        when(other.getGlickoRating()).thenReturn((float) 1200.0);
+        PlayerProfile stranger = mock(PlayerProfile.class);
+        User strangerUser = new User();
+        strangerUser.setUserId(UUID.randomUUID());
+        when(stranger.getUser()).thenReturn(strangerUser);
+        when(stranger.getGlickoRating()).thenReturn((float) 1600.0);
+
+        assertEquals(queuedPlayer, new QueuedPlayer(other, 0, 0));
+        assertEquals(queuedPlayer.hashCode(), new QueuedPlayer(other, 0, 0).hashCode());
+        assertNotEquals(queuedPlayer, new QueuedPlayer(stranger, 10, 20));
+    }
+
     @Test
     void getQueueTimeSeconds_shouldReturnPositiveValue() {
         assertTrue(queuedPlayer.getQueueTimeSeconds() >= 0);
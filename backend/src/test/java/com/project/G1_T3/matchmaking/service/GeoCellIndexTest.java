@@ -0,0 +1,263 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.geo.GeoDistance;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchBand;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class GeoCellIndexTest {
+
+    private static final SearchCriteria CRITERIA = new SearchCriteria(300, 100, 2.0);
+
+    private GeoCellIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new GeoCellIndex(2.0);
+    }
+
+    @Test
+    void testInsertAndSize() {
+        assertTrue(index.isEmpty());
+        index.insert(createPlayer(1500, 100, 1.3521, 103.8198));
+        index.insert(createPlayer(1600, 100, 51.5074, -0.1278));
+        assertEquals(2, index.size());
+        assertEquals(2, index.cellCount());
+    }
+
+    @Test
+    void testRemoveDropsEmptyCell() {
+        QueuedPlayer player = createPlayer(1500, 100, 1.3521, 103.8198);
+        index.insert(player);
+
+        index.remove(player);
+
+        assertTrue(index.isEmpty());
+        assertEquals(0, index.cellCount());
+        assertFalse(index.containsPlayer(player.getUserId()));
+    }
+
+    @Test
+    void testGetPlayer() {
+        QueuedPlayer player = createPlayer(1500, 100, 1.3521, 103.8198);
+        index.insert(player);
+
+        assertSame(player, index.getPlayer(player.getUserId()));
+        assertNull(index.getPlayer(UUID.randomUUID()));
+    }
+
+    @Test
+    void testInsertingSamePlayerIdTwiceKeepsOneEntry() {
+        QueuedPlayer player = createPlayer(1500, 100, 1.3521, 103.8198);
+        QueuedPlayer moved = new QueuedPlayer(player.getUserId(), player.getProfileId(), player.getGlickoRating(),
+                player.getGlickoRD(), player.getVolatility(), player.getCurrentRating(), 51.5074, -0.1278,
+                Instant.now());
+        index.insert(player);
+        index.insert(moved);
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.cellCount());
+        assertSame(moved, index.getPlayer(player.getUserId()));
+    }
+
+    @Test
+    void testFindKNearest_DenseCellKeepsRatingWindowAfterRemovals() {
+        QueuedPlayer target = createPlayer(1500, 100, 1.3521, 103.8198);
+        List<QueuedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            // Ten players per rating from 1300 to 1700, all in the target's cell
+            QueuedPlayer player = createPlayer(1300 + (i % 5) * 100, 100, 1.3521, 103.8198);
+            players.add(player);
+            index.insert(player);
+        }
+        for (int i = 0; i < 50; i += 2) {
+            index.remove(players.get(i));
+        }
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = index.findKNearest(target,
+                new SearchCriteria(100, 100, 2.0), 50);
+
+        assertEquals(1, index.cellCount());
+        assertEquals(15, nearest.size());
+        for (Map.Entry<QueuedPlayer, Double> entry : nearest) {
+            assertTrue(players.indexOf(entry.getKey()) % 2 == 1);
+            assertTrue(Math.abs(entry.getKey().getGlickoRating() - 1500) <= 100);
+        }
+    }
+
+    @Test
+    void testFindKNearest_FindsPlayerInNeighbouringCell() {
+        QueuedPlayer target = createPlayer(1500, 100, 1.3521, 103.8198);
+        // 1.9 km north and 1.9 km east, which lands in a different cell
+        QueuedPlayer north = createPlayer(1520, 100, 1.3521 + 1.9 / 111.195, 103.8198);
+        QueuedPlayer east = createPlayer(1480, 100, 1.3521, 103.8198 + 1.9 / 111.195);
+        index.insert(north);
+        index.insert(east);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = index.findKNearest(target, CRITERIA, 5);
+
+        assertEquals(2, nearest.size());
+    }
+
+    @Test
+    void testFindKNearest_SkipsPlayersOutsideWindows() {
+        QueuedPlayer target = createPlayer(1500, 100, 1.3521, 103.8198);
+        index.insert(createPlayer(1500, 100, 1.3521 + 3.0 / 111.195, 103.8198)); // Too far
+        index.insert(createPlayer(1900, 100, 1.3521, 103.8198)); // Rating too far apart
+        index.insert(createPlayer(1500, 250, 1.3521, 103.8198)); // RD too far apart
+
+        assertTrue(index.findKNearest(target, CRITERIA, 5).isEmpty());
+    }
+
+    @Test
+    void testFindKNearest_WrapsAroundAntimeridian() {
+        QueuedPlayer target = createPlayer(1500, 100, -17.0, 179.999);
+        QueuedPlayer across = createPlayer(1500, 100, -17.0, -179.999);
+        index.insert(across);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = index.findKNearest(target, CRITERIA, 5);
+
+        assertEquals(1, nearest.size());
+        assertSame(across, nearest.peek().getKey());
+    }
+
+    @Test
+    void testFindKNearest_NearPole() {
+        QueuedPlayer target = createPlayer(1500, 100, 89.995, 0);
+        QueuedPlayer otherSide = createPlayer(1500, 100, 89.995, 180);
+        index.insert(otherSide);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = index.findKNearest(target, CRITERIA, 5);
+
+        assertEquals(1, nearest.size());
+    }
+
+    @Test
+    void testFindKNearest_ReturnsLowestCostFirstOut() {
+        QueuedPlayer target = createPlayer(1500, 100, 1.3521, 103.8198);
+        QueuedPlayer best = createPlayer(1500, 100, 1.3521, 103.8198);
+        QueuedPlayer worse = createPlayer(1700, 100, 1.3521, 103.8198);
+        QueuedPlayer worst = createPlayer(1790, 100, 1.3521, 103.8198);
+        index.insert(worst);
+        index.insert(best);
+        index.insert(worse);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = index.findKNearest(target, CRITERIA, 2);
+
+        assertEquals(2, nearest.size());
+        assertSame(worse, nearest.poll().getKey());
+        assertSame(best, nearest.poll().getKey());
+    }
+
+    @Test
+    void testFindKNearest_BandSkipsPlayersAlreadySearched() {
+        SearchCriteria searched = new SearchCriteria(300, 100, 2.0);
+        SearchCriteria widened = new SearchCriteria(450, 150, 3.0);
+        QueuedPlayer target = createPlayer(1500, 100, 1.3521, 103.8198);
+        QueuedPlayer seen = createPlayer(1550, 100, 1.3521, 103.8198);
+        QueuedPlayer ratingBand = createPlayer(1900, 100, 1.3521, 103.8198);
+        QueuedPlayer distanceBand = createPlayer(1500, 100, 1.3521 + 2.5 / 111.195, 103.8198);
+        index.insert(seen);
+        index.insert(ratingBand);
+        index.insert(distanceBand);
+        long watermark = index.watermark();
+        QueuedPlayer joinedLater = createPlayer(1500, 100, 1.3521, 103.8198);
+        index.insert(joinedLater);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = index.findKNearest(target,
+                new SearchBand(widened, searched, watermark), 5);
+
+        assertEquals(3, nearest.size());
+        for (Map.Entry<QueuedPlayer, Double> entry : nearest) {
+            assertNotSame(seen, entry.getKey());
+        }
+        assertEquals(4, index.findKNearest(target, new SearchBand(widened), 5).size());
+    }
+
+    @Test
+    void testFindKNearest_MatchesKDTree() {
+        Random random = new Random(11);
+        MatchmakingKDTree kdTree = new MatchmakingKDTree();
+        List<QueuedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            QueuedPlayer player = createPlayer(1500 + random.nextGaussian() * 300, 50 + random.nextInt(300),
+                    1.3521 + random.nextGaussian() * 0.03, 103.8198 + random.nextGaussian() * 0.03);
+            players.add(player);
+        }
+        index.bulkLoad(players);
+        kdTree.bulkLoad(players);
+
+        for (int i = 0; i < 50; i++) {
+            QueuedPlayer target = players.get(random.nextInt(players.size()));
+            PriorityQueue<Map.Entry<QueuedPlayer, Double>> fromCells = index.findKNearest(target, CRITERIA, 5);
+            PriorityQueue<Map.Entry<QueuedPlayer, Double>> fromTree = kdTree.findKNearest(target, CRITERIA, 5);
+
+            assertEquals(fromTree.size(), fromCells.size());
+            if (!fromTree.isEmpty()) {
+                assertEquals(fromTree.peek().getValue(), fromCells.peek().getValue(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testFindKNearest_PrunedScanMatchesFullScanInCrowdedCity() {
+        Random random = new Random(12);
+        SearchCriteria criteria = new SearchCriteria(450, 150, 15.0);
+        List<QueuedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            players.add(createPlayer(1200 + random.nextDouble() * 600, 50 + random.nextDouble() * 100,
+                    1.25 + random.nextDouble() * 0.2, 103.7 + random.nextDouble() * 0.3));
+        }
+        index.bulkLoad(players);
+        NearestCandidates candidates = new NearestCandidates(5);
+
+        for (int i = 0; i < 100; i++) {
+            QueuedPlayer target = players.get(random.nextInt(players.size()));
+            candidates.reset(5);
+            index.findKNearest(target, new SearchBand(criteria), candidates);
+            candidates.sortByCost();
+
+            List<Double> expected = new ArrayList<>();
+            for (QueuedPlayer player : players) {
+                double ratingDiff = Math.abs(target.getGlickoRating() - player.getGlickoRating());
+                double rdDiff = Math.abs(target.getGlickoRD() - player.getGlickoRD());
+                double distanceKm = GeoDistance.haversineKm(target.getLatitude(), target.getLongitude(),
+                        player.getLatitude(), player.getLongitude());
+                if (criteria.accepts(ratingDiff, rdDiff, distanceKm)) {
+                    expected.add(criteria.cost(ratingDiff, rdDiff, distanceKm));
+                }
+            }
+            expected.sort(null);
+
+            assertEquals(Math.min(5, expected.size()), candidates.size());
+            for (int j = 0; j < candidates.size(); j++) {
+                assertEquals(expected.get(j), candidates.getCost(j), 1e-9);
+            }
+        }
+    }
+
+    private QueuedPlayer createPlayer(double rating, double rd, double lat, double lon) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlayerProfile profile = new PlayerProfile();
+        profile.setUser(user);
+        profile.setGlickoRating(rating);
+        profile.setRatingDeviation((float) rd);
+        return new QueuedPlayer(profile, lat, lon);
+    }
+}
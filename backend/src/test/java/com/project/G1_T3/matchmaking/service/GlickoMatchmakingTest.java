@@ -10,6 +10,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.project.G1_T3.common.geo.GeoPoint;
+import com.project.G1_T3.common.geo.GeoRadius;
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 
@@ -40,11 +42,13 @@ class GlickoMatchmakingTest {
         QueuedPlayer player1 = new QueuedPlayer(player1Profile, 0.0, 0.0);
         QueuedPlayer player2 = new QueuedPlayer(player2Profile, 0.0, 0.001);
 
-        when(locationService.calculateDistance(eq(0.0), eq(0.0), eq(0.0), eq(0.001)))
-                .thenReturn(1.0); // 1km distance
+        when(locationService.isWithinDistance(eq(player1.getLocation()), eq(player2.getLocation()),
+                any(GeoRadius.class)))
+                .thenReturn(true); // Within 2km
 
         assertTrue(matchmaking.isGoodMatch(player1, player2));
-        verify(locationService).calculateDistance(0.0, 0.0, 0.0, 0.001);
+        verify(locationService).isWithinDistance(eq(player1.getLocation()), eq(player2.getLocation()),
+                argThat(radius -> radius.getKm() == matchmaking.getMaxDistanceKm()));
     }
 
     @Test
@@ -60,11 +64,28 @@ class GlickoMatchmakingTest {
         QueuedPlayer player1 = new QueuedPlayer(player1Profile, 0.0, 0.0);
         QueuedPlayer player2 = new QueuedPlayer(player2Profile, 1.0, 1.0);
 
-        when(locationService.calculateDistance(eq(0.0), eq(0.0), eq(1.0), eq(1.0)))
-                .thenReturn(5.0); // 5km distance
+        assertFalse(matchmaking.isGoodMatch(player1, player2));
+        // The rating windows already rule the pair out, so the locations are never compared
+        verifyNoInteractions(locationService);
+    }
+
+    @Test
+    void testIsGoodMatch_TooFarApart() {
+        PlayerProfile player1Profile = new PlayerProfile();
+        player1Profile.setGlickoRating(1500);
+        player1Profile.setRatingDeviation(50);
+
+        PlayerProfile player2Profile = new PlayerProfile();
+        player2Profile.setGlickoRating(1500);
+        player2Profile.setRatingDeviation(50);
+
+        QueuedPlayer player1 = new QueuedPlayer(player1Profile, 0.0, 0.0);
+        QueuedPlayer player2 = new QueuedPlayer(player2Profile, 1.0, 1.0);
+
+        when(locationService.isWithinDistance(any(GeoPoint.class), any(GeoPoint.class), any(GeoRadius.class)))
+                .thenReturn(false);
 
         assertFalse(matchmaking.isGoodMatch(player1, player2));
-        verify(locationService).calculateDistance(0.0, 0.0, 1.0, 1.0);
     }
 
     @Test
@@ -82,4 +103,4 @@ class GlickoMatchmakingTest {
         assertThrows(NullPointerException.class, () -> matchmaking.isGoodMatch(player, null));
         assertThrows(NullPointerException.class, () -> matchmaking.isGoodMatch(null, player));
     }
-}
\ No newline at end of file
+}
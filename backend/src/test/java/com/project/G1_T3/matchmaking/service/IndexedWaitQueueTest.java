@@ -0,0 +1,177 @@
+package com.project.G1_T3.matchmaking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class IndexedWaitQueueTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private IndexedWaitQueue<Entry> queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new IndexedWaitQueue<>();
+    }
+
+    @Test
+    void testFirst_ReturnsEarliestJoiner() {
+        Entry late = new Entry(30);
+        Entry early = new Entry(10);
+        Entry middle = new Entry(20);
+        queue.add(late);
+        queue.add(early);
+        queue.add(middle);
+
+        assertSame(early, queue.first(entry -> true));
+        assertSame(middle, queue.first(entry -> entry != early));
+        assertNull(queue.first(entry -> false));
+    }
+
+    @Test
+    void testAddTwiceKeepsOneEntry() {
+        Entry entry = new Entry(10);
+        queue.add(entry);
+        queue.add(entry);
+
+        assertEquals(1, queue.size());
+        assertTrue(entry.isQueued());
+    }
+
+    @Test
+    void testRemove() {
+        Entry entry = new Entry(10);
+        queue.add(entry);
+
+        assertTrue(queue.remove(entry));
+        assertFalse(queue.remove(entry));
+        assertFalse(entry.isQueued());
+        assertEquals(0, queue.size());
+        assertNull(queue.first(e -> true));
+    }
+
+    @Test
+    void testRandomAddsAndRemovesKeepJoinOrder() {
+        Random random = new Random(7);
+        List<Entry> queued = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (!queued.isEmpty() && random.nextInt(3) == 0) {
+                Entry removed = queued.remove(random.nextInt(queued.size()));
+                assertTrue(queue.remove(removed));
+            } else {
+                Entry entry = new Entry(random.nextInt(1_000_000));
+                queued.add(entry);
+                queue.add(entry);
+            }
+        }
+        queued.sort(Comparator.comparingLong(entry -> entry.millis));
+
+        assertEquals(queued.size(), queue.size());
+        assertEquals(millisOf(queued), millisOf(walk()));
+    }
+
+    @Test
+    void testCursorVisitsEveryoneInJoinOrder() {
+        Random random = new Random(8);
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Entry entry = new Entry(random.nextInt(10_000));
+            entries.add(entry);
+            queue.add(entry);
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.millis));
+
+        assertEquals(millisOf(entries), millisOf(walk()));
+        // The walk leaves the queue as it was
+        assertEquals(500, queue.size());
+        assertEquals(millisOf(entries), millisOf(walk()));
+    }
+
+    @Test
+    void testCursorReachesEveryRemainingEntryWhileQueueChanges() {
+        Random random = new Random(9);
+        List<Entry> queued = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Entry entry = new Entry(random.nextInt(100_000));
+            queued.add(entry);
+            queue.add(entry);
+        }
+
+        Set<Entry> visited = new HashSet<>();
+        Set<Entry> removed = new HashSet<>();
+        try (IndexedWaitQueue<Entry>.Cursor cursor = queue.cursor()) {
+            for (Entry entry = cursor.next(); entry != null; entry = cursor.next()) {
+                assertTrue(visited.add(entry), "visited twice");
+                assertFalse(removed.contains(entry), "visited after removal");
+                // Remove a few entries, which may sit in the frontier, and let a few more join
+                for (int j = 0; j < 2 && !queued.isEmpty(); j++) {
+                    Entry gone = queued.remove(random.nextInt(queued.size()));
+                    if (!visited.contains(gone)) {
+                        removed.add(gone);
+                    }
+                    queue.remove(gone);
+                }
+                if (random.nextBoolean()) {
+                    Entry joined = new Entry(random.nextInt(100_000));
+                    queued.add(joined);
+                    queue.add(joined);
+                }
+            }
+        }
+
+        for (Entry entry : queued) {
+            assertTrue(visited.contains(entry), "entry still queued was never visited");
+        }
+    }
+
+    @Test
+    void testSecondCursorThrowsUntilFirstIsClosed() {
+        queue.add(new Entry(10));
+        IndexedWaitQueue<Entry>.Cursor cursor = queue.cursor();
+
+        assertThrows(IllegalStateException.class, queue::cursor);
+
+        cursor.close();
+        try (IndexedWaitQueue<Entry>.Cursor next = queue.cursor()) {
+            assertNotNull(next.next());
+        }
+    }
+
+    private List<Entry> walk() {
+        List<Entry> visited = new ArrayList<>();
+        try (IndexedWaitQueue<Entry>.Cursor cursor = queue.cursor()) {
+            for (Entry entry = cursor.next(); entry != null; entry = cursor.next()) {
+                visited.add(entry);
+            }
+        }
+        return visited;
+    }
+
+    private static List<Long> millisOf(List<Entry> entries) {
+        List<Long> millis = new ArrayList<>();
+        for (Entry entry : entries) {
+            millis.add(entry.millis);
+        }
+        return millis;
+    }
+
+    private static class Entry extends IndexedWaitQueue.Node {
+        final long millis;
+
+        Entry(long millis) {
+            super(START.plusMillis(millis));
+            this.millis = millis;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.project.G1_T3.matchmaking.service;
 
+import com.project.G1_T3.common.exception.LocationServiceException;
+import com.project.G1_T3.common.geo.GeoPoint;
+import com.project.G1_T3.common.geo.GeoRadius;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.context.ActiveProfiles;
@@ -47,4 +50,26 @@ class LocationServiceImplTest {
         double distance = locationService.calculateDistance(90, 0, -90, 0);
         assertEquals(20015, distance, 1);
     }
+
+    @Test
+    void calculateDistance_notANumber_shouldThrow() {
+        assertThrows(LocationServiceException.class, () -> locationService.calculateDistance(Double.NaN, 0, 0, 0));
+    }
+
+    @Test
+    void calculateDistance_locations_shouldMatchCoordinates() {
+        double distance = locationService.calculateDistance(new GeoPoint(40.7128, -74.0060),
+                new GeoPoint(34.0522, -118.2437));
+        assertEquals(locationService.calculateDistance(40.7128, -74.0060, 34.0522, -118.2437), distance, 1e-9);
+    }
+
+    @Test
+    void isWithinDistance_shouldCompareAgainstRadius() {
+        GeoPoint marinaBay = new GeoPoint(1.2834, 103.8607);
+        GeoPoint rafflesPlace = new GeoPoint(1.2840, 103.8514);
+        GeoPoint changi = new GeoPoint(1.3644, 103.9915);
+
+        assertTrue(locationService.isWithinDistance(marinaBay, rafflesPlace, new GeoRadius(2.0)));
+        assertFalse(locationService.isWithinDistance(marinaBay, changi, new GeoRadius(2.0)));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class MappedQueueJournalTest {
+
+    private static final int LOG_CAPACITY = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecover_ReplaysJoinsLeavesAndMatches() {
+        MappedQueueJournal journal = new MappedQueueJournal(directory, LOG_CAPACITY);
+        QueuedPlayer staying = createPlayer(1);
+        QueuedPlayer leaving = createPlayer(2);
+        QueuedPlayer matched = createPlayer(3);
+        QueuedPlayer opponent = createPlayer(4);
+        for (QueuedPlayer player : List.of(staying, leaving, matched, opponent)) {
+            journal.recordJoin(player);
+        }
+        journal.recordLeave(leaving.getUserId());
+        journal.recordMatch(matched.getUserId(), opponent.getUserId());
+        journal.close();
+
+        List<QueuedPlayer> recovered = new MappedQueueJournal(directory, LOG_CAPACITY).recover();
+
+        assertEquals(1, recovered.size());
+        QueuedPlayer player = recovered.get(0);
+        assertEquals(staying, player);
+        assertEquals(staying.getProfileId(), player.getProfileId());
+        assertEquals(staying.getGlickoRating(), player.getGlickoRating());
+        assertEquals(staying.getLatitude(), player.getLatitude());
+        assertEquals(staying.getJoinTime(), player.getJoinTime());
+    }
+
+    @Test
+    void testRecord_IgnoresJoinForPlayerAlreadyQueued() {
+        MappedQueueJournal journal = new MappedQueueJournal(directory, LOG_CAPACITY);
+        QueuedPlayer player = createPlayer(1);
+        QueuedPlayer rejected = new QueuedPlayer(player.getUserId(), player.getProfileId(), 1500, 100, 0.06, 0,
+                10, 10, Instant.now());
+        journal.recordJoin(player);
+        journal.recordJoin(rejected);
+
+        List<QueuedPlayer> recovered = journal.recover();
+
+        assertEquals(1, recovered.size());
+        assertEquals(player.getLatitude(), recovered.get(0).getLatitude());
+    }
+
+    @Test
+    void testRecord_CompactsWhenLogIsFull() {
+        // Room for a few records only, the rest has to go through snapshots
+        MappedQueueJournal journal = new MappedQueueJournal(directory, 512);
+        List<QueuedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            QueuedPlayer player = createPlayer(i);
+            players.add(player);
+            journal.recordJoin(player);
+        }
+        for (int i = 0; i < 50; i += 2) {
+            journal.recordLeave(players.get(i).getUserId());
+        }
+        journal.close();
+
+        List<QueuedPlayer> recovered = new MappedQueueJournal(directory, 512).recover();
+
+        assertEquals(25, recovered.size());
+        for (QueuedPlayer player : recovered) {
+            assertEquals(1, players.indexOf(player) % 2);
+        }
+    }
+
+    @Test
+    void testRecover_SurvivesRepeatedRestarts() {
+        MappedQueueJournal journal = new MappedQueueJournal(directory, LOG_CAPACITY);
+        journal.recordJoin(createPlayer(1));
+        journal.close();
+
+        assertEquals(1, new MappedQueueJournal(directory, LOG_CAPACITY).recover().size());
+        MappedQueueJournal restarted = new MappedQueueJournal(directory, LOG_CAPACITY);
+        assertEquals(1, restarted.recover().size());
+        restarted.recordJoin(createPlayer(2));
+        restarted.close();
+        assertEquals(2, new MappedQueueJournal(directory, LOG_CAPACITY).recover().size());
+    }
+
+    @Test
+    void testRecover_IgnoresWhatIsLeftOfATornRecord() throws Exception {
+        MappedQueueJournal journal = new MappedQueueJournal(directory, LOG_CAPACITY);
+        QueuedPlayer player = createPlayer(1);
+        journal.recordJoin(player);
+        journal.recover();
+        journal.close();
+
+        // A record torn by a crash: no type byte, and a body that happens to hold a leave for the player
+        ByteBuffer torn = ByteBuffer.allocate(1 + 16);
+        torn.put((byte) 2);
+        torn.putLong(player.getUserId().getMostSignificantBits());
+        torn.putLong(player.getUserId().getLeastSignificantBits());
+        torn.flip();
+        try (FileChannel log = FileChannel.open(directory.resolve("queue.log"), StandardOpenOption.WRITE)) {
+            log.write(torn, 1 + 16);
+        }
+
+        // A shorter record is written over the start of the torn one
+        MappedQueueJournal restarted = new MappedQueueJournal(directory, LOG_CAPACITY);
+        restarted.recordLeave(UUID.randomUUID());
+        restarted.close();
+
+        List<QueuedPlayer> recovered = new MappedQueueJournal(directory, LOG_CAPACITY).recover();
+        assertEquals(List.of(player), recovered);
+    }
+
+    @Test
+    void testRecover_HundredThousandPlayers() {
+        journalPlayers(100_000);
+
+        List<QueuedPlayer> recovered = new MappedQueueJournal(directory, 16 * LOG_CAPACITY).recover();
+
+        assertEquals(100_000, recovered.size());
+    }
+
+    /**
+     * Wall-clock check of the recovery time, only run in the {@code loadtest}
+     * profile: {@code mvn -Ploadtest test}.
+     */
+    @Tag("LoadTest")
+    @Test
+    void testRecover_HundredThousandPlayersWithinASecond() {
+        journalPlayers(100_000);
+
+        long start = System.nanoTime();
+        List<QueuedPlayer> recovered = new MappedQueueJournal(directory, 16 * LOG_CAPACITY).recover();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(100_000, recovered.size());
+        assertTrue(elapsedMs < 1000, "Recovery took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testQueue_RecoversPlayersOnStartup() {
+        MatchmakingStrategyRegistry strategies = new MatchmakingStrategyRegistry(
+                List.of(new GlickoMatchmaking(new LocationServiceImpl())), "glicko");
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        ReflectionTestUtils.setField(queue, "journal", new MappedQueueJournal(directory, LOG_CAPACITY));
+        PlayerProfile first = createProfile(1500);
+        PlayerProfile second = createProfile(1500);
+        PlayerProfile third = createProfile(1900);
+        queue.addPlayer(first, 1.3521, 103.8198);
+        queue.addPlayer(second, 1.3521, 103.8198);
+        queue.addPlayer(third, 1.3521, 103.8198);
+        assertNotNull(queue.findMatch(queue.getPlayer(first.getUser().getUserId())));
+
+        PlayerQueueImpl restarted = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        ReflectionTestUtils.setField(restarted, "journal", new MappedQueueJournal(directory, LOG_CAPACITY));
+        restarted.recover();
+
+        assertEquals(1, restarted.size());
+        assertTrue(restarted.containsPlayer(third.getUser().getUserId()));
+    }
+
+    @Test
+    void testQueue_LeaveRacingAJoinIsRecordedAfterIt() throws Exception {
+        MappedQueueJournal mapped = new MappedQueueJournal(directory, 16 * LOG_CAPACITY);
+        // A slow journal widens the gap between a player becoming visible and their join being recorded
+        QueueJournal journal = new QueueJournal() {
+            @Override
+            public void recordJoin(QueuedPlayer player) {
+                Thread.yield();
+                mapped.recordJoin(player);
+            }
+
+            @Override
+            public void recordLeave(UUID userId) {
+                mapped.recordLeave(userId);
+            }
+        };
+        MatchmakingStrategyRegistry strategies = new MatchmakingStrategyRegistry(
+                List.of(new GlickoMatchmaking(new LocationServiceImpl())), "glicko");
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        ReflectionTestUtils.setField(queue, "journal", journal);
+        List<PlayerProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            profiles.add(createProfile(1500));
+        }
+
+        // Every player joins and is removed the moment the queue has them
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> joins = executor.submit(() -> {
+            for (PlayerProfile profile : profiles) {
+                queue.addPlayer(profile, 1.3521, 103.8198);
+            }
+        });
+        Future<?> leaves = executor.submit(() -> {
+            for (PlayerProfile profile : profiles) {
+                while (!queue.removePlayer(profile.getUser().getUserId())) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        joins.get(60, TimeUnit.SECONDS);
+        leaves.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        mapped.close();
+
+        PlayerQueueImpl restarted = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        ReflectionTestUtils.setField(restarted, "journal", new MappedQueueJournal(directory, 16 * LOG_CAPACITY));
+        restarted.recover();
+
+        // Everyone left, so nobody may come back
+        assertEquals(0, queue.size());
+        assertEquals(0, restarted.size());
+    }
+
+    private void journalPlayers(int count) {
+        MappedQueueJournal journal = new MappedQueueJournal(directory, 16 * LOG_CAPACITY);
+        for (int i = 0; i < count; i++) {
+            journal.recordJoin(createPlayer(i));
+        }
+        journal.close();
+    }
+
+    private QueuedPlayer createPlayer(long seed) {
+        Random random = new Random(seed);
+        return new QueuedPlayer(UUID.randomUUID(), UUID.randomUUID(), 1200 + random.nextDouble() * 600,
+                50 + random.nextDouble() * 100, 0.06, 1500, 1.25 + random.nextDouble() * 0.2,
+                103.7 + random.nextDouble() * 0.3, Instant.now());
+    }
+
+    private PlayerProfile createProfile(double rating) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlayerProfile profile = new PlayerProfile();
+        profile.setUser(user);
+        profile.setProfileId(UUID.randomUUID());
+        profile.setGlickoRating(rating);
+        profile.setRatingDeviation(100);
+        return profile;
+    }
+}
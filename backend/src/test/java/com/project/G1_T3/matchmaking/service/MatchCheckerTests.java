@@ -2,25 +2,34 @@ package com.project.G1_T3.matchmaking.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.project.G1_T3.common.model.Status;
 import com.project.G1_T3.match.model.Match;
 import com.project.G1_T3.match.repository.MatchRepository;
-import com.project.G1_T3.matchmaking.model.MatchNotificationDTO;
+import com.project.G1_T3.matchmaking.model.FoundMatch;
+import com.project.G1_T3.matchmaking.model.PlayerQueuedEvent;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
 import com.project.G1_T3.user.model.User;
-import com.project.G1_T3.user.repository.UserRepository;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @ActiveProfiles("test")
 class MatchCheckerTests {
@@ -28,11 +37,11 @@ class MatchCheckerTests {
     @Mock
     private MatchmakingService matchmakingService;
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private MatchNotifier matchNotifier;
     @Mock
-    private PlayerProfileRepository playerProfileRepository;
+    private MatchmakingMetrics metrics;
     @Mock
-    private UserRepository userRepository;
+    private PlayerProfileRepository playerProfileRepository;
     @Mock
     private MatchRepository matchRepository;
 
@@ -41,82 +50,187 @@ class MatchCheckerTests {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        matchChecker = new MatchChecker(matchmakingService, messagingTemplate, playerProfileRepository, userRepository,
+        matchChecker = new MatchChecker(matchmakingService, matchNotifier, metrics, playerProfileRepository,
                 matchRepository);
     }
 
     @Test
     void testCheckForMatches_MatchFound() {
         // Arrange
-        Match match = new Match();
-        UUID player1Id = UUID.randomUUID();
-        UUID player2Id = UUID.randomUUID();
-        UUID user1Id = UUID.randomUUID();
-        UUID user2Id = UUID.randomUUID();
-        match.setPlayer1Id(player1Id);
-        match.setPlayer2Id(player2Id);
-        match.setMatchId(UUID.randomUUID());
-        match.setMeetingLatitude(1.0);
-        match.setMeetingLongitude(1.0);
-
-        // Create and configure User mocks
-        User user1 = mock(User.class);
-        User user2 = mock(User.class);
-        when(user1.getId()).thenReturn(user1Id);
-        when(user2.getId()).thenReturn(user2Id);
-        when(user1.getUsername()).thenReturn("user1");
-        when(user2.getUsername()).thenReturn("user2");
-
-        // Create and configure PlayerProfile mocks
-        PlayerProfile player1Profile = mock(PlayerProfile.class);
-        PlayerProfile player2Profile = mock(PlayerProfile.class);
-        when(player1Profile.getUser()).thenReturn(user1);
-        when(player2Profile.getUser()).thenReturn(user2);
-
-        // Configure repository mocks
-        when(matchmakingService.findMatch()).thenReturn(match);
-        when(playerProfileRepository.findById(player1Id)).thenReturn(Optional.of(player1Profile));
-        when(playerProfileRepository.findById(player2Id)).thenReturn(Optional.of(player2Profile));
+        QueuedPlayer player1 = createQueuedPlayer("user1");
+        QueuedPlayer player2 = createQueuedPlayer("user2");
+        FoundMatch found = createFoundMatch(player1, player2, true);
+        when(matchmakingService.findMatches()).thenReturn(List.of(found));
 
         // Act
         matchChecker.checkForMatches();
 
         // Assert
-        verify(matchmakingService).findMatch();
-        verify(playerProfileRepository).findById(player1Id);
-        verify(playerProfileRepository).findById(player2Id);
-        verify(matchRepository).save(match);
-
-        // Verify messaging template calls with the correct topic paths
-        verify(messagingTemplate).convertAndSend(
-                eq("/topic/solo/match/" + user1Id),
-                any(MatchNotificationDTO.class));
-        verify(messagingTemplate).convertAndSend(
-                eq("/topic/solo/match/" + user2Id),
-                any(MatchNotificationDTO.class));
+        verify(matchmakingService).findMatches();
+        verify(matchRepository).saveAll(List.of(found.getMatch()));
+        assertEquals(Status.IN_PROGRESS, found.getMatch().getStatus());
+
+        // Both players are notified once, from the profiles they joined with
+        verify(matchNotifier, times(1)).notifyPlayers(found.getMatch(), player1, player2);
+        verifyNoInteractions(playerProfileRepository);
     }
 
     @Test
     void testCheckForMatches_NoMatchFound() {
         // Arrange
-        when(matchmakingService.findMatch()).thenReturn(null);
+        when(matchmakingService.findMatches()).thenReturn(List.of());
 
         // Act
         matchChecker.checkForMatches();
 
         // Assert
+        verify(matchRepository, never()).saveAll(any());
+        verify(matchNotifier, never()).notifyPlayers(any(), any(), any());
+        verify(metrics).recordTick(anyLong(), eq(0));
+    }
+
+    @Test
+    void testCheckForMatches_SeveralMatchesFound() {
+        // Arrange
+        List<FoundMatch> matches = List.of(createFoundMatch("a1", "a2"), createFoundMatch("b1", "b2"));
+        when(matchmakingService.findMatches()).thenReturn(matches);
+
+        // Act
+        matchChecker.checkForMatches();
+
+        // Assert
+        verify(matchRepository, times(1)).saveAll(List.of(matches.get(0).getMatch(), matches.get(1).getMatch()));
         verify(matchRepository, never()).save(any());
-        verify(messagingTemplate, never()).convertAndSend(
-                anyString(),
-                any(MatchNotificationDTO.class));
+        verify(matchNotifier, times(2)).notifyPlayers(any(), any(), any());
+        verify(metrics).recordTick(anyLong(), eq(2));
+    }
+
+    @Test
+    void testCheckForMatches_NotifiesOnceTheMeetingPointIsFinal() {
+        // Arrange
+        FoundMatch found = createFoundMatch(createQueuedPlayer("player1"), createQueuedPlayer("player2"), false);
+        when(matchmakingService.findMatches()).thenReturn(List.of(found));
+
+        // Act
+        matchChecker.checkForMatches();
+
+        // Assert
+        verify(matchNotifier, never()).notifyPlayers(any(), any(), any());
+        found.getMatch().setMeetingLatitude(1.2816);
+        found.getMatch().setMeetingLongitude(103.8636);
+        found.getReady().complete(found.getMatch());
+        verify(matchNotifier, times(1)).notifyPlayers(eq(found.getMatch()), any(), any());
     }
 
     @Test
-    void testLogQueueStatus() {
+    void testCheckForMatches_EndedMatchIsNotAnnounced() {
+        // Arrange
+        FoundMatch found = createFoundMatch(createQueuedPlayer("player1"), createQueuedPlayer("player2"), false);
+        when(matchmakingService.findMatches()).thenReturn(List.of(found));
+
+        // Act
+        matchChecker.checkForMatches();
+        found.getReady().complete(null);
+
+        // Assert
+        verify(matchNotifier, never()).notifyPlayers(any(), any(), any());
+    }
+
+    @Test
+    void testCheckForMatches_LoadsProfilesOfRecoveredPlayers() {
+        // Arrange
+        QueuedPlayer joined = createQueuedPlayer("joined");
+        PlayerProfile recoveredProfile = createPlayerProfile("recovered");
+        // Players recovered from the queue journal have no copy of their profile
+        QueuedPlayer recovered = new QueuedPlayer(recoveredProfile.getUser().getUserId(),
+                recoveredProfile.getProfileId(), 1500, 100, 0.06, 0, 1.3521, 103.8198, Instant.now());
+        FoundMatch found = createFoundMatch(joined, recovered, true);
+        when(matchmakingService.findMatches()).thenReturn(List.of(found));
+        when(playerProfileRepository.findAllWithUserByProfileIdIn(Set.of(recoveredProfile.getProfileId())))
+                .thenReturn(List.of(recoveredProfile));
+
+        // Act
+        matchChecker.checkForMatches();
+
+        // Assert
+        ArgumentCaptor<QueuedPlayer> player2 = ArgumentCaptor.forClass(QueuedPlayer.class);
+        verify(matchNotifier).notifyPlayers(eq(found.getMatch()), eq(joined), player2.capture());
+        assertEquals(recovered.getUserId(), player2.getValue().getUserId());
+        assertEquals("recovered", player2.getValue().getProfile().getUsername());
+        verify(playerProfileRepository, times(1)).findAllWithUserByProfileIdIn(any());
+    }
+
+    @Test
+    void testOnPlayerQueued_MatchFound() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        FoundMatch found = createFoundMatch("joining", "waiting");
+        when(matchmakingService.findMatchFor(userId)).thenReturn(found);
+
+        // Act
+        matchChecker.onPlayerQueued(new PlayerQueuedEvent(userId));
+
+        // Assert
+        verify(matchRepository).saveAll(List.of(found.getMatch()));
+        assertEquals(Status.IN_PROGRESS, found.getMatch().getStatus());
+        verify(matchNotifier, times(1)).notifyPlayers(eq(found.getMatch()), any(), any());
+    }
+
+    @Test
+    void testOnPlayerQueued_NoMatchFound() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        when(matchmakingService.findMatchFor(userId)).thenReturn(null);
+
+        // Act
+        matchChecker.onPlayerQueued(new PlayerQueuedEvent(userId));
+
+        // Assert
+        verify(matchRepository, never()).saveAll(any());
+        verify(matchmakingService, never()).findMatches();
+        verify(metrics, never()).recordTick(anyLong(), anyInt());
+    }
+
+    private FoundMatch createFoundMatch(String username1, String username2) {
+        return createFoundMatch(createQueuedPlayer(username1), createQueuedPlayer(username2), true);
+    }
+
+    private FoundMatch createFoundMatch(QueuedPlayer player1, QueuedPlayer player2, boolean ready) {
+        Match match = new Match();
+        match.setMatchId(UUID.randomUUID());
+        match.setPlayer1Id(player1.getProfileId());
+        match.setPlayer2Id(player2.getProfileId());
+        match.setMeetingLatitude(1.0);
+        match.setMeetingLongitude(1.0);
+        return new FoundMatch(match, player1, player2,
+                ready ? CompletableFuture.completedFuture(match) : new CompletableFuture<>());
+    }
+
+    private QueuedPlayer createQueuedPlayer(String username) {
+        return new QueuedPlayer(createPlayerProfile(username), 1.3521, 103.8198);
+    }
+
+    private PlayerProfile createPlayerProfile(String username) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setUsername(username);
+
+        PlayerProfile profile = new PlayerProfile();
+        profile.setProfileId(UUID.randomUUID());
+        profile.setUser(user);
+        return profile;
+    }
+
+    @Test
+    void testRecordQueueDepths() {
+        // Arrange
+        Map<String, Integer> depths = Map.of(PlayerQueue.DEFAULT_REGION, 3, "downtown", 5);
+        when(matchmakingService.getQueueDepthByRegion()).thenReturn(depths);
+
         // Act
-        matchChecker.logQueueStatus();
+        matchChecker.recordQueueDepths();
 
         // Assert
-        verify(matchmakingService).printQueueStatus();
+        verify(metrics).recordQueueDepths(depths);
     }
 }
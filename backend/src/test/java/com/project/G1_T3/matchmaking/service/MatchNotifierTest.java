@@ -0,0 +1,113 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.G1_T3.match.model.Match;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+class MatchNotifierTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MatchNotifier matchNotifier;
+    private Match match;
+    private QueuedPlayer player1;
+    private QueuedPlayer player2;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        matchNotifier = new MatchNotifier(messagingTemplate, new MappingJackson2MessageConverter(), meterRegistry);
+
+        match = new Match();
+        match.setMatchId(UUID.randomUUID());
+        match.setMeetingLatitude(1.2816);
+        match.setMeetingLongitude(103.8636);
+        player1 = createPlayer("alice");
+        player2 = createPlayer("bob");
+    }
+
+    @Test
+    void testNotifyPlayers_SendsEachPlayerTheirOpponent() throws Exception {
+        ArgumentCaptor<String> destinations = ArgumentCaptor.forClass(String.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> messages = ArgumentCaptor.forClass(Message.class);
+
+        matchNotifier.notifyPlayers(match, player1, player2);
+
+        verify(messagingTemplate, times(2)).send(destinations.capture(), messages.capture());
+        assertEquals(List.of(destinationOf(player1), destinationOf(player2)), destinations.getAllValues());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode forAlice = objectMapper.readTree(messages.getAllValues().get(0).getPayload());
+        JsonNode forBob = objectMapper.readTree(messages.getAllValues().get(1).getPayload());
+        assertEquals("bob", forAlice.get("opponentName").asText());
+        assertEquals("alice", forBob.get("opponentName").asText());
+        assertEquals("bob", forAlice.get("opponentProfile").get("firstName").asText());
+        assertEquals(match.getMatchId().toString(), forAlice.get("matchId").asText());
+        assertEquals(1.2816, forAlice.get("meetingLatitude").asDouble());
+        assertEquals(103.8636, forAlice.get("meetingLongitude").asDouble());
+        assertEquals("application/json",
+                messages.getAllValues().get(0).getHeaders().get("contentType").toString());
+    }
+
+    @Test
+    void testNotifyPlayers_TimesEverySend() {
+        matchNotifier.notifyPlayers(match, player1, player2);
+
+        assertEquals(2, meterRegistry.get("matchmaking.notification.send").tag("outcome", "sent").timer().count());
+        assertEquals(0, meterRegistry.get("matchmaking.notification.send").tag("outcome", "failed").timer().count());
+    }
+
+    @Test
+    void testNotifyPlayers_FailedSendDoesNotStopTheOther() {
+        doThrow(new MessageDeliveryException("broker down")).when(messagingTemplate)
+                .send(eq(destinationOf(player1)), any(Message.class));
+
+        matchNotifier.notifyPlayers(match, player1, player2);
+
+        verify(messagingTemplate).send(eq(destinationOf(player2)), any(Message.class));
+        assertEquals(1, meterRegistry.get("matchmaking.notification.send").tag("outcome", "sent").timer().count());
+        assertEquals(1, meterRegistry.get("matchmaking.notification.send").tag("outcome", "failed").timer().count());
+    }
+
+    private static String destinationOf(QueuedPlayer player) {
+        return "/user/" + player.getUserId() + "/queue/solo/match";
+    }
+
+    private QueuedPlayer createPlayer(String username) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setUsername(username);
+        PlayerProfile player = new PlayerProfile();
+        player.setProfileId(UUID.randomUUID());
+        player.setUser(user);
+        player.setFirstName(username);
+        return new QueuedPlayer(player, 1.2816, 103.8636);
+    }
+}
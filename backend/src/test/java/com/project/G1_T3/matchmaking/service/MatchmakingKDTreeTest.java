@@ -1,13 +1,23 @@
 package com.project.G1_T3.matchmaking.service;
 
+import com.project.G1_T3.common.geo.GeoDistance;
 import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchBand;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 import com.project.G1_T3.user.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,23 +61,60 @@ class MatchmakingKDTreeTest {
         kdTree.insert(player2);
         kdTree.remove(player1);
         assertEquals(1, kdTree.size());
-        assertFalse(kdTree.containsPlayer(player1.getPlayer().getUser().getUserId()));
+        assertFalse(kdTree.containsPlayer(player1.getUserId()));
     }
 
     @Test
     void testContainsPlayer() {
         kdTree.insert(player1);
-        assertTrue(kdTree.containsPlayer(player1.getPlayer().getUser().getUserId()));
-        assertFalse(kdTree.containsPlayer(player2.getPlayer().getUser().getUserId()));
+        assertTrue(kdTree.containsPlayer(player1.getUserId()));
+        assertFalse(kdTree.containsPlayer(player2.getUserId()));
     }
 
     @Test
     void testRemoveByPlayerId() {
         kdTree.insert(player1);
         kdTree.insert(player2);
-        kdTree.removeByPlayerId(player1.getPlayer().getUser().getUserId());
+        kdTree.removeByPlayerId(player1.getUserId());
         assertEquals(1, kdTree.size());
-        assertFalse(kdTree.containsPlayer(player1.getPlayer().getUser().getUserId()));
+        assertFalse(kdTree.containsPlayer(player1.getUserId()));
+    }
+
+    @Test
+    void testRemoveByPlayerId_UnknownPlayer() {
+        kdTree.insert(player1);
+        kdTree.removeByPlayerId(UUID.randomUUID());
+        assertEquals(1, kdTree.size());
+        assertTrue(kdTree.containsPlayer(player1.getUserId()));
+    }
+
+    @Test
+    void testGetPlayer() {
+        kdTree.insert(player1);
+        kdTree.insert(player2);
+        assertSame(player2, kdTree.getPlayer(player2.getUserId()));
+        assertNull(kdTree.getPlayer(player3.getUserId()));
+    }
+
+    @Test
+    void testIndexFollowsRemoveAndReinsert() {
+        UUID playerId = player1.getUserId();
+        kdTree.insert(player1);
+        kdTree.insert(player2);
+        kdTree.remove(player1);
+        assertFalse(kdTree.containsPlayer(playerId));
+
+        kdTree.insert(player1);
+        assertTrue(kdTree.containsPlayer(playerId));
+        assertEquals(2, kdTree.size());
+    }
+
+    @Test
+    void testInsertingSamePlayerIdTwiceKeepsOneEntry() {
+        kdTree.insert(player1);
+        kdTree.insert(player1);
+        assertEquals(1, kdTree.size());
+        assertEquals(1, kdTree.getAllPlayers().size());
     }
 
     @Test
@@ -88,4 +135,204 @@ class MatchmakingKDTreeTest {
         assertNotNull(rootPlayer);
         assertEquals(1, kdTree.size());
     }
+
+    @Test
+    void testBulkLoad() {
+        kdTree.insert(player1);
+        kdTree.bulkLoad(List.of(player2, player3));
+
+        assertEquals(3, kdTree.size());
+        assertEquals(2, kdTree.height());
+        assertTrue(kdTree.containsPlayer(player1.getUserId()));
+        assertTrue(kdTree.containsPlayer(player3.getUserId()));
+    }
+
+    @Test
+    void testSortedBurstStaysBalanced() {
+        // Players arriving in rating order used to turn the tree into a linked list
+        for (int i = 0; i < 10_000; i++) {
+            kdTree.insert(createRatedPlayer(1000 + i * 0.1, 100, 1.3521, 103.8198));
+        }
+
+        assertEquals(10_000, kdTree.size());
+        assertTrue(kdTree.height() <= maxBalancedHeight(kdTree.size()),
+                "Height " + kdTree.height() + " exceeds logarithmic bound");
+    }
+
+    @Test
+    void testDepthStaysLogarithmicUnderMixedInsertsAndRemoves() {
+        Random random = new Random(42);
+        List<QueuedPlayer> queued = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            if (queued.isEmpty() || random.nextInt(3) != 0) {
+                QueuedPlayer player = createRatedPlayer(1000 + i * 0.01, 50 + random.nextInt(300),
+                        1.3521 + random.nextGaussian() * 0.05, 103.8198 + random.nextGaussian() * 0.05);
+                kdTree.insert(player);
+                queued.add(player);
+            } else {
+                int index = random.nextInt(queued.size());
+                QueuedPlayer player = queued.get(index);
+                queued.set(index, queued.get(queued.size() - 1));
+                queued.remove(queued.size() - 1);
+                kdTree.remove(player);
+            }
+        }
+
+        assertEquals(queued.size(), kdTree.size());
+        assertEquals(queued.size(), kdTree.getAllPlayers().size());
+        for (QueuedPlayer player : queued) {
+            assertSame(player, kdTree.getPlayer(player.getUserId()));
+        }
+        assertTrue(kdTree.height() <= maxBalancedHeight(kdTree.size()),
+                "Height " + kdTree.height() + " exceeds logarithmic bound");
+
+        // Queries still see exactly the players that are left
+        QueuedPlayer target = queued.get(0);
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = kdTree.findKNearest(target, 1e9, 1e9, 1e9,
+                queued.size());
+        assertEquals(queued.size(), nearest.size());
+    }
+
+    @Test
+    void testFindKNearest_LocationWindowIsInKilometres() {
+        SearchCriteria criteria = new SearchCriteria(300, 100, 2.0);
+        QueuedPlayer target = createRatedPlayer(1500, 100, 1.3521, 103.8198);
+        // About 1.5 km and 3 km due north of the target
+        QueuedPlayer near = createRatedPlayer(1500, 100, 1.3521 + 1.5 / 111.195, 103.8198);
+        QueuedPlayer far = createRatedPlayer(1500, 100, 1.3521 + 3.0 / 111.195, 103.8198);
+        kdTree.insert(near);
+        kdTree.insert(far);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = kdTree.findKNearest(target, criteria, 5);
+
+        assertEquals(1, nearest.size());
+        assertSame(near, nearest.peek().getKey());
+    }
+
+    @Test
+    void testFindKNearest_RatingAxisIsPrunedByRatingWindow() {
+        SearchCriteria criteria = new SearchCriteria(300, 100, 2.0);
+        QueuedPlayer target = createRatedPlayer(1500, 100, 1.3521, 103.8198);
+        // The root splits on rating, the only acceptable player sits on the far side of it
+        kdTree.insert(createRatedPlayer(1600, 100, 51.5074, -0.1278));
+        QueuedPlayer candidate = createRatedPlayer(1700, 100, 1.3521, 103.8198);
+        kdTree.insert(candidate);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = kdTree.findKNearest(target, criteria, 5);
+
+        assertEquals(1, nearest.size());
+        assertSame(candidate, nearest.peek().getKey());
+    }
+
+    @Test
+    void testFindKNearest_BandSkipsPlayersAlreadySearched() {
+        SearchCriteria searched = new SearchCriteria(300, 100, 2.0);
+        SearchCriteria widened = new SearchCriteria(450, 150, 3.0);
+        QueuedPlayer target = createRatedPlayer(1500, 100, 1.3521, 103.8198);
+        QueuedPlayer seen = createRatedPlayer(1550, 100, 1.3521, 103.8198);
+        QueuedPlayer ratingBand = createRatedPlayer(1900, 100, 1.3521, 103.8198);
+        QueuedPlayer distanceBand = createRatedPlayer(1500, 100, 1.3521 + 2.5 / 111.195, 103.8198);
+        kdTree.insert(seen);
+        kdTree.insert(ratingBand);
+        kdTree.insert(distanceBand);
+        long watermark = kdTree.watermark();
+        QueuedPlayer joinedLater = createRatedPlayer(1500, 100, 1.3521, 103.8198);
+        kdTree.insert(joinedLater);
+
+        PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = kdTree.findKNearest(target,
+                new SearchBand(widened, searched, watermark), 5);
+
+        assertEquals(3, nearest.size());
+        for (Map.Entry<QueuedPlayer, Double> entry : nearest) {
+            assertNotSame(seen, entry.getKey());
+        }
+        assertEquals(4, kdTree.findKNearest(target, new SearchBand(widened), 5).size());
+    }
+
+    @Test
+    void testFindKNearest_FindsPlayersAcrossTheAntimeridian() {
+        Random random = new Random(11);
+        SearchCriteria criteria = new SearchCriteria(300, 100, 5.0);
+        List<QueuedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Within about 11 km either side of longitude 180
+            double longitude = 180 - random.nextDouble() * 0.1;
+            QueuedPlayer player = createRatedPlayer(1500, 100, random.nextGaussian() * 0.02,
+                    random.nextBoolean() ? longitude : -longitude);
+            players.add(player);
+            kdTree.insert(player);
+        }
+
+        for (QueuedPlayer target : List.of(createRatedPlayer(1500, 100, 0, 179.99),
+                createRatedPlayer(1500, 100, 0, -179.99))) {
+            Set<QueuedPlayer> found = new HashSet<>();
+            kdTree.findKNearest(target, criteria, players.size()).forEach(entry -> found.add(entry.getKey()));
+
+            int acrossTheLine = 0;
+            for (QueuedPlayer player : players) {
+                double distance = GeoDistance.haversineKm(target.getLatitude(), target.getLongitude(),
+                        player.getLatitude(), player.getLongitude());
+                assertEquals(distance <= 5.0, found.contains(player), "Player " + distance + " km away");
+                if (distance <= 5.0 && Math.signum(player.getLongitude()) != Math.signum(target.getLongitude())) {
+                    acrossTheLine++;
+                }
+            }
+            assertTrue(acrossTheLine > 0, "Some players should be on the other side of the antimeridian");
+        }
+    }
+
+    @Test
+    void testFindKNearest_MatchesBruteForce() {
+        Random random = new Random(7);
+        SearchCriteria criteria = new SearchCriteria(300, 100, 2.0);
+        List<QueuedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            QueuedPlayer player = createRatedPlayer(1500 + random.nextGaussian() * 300, 50 + random.nextInt(300),
+                    1.3521 + random.nextGaussian() * 0.03, 103.8198 + random.nextGaussian() * 0.03);
+            players.add(player);
+            kdTree.insert(player);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            QueuedPlayer target = players.get(random.nextInt(players.size()));
+            List<Double> expected = new ArrayList<>();
+            Set<QueuedPlayer> acceptable = new HashSet<>();
+            for (QueuedPlayer player : players) {
+                double ratingDiff = Math.abs(target.getGlickoRating() - player.getGlickoRating());
+                double rdDiff = Math.abs(target.getGlickoRD() - player.getGlickoRD());
+                double distance = GeoDistance.haversineKm(target.getLatitude(), target.getLongitude(),
+                        player.getLatitude(), player.getLongitude());
+                if (criteria.accepts(ratingDiff, rdDiff, distance)) {
+                    expected.add(criteria.cost(ratingDiff, rdDiff, distance));
+                    acceptable.add(player);
+                }
+            }
+            expected.sort(Comparator.naturalOrder());
+
+            PriorityQueue<Map.Entry<QueuedPlayer, Double>> nearest = kdTree.findKNearest(target, criteria, 5);
+            assertEquals(Math.min(5, expected.size()), nearest.size());
+            if (!nearest.isEmpty()) {
+                assertEquals(expected.get(nearest.size() - 1), nearest.peek().getValue(), 1e-9);
+            }
+            for (Map.Entry<QueuedPlayer, Double> entry : nearest) {
+                assertTrue(acceptable.contains(entry.getKey()));
+            }
+        }
+    }
+
+    private int maxBalancedHeight(int size) {
+        // Scapegoat bound with ALPHA = 0.7 is about 2 * log2(n), plus slack for removed nodes
+        return 2 * (int) Math.ceil(Math.log(size + 1) / Math.log(2)) + 2;
+    }
+
+    private QueuedPlayer createRatedPlayer(double rating, double rd, double lat, double lon) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlayerProfile profile = new PlayerProfile();
+        profile.setUser(user);
+        profile.setGlickoRating(rating);
+        profile.setRatingDeviation((float) rd);
+        return new QueuedPlayer(profile, lat, lon);
+    }
 }
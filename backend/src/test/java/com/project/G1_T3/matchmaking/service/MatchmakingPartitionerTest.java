@@ -0,0 +1,103 @@
+package com.project.G1_T3.matchmaking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class MatchmakingPartitionerTest {
+
+    private static final int SAMPLES = 30_000;
+
+    @Test
+    void testOwnerOf_SingleNodeOwnsEverything() {
+        MatchmakingPartitioner partitioner = new MatchmakingPartitioner("local", Map.of(), 200);
+
+        assertFalse(partitioner.isClustered());
+        assertTrue(partitioner.isLocal(1.3521, 103.8198));
+        assertTrue(partitioner.isLocal(-33.8688, 151.2093));
+        assertTrue(partitioner.getRemoteNodeIds().isEmpty());
+    }
+
+    @Test
+    void testOwnerOf_NearbyPlayersShareAnOwner() {
+        MatchmakingPartitioner partitioner = new MatchmakingPartitioner("a", nodes("a", "b", "c"), 200);
+
+        // A few kilometres apart, well inside one partition
+        assertEquals(partitioner.ownerOf(1.30, 103.80), partitioner.ownerOf(1.35, 103.85));
+    }
+
+    @Test
+    void testOwnerOf_SpreadsPartitionsEvenly() {
+        MatchmakingPartitioner partitioner = new MatchmakingPartitioner("a", nodes("a", "b", "c"), 200);
+        Map<String, Integer> counts = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            String owner = partitioner.ownerOf(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+            counts.merge(owner, 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > SAMPLES / 4 && count < SAMPLES / 2, "Unbalanced partitions: " + counts);
+        }
+    }
+
+    @Test
+    void testOwnerOf_RemovingANodeOnlyMovesItsPartitions() {
+        MatchmakingPartitioner before = new MatchmakingPartitioner("a", nodes("a", "b", "c"), 200);
+        MatchmakingPartitioner after = new MatchmakingPartitioner("a", nodes("a", "b"), 200);
+        Random random = new Random(7);
+        for (int i = 0; i < SAMPLES; i++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            String owner = before.ownerOf(latitude, longitude);
+            if (!owner.equals("c")) {
+                assertEquals(owner, after.ownerOf(latitude, longitude));
+            }
+        }
+    }
+
+    @Test
+    void testRemoteNodeIds_ExcludesLocalNode() {
+        MatchmakingPartitioner partitioner = new MatchmakingPartitioner("b", nodes("a", "b", "c"), 200);
+
+        assertTrue(partitioner.isClustered());
+        assertEquals(List.of("a", "c"), partitioner.getRemoteNodeIds());
+        assertEquals("http://a:8080", partitioner.getBaseUrl("a"));
+        assertNull(partitioner.getBaseUrl("d"));
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MatchmakingPartitioner("d", nodes("a", "b"), 200));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MatchmakingPartitioner("a", nodes("a"), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MatchmakingPartitioner("a", "a=http://a:8080,b", 200));
+    }
+
+    @Test
+    void testConstructor_ParsesNodeList() {
+        MatchmakingPartitioner partitioner = new MatchmakingPartitioner("a",
+                " a=http://a:8080 , b=http://b:8080,", 200);
+
+        assertEquals(List.of("b"), partitioner.getRemoteNodeIds());
+        assertEquals("http://b:8080", partitioner.getBaseUrl("b"));
+    }
+
+    private Map<String, String> nodes(String... ids) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String id : ids) {
+            nodes.put(id, "http://" + id + ":8080");
+        }
+        return nodes;
+    }
+}
@@ -2,26 +2,33 @@ package com.project.G1_T3.matchmaking.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
+import com.project.G1_T3.common.exception.MeetingPointNotFoundException;
 import com.project.G1_T3.common.exception.PlayerAlreadyInQueueException;
 import com.project.G1_T3.common.exception.PlayerNotFoundException;
 import com.project.G1_T3.match.model.Match;
 import com.project.G1_T3.match.model.MatchDTO;
-import com.project.G1_T3.matchmaking.model.MatchNotification;
+import com.project.G1_T3.matchmaking.model.FoundMatch;
+import com.project.G1_T3.matchmaking.model.PlayerQueuedEvent;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
 import com.project.G1_T3.match.service.MatchService;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
-import com.project.G1_T3.playerprofile.service.PlayerProfileService;
 import com.project.G1_T3.user.model.User;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @ActiveProfiles("test")
 class MatchmakingServiceImplTests {
@@ -32,18 +39,10 @@ class MatchmakingServiceImplTests {
     @Mock
     private MeetingPointService meetingPointService;
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
-    @Mock
     private MatchService matchService;
 
-    @Mock
-    private PlayerProfileService playerProfileService;
-
     private MatchmakingServiceImpl matchmakingService;
 
-    @Mock
-    private PlayerProfile mockOpponentProfile;
-
     private PlayerQueue playerQueue;
 
     @Mock
@@ -52,24 +51,35 @@ class MatchmakingServiceImplTests {
     @Mock
     private GlickoMatchmaking glickoMatchmaking;
 
+    private MatchmakingStrategyRegistry strategyRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         MatchmakingKDTree kdTree = new MatchmakingKDTree();
-        playerQueue = new PlayerQueueImpl(kdTree, glickoMatchmaking);
-
-        // Inject the mocked GlickoMatchmaking into PlayerQueueImpl
-        glickoMatchmaking = mock(GlickoMatchmaking.class);
-        ((PlayerQueueImpl) playerQueue).glickoMatchmaking = glickoMatchmaking;
 
         // Set up GlickoMatchmaking methods
+        when(glickoMatchmaking.getName()).thenReturn("glicko");
         when(glickoMatchmaking.getMaxRatingDiff()).thenReturn(1000.0);
         when(glickoMatchmaking.getMaxDeviationDiff()).thenReturn(1000.0);
         when(glickoMatchmaking.getMaxDistanceKm()).thenReturn(1000.0);
+        when(glickoMatchmaking.getSearchCriteria()).thenReturn(new SearchCriteria(1000.0, 1000.0, 1000.0));
+        when(glickoMatchmaking.getIndexCriteria(any())).thenAnswer(invocation -> invocation.getArgument(0));
         when(glickoMatchmaking.isGoodMatch(any(), any())).thenReturn(true);
+        when(glickoMatchmaking.isGoodMatch(any(), any(), any())).thenReturn(true);
 
-        matchmakingService = new MatchmakingServiceImpl(meetingPointService, matchService,
-                messagingTemplate, playerProfileService, playerQueue);
+        // The queue resolves every player to the mocked GlickoMatchmaking
+        strategyRegistry = spy(new MatchmakingStrategyRegistry(List.of(glickoMatchmaking), "glicko"));
+        playerQueue = new PlayerQueueImpl(kdTree, strategyRegistry);
+
+        // Meeting points are looked up on the calling thread
+        MeetingPointResolver meetingPointResolver = new MeetingPointResolver(meetingPointService, Runnable::run,
+                matchService, 1000, 0, 100);
+        matchmakingService = new MatchmakingServiceImpl(meetingPointResolver, matchService, playerQueue,
+                eventPublisher);
     }
 
     @Test
@@ -121,82 +131,166 @@ class MatchmakingServiceImplTests {
     }
 
     @Test
-    void testFindMatch_MatchFound() {
-        // Set up player 1
-        PlayerProfile player1 = new PlayerProfile();
-        User user1 = new User();
-        UUID player1UserId = UUID.randomUUID();
-        UUID player1ProfileId = UUID.randomUUID();
-        user1.setUserId(player1UserId);
-        player1.setUser(user1);
-        player1.setProfileId(player1ProfileId);
-        player1.setGlickoRating(1500);
-        player1.setRatingDeviation(200);
-
-        // Set up player 2
-        PlayerProfile player2 = new PlayerProfile();
-        User user2 = new User();
-        UUID player2UserId = UUID.randomUUID();
-        UUID player2ProfileId = UUID.randomUUID();
-        user2.setUserId(player2UserId);
-        player2.setUser(user2);
-        player2.setProfileId(player2ProfileId);
-        player2.setGlickoRating(1500);
-        player2.setRatingDeviation(200);
-
-        // Add players to queue
-        matchmakingService.addPlayerToQueue(player1, 0, 0);
-        matchmakingService.addPlayerToQueue(player2, 0, 0);
-
-        // Mock meeting point service
-        double[] meetingPoint = new double[] { 42.3601, -71.0589 }; // Example coordinates
-        when(meetingPointService.findMeetingPoint(any(), any())).thenReturn(meetingPoint);
-
-        // Create and configure mock match
+    void testFindMatches_PairsEveryCompatiblePlayer() {
+        for (int i = 0; i < 6; i++) {
+            matchmakingService.addPlayerToQueue(createPlayer(1500 + i * 10), 0, 0);
+        }
+        when(meetingPointService.findMeetingPoint(anyDouble(), anyDouble())).thenReturn(new double[] { 0, 0 });
+        when(matchService.createMatches(anyList())).thenAnswer(invocation -> {
+            List<MatchDTO> matchDTOs = invocation.getArgument(0);
+            return matchDTOs.stream().map(matchDTO -> {
+                Match match = new Match();
+                match.setMatchId(UUID.randomUUID());
+                match.setPlayer1Id(matchDTO.getPlayer1Id());
+                match.setPlayer2Id(matchDTO.getPlayer2Id());
+                return match;
+            }).collect(Collectors.toList());
+        });
+
+        List<FoundMatch> matches = matchmakingService.findMatches();
+
+        assertEquals(3, matches.size());
+        assertEquals(0, playerQueue.size());
+        for (FoundMatch found : matches) {
+            // The queued players come back in the same order as in the match
+            assertEquals(found.getMatch().getPlayer1Id(), found.getPlayer1().getProfileId());
+            assertEquals(found.getMatch().getPlayer2Id(), found.getPlayer2().getProfileId());
+            assertTrue(found.getReady().isDone());
+        }
+        verify(matchService, times(1)).createMatches(anyList());
+        verify(matchService, never()).createMatch(any());
+    }
+
+    @Test
+    void testFindMatches_MeetingPointNotFound_MatchStartsAtMidpoint() {
+        matchmakingService.addPlayerToQueue(createPlayer(1500), 1.0, 103.0);
+        matchmakingService.addPlayerToQueue(createPlayer(1510), 1.2, 103.2);
+        when(meetingPointService.findMeetingPoint(anyDouble(), anyDouble()))
+                .thenThrow(new MeetingPointNotFoundException("No meeting point"));
+        when(matchService.createMatches(anyList())).thenAnswer(invocation -> {
+            List<MatchDTO> matchDTOs = invocation.getArgument(0);
+            MatchDTO matchDTO = matchDTOs.get(0);
+            assertEquals(1.1, matchDTO.getMeetingLatitude(), 1e-9);
+            assertEquals(103.1, matchDTO.getMeetingLongitude(), 1e-9);
+            Match match = new Match();
+            match.setMatchId(UUID.randomUUID());
+            match.setPlayer1Id(matchDTO.getPlayer1Id());
+            match.setPlayer2Id(matchDTO.getPlayer2Id());
+            return List.of(match);
+        });
+
+        List<FoundMatch> matches = matchmakingService.findMatches();
+
+        assertEquals(1, matches.size());
+        assertEquals(0, playerQueue.size());
+        verify(matchService, never()).updateMeetingPoint(any(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testFindMatches_FailedSaveRequeuesPlayers() {
+        for (int i = 0; i < 4; i++) {
+            matchmakingService.addPlayerToQueue(createPlayer(1500 + i * 10), 0, 0);
+        }
+        when(meetingPointService.findMeetingPoint(anyDouble(), anyDouble())).thenReturn(new double[] { 0, 0 });
+        when(matchService.createMatches(anyList())).thenThrow(new IllegalStateException("Database is down"));
+
+        assertThrows(IllegalStateException.class, () -> matchmakingService.findMatches());
+
+        // Every player of the pass is back, not just those of a failing pair
+        assertEquals(4, playerQueue.size());
+    }
+
+    @Test
+    void testFindMatches_RolledBackTransactionRequeuesPlayers() {
+        matchmakingService.addPlayerToQueue(createPlayer(1500), 0, 0);
+        matchmakingService.addPlayerToQueue(createPlayer(1510), 0, 0);
+        when(meetingPointService.findMeetingPoint(anyDouble(), anyDouble())).thenReturn(new double[] { 0, 0 });
+        when(matchService.createMatches(anyList())).thenAnswer(invocation -> {
+            List<MatchDTO> matchDTOs = invocation.getArgument(0);
+            Match match = new Match();
+            match.setMatchId(UUID.randomUUID());
+            match.setPlayer1Id(matchDTOs.get(0).getPlayer1Id());
+            match.setPlayer2Id(matchDTOs.get(0).getPlayer2Id());
+            return List.of(match);
+        });
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(1, matchmakingService.findMatches().size());
+            assertEquals(0, playerQueue.size());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            assertEquals(2, playerQueue.size());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testFindMatches_NotEnoughPlayers() {
+        matchmakingService.addPlayerToQueue(createPlayer(1500), 0, 0);
+
+        assertTrue(matchmakingService.findMatches().isEmpty());
+        verify(matchService, never()).createMatches(anyList());
+    }
+
+    @Test
+    void testAddPlayerToQueue_PublishesPlayerQueuedEvent() {
+        PlayerProfile player = createPlayer(1500);
+
+        matchmakingService.addPlayerToQueue(player, 0, 0);
+
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof PlayerQueuedEvent
+                && ((PlayerQueuedEvent) event).getUserId().equals(player.getUser().getId())));
+    }
+
+    @Test
+    void testFindMatchFor_MatchFound() {
+        PlayerProfile waiting = createPlayer(1500);
+        PlayerProfile joining = createPlayer(1510);
+        matchmakingService.addPlayerToQueue(waiting, 0, 0);
+        matchmakingService.addPlayerToQueue(joining, 0, 0);
+        when(meetingPointService.findMeetingPoint(anyDouble(), anyDouble())).thenReturn(new double[] { 0, 0 });
         Match mockMatch = new Match();
         mockMatch.setMatchId(UUID.randomUUID());
-        mockMatch.setPlayer1Id(player1ProfileId);
-        mockMatch.setPlayer2Id(player2ProfileId);
-        mockMatch.setGameType(Match.GameType.SOLO);
-        mockMatch.setMeetingLatitude(meetingPoint[0]); // Set the latitude
-        mockMatch.setMeetingLongitude(meetingPoint[1]); // Set the longitude
-
-        // Mock match creation
+        mockMatch.setPlayer1Id(joining.getProfileId());
+        mockMatch.setPlayer2Id(waiting.getProfileId());
         when(matchService.createMatch(any(MatchDTO.class))).thenReturn(mockMatch);
 
-        // Mock opponent profile retrieval
-        when(playerProfileService.findByProfileId(any(UUID.class))).thenReturn(mockOpponentProfile);
-        when(mockOpponentProfile.getName()).thenReturn("MockOpponent");
-
-        // Mock messaging with specific argument matchers
-        doNothing().when(messagingTemplate).convertAndSend(
-                eq("/topic/solo/match/" + player1ProfileId),
-                any(MatchNotification.class));
-        doNothing().when(messagingTemplate).convertAndSend(
-                eq("/topic/solo/match/" + player2ProfileId),
-                any(MatchNotification.class));
-
-        // Execute test
-        Match match = matchmakingService.findMatch();
-
-        // Verify results
-        assertNotNull(match);
-        assertEquals(Match.GameType.SOLO, match.getGameType());
-        assertTrue(
-                (player1ProfileId.equals(match.getPlayer1Id()) && player2ProfileId.equals(match.getPlayer2Id())) ||
-                        (player2ProfileId.equals(match.getPlayer1Id())
-                                && player1ProfileId.equals(match.getPlayer2Id())),
-                "The match should contain both players, regardless of order");
-        assertEquals(meetingPoint[0], match.getMeetingLatitude());
-        assertEquals(meetingPoint[1], match.getMeetingLongitude());
-
-        // Verify notifications were sent with specific destinations
-        verify(messagingTemplate).convertAndSend(
-                eq("/topic/solo/match/" + player1ProfileId),
-                any(MatchNotification.class));
-        verify(messagingTemplate).convertAndSend(
-                eq("/topic/solo/match/" + player2ProfileId),
-                any(MatchNotification.class));
-        verify(playerProfileService, times(2)).findByProfileId(any(UUID.class));
+        FoundMatch found = matchmakingService.findMatchFor(joining.getUser().getId());
+
+        assertSame(mockMatch, found.getMatch());
+        assertEquals(joining.getProfileId(), found.getPlayer1().getProfileId());
+        assertEquals(waiting.getProfileId(), found.getPlayer2().getProfileId());
+        assertEquals(0, playerQueue.size());
+        verify(strategyRegistry, never()).getSweepWidening();
+    }
+
+    @Test
+    void testFindMatchFor_NoOpponentLeavesPlayerQueued() {
+        PlayerProfile joining = createPlayer(1500);
+        matchmakingService.addPlayerToQueue(joining, 0, 0);
+
+        assertNull(matchmakingService.findMatchFor(joining.getUser().getId()));
+        assertTrue(matchmakingService.isPlayerInQueue(joining.getUser().getId()));
+        verify(matchService, never()).createMatch(any());
+    }
+
+    @Test
+    void testFindMatchFor_PlayerNoLongerQueued() {
+        assertNull(matchmakingService.findMatchFor(UUID.randomUUID()));
+        verify(matchService, never()).createMatch(any());
+    }
+
+    private PlayerProfile createPlayer(double rating) {
+        PlayerProfile player = new PlayerProfile();
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        player.setUser(user);
+        player.setProfileId(UUID.randomUUID());
+        player.setGlickoRating(rating);
+        player.setRatingDeviation(200);
+        return player;
     }
 }
@@ -0,0 +1,110 @@
+package com.project.G1_T3.matchmaking.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+class MatchmakingStrategyPublisherTest {
+
+    @Mock
+    private MatchmakingTransport transport;
+
+    private MatchmakingStrategyRegistry registry;
+
+    private MatchmakingStrategyPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Map<String, String> nodes = new LinkedHashMap<>();
+        nodes.put("a", "http://a:8080");
+        nodes.put("b", "http://b:8080");
+        nodes.put("c", "http://c:8080");
+        registry = new MatchmakingStrategyRegistry(
+                List.of(new GlickoMatchmaking(new LocationServiceImpl()), new EloMatchmakingAlgorithm()), "glicko");
+        publisher = new MatchmakingStrategyPublisher(new MatchmakingPartitioner("a", nodes, 200), transport,
+                registry);
+    }
+
+    @Test
+    void testPutRegion_AppliesLocallyAndForwardsToEveryOtherNode() {
+        MatchmakingRegion region = new MatchmakingRegion("singapore", 1.1, 1.5, 103.6, 104.1, "elo");
+
+        publisher.putRegion(region);
+
+        assertEquals("singapore", registry.resolve(1.3521, 103.8198).getRegion());
+        verify(transport).forwardRegion("b", region);
+        verify(transport).forwardRegion("c", region);
+        verify(transport, never()).forwardRegion(eq("a"), any());
+    }
+
+    @Test
+    void testPutRegion_InvalidRegionIsNotForwarded() {
+        MatchmakingRegion region = new MatchmakingRegion("singapore", 1.1, 1.5, 103.6, 104.1, "unknown");
+
+        assertThrows(IllegalArgumentException.class, () -> publisher.putRegion(region));
+
+        assertTrue(registry.getRegions().isEmpty());
+        verifyNoInteractions(transport);
+    }
+
+    @Test
+    void testPutRegion_KeepsForwardingPastAnUnreachableNode() {
+        MatchmakingRegion region = new MatchmakingRegion("singapore", 1.1, 1.5, 103.6, 104.1, "elo");
+        doThrow(new IllegalStateException("Connection refused")).when(transport).forwardRegion(eq("b"), any());
+
+        publisher.putRegion(region);
+
+        verify(transport).forwardRegion("c", region);
+        assertEquals(1, registry.getRegions().size());
+    }
+
+    @Test
+    void testRemoveRegion_ForwardsEvenIfMissingLocally() {
+        assertFalse(publisher.removeRegion("singapore"));
+
+        verify(transport).forwardRegionRemoval("b", "singapore");
+        verify(transport).forwardRegionRemoval("c", "singapore");
+    }
+
+    @Test
+    void testSetDefaultAlgorithm_AppliesLocallyAndForwards() {
+        publisher.setDefaultAlgorithm("elo");
+
+        assertEquals("elo", registry.getDefaultAlgorithm());
+        verify(transport).forwardDefaultAlgorithm("b", "elo");
+        verify(transport).forwardDefaultAlgorithm("c", "elo");
+    }
+
+    @Test
+    void testSetDefaultAlgorithm_UnknownAlgorithmIsNotForwarded() {
+        assertThrows(IllegalArgumentException.class, () -> publisher.setDefaultAlgorithm("unknown"));
+
+        assertEquals("glicko", registry.getDefaultAlgorithm());
+        verify(transport, never()).forwardDefaultAlgorithm(anyString(), anyString());
+    }
+
+    @Test
+    void testPutRegion_SingleNodeForwardsNothing() {
+        publisher = new MatchmakingStrategyPublisher(new MatchmakingPartitioner("local", Map.of(), 200), transport,
+                registry);
+
+        publisher.putRegion(new MatchmakingRegion("singapore", 1.1, 1.5, 103.6, 104.1, "elo"));
+
+        verifyNoInteractions(transport);
+    }
+}
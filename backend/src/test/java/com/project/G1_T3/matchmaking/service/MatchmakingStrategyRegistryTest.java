@@ -0,0 +1,151 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class MatchmakingStrategyRegistryTest {
+
+    private GlickoMatchmaking glicko;
+    private EloMatchmakingAlgorithm elo;
+    private MatchmakingStrategyRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        glicko = new GlickoMatchmaking(new LocationServiceImpl());
+        elo = new EloMatchmakingAlgorithm();
+        registry = new MatchmakingStrategyRegistry(List.of(glicko, elo), "glicko");
+    }
+
+    @Test
+    void testResolve_DefaultsOutsideEveryRegion() {
+        MatchmakingStrategy strategy = registry.resolve(1.3521, 103.8198);
+
+        assertNull(strategy.getRegion());
+        assertSame(glicko, strategy.getAlgorithm());
+        assertEquals(glicko.getMaxDistanceKm(), strategy.getThresholds().getMaxDistanceKm());
+    }
+
+    @Test
+    void testResolve_RegionOverridesAlgorithmAndThresholds() {
+        MatchmakingRegion rural = new MatchmakingRegion("rural", -10, 10, 90, 110, "glicko");
+        rural.setMaxDistanceKm(25.0);
+        registry.putRegion(rural);
+
+        MatchmakingStrategy strategy = registry.resolve(1.3521, 103.8198);
+
+        assertEquals("rural", strategy.getRegion());
+        assertEquals(25.0, strategy.getThresholds().getMaxDistanceKm());
+        // Thresholds that are not set keep the algorithm's defaults
+        assertEquals(glicko.getMaxRatingDiff(), strategy.getThresholds().getMaxRatingDiff());
+    }
+
+    @Test
+    void testResolve_PrefersSmallestContainingRegion() {
+        registry.putRegion(new MatchmakingRegion("asia", -10, 50, 60, 150, "glicko"));
+        registry.putRegion(new MatchmakingRegion("singapore", 1.1, 1.5, 103.6, 104.1, "elo"));
+
+        assertEquals("singapore", registry.resolve(1.3521, 103.8198).getRegion());
+        assertSame(elo, registry.resolve(1.3521, 103.8198).getAlgorithm());
+        assertEquals("asia", registry.resolve(35.6762, 139.6503).getRegion());
+    }
+
+    @Test
+    void testResolve_RegionAcrossAntimeridian() {
+        registry.putRegion(new MatchmakingRegion("pacific", -30, 0, 170, -170, "elo"));
+
+        assertEquals("pacific", registry.resolve(-17.0, 179.9).getRegion());
+        assertEquals("pacific", registry.resolve(-17.0, -179.9).getRegion());
+        assertNull(registry.resolve(-17.0, 160).getRegion());
+    }
+
+    @Test
+    void testRemoveRegion_FallsBackToDefault() {
+        registry.putRegion(new MatchmakingRegion("singapore", 1.1, 1.5, 103.6, 104.1, "elo"));
+
+        assertTrue(registry.removeRegion("singapore"));
+        assertFalse(registry.removeRegion("singapore"));
+        assertNull(registry.resolve(1.3521, 103.8198).getRegion());
+    }
+
+    @Test
+    void testPutRegion_RejectsInvalidRegions() {
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.putRegion(new MatchmakingRegion("bad", 0, 10, 0, 10, "unknown")));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.putRegion(new MatchmakingRegion("bad", 10, 0, 0, 10, "glicko")));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.putRegion(new MatchmakingRegion(" ", 0, 10, 0, 10, "glicko")));
+
+        MatchmakingRegion negative = new MatchmakingRegion("bad", 0, 10, 0, 10, "glicko");
+        negative.setMaxRatingDiff(-1.0);
+        assertThrows(IllegalArgumentException.class, () -> registry.putRegion(negative));
+        assertTrue(registry.getRegions().isEmpty());
+    }
+
+    @Test
+    void testSetDefaultAlgorithm() {
+        registry.setDefaultAlgorithm("elo");
+
+        assertSame(elo, registry.resolve(0, 0).getAlgorithm());
+        assertThrows(IllegalArgumentException.class, () -> registry.setDefaultAlgorithm("unknown"));
+        assertEquals("elo", registry.getDefaultAlgorithm());
+    }
+
+    @Test
+    void testEloIndexCriteria_OnlyBoundDistance() {
+        SearchCriteria thresholds = elo.getSearchCriteria();
+        SearchCriteria criteria = elo.getIndexCriteria(thresholds);
+
+        assertEquals(Double.POSITIVE_INFINITY, criteria.getMaxRatingDiff());
+        assertEquals(thresholds.getMaxDistanceKm(), criteria.getMaxDistanceKm());
+    }
+
+    @Test
+    void testQueueUsesRegionStrategy() {
+        MatchmakingRegion strict = new MatchmakingRegion("strict", -10, 10, 90, 110, "glicko");
+        strict.setMaxRatingDiff(50.0);
+        registry.putRegion(strict);
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), registry);
+        QueuedPlayer first = addPlayer(queue, 1500);
+        addPlayer(queue, 1600);
+
+        assertNull(queue.findMatch(first));
+
+        registry.removeRegion("strict");
+        assertNotNull(queue.findMatch(first));
+    }
+
+    @Test
+    void testGetExpansionFactor_GrowsPerIntervalUpToTheCap() {
+        ReflectionTestUtils.setField(registry, "expansionIntervalSeconds", 10L);
+        ReflectionTestUtils.setField(registry, "expansionStep", 0.5);
+        ReflectionTestUtils.setField(registry, "expansionMaxSteps", 2);
+
+        assertEquals(1.0, registry.getExpansionFactor(9));
+        assertEquals(1.5, registry.getExpansionFactor(10));
+        assertEquals(2.0, registry.getExpansionFactor(600));
+    }
+
+    private QueuedPlayer addPlayer(PlayerQueueImpl queue, double rating) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlayerProfile profile = new PlayerProfile();
+        profile.setUser(user);
+        profile.setGlickoRating(rating);
+        profile.setRatingDeviation(100);
+        queue.addPlayer(profile, 1.3521, 103.8198);
+        return queue.getPlayer(user.getUserId());
+    }
+}
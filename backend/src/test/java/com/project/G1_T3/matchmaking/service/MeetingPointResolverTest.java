@@ -0,0 +1,190 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.exception.MeetingPointNotFoundException;
+import com.project.G1_T3.match.model.Match;
+import com.project.G1_T3.match.service.MatchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+class MeetingPointResolverTest {
+
+    private static final double[] VENUE = { 1.2816, 103.8636 };
+
+    @Mock
+    private MeetingPointService meetingPointService;
+    @Mock
+    private MatchService matchService;
+
+    private MeetingPointResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        resolver = new MeetingPointResolver(meetingPointService, Runnable::run, matchService, 1000, 0,
+                100);
+    }
+
+    @Test
+    void testResolve_NearbyMidpointsShareOneLookup() {
+        when(meetingPointService.findMeetingPoint(anyDouble(), anyDouble())).thenReturn(VENUE);
+
+        CompletableFuture<double[]> first = resolver.resolve(1.28170, 103.86320);
+        CompletableFuture<double[]> second = resolver.resolve(1.28172, 103.86338);
+
+        assertSame(first, second);
+        assertArrayEquals(VENUE, first.join());
+        verify(meetingPointService, times(1)).findMeetingPoint(anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testResolve_FailedLookupIsRetried() {
+        when(meetingPointService.findMeetingPoint(anyDouble(), anyDouble()))
+                .thenThrow(new MeetingPointNotFoundException("No meeting point"))
+                .thenReturn(VENUE);
+
+        assertTrue(resolver.resolve(1.2817, 103.8635).isCompletedExceptionally());
+        assertArrayEquals(VENUE, resolver.resolve(1.2817, 103.8635).join());
+    }
+
+    @Test
+    void testResolve_SlowLookupTimesOut() {
+        // An executor that never runs the lookup
+        resolver = new MeetingPointResolver(meetingPointService, task -> {
+        }, matchService, 50, 0, 100);
+
+        CompletableFuture<double[]> venue = resolver.resolve(1.2817, 103.8635);
+
+        ExecutionException e = assertThrows(ExecutionException.class, venue::get);
+        assertInstanceOf(TimeoutException.class, e.getCause());
+    }
+
+    @Test
+    void testResolve_FullExecutorFallsBackToMidpoint() {
+        resolver = new MeetingPointResolver(meetingPointService, task -> {
+            throw new RejectedExecutionException("full");
+        }, matchService, 1000, 0, 100);
+        double[] midpoint = { 1.2817, 103.8635 };
+
+        CompletableFuture<double[]> venue = resolver.resolve(midpoint[0], midpoint[1]);
+
+        assertTrue(venue.isCompletedExceptionally());
+        assertSame(midpoint, MeetingPointResolver.resolvedOr(venue, midpoint));
+        verify(meetingPointService, never()).findMeetingPoint(anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testAwaitAll_QuickLookupIsUsedStraightAway() {
+        when(meetingPointService.findMeetingPoint(anyDouble(), anyDouble())).thenReturn(VENUE);
+        resolver = new MeetingPointResolver(meetingPointService, task -> new Thread(task).start(), matchService,
+                1000, 1000, 100);
+        double[] midpoint = { 1.2817, 103.8635 };
+
+        CompletableFuture<double[]> venue = resolver.resolve(midpoint[0], midpoint[1]);
+        resolver.awaitAll(List.of(venue));
+
+        assertArrayEquals(VENUE, MeetingPointResolver.resolvedOr(venue, midpoint));
+    }
+
+    @Test
+    void testAwaitAll_SlowLookupKeepsMidpoint() {
+        // An executor that never runs the lookup
+        resolver = new MeetingPointResolver(meetingPointService, task -> {
+        }, matchService, 10_000, 20, 100);
+        double[] midpoint = { 1.2817, 103.8635 };
+
+        CompletableFuture<double[]> venue = resolver.resolve(midpoint[0], midpoint[1]);
+        resolver.awaitAll(List.of(venue));
+
+        assertFalse(venue.isDone());
+        assertSame(midpoint, MeetingPointResolver.resolvedOr(venue, midpoint));
+    }
+
+    @Test
+    void testEnrichWhenResolved_MovesMatchBeforeItIsReady() {
+        Match match = createMatchAt(1.2817, 103.8635);
+        when(matchService.updateMeetingPoint(match.getMatchId(), VENUE[0], VENUE[1])).thenReturn(true);
+
+        CompletableFuture<Match> ready = resolver.enrichWhenResolved(match, CompletableFuture.completedFuture(VENUE));
+
+        verify(matchService).updateMeetingPoint(match.getMatchId(), VENUE[0], VENUE[1]);
+        assertSame(match, ready.join());
+        assertEquals(VENUE[0], match.getMeetingLatitude());
+        assertEquals(VENUE[1], match.getMeetingLongitude());
+    }
+
+    @Test
+    void testEnrichWhenResolved_MatchAlreadyAtVenue() {
+        Match match = createMatchAt(VENUE[0], VENUE[1]);
+
+        CompletableFuture<Match> ready = resolver.enrichWhenResolved(match, CompletableFuture.completedFuture(VENUE));
+
+        verify(matchService, never()).updateMeetingPoint(any(), anyDouble(), anyDouble());
+        assertSame(match, ready.join());
+    }
+
+    @Test
+    void testEnrichWhenResolved_WaitsForCommit() {
+        Match match = createMatchAt(VENUE[0], VENUE[1]);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CompletableFuture<Match> ready = resolver.enrichWhenResolved(match,
+                    CompletableFuture.completedFuture(VENUE));
+            assertFalse(ready.isDone());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            assertSame(match, ready.join());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testEnrichWhenResolved_FinishedMatchIsNotAnnounced() {
+        Match match = createMatchAt(1.2817, 103.8635);
+        when(matchService.updateMeetingPoint(eq(match.getMatchId()), anyDouble(), anyDouble())).thenReturn(false);
+
+        CompletableFuture<Match> ready = resolver.enrichWhenResolved(match, CompletableFuture.completedFuture(VENUE));
+
+        assertNull(ready.join());
+    }
+
+    @Test
+    void testEnrichWhenResolved_FailedLookupKeepsMidpoint() {
+        Match match = createMatchAt(1.2817, 103.8635);
+
+        CompletableFuture<Match> ready = resolver.enrichWhenResolved(match,
+                CompletableFuture.failedFuture(new MeetingPointNotFoundException("No meeting point")));
+
+        verify(matchService, never()).updateMeetingPoint(any(), anyDouble(), anyDouble());
+        assertSame(match, ready.join());
+        assertEquals(1.2817, match.getMeetingLatitude());
+    }
+
+    private Match createMatchAt(double latitude, double longitude) {
+        Match match = new Match();
+        match.setMatchId(UUID.randomUUID());
+        match.setMeetingLatitude(latitude);
+        match.setMeetingLongitude(longitude);
+        return match;
+    }
+}
@@ -5,8 +5,13 @@ import com.project.G1_T3.playerprofile.model.PlayerProfile;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -14,12 +19,13 @@ import static org.mockito.Mockito.*;
 class MeetingPointServiceImplTest {
 
     private MeetingPointService meetingPointService;
-    private RestTemplate restTemplate;
+
+    @TempDir
+    Path directory;
 
     @BeforeEach
     void setUp() {
-        restTemplate = mock(RestTemplate.class);
-        meetingPointService = new MeetingPointServiceImpl(restTemplate);
+        meetingPointService = new MeetingPointServiceImpl(new VenueIndex(null, 1 << 20), 2.0);
     }
 
     @Test
@@ -64,5 +70,35 @@ class MeetingPointServiceImplTest {
         assertEquals(0, meetingPoint[1], 0.001);
     }
 
-    // Add more tests here if we implement the API call functionality
+    @Test
+    void findMeetingPoint_venueNearMidpoint_shouldReturnVenue() throws IOException {
+        useVenues("Raffles Place Park,1.2840,103.8514\nChangi Beach Park,1.3907,103.9926\n");
+
+        QueuedPlayer player1 = new QueuedPlayer(mock(PlayerProfile.class), 1.2800, 103.8450);
+        QueuedPlayer player2 = new QueuedPlayer(mock(PlayerProfile.class), 1.2900, 103.8550);
+
+        double[] meetingPoint = meetingPointService.findMeetingPoint(player1, player2);
+
+        assertEquals(1.2840, meetingPoint[0], 1e-9);
+        assertEquals(103.8514, meetingPoint[1], 1e-9);
+    }
+
+    @Test
+    void findMeetingPoint_noVenueNearby_shouldReturnMidpoint() throws IOException {
+        useVenues("Changi Beach Park,1.3907,103.9926\n");
+
+        QueuedPlayer player1 = new QueuedPlayer(mock(PlayerProfile.class), 1.2800, 103.8450);
+        QueuedPlayer player2 = new QueuedPlayer(mock(PlayerProfile.class), 1.2900, 103.8550);
+
+        double[] meetingPoint = meetingPointService.findMeetingPoint(player1, player2);
+
+        assertEquals(1.2850, meetingPoint[0], 1e-9);
+        assertEquals(103.8500, meetingPoint[1], 1e-9);
+    }
+
+    private void useVenues(String csv) throws IOException {
+        Path file = directory.resolve("venues.csv");
+        Files.write(file, csv.getBytes(StandardCharsets.UTF_8));
+        meetingPointService = new MeetingPointServiceImpl(new VenueIndex(file, 1 << 20), 2.0);
+    }
 }
\ No newline at end of file
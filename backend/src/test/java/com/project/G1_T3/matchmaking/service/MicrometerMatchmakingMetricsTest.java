@@ -0,0 +1,103 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class MicrometerMatchmakingMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GeoCellIndex index;
+    private MicrometerMatchmakingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new GeoCellIndex(2.0);
+        metrics = new MicrometerMatchmakingMetrics(meterRegistry, index);
+    }
+
+    @Test
+    void testRecordMatch_RecordsTheWaitOfBothPlayers() {
+        Instant now = Instant.now();
+        metrics.recordMatch(createQueuedPlayer(now.minusSeconds(30)), createQueuedPlayer(now.minusSeconds(10)));
+
+        assertEquals(2, meterRegistry.get("matchmaking.match.wait").timer().count());
+        assertTrue(meterRegistry.get("matchmaking.match.wait").timer().max(TimeUnit.SECONDS) >= 30);
+    }
+
+    @Test
+    void testRecordChecks_CountsOutcomesPerAlgorithm() {
+        metrics.recordChecks("glicko", 1, 3);
+        metrics.recordChecks("glicko", 0, 2);
+        metrics.recordChecks("elo", 1, 0);
+
+        assertEquals(1, checked("glicko", "accepted"));
+        assertEquals(5, checked("glicko", "rejected"));
+        assertEquals(1, checked("elo", "accepted"));
+        assertEquals(0, checked("elo", "rejected"));
+    }
+
+    @Test
+    void testRecordSearchAndTick() {
+        metrics.recordSearch(4);
+        metrics.recordSearch(0);
+        metrics.recordTick(TimeUnit.MILLISECONDS.toNanos(20), 3);
+
+        assertEquals(2, meterRegistry.get("matchmaking.search.candidates").summary().count());
+        assertEquals(4, meterRegistry.get("matchmaking.search.candidates").summary().totalAmount());
+        assertEquals(20, meterRegistry.get("matchmaking.sweep").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(3, meterRegistry.get("matchmaking.sweep.matches").summary().totalAmount());
+    }
+
+    @Test
+    void testRecordQueueDepths_ReplacesEveryRegion() {
+        metrics.recordQueueDepths(Map.of(PlayerQueue.DEFAULT_REGION, 2, "east", 5));
+
+        assertEquals(5, meterRegistry.get("matchmaking.queue.depth").tag("region", "east").gauge().value());
+
+        metrics.recordQueueDepths(Map.of(PlayerQueue.DEFAULT_REGION, 1));
+
+        assertEquals(1, meterRegistry.get("matchmaking.queue.depth").tag("region", PlayerQueue.DEFAULT_REGION)
+                .gauge().value());
+        assertNull(meterRegistry.find("matchmaking.queue.depth").tag("region", "east").gauge());
+    }
+
+    @Test
+    void testGauges_ReadTheIndex() {
+        index.insert(createQueuedPlayer(Instant.now()));
+
+        assertEquals(1, meterRegistry.get("matchmaking.queue.size").gauge().value());
+        assertNull(meterRegistry.find("matchmaking.kdtree.depth").gauge());
+
+        MatchmakingKDTree tree = new MatchmakingKDTree();
+        tree.bulkLoad(List.of(createQueuedPlayer(Instant.now()), createQueuedPlayer(Instant.now()),
+                createQueuedPlayer(Instant.now())));
+        SimpleMeterRegistry treeRegistry = new SimpleMeterRegistry();
+        new MicrometerMatchmakingMetrics(treeRegistry, tree);
+
+        assertEquals(2, treeRegistry.get("matchmaking.kdtree.depth").gauge().value());
+        assertEquals(3, tree.size());
+    }
+
+    private double checked(String algorithm, String outcome) {
+        return meterRegistry.get("matchmaking.candidates.checked").tag("algorithm", algorithm)
+                .tag("outcome", outcome).counter().count();
+    }
+
+    private QueuedPlayer createQueuedPlayer(Instant joinTime) {
+        return new QueuedPlayer(UUID.randomUUID(), UUID.randomUUID(), 1500, 100, 0.06, 0, 1.3521, 103.8198,
+                joinTime);
+    }
+}
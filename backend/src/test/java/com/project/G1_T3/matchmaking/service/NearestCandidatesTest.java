@@ -0,0 +1,106 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class NearestCandidatesTest {
+
+    @Test
+    void testOffer_KeepsLowestCostsInOrder() {
+        NearestCandidates candidates = new NearestCandidates(3);
+        double[] costs = { 5, 1, 9, 3, 7, 2 };
+        QueuedPlayer[] players = new QueuedPlayer[costs.length];
+        for (int i = 0; i < costs.length; i++) {
+            players[i] = createPlayer();
+            candidates.offer(players[i], costs[i]);
+        }
+
+        assertTrue(candidates.isFull());
+        assertEquals(3.0, candidates.worstCost());
+
+        candidates.sortByCost();
+
+        assertEquals(3, candidates.size());
+        assertSame(players[1], candidates.getPlayer(0));
+        assertSame(players[5], candidates.getPlayer(1));
+        assertSame(players[3], candidates.getPlayer(2));
+        assertEquals(1.0, candidates.getCost(0));
+        assertEquals(3.0, candidates.getCost(2));
+    }
+
+    @Test
+    void testRemoveAndTruncate_KeepOrder() {
+        NearestCandidates candidates = new NearestCandidates(4);
+        QueuedPlayer self = createPlayer();
+        candidates.offer(createPlayer(), 2);
+        candidates.offer(self, 0);
+        candidates.offer(createPlayer(), 1);
+        candidates.offer(createPlayer(), 3);
+        candidates.sortByCost();
+
+        assertTrue(candidates.remove(self));
+        assertFalse(candidates.remove(self));
+        candidates.truncate(2);
+
+        assertEquals(2, candidates.size());
+        assertEquals(1.0, candidates.getCost(0));
+        assertEquals(2.0, candidates.getCost(1));
+    }
+
+    @Test
+    void testReset_ClearsAndGrows() {
+        NearestCandidates candidates = new NearestCandidates(1);
+        candidates.offer(createPlayer(), 1);
+
+        candidates.reset(4);
+
+        assertTrue(candidates.isEmpty());
+        assertEquals(4, candidates.limit());
+        for (int i = 0; i < 4; i++) {
+            candidates.offer(createPlayer(), i);
+        }
+        assertEquals(4, candidates.size());
+    }
+
+    @Test
+    void testOffered_CountsEveryOfferSinceReset() {
+        NearestCandidates candidates = new NearestCandidates(2);
+        for (int i = 0; i < 5; i++) {
+            candidates.offer(createPlayer(), i);
+        }
+
+        assertEquals(5, candidates.offered());
+        assertEquals(2, candidates.size());
+
+        candidates.reset(2);
+
+        assertEquals(0, candidates.offered());
+    }
+
+    @Test
+    void testOffer_ZeroLimitKeepsNothing() {
+        NearestCandidates candidates = new NearestCandidates(2);
+        candidates.reset(0);
+
+        candidates.offer(createPlayer(), 1);
+
+        assertTrue(candidates.isEmpty());
+    }
+
+    private QueuedPlayer createPlayer() {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlayerProfile profile = new PlayerProfile();
+        profile.setUser(user);
+        profile.setGlickoRating(1500);
+        profile.setRatingDeviation(100);
+        return new QueuedPlayer(profile, 1.3521, 103.8198);
+    }
+}
@@ -0,0 +1,448 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.MatchmakingRegion;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.user.model.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+class PlayerQueueImplTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 25_000;
+    private static final int PLAYERS_PER_THREAD = 300;
+
+    private final MatchmakingStrategyRegistry strategies = new MatchmakingStrategyRegistry(
+            List.of(new GlickoMatchmaking(new LocationServiceImpl())), "glicko");
+
+    @Test
+    void testAddAndRemove() {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        PlayerProfile player = createPlayer(new Random(1));
+
+        assertTrue(queue.addPlayer(player, 1.3521, 103.8198));
+        assertFalse(queue.addPlayer(player, 1.3521, 103.8198));
+        assertTrue(queue.containsPlayer(player.getUser().getUserId()));
+
+        assertTrue(queue.removePlayer(player.getUser().getUserId()));
+        assertFalse(queue.removePlayer(player.getUser().getUserId()));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testAddPlayer_JournalsOnlyAcceptedJoins() {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        QueueJournal journal = mock(QueueJournal.class);
+        ReflectionTestUtils.setField(queue, "journal", journal);
+        Random random = new Random(1);
+        PlayerProfile player = createPlayer(random);
+        PlayerProfile other = createPlayer(random);
+
+        queue.addPlayer(player, 1.3521, 103.8198);
+        queue.addPlayer(player, 1.3521, 103.8198);
+        queue.addPlayers(List.of(queue.getPlayer(player.getUser().getUserId()),
+                new QueuedPlayer(other, 1.3521, 103.8198)));
+
+        verify(journal, times(2)).recordJoin(any(QueuedPlayer.class));
+    }
+
+    @Test
+    void testFindMatch_RemovesBothPlayers() {
+        GeoCellIndex index = new GeoCellIndex(2.0);
+        PlayerQueueImpl queue = new PlayerQueueImpl(index, strategies);
+        Random random = new Random(2);
+        PlayerProfile first = createPlayer(random);
+        PlayerProfile second = createPlayer(random);
+        queue.addPlayer(first, 1.3521, 103.8198);
+        queue.addPlayer(second, 1.3521, 103.8198);
+
+        QueuedPlayer match = queue.findMatch(queue.getPlayer(first.getUser().getUserId()));
+
+        assertEquals(second.getUser().getUserId(), match.getUserId());
+        assertEquals(0, queue.size());
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    void testFindMatch_PlayerNoLongerQueued() {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        Random random = new Random(3);
+        PlayerProfile first = createPlayer(random);
+        queue.addPlayer(first, 1.3521, 103.8198);
+        queue.addPlayer(createPlayer(random), 1.3521, 103.8198);
+        QueuedPlayer stale = queue.getPlayer(first.getUser().getUserId());
+        queue.removePlayer(first.getUser().getUserId());
+
+        assertNull(queue.findMatch(stale));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void testFindFallbackMatch_ExpandingWindowsSeePlayersWhoJoinAfterAnEmptySearch() {
+        ReflectionTestUtils.setField(strategies, "expansionEnabled", true);
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        Random random = new Random(4);
+        PlayerProfile first = createPlayer(random);
+        queue.addPlayer(first, 1.3521, 103.8198);
+        QueuedPlayer waiting = queue.getPlayer(first.getUser().getUserId());
+
+        assertNull(queue.findFallbackMatch(waiting));
+        assertNull(queue.findFallbackMatch(waiting));
+
+        PlayerProfile second = createPlayer(random);
+        queue.addPlayer(second, 1.3521, 103.8198);
+        QueuedPlayer match = queue.findFallbackMatch(waiting);
+
+        assertEquals(second.getUser().getUserId(), match.getUserId());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testSweep_LongestWaitingPlayerPicksFirst() {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        Instant now = Instant.now();
+        QueuedPlayer newest = createQueuedPlayer(1500, now);
+        QueuedPlayer oldest = createQueuedPlayer(1500, now.minusSeconds(60));
+        QueuedPlayer middle = createQueuedPlayer(1500, now.minusSeconds(30));
+        queue.addPlayers(List.of(newest, oldest, middle));
+        List<QueuedPlayer[]> pairs = new ArrayList<>();
+
+        queue.sweep((player, match) -> pairs.add(new QueuedPlayer[] { player, match }));
+
+        assertEquals(1, pairs.size());
+        assertSame(oldest, pairs.get(0)[0]);
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void testSweep_PairsEveryoneOnce() {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        Instant now = Instant.now();
+        List<QueuedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            players.add(createQueuedPlayer(1500 + (i / 2) * 1000, now.minusSeconds(i)));
+        }
+        queue.addPlayers(players);
+        Set<QueuedPlayer> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        queue.sweep((player, match) -> {
+            assertTrue(seen.add(player));
+            assertTrue(seen.add(match));
+            // Ratings are spaced so only the intended pairs are compatible
+            assertEquals(player.getGlickoRating(), match.getGlickoRating());
+        });
+
+        assertEquals(40, seen.size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testForEachWaiting_NumbersPlayersInJoinOrder() {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        Instant now = Instant.now();
+        QueuedPlayer newest = createQueuedPlayer(1500, now);
+        QueuedPlayer oldest = createQueuedPlayer(2500, now.minusSeconds(60));
+        QueuedPlayer middle = createQueuedPlayer(3500, now.minusSeconds(30));
+        queue.addPlayers(List.of(newest, oldest, middle));
+        List<QueuedPlayer> visited = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+
+        assertTrue(queue.forEachWaiting((player, region, position, windows) -> {
+            visited.add(player);
+            positions.add(position);
+            SearchCriteria expected = strategies.resolve(player).getThresholds()
+                    .scaled(strategies.getSweepWidening());
+            assertEquals(expected.getMaxRatingDiff(), windows.getMaxRatingDiff());
+            assertEquals(expected.getMaxDistanceKm(), windows.getMaxDistanceKm());
+        }));
+
+        assertEquals(List.of(oldest, middle, newest), visited);
+        assertEquals(List.of(1, 2, 3), positions);
+    }
+
+    @Test
+    void testForEachWaiting_NumbersPlayersWithinTheirRegion() {
+        MatchmakingStrategyRegistry registry = new MatchmakingStrategyRegistry(
+                List.of(new GlickoMatchmaking(new LocationServiceImpl())), "glicko");
+        registry.putRegion(new MatchmakingRegion("east", 1.30, 1.40, 103.90, 104.00, "glicko"));
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), registry);
+        Instant now = Instant.now();
+        queue.addPlayers(List.of(
+                createQueuedPlayer(1500, now.minusSeconds(30), 1.35, 103.95),
+                createQueuedPlayer(1500, now.minusSeconds(20), 1.29, 103.85),
+                createQueuedPlayer(1500, now.minusSeconds(10), 1.36, 103.96)));
+        List<String> visited = new ArrayList<>();
+
+        assertTrue(queue.forEachWaiting((player, region, position, windows) -> visited.add(region + position)));
+
+        assertEquals(List.of("east1", PlayerQueue.DEFAULT_REGION + "1", "east2"), visited);
+    }
+
+    @Test
+    void testForEachWaiting_GivesWayToARunningSweep() throws Exception {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        Instant now = Instant.now();
+        queue.addPlayers(List.of(createQueuedPlayer(1500, now), createQueuedPlayer(1500, now.minusSeconds(1))));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<Boolean> walked = new ArrayList<>();
+
+        try {
+            queue.sweep((player, match) -> {
+                try {
+                    walked.add(executor.submit(() -> queue.forEachWaiting((p, region, position, windows) -> {
+                    })).get());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(false), walked);
+        assertTrue(queue.forEachWaiting((p, region, position, windows) -> fail("queue should be empty")));
+    }
+
+    @Test
+    void testGetMatchedCount_CountsBothPlayersOfEachMatch() {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        Instant now = Instant.now();
+        QueuedPlayer first = createQueuedPlayer(1500, now.minusSeconds(1));
+        queue.addPlayers(List.of(first, createQueuedPlayer(1500, now), createQueuedPlayer(3500, now)));
+
+        assertEquals(0, queue.getMatchedCount());
+        assertNotNull(queue.findMatch(first));
+        assertEquals(2, queue.getMatchedCount());
+        assertNull(queue.findMatch(queue.getAllPlayers().get(0)));
+        assertEquals(2, queue.getMatchedCount());
+    }
+
+    @Test
+    void testGetDepthByRegion_CountsPlayersInEveryRegion() {
+        MatchmakingStrategyRegistry registry = new MatchmakingStrategyRegistry(
+                List.of(new GlickoMatchmaking(new LocationServiceImpl())), "glicko");
+        registry.putRegion(new MatchmakingRegion("east", 1.30, 1.40, 103.90, 104.00, "glicko"));
+        registry.putRegion(new MatchmakingRegion("north", 1.40, 1.50, 103.70, 103.90, "glicko"));
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), registry);
+        Instant now = Instant.now();
+        queue.addPlayers(List.of(
+                createQueuedPlayer(1500, now, 1.35, 103.95),
+                createQueuedPlayer(1500, now, 1.36, 103.96),
+                createQueuedPlayer(1500, now, 1.29, 103.85)));
+
+        assertEquals(Map.of("east", 2, "north", 0, PlayerQueue.DEFAULT_REGION, 1), queue.getDepthByRegion());
+    }
+
+    @Test
+    void testFindMatch_ReportsSearchChecksAndMatch() {
+        PlayerQueueImpl queue = new PlayerQueueImpl(new GeoCellIndex(2.0), strategies);
+        RecordingMetrics metrics = new RecordingMetrics();
+        ReflectionTestUtils.setField(queue, "metrics", metrics);
+        Instant now = Instant.now();
+        QueuedPlayer first = createQueuedPlayer(1500, now.minusSeconds(1));
+        QueuedPlayer second = createQueuedPlayer(1500, now);
+        queue.addPlayers(List.of(first, second));
+
+        assertSame(second, queue.findMatch(first));
+
+        assertEquals(List.of(1), metrics.searches);
+        assertEquals(List.of("glicko:1:0"), metrics.checks);
+        assertEquals(1, metrics.matches);
+    }
+
+    @Test
+    void testConcurrentEnqueueDequeueAndMatch_GeoCellIndex() throws Exception {
+        runStressTest(new GeoCellIndex(2.0), OPERATIONS_PER_THREAD, 0);
+    }
+
+    @Test
+    void testConcurrentEnqueueDequeueAndMatch_KDTree() throws Exception {
+        runStressTest(new MatchmakingKDTree(), OPERATIONS_PER_THREAD, 0);
+    }
+
+    /**
+     * Drives the queue at 10k operations per second for ten seconds and checks
+     * it keeps up. Wall-clock bound, so only run in the {@code loadtest}
+     * profile: {@code mvn -Ploadtest test}.
+     */
+    @Tag("LoadTest")
+    @Test
+    void testConcurrentEnqueueDequeueAndMatch_SustainsTenThousandOperationsPerSecond() throws Exception {
+        int rate = 10_000;
+        int seconds = 10;
+        double elapsed = runStressTest(new GeoCellIndex(2.0), rate * seconds / THREADS, rate);
+
+        // Operations are paced, so finishing late means the queue fell behind the rate
+        assertTrue(elapsed < seconds * 1.05, "10k operations per second took " + elapsed + " s instead of "
+                + seconds + " s, " + (int) (rate * seconds / elapsed) + " operations per second");
+    }
+
+    /**
+     * Hammers one queue from several threads with a mix of joins, leaves and
+     * match attempts, then checks that every player is accounted for exactly
+     * once: no player is lost, handed out twice or left behind in the index.
+     *
+     * @param operationsPerSecond the combined rate the threads are paced at,
+     *                            or 0 to run flat out
+     * @return how long the operations took, in seconds
+     */
+    private double runStressTest(MatchmakingIndex index, int operationsPerThread, int operationsPerSecond)
+            throws Exception {
+        PlayerQueueImpl queue = new PlayerQueueImpl(index, strategies);
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger removed = new AtomicInteger();
+        AtomicInteger matches = new AtomicInteger();
+        Set<QueuedPlayer> matched = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        AtomicInteger duplicates = new AtomicInteger();
+
+        List<List<PlayerProfile>> players = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            List<PlayerProfile> own = new ArrayList<>();
+            for (int i = 0; i < PLAYERS_PER_THREAD; i++) {
+                own.add(createPlayer(random));
+            }
+            players.add(own);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(100 + thread);
+                start.await();
+                long started = System.nanoTime();
+                for (int op = 0; op < operationsPerThread; op++) {
+                    if (operationsPerSecond > 0) {
+                        // Each thread runs its share of the rate, so together they run the whole of it
+                        long due = started + (long) (op * 1e9 * THREADS / operationsPerSecond);
+                        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    }
+                    // Mostly touch this thread's players, sometimes anyone's, so removals race with matches
+                    List<PlayerProfile> pool = random.nextInt(4) == 0
+                            ? players.get(random.nextInt(THREADS))
+                            : players.get(thread);
+                    PlayerProfile player = pool.get(random.nextInt(pool.size()));
+                    UUID playerId = player.getUser().getUserId();
+
+                    int action = random.nextInt(10);
+                    if (action < 5) {
+                        double lat = 1.3521 + random.nextDouble() * 0.05;
+                        double lon = 103.8198 + random.nextDouble() * 0.05;
+                        if (queue.addPlayer(player, lat, lon)) {
+                            added.incrementAndGet();
+                        }
+                    } else if (action < 7) {
+                        if (queue.removePlayer(playerId)) {
+                            removed.incrementAndGet();
+                        }
+                    } else {
+                        QueuedPlayer queued = queue.getPlayer(playerId);
+                        QueuedPlayer match = queued != null ? queue.findMatch(queued) : null;
+                        if (match != null) {
+                            matches.incrementAndGet();
+                            if (!matched.add(queued) || !matched.add(match)) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        executor.shutdown();
+
+        assertTrue(matches.get() > 0, "The stress test should produce matches");
+        assertEquals(0, duplicates.get(), "A player was matched twice");
+
+        // Every player that joined either left, was matched or is still waiting
+        assertEquals(added.get(), queue.size() + removed.get() + 2 * matches.get());
+
+        // The queue and the index agree, and nobody who was matched is still queued
+        List<QueuedPlayer> waiting = queue.getAllPlayers();
+        assertEquals(waiting.size(), index.size());
+        for (QueuedPlayer player : waiting) {
+            assertSame(player, index.getPlayer(player.getUserId()));
+            assertFalse(matched.contains(player));
+        }
+        return elapsed;
+    }
+
+    private PlayerProfile createPlayer(Random random) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        PlayerProfile profile = new PlayerProfile();
+        profile.setUser(user);
+        profile.setGlickoRating(1400 + random.nextInt(200));
+        profile.setRatingDeviation(100);
+        return profile;
+    }
+
+    private QueuedPlayer createQueuedPlayer(double rating, Instant joinTime) {
+        return createQueuedPlayer(rating, joinTime, 1.3521, 103.8198);
+    }
+
+    private QueuedPlayer createQueuedPlayer(double rating, Instant joinTime, double latitude, double longitude) {
+        return new QueuedPlayer(UUID.randomUUID(), UUID.randomUUID(), rating, 100, 0.06, 0, latitude, longitude,
+                joinTime);
+    }
+
+    private static class RecordingMetrics implements MatchmakingMetrics {
+        final List<Integer> searches = new ArrayList<>();
+        final List<String> checks = new ArrayList<>();
+        int matches;
+
+        @Override
+        public void recordSearch(int candidates) {
+            searches.add(candidates);
+        }
+
+        @Override
+        public void recordChecks(String algorithm, int accepted, int rejected) {
+            checks.add(algorithm + ":" + accepted + ":" + rejected);
+        }
+
+        @Override
+        public void recordMatch(QueuedPlayer player, QueuedPlayer opponent) {
+            matches++;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.matchmaking.model.QueueStatusDTO;
+import com.project.G1_T3.matchmaking.model.QueuedPlayer;
+import com.project.G1_T3.matchmaking.model.SearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+class QueueStatusPublisherTest {
+
+    private static final long START = TimeUnit.MINUTES.toNanos(10);
+
+    @Mock
+    private PlayerQueue playerQueue;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private QueueStatusPublisher publisher;
+    private QueuedPlayer first;
+    private QueuedPlayer second;
+    private SearchCriteria windows;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        publisher = new QueueStatusPublisher(playerQueue, messagingTemplate, 60_000);
+
+        Instant now = Instant.now();
+        first = createQueuedPlayer(now.minusSeconds(40));
+        second = createQueuedPlayer(now.minusSeconds(10));
+        windows = new SearchCriteria(200, 100, 10);
+        when(playerQueue.size()).thenReturn(2);
+        when(playerQueue.forEachWaiting(any())).thenAnswer(invocation -> {
+            PlayerQueue.WaitingVisitor visitor = invocation.getArgument(0);
+            visitor.visit(first, PlayerQueue.DEFAULT_REGION, 1, windows);
+            visitor.visit(second, PlayerQueue.DEFAULT_REGION, 2, windows);
+            return true;
+        });
+    }
+
+    @Test
+    void testPublish_SendsEachPlayerTheirPosition() {
+        assertEquals(2, publisher.publish(START));
+
+        ArgumentCaptor<QueueStatusDTO> statuses = ArgumentCaptor.forClass(QueueStatusDTO.class);
+        verify(messagingTemplate).convertAndSendToUser(eq(first.getUserId().toString()),
+                eq(QueueStatusPublisher.DESTINATION), statuses.capture());
+        verify(messagingTemplate).convertAndSendToUser(eq(second.getUserId().toString()),
+                eq(QueueStatusPublisher.DESTINATION), statuses.capture());
+
+        QueueStatusDTO forFirst = statuses.getAllValues().get(0);
+        assertEquals(1, forFirst.getPosition());
+        assertEquals(2, forFirst.getQueueSize());
+        assertTrue(forFirst.getWaitSeconds() >= 40);
+        assertEquals(200, forFirst.getMaxRatingDiff());
+        assertEquals(10, forFirst.getMaxDistanceKm());
+        assertEquals(2, statuses.getAllValues().get(1).getPosition());
+    }
+
+    @Test
+    void testPublish_ReportsTheDepthOfThePlayersRegion() {
+        QueuedPlayer third = createQueuedPlayer(Instant.now());
+        when(playerQueue.getMatchedCount()).thenReturn(0L, 6L);
+        when(playerQueue.forEachWaiting(any())).thenAnswer(invocation -> {
+            PlayerQueue.WaitingVisitor visitor = invocation.getArgument(0);
+            visitor.visit(first, "east", 1, windows);
+            visitor.visit(second, PlayerQueue.DEFAULT_REGION, 1, windows);
+            visitor.visit(third, "east", 2, windows);
+            return true;
+        });
+        publisher.publish(START);
+        clearInvocations(messagingTemplate);
+
+        // 6 players matched in 10 seconds, two thirds of them from the east
+        publisher.publish(START + TimeUnit.SECONDS.toNanos(10));
+
+        ArgumentCaptor<QueueStatusDTO> statuses = ArgumentCaptor.forClass(QueueStatusDTO.class);
+        verify(messagingTemplate, times(3)).convertAndSendToUser(anyString(), anyString(), statuses.capture());
+        assertEquals(2, statuses.getAllValues().get(0).getQueueSize());
+        assertEquals(1, statuses.getAllValues().get(1).getQueueSize());
+        assertEquals(2, statuses.getAllValues().get(2).getQueueSize());
+        assertEquals(5L, statuses.getAllValues().get(2).getEstimatedWaitSeconds());
+    }
+
+    @Test
+    void testPublish_NoEstimateUntilPlayersAreMatched() {
+        when(playerQueue.getMatchedCount()).thenReturn(10L);
+        publisher.publish(START);
+        publisher.publish(START + TimeUnit.SECONDS.toNanos(10));
+
+        ArgumentCaptor<QueueStatusDTO> statuses = ArgumentCaptor.forClass(QueueStatusDTO.class);
+        verify(messagingTemplate, times(4)).convertAndSendToUser(anyString(), anyString(), statuses.capture());
+        statuses.getAllValues().forEach(status -> assertNull(status.getEstimatedWaitSeconds()));
+    }
+
+    @Test
+    void testPublish_EstimatesWaitFromRecentMatchRate() {
+        when(playerQueue.getMatchedCount()).thenReturn(0L, 4L);
+        publisher.publish(START);
+        clearInvocations(messagingTemplate);
+
+        // 4 players matched in 10 seconds
+        publisher.publish(START + TimeUnit.SECONDS.toNanos(10));
+
+        ArgumentCaptor<QueueStatusDTO> statuses = ArgumentCaptor.forClass(QueueStatusDTO.class);
+        verify(messagingTemplate, times(2)).convertAndSendToUser(anyString(), anyString(), statuses.capture());
+        assertEquals(3L, statuses.getAllValues().get(0).getEstimatedWaitSeconds());
+        assertEquals(5L, statuses.getAllValues().get(1).getEstimatedWaitSeconds());
+    }
+
+    @Test
+    void testPublish_ForgetsMatchesOutsideTheRateWindow() {
+        when(playerQueue.getMatchedCount()).thenReturn(0L, 4L, 4L);
+        publisher.publish(START);
+        publisher.publish(START + TimeUnit.SECONDS.toNanos(10));
+        clearInvocations(messagingTemplate);
+
+        publisher.publish(START + TimeUnit.SECONDS.toNanos(80));
+
+        ArgumentCaptor<QueueStatusDTO> statuses = ArgumentCaptor.forClass(QueueStatusDTO.class);
+        verify(messagingTemplate, times(2)).convertAndSendToUser(anyString(), anyString(), statuses.capture());
+        assertNull(statuses.getAllValues().get(0).getEstimatedWaitSeconds());
+    }
+
+    @Test
+    void testPublish_SkipsTickWhileSweepRuns() {
+        when(playerQueue.forEachWaiting(any())).thenReturn(false);
+
+        assertEquals(-1, publisher.publish(START));
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void testEstimateWaitSeconds() {
+        assertNull(QueueStatusPublisher.estimateWaitSeconds(3, 0));
+        assertEquals(30L, QueueStatusPublisher.estimateWaitSeconds(3, 0.1));
+    }
+
+    private QueuedPlayer createQueuedPlayer(Instant joinTime) {
+        return new QueuedPlayer(UUID.randomUUID(), UUID.randomUUID(), 1500, 100, 0.06, 0, 1.3521, 103.8198,
+                joinTime);
+    }
+}
@@ -0,0 +1,118 @@
+package com.project.G1_T3.matchmaking.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.project.G1_T3.matchmaking.model.MatchLocation;
+import com.project.G1_T3.matchmaking.model.QueueRequest;
+import com.project.G1_T3.playerprofile.model.PlayerProfile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+class SoloQueueRouterTest {
+
+    @Mock
+    private MatchmakingTransport transport;
+
+    @Mock
+    private MatchmakingService matchmakingService;
+
+    @Mock
+    private PlayerProfile profile;
+
+    private MatchmakingPartitioner partitioner;
+
+    private SoloQueueRouter router;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Map<String, String> nodes = new LinkedHashMap<>();
+        nodes.put("a", "http://a:8080");
+        nodes.put("b", "http://b:8080");
+        partitioner = new MatchmakingPartitioner("a", nodes, 200);
+        router = new SoloQueueRouter(partitioner, transport, matchmakingService);
+    }
+
+    @Test
+    void testJoin_QueuesLocallyWhenThisNodeOwnsLocation() {
+        QueueRequest request = createRequest(ownedBy("a"));
+
+        router.join(profile, request);
+
+        verify(matchmakingService).addPlayerToQueue(eq(profile), anyDouble(), anyDouble());
+        verifyNoInteractions(transport);
+    }
+
+    @Test
+    void testJoin_ForwardsToOwningNode() {
+        QueueRequest request = createRequest(ownedBy("b"));
+
+        router.join(profile, request);
+
+        verify(transport).forwardJoin("b", request);
+        verify(matchmakingService, never()).addPlayerToQueue(any(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testJoin_QueuesLocallyWhenOwnerIsUnreachable() {
+        QueueRequest request = createRequest(ownedBy("b"));
+        doThrow(new IllegalStateException("Connection refused")).when(transport).forwardJoin(anyString(), any());
+
+        router.join(profile, request);
+
+        verify(matchmakingService).addPlayerToQueue(eq(profile), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testLeave_RemovesLocallyQueuedPlayer() {
+        UUID playerId = UUID.randomUUID();
+        when(matchmakingService.isPlayerInQueue(playerId)).thenReturn(true);
+
+        router.leave(playerId, createRequest(ownedBy("a")));
+
+        verify(matchmakingService).removePlayerFromQueue(playerId);
+        verifyNoInteractions(transport);
+    }
+
+    @Test
+    void testLeave_PassesUnknownPlayerToOtherNodes() {
+        UUID playerId = UUID.randomUUID();
+        QueueRequest request = createRequest(ownedBy("b"));
+        when(matchmakingService.isPlayerInQueue(playerId)).thenReturn(false);
+
+        router.leave(playerId, request);
+
+        verify(transport).forwardLeave("b", request);
+        verify(matchmakingService, never()).removePlayerFromQueue(any());
+    }
+
+    private double[] ownedBy(String nodeId) {
+        for (int latitude = -80; latitude <= 80; latitude += 5) {
+            for (int longitude = -170; longitude <= 170; longitude += 5) {
+                if (partitioner.ownerOf(latitude, longitude).equals(nodeId)) {
+                    return new double[] { latitude, longitude };
+                }
+            }
+        }
+        throw new IllegalStateException("No location owned by " + nodeId);
+    }
+
+    private QueueRequest createRequest(double[] location) {
+        QueueRequest request = new QueueRequest();
+        request.setPlayerId(UUID.randomUUID().toString());
+        request.setLocation(new MatchLocation(location[0], location[1]));
+        return request;
+    }
+}
@@ -0,0 +1,135 @@
+package com.project.G1_T3.matchmaking.service;
+
+import com.project.G1_T3.common.geo.GeoPoint;
+import com.project.G1_T3.common.geo.GeoRadius;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class VenueIndexTest {
+
+    private static final int WINDOW_BYTES = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLoad_SkipsHeaderCommentsAndBadLines() throws IOException {
+        VenueIndex index = load("name,latitude,longitude\n"
+                + "# Downtown\n"
+                + "\n"
+                + "Raffles Place Park,1.2840,103.8514\n"
+                + "\"Gardens, by the Bay\",1.2816,103.8636\r\n"
+                + "Nowhere,not a number,103.8\n"
+                + "Off the map,91.0,103.8\n"
+                + "Changi Beach Park,1.3907,103.9926");
+
+        assertEquals(3, index.size());
+        int venue = index.findNearest(new GeoPoint(1.2817, 103.8635), new GeoRadius(1.0));
+        assertEquals("Gardens, by the Bay", index.getName(venue));
+        assertEquals(1.2816, index.getLatitude(venue));
+        assertEquals(103.8636, index.getLongitude(venue));
+    }
+
+    @Test
+    void testLoad_LinesAcrossMappedWindows() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            csv.append("Venue ").append(i).append(',').append(1 + i * 0.001).append(",103.8\n");
+        }
+        Path file = write(csv.toString());
+
+        // Windows far smaller than the file, so most lines are cut off by one
+        VenueIndex index = new VenueIndex(file, 64);
+
+        assertEquals(500, index.size());
+        int venue = index.findNearest(new GeoPoint(1.25, 103.8), new GeoRadius(0.5));
+        assertEquals("Venue 250", index.getName(venue));
+    }
+
+    @Test
+    void testLoad_LineLongerThanWindowThrows() throws IOException {
+        Path file = write("A venue with a very long name,1.0,103.8\nShort,1.0,103.8\n");
+
+        assertThrows(IllegalStateException.class, () -> new VenueIndex(file, 16));
+    }
+
+    @Test
+    void testEmptyIndex() {
+        VenueIndex index = new VenueIndex(null, WINDOW_BYTES);
+
+        assertTrue(index.isEmpty());
+        assertEquals(-1, index.findNearest(new GeoPoint(1.3, 103.8), new GeoRadius(2.0)));
+    }
+
+    @Test
+    void testFindNearest_NothingWithinRadius() throws IOException {
+        VenueIndex index = load("Changi Beach Park,1.3907,103.9926\n");
+
+        assertEquals(-1, index.findNearest(new GeoPoint(1.2840, 103.8514), new GeoRadius(2.0)));
+    }
+
+    @Test
+    void testFindNearest_AcrossAntimeridian() throws IOException {
+        VenueIndex index = load("East,-17.0,179.999\nWest,-17.0,-179.996\nInland,-17.0,178.0\n");
+
+        int venue = index.findNearest(new GeoPoint(-17.0, -179.999), new GeoRadius(1.0));
+        assertEquals("East", index.getName(venue));
+    }
+
+    @Test
+    void testFindNearest_MatchesBruteForce() throws IOException {
+        Random random = new Random(21);
+        int venues = 20000;
+        double[] latitudes = new double[venues];
+        double[] longitudes = new double[venues];
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < venues; i++) {
+            // A dense city and a sprinkle of venues elsewhere
+            boolean city = i % 4 != 0;
+            latitudes[i] = city ? 1.25 + random.nextDouble() * 0.2 : random.nextDouble() * 160 - 80;
+            longitudes[i] = city ? 103.7 + random.nextDouble() * 0.3 : random.nextDouble() * 360 - 180;
+            csv.append("Venue ").append(i).append(',').append(latitudes[i]).append(',').append(longitudes[i])
+                    .append('\n');
+        }
+        VenueIndex index = load(csv.toString());
+        GeoRadius radius = new GeoRadius(3.0);
+
+        for (int i = 0; i < 500; i++) {
+            GeoPoint target = i % 2 == 0
+                    ? new GeoPoint(1.25 + random.nextDouble() * 0.2, 103.7 + random.nextDouble() * 0.3)
+                    : new GeoPoint(random.nextDouble() * 160 - 80, random.nextDouble() * 360 - 180);
+
+            double best = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < venues; j++) {
+                best = Math.min(best, target.distanceKm(new GeoPoint(latitudes[j], longitudes[j])));
+            }
+
+            int venue = index.findNearest(target, radius);
+            if (best > 3.0) {
+                assertEquals(-1, venue);
+            } else {
+                GeoPoint found = new GeoPoint(index.getLatitude(venue), index.getLongitude(venue));
+                assertEquals(best, target.distanceKm(found), 1e-9);
+            }
+        }
+    }
+
+    private VenueIndex load(String csv) throws IOException {
+        return new VenueIndex(write(csv), WINDOW_BYTES);
+    }
+
+    private Path write(String csv) throws IOException {
+        Path file = directory.resolve("venues.csv");
+        Files.write(file, csv.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -1,6 +1,7 @@
 package com.project.G1_T3.player;
 
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.playerprofile.model.PlayerRatingChangedEvent;
 import com.project.G1_T3.playerprofile.service.PlayerProfileService;
 import com.project.G1_T3.user.service.UserService;
 
@@ -15,12 +16,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.test.context.ActiveProfiles;
 
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.any;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -40,6 +43,9 @@ public class PlayerProfileServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PlayerProfileService playerProfileService;
 
@@ -135,6 +141,7 @@ public class PlayerProfileServiceTest {
         // Assert
         assertNotNull(result);
         verify(playerProfileRepository, times(1)).save(profile);
+        verify(eventPublisher).publishEvent(any(PlayerRatingChangedEvent.class));
     }
 
     @Test
@@ -185,6 +192,7 @@ public class PlayerProfileServiceTest {
         // Assert
         assertNotNull(result);
         verify(playerProfileRepository, times(1)).save(profile);
+        verify(eventPublisher).publishEvent(any(PlayerRatingChangedEvent.class));
     }
 
     @Test
@@ -3,9 +3,11 @@ package com.project.G1_T3.playerprofile.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.web.multipart.MultipartFile;
@@ -18,6 +20,7 @@ import com.project.G1_T3.filestorage.service.FileStorageService;
 import com.project.G1_T3.filestorage.service.ImageValidationService;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
 import com.project.G1_T3.playerprofile.model.PlayerProfileDTO;
+import com.project.G1_T3.playerprofile.model.PlayerRatingChangedEvent;
 import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
 import com.project.G1_T3.achievement.model.*;
 import com.project.G1_T3.achievement.model.Achievement;
@@ -72,6 +75,9 @@ class PlayerProfileServiceTest {
     @Mock
     private AchievementService achievementService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PlayerProfileService playerProfileService;
 
@@ -472,8 +478,6 @@ class PlayerProfileServiceTest {
         Glicko2Result mockResult = mock(Glicko2Result.class); // opponent has 0 rating, 0 score, 0 deviation
         results.add(mockResult);
 
-        int oldRating = Math.round(existingProfile.getGlickoRating());
-
         // Stub repository to return the actual profile
         when(playerProfileRepository.findById(playerId)).thenReturn(Optional.of(existingProfile));
 
@@ -485,7 +489,10 @@ class PlayerProfileServiceTest {
         assertEquals(newRating, Math.round(existingProfile.getGlickoRating()));
         verify(playerProfileRepository).findById(playerId);
         verify(playerProfileRepository).save(existingProfile);
-        verify(playerRatingService).updateRating(playerId, oldRating, newRating);
+        ArgumentCaptor<PlayerRatingChangedEvent> event = ArgumentCaptor.forClass(PlayerRatingChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(playerId, event.getValue().getProfileId());
+        assertEquals(newRating, Math.round(event.getValue().getGlickoRating()));
     }
 
     @Test
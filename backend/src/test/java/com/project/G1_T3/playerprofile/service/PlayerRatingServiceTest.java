@@ -2,6 +2,8 @@ package com.project.G1_T3.playerprofile.service;
 
 import com.project.G1_T3.playerprofile.repository.PlayerProfileRepository;
 import com.project.G1_T3.playerprofile.model.PlayerProfile;
+import com.project.G1_T3.playerprofile.model.PlayerRatingChangedEvent;
+import com.project.G1_T3.playerprofile.model.ProfileRating;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.*;
+import java.util.stream.Stream;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -54,10 +57,14 @@ class PlayerRatingServiceTest {
         }
 
         // Mock the repository call to return this list of players
-        when(playerProfileRepository.findAll()).thenReturn(mockPlayers);
+        when(playerProfileRepository.streamAllRatings()).thenAnswer(invocation -> ratingsOf(mockPlayers));
 
         // Initialize the rating buckets and prefix sums
-        playerRatingService.initializeBuckets();
+        playerRatingService.reconcile();
+    }
+
+    private static Stream<ProfileRating> ratingsOf(List<PlayerProfile> players) {
+        return players.stream().map(player -> new ProfileRating(player.getProfileId(), player.getGlickoRating()));
     }
 
     @Test
@@ -371,4 +378,75 @@ class PlayerRatingServiceTest {
                 "Top 10 players should be ordered by their Glicko ratings in descending order");
     }
 
+    @Test
+    void ratingChangeMovesPlayerWithoutOldRating() {
+        UUID playerId = playerRatingService.getPlayersInBucket(1500).iterator().next();
+
+        playerRatingService.onRatingChanged(new PlayerRatingChangedEvent(playerId, 1620.4f));
+
+        assertEquals(9, playerRatingService.getBucketCounts()[1500]);
+        assertTrue(playerRatingService.getPlayersInBucket(1620).contains(playerId));
+        assertEquals(23, playerRatingService.getTotalPlayers());
+        assertEquals(0, playerRatingService.getNumberOfPlayersAhead(1620));
+        assertEquals(6, playerRatingService.getNumberOfPlayersAhead(1500));
+    }
+
+    @Test
+    void addingPlayerTwiceCountsThemOnce() {
+        UUID playerId = UUID.randomUUID();
+        playerRatingService.addPlayer(playerId, 1800);
+        playerRatingService.addPlayer(playerId, 1800);
+
+        assertEquals(1, playerRatingService.getBucketCounts()[1800]);
+        assertEquals(24, playerRatingService.getTotalPlayers());
+    }
+
+    @Test
+    void ratingOutsideBucketsIsClamped() {
+        UUID playerId = UUID.randomUUID();
+        playerRatingService.onRatingChanged(new PlayerRatingChangedEvent(playerId, 3200f));
+
+        assertTrue(playerRatingService.getPlayersInBucket(3000).contains(playerId));
+        assertEquals(1, playerRatingService.getNumberOfPlayersAhead(2999));
+    }
+
+    @Test
+    void reconcileReplacesBucketsWithDatabase() {
+        // Added without an event, then deleted from the database
+        playerRatingService.addPlayer(UUID.randomUUID(), 2500);
+
+        PlayerProfile player = new PlayerProfile();
+        player.setProfileId(UUID.randomUUID());
+        player.setGlickoRating(1700);
+        when(playerProfileRepository.streamAllRatings()).thenAnswer(invocation -> ratingsOf(List.of(player)));
+
+        playerRatingService.reconcile();
+
+        assertEquals(1, playerRatingService.getTotalPlayers());
+        assertEquals(0, playerRatingService.getBucketCounts()[2500]);
+        assertEquals(0, playerRatingService.getBucketCounts()[1500]);
+        assertTrue(playerRatingService.getPlayersInBucket(1700).contains(player.getProfileId()));
+    }
+
+    @Test
+    void reconcileKeepsChangesMadeWhileReading() {
+        UUID changedId = UUID.randomUUID();
+        UUID addedId = UUID.randomUUID();
+
+        // The database still has the old rating when it is read, the change comes in meanwhile
+        when(playerProfileRepository.streamAllRatings()).thenAnswer(invocation -> Stream
+                .of(new ProfileRating(changedId, 1400f))
+                .peek(rating -> {
+                    playerRatingService.onRatingChanged(new PlayerRatingChangedEvent(changedId, 1450f));
+                    playerRatingService.onRatingChanged(new PlayerRatingChangedEvent(addedId, 1600f));
+                }));
+
+        playerRatingService.reconcile();
+
+        assertEquals(2, playerRatingService.getTotalPlayers());
+        assertEquals(0, playerRatingService.getBucketCounts()[1400]);
+        assertTrue(playerRatingService.getPlayersInBucket(1450).contains(changedId));
+        assertTrue(playerRatingService.getPlayersInBucket(1600).contains(addedId));
+        assertEquals(1, playerRatingService.getNumberOfPlayersAhead(1450));
+    }
 }
@@ -23,6 +23,19 @@ interface MatchNotification {
     opponentProfile: PlayerProfile;
 }
 
+interface QueueStatus {
+    position: number;
+    queueSize: number;
+    waitSeconds: number;
+    maxRatingDiff: number;
+    maxDeviationDiff: number;
+    maxDistanceKm: number;
+    estimatedWaitSeconds: number | null;
+}
+
+const formatSeconds = (seconds: number) =>
+    `${Math.floor(seconds / 60)}:${seconds % 60 < 10 ? "0" : ""}${seconds % 60}`;
+
 const QueueManagement: React.FC<QueueManagementProps> = ({
     playerId,
     onMatchFound,
@@ -31,9 +44,19 @@ const QueueManagement: React.FC<QueueManagementProps> = ({
     const [queueTime, setQueueTime] = useState(0);
     const [matchFound, setMatchFound] = useState(false);
     const [opponentName, setOpponentName] = useState("");
+    const [queueStatus, setQueueStatus] = useState<QueueStatus | null>(null);
     const { client, connected } = useWebSocket();
     const { location, error } = useGeolocation();
     const subscriptionRef = useRef<any>(null); // Use a ref to store the subscription
+    const statusSubscriptionRef = useRef<any>(null);
+
+    const unsubscribeStatus = () => {
+        if (statusSubscriptionRef.current) {
+            statusSubscriptionRef.current.unsubscribe();
+            statusSubscriptionRef.current = null;
+        }
+        setQueueStatus(null);
+    };
 
     useEffect(() => {
         let interval: NodeJS.Timeout;
@@ -59,6 +82,7 @@ const QueueManagement: React.FC<QueueManagementProps> = ({
             subscriptionRef.current.unsubscribe();
             subscriptionRef.current = null;
         }
+        unsubscribeStatus();
         setInQueue(false);
     }, [client, connected, playerId]);
 
@@ -76,11 +100,12 @@ const QueueManagement: React.FC<QueueManagementProps> = ({
 
             // Set up the subscription before publishing the join request
             subscriptionRef.current = client.subscribe(
-                `/topic/solo/match/${playerId}`,
+                "/user/queue/solo/match",
                 (message) => {
                     try {
                         const notification: MatchNotification = JSON.parse(message.body);
                         console.log("Match found:", notification);
+                        unsubscribeStatus();
                         setMatchFound(true);
                         setInQueue(false);
                         setOpponentName(notification.opponentName);
@@ -96,6 +121,18 @@ const QueueManagement: React.FC<QueueManagementProps> = ({
                 }
             );
 
+            // The server pushes our place in the queue every few seconds while we wait
+            statusSubscriptionRef.current = client.subscribe(
+                "/user/queue/solo/status",
+                (message) => {
+                    try {
+                        setQueueStatus(JSON.parse(message.body));
+                    } catch (error) {
+                        console.error("Error parsing queue status:", error);
+                    }
+                }
+            );
+
             client.publish({
                 destination: "/app/solo/queue",
                 body: JSON.stringify({
@@ -135,11 +172,14 @@ const QueueManagement: React.FC<QueueManagementProps> = ({
                 </Alert>
             ) : inQueue ? (
                 <div>
-                    <p>
-                        In Queue: {Math.floor(queueTime / 60)}:
-                        {queueTime % 60 < 10 ? "0" : ""}
-                        {queueTime % 60}
-                    </p>
+                    <p>In Queue: {formatSeconds(queueTime)}</p>
+                    {queueStatus && (
+                        <p className="text-sm text-muted-foreground">
+                            Position {queueStatus.position} of {queueStatus.queueSize}
+                            {queueStatus.estimatedWaitSeconds !== null &&
+                                ` · about ${formatSeconds(queueStatus.estimatedWaitSeconds)} left`}
+                        </p>
+                    )}
                     <Button onClick={leaveQueue}>Leave Queue</Button>
                 </div>
             ) : (
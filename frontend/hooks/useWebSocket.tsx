@@ -1,13 +1,16 @@
 import { useEffect, useState } from 'react';
 import { Client } from '@stomp/stompjs';
 import SockJS from "sockjs-client";
+import Cookies from "js-cookie";
 
 /**
  * Custom hook to manage a WebSocket connection using SockJS and STOMP.
  *
  * This hook initializes a WebSocket connection to the server specified by the
  * `NEXT_PUBLIC_SPRINGBOOT_API_URL` environment variable. It uses SockJS for the
- * WebSocket connection and STOMP for messaging.
+ * WebSocket connection and STOMP for messaging. The auth token, if any, is sent
+ * when connecting so messages for the signed-in user reach `/user/...`
+ * subscriptions.
  *
  * @returns An object containing:
  * - `client`: The STOMP client instance or `null` if not connected.
@@ -34,8 +37,11 @@ export function useWebSocket() {
     useEffect(() => {
         const socket = new SockJS(`${process.env.NEXT_PUBLIC_SPRINGBOOT_API_URL}/ws`);
 
+        const token = Cookies.get("authToken");
+
         const stompClient = new Client({
             webSocketFactory: () => socket,
+            connectHeaders: token ? { Authorization: `Bearer ${token}` } : {},
             onConnect: () => {
                 setConnected(true)
             },